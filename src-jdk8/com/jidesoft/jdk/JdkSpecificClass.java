@@ -80,4 +80,71 @@ public class JdkSpecificClass {
     public static int[] getVersions() {
         return null;
     }
+
+    private static class CallerResolver extends SecurityManager {
+        @Override
+        protected Class[] getClassContext() {
+            return super.getClassContext();
+        }
+    }
+
+    private static CallerResolver _callerResolver;
+    private static boolean _callerResolverDenied;
+
+    /**
+     * Creates the CallerResolver the first time it is needed. Creating a SecurityManager could be denied by the
+     * installed SecurityManager, in which case null is returned.
+     *
+     * @return the CallerResolver. Null if it can't be created.
+     */
+    private static synchronized CallerResolver getCallerResolver() {
+        if (_callerResolver == null && !_callerResolverDenied) {
+            try {
+                _callerResolver = new CallerResolver();
+            }
+            catch (SecurityException e) {
+                _callerResolverDenied = true;
+            }
+        }
+        return _callerResolver;
+    }
+
+    /**
+     * Gets the class of a method in the current call stack without capturing the whole stack trace. If the class
+     * context can't be accessed, the class is looked up by the name in the stack trace instead.
+     *
+     * @param depth the depth of the method. 0 means the method which calls this method, 1 means its caller and so on.
+     * @return the class. Null if the call stack is not that deep.
+     */
+    public static Class<?> getCallerClass(int depth) {
+        CallerResolver callerResolver = getCallerResolver();
+        if (callerResolver != null) {
+            // the first two classes are CallerResolver and JdkSpecificClass
+            Class[] classes = callerResolver.getClassContext();
+            return depth + 2 < classes.length ? classes[depth + 2] : null;
+        }
+
+        // the first element is this method
+        StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+        if (depth + 1 >= stackTrace.length) {
+            return null;
+        }
+        try {
+            return Class.forName(stackTrace[depth + 1].getClassName());
+        }
+        catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts the point in the view coordinate space to the nearest offset in the model of the text component.
+     *
+     * @param c the text component
+     * @param p the point
+     * @return the offset in the model. -1 if the component doesn't have a size yet.
+     */
+    public static int viewToModel(javax.swing.text.JTextComponent c, Point p) {
+        return c.viewToModel(p);
+    }
 }
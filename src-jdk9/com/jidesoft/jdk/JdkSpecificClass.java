@@ -17,11 +17,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class JdkSpecificClass {
 
     private static Map<String, Boolean> _synthIconMap;
 
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
     /**
      * Check if the class name is a SynthIcon class name.
      * <p/>
@@ -90,4 +94,30 @@ public class JdkSpecificClass {
         }
         return new int[]{majorVersion, minorVersion, buildNumber};
     }
+
+    /**
+     * Gets the class of a method in the current call stack without capturing the whole stack trace.
+     *
+     * @param depth the depth of the method. 0 means the method which calls this method, 1 means its caller and so on.
+     * @return the class. Null if the call stack is not that deep.
+     */
+    public static Class<?> getCallerClass(final int depth) {
+        return STACK_WALKER.walk(new Function<Stream<StackWalker.StackFrame>, Class<?>>() {
+            public Class<?> apply(Stream<StackWalker.StackFrame> frames) {
+                StackWalker.StackFrame frame = frames.skip(depth + 1).findFirst().orElse(null);
+                return frame != null ? frame.getDeclaringClass() : null;
+            }
+        });
+    }
+
+    /**
+     * Converts the point in the view coordinate space to the nearest offset in the model of the text component.
+     *
+     * @param c the text component
+     * @param p the point
+     * @return the offset in the model. -1 if the component doesn't have a size yet.
+     */
+    public static int viewToModel(javax.swing.text.JTextComponent c, Point p) {
+        return c.viewToModel2D(p);
+    }
 }
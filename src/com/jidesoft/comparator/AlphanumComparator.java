@@ -24,12 +24,18 @@ package com.jidesoft.comparator;
  *
  */
 
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
 
 /**
  * This is an updated version from the same named class from http://www.davekoelle.com/alphanum.html. The enhancement
  * JIDE did to this class is <ul> <li>1. Use JDK 5 generic to support CharSequence <li>2. Add support to case
  * insensitive comparison. </ul>
+ * <p/>
+ * The chunks of the strings are compared in place. To sort a large number of strings, {@link #sort(java.util.List)}
+ * creates a sort key for each string once using {@link #getSortKey(CharSequence)} and compares the keys instead.
  */
 public class AlphanumComparator implements Comparator<CharSequence> {
     private boolean _caseSensitive;
@@ -54,62 +60,57 @@ public class AlphanumComparator implements Comparator<CharSequence> {
         _caseSensitive = caseSensitive;
     }
 
-    private boolean isDigit(char ch) {
+    private static boolean isDigit(char ch) {
         return ch >= 48 && ch <= 57;
     }
 
-    /*
-     * Length of string is passed in for improved efficiency (only need to calculate it once) *
+    /**
+     * Finds the end of the chunk starting at the marker. A chunk is either all digits or no digits.
      */
-    private String getChunk(CharSequence s, int slength, int marker) {
-        StringBuilder chunk = new StringBuilder();
-        char c = s.charAt(marker);
-        chunk.append(c);
+    private static int getChunkEnd(CharSequence s, int slength, int marker) {
+        boolean digit = isDigit(s.charAt(marker));
         marker++;
-        if (isDigit(c)) {
-            while (marker < slength) {
-                c = s.charAt(marker);
-                if (!isDigit(c))
-                    break;
-                chunk.append(c);
-                marker++;
-            }
-        }
-        else {
-            while (marker < slength) {
-                c = s.charAt(marker);
-                if (isDigit(c))
-                    break;
-                chunk.append(c);
-                marker++;
-            }
+        while (marker < slength && isDigit(s.charAt(marker)) == digit) {
+            marker++;
         }
-        return chunk.toString();
+        return marker;
     }
 
     public int compare(CharSequence s1, CharSequence s2) {
+        return compare(s1, s2, isCaseSensitive());
+    }
+
+    /**
+     * Compares the two strings using the alphanum algorithm. The chunks are compared in place without creating any
+     * object.
+     *
+     * @param s1            the first string
+     * @param s2            the second string
+     * @param caseSensitive true or false.
+     * @return a negative integer, zero, or a positive integer as the first string is less than, equal to, or greater
+     *         than the second.
+     */
+    static int compare(CharSequence s1, CharSequence s2, boolean caseSensitive) {
         int thisMarker = 0;
         int thatMarker = 0;
         int s1Length = s1.length();
         int s2Length = s2.length();
 
         while (thisMarker < s1Length && thatMarker < s2Length) {
-            String thisChunk = getChunk(s1, s1Length, thisMarker);
-            thisMarker += thisChunk.length();
-
-            String thatChunk = getChunk(s2, s2Length, thatMarker);
-            thatMarker += thatChunk.length();
+            int thisChunkEnd = getChunkEnd(s1, s1Length, thisMarker);
+            int thatChunkEnd = getChunkEnd(s2, s2Length, thatMarker);
+            int thisChunkLength = thisChunkEnd - thisMarker;
+            int thatChunkLength = thatChunkEnd - thatMarker;
 
             // If both chunks contain numeric characters, sort them numerically
             int result;
-            if (isDigit(thisChunk.charAt(0)) && isDigit(thatChunk.charAt(0))) {
+            if (isDigit(s1.charAt(thisMarker)) && isDigit(s2.charAt(thatMarker))) {
                 // Simple chunk comparison by length.
-                int thisChunkLength = thisChunk.length();
-                result = thisChunkLength - thatChunk.length();
+                result = thisChunkLength - thatChunkLength;
                 // If equal, the first different number counts
                 if (result == 0) {
                     for (int i = 0; i < thisChunkLength; i++) {
-                        result = thisChunk.charAt(i) - thatChunk.charAt(i);
+                        result = s1.charAt(thisMarker + i) - s2.charAt(thatMarker + i);
                         if (result != 0) {
                             return result;
                         }
@@ -117,16 +118,170 @@ public class AlphanumComparator implements Comparator<CharSequence> {
                 }
             }
             else {
-                result = isCaseSensitive() ? thisChunk.compareTo(thatChunk) : thisChunk.compareToIgnoreCase(thatChunk);
+                // the same as String.compareTo and String.compareToIgnoreCase on the chunks
+                result = thisChunkLength - thatChunkLength;
+                int length = Math.min(thisChunkLength, thatChunkLength);
+                for (int i = 0; i < length; i++) {
+                    char c1 = s1.charAt(thisMarker + i);
+                    char c2 = s2.charAt(thatMarker + i);
+                    if (c1 != c2) {
+                        if (!caseSensitive) {
+                            c1 = foldCase(c1);
+                            c2 = foldCase(c2);
+                            if (c1 == c2) {
+                                continue;
+                            }
+                        }
+                        result = c1 - c2;
+                        break;
+                    }
+                }
             }
 
             if (result != 0)
                 return result;
+
+            thisMarker = thisChunkEnd;
+            thatMarker = thatChunkEnd;
         }
 
         return s1Length - s2Length;
     }
 
+    private static char foldCase(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Creates the sort key of the string. Comparing two sort keys gives the same order as comparing the two strings
+     * using this comparator, but the sort key only needs a plain element by element comparison. It is worth to create
+     * the sort keys when a large number of strings are sorted as each string is compared many times. See {@link
+     * #sort(java.util.List)}.
+     *
+     * @param s the string
+     * @return the sort key.
+     */
+    public SortKey getSortKey(CharSequence s) {
+        return createSortKey(s, isCaseSensitive());
+    }
+
+    /**
+     * Sorts the list using the sort keys of the strings. The sort is stable and gives the same result as
+     * <code>Collections.sort(list, this)</code>.
+     *
+     * @param list the list to be sorted
+     */
+    public <T extends CharSequence> void sort(List<T> list) {
+        SortKey[] keys = new SortKey[list.size()];
+        int i = 0;
+        for (T s : list) {
+            keys[i++] = getSortKey(s);
+        }
+        sort(list, keys);
+    }
+
+    /**
+     * Sorts the list by the sort keys. The sort key at an index is the key of the element at the same index.
+     */
+    @SuppressWarnings({"unchecked"})
+    static <T> void sort(List<T> list, final SortKey[] keys) {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer o1, Integer o2) {
+                return keys[o1].compareTo(keys[o2]);
+            }
+        });
+        Object[] values = list.toArray();
+        ListIterator<T> iterator = list.listIterator();
+        for (Integer index : order) {
+            iterator.next();
+            iterator.set((T) values[index]);
+        }
+    }
+
+    // Each character of a chunk without digits is shifted so that the terminator of the chunk sorts before all of them.
+    // A chunk of digits starts with a value between the characters '/' and ':' followed by the number of digits. So it
+    // sorts before the other chunks exactly as the first digit does, and by length before another chunk of digits.
+    private static final int CHUNK_END = 0;
+    private static final int DIGIT_CHUNK = '0' << 8;
+
+    static SortKey createSortKey(CharSequence s, boolean caseSensitive) {
+        int length = s.length();
+        int[] key = new int[length + 2];
+        int count = 0;
+        int marker = 0;
+        while (marker < length) {
+            int chunkEnd = getChunkEnd(s, length, marker);
+            // a chunk needs at most two more elements than its length
+            if (count + chunkEnd - marker + 2 > key.length) {
+                int[] newKey = new int[Math.max(key.length * 2, count + chunkEnd - marker + 2)];
+                System.arraycopy(key, 0, newKey, 0, count);
+                key = newKey;
+            }
+            if (isDigit(s.charAt(marker))) {
+                key[count++] = DIGIT_CHUNK;
+                key[count++] = chunkEnd - marker;
+                for (int i = marker; i < chunkEnd; i++) {
+                    key[count++] = s.charAt(i);
+                }
+            }
+            else {
+                for (int i = marker; i < chunkEnd; i++) {
+                    char c = s.charAt(i);
+                    key[count++] = ((caseSensitive ? c : foldCase(c)) << 8) + 1;
+                }
+                key[count++] = CHUNK_END;
+            }
+            marker = chunkEnd;
+        }
+        return new SortKey(key, count);
+    }
+
+    /**
+     * The sort key of a string created by {@link AlphanumComparator#getSortKey(CharSequence)}. Sort keys are compared
+     * element by element.
+     */
+    public static final class SortKey implements Comparable<SortKey> {
+        private final int[] _key;
+        private final int _length;
+
+        private SortKey(int[] key, int length) {
+            _key = key;
+            _length = length;
+        }
+
+        public int compareTo(SortKey o) {
+            int[] key1 = _key;
+            int[] key2 = o._key;
+            int length = Math.min(_length, o._length);
+            for (int i = 0; i < length; i++) {
+                int k1 = key1[i];
+                int k2 = key2[i];
+                if (k1 != k2) {
+                    return k1 < k2 ? -1 : 1;
+                }
+            }
+            return _length - o._length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof SortKey && compareTo((SortKey) obj) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 0;
+            for (int i = 0; i < _length; i++) {
+                hash = 31 * hash + _key[i];
+            }
+            return hash;
+        }
+    }
+
     /**
      * Checks if the case is sensitive when comparing.
      *
@@ -32,10 +32,11 @@ package com.jidesoft.comparator;
 
 import java.io.File;
 import java.util.Comparator;
+import java.util.List;
 
 /**
- * A File comparator to compare the file name based on alphanum value. This class is copied from
- * <code>AlphanumComparator</code> except changing it to use File instead of CharSequence.
+ * A File comparator to compare the file name based on alphanum value. The file names are compared using the same
+ * algorithm as <code>AlphanumComparator</code>.
  */
 public class AlphanumFileComparator implements Comparator<File> {
     private boolean _caseSensitive;
@@ -60,79 +61,33 @@ public class AlphanumFileComparator implements Comparator<File> {
         _caseSensitive = caseSensitive;
     }
 
-    private boolean isDigit(char ch) {
-        return ch >= 48 && ch <= 57;
+    public int compare(File f1, File f2) {
+        return AlphanumComparator.compare(f1.getName(), f2.getName(), isCaseSensitive());
     }
 
-    /*
-     * Length of string is passed in for improved efficiency (only need to calculate it once) *
+    /**
+     * Creates the sort key of the file name. See {@link AlphanumComparator#getSortKey(CharSequence)}.
+     *
+     * @param file the file
+     * @return the sort key.
      */
-    private String getChunk(CharSequence s, int slength, int marker) {
-        StringBuilder chunk = new StringBuilder();
-        char c = s.charAt(marker);
-        chunk.append(c);
-        marker++;
-        if (isDigit(c)) {
-            while (marker < slength) {
-                c = s.charAt(marker);
-                if (!isDigit(c))
-                    break;
-                chunk.append(c);
-                marker++;
-            }
-        }
-        else {
-            while (marker < slength) {
-                c = s.charAt(marker);
-                if (isDigit(c))
-                    break;
-                chunk.append(c);
-                marker++;
-            }
-        }
-        return chunk.toString();
+    public AlphanumComparator.SortKey getSortKey(File file) {
+        return AlphanumComparator.createSortKey(file.getName(), isCaseSensitive());
     }
 
-    public int compare(File f1, File f2) {
-        int thisMarker = 0;
-        int thatMarker = 0;
-        String s1 = f1.getName();
-        String s2 = f2.getName();
-        int s1Length = s1.length();
-        int s2Length = s2.length();
-
-        while (thisMarker < s1Length && thatMarker < s2Length) {
-            String thisChunk = getChunk(s1, s1Length, thisMarker);
-            thisMarker += thisChunk.length();
-
-            String thatChunk = getChunk(s2, s2Length, thatMarker);
-            thatMarker += thatChunk.length();
-
-            // If both chunks contain numeric characters, sort them numerically
-            int result;
-            if (isDigit(thisChunk.charAt(0)) && isDigit(thatChunk.charAt(0))) {
-                // Simple chunk comparison by length.
-                int thisChunkLength = thisChunk.length();
-                result = thisChunkLength - thatChunk.length();
-                // If equal, the first different number counts
-                if (result == 0) {
-                    for (int i = 0; i < thisChunkLength; i++) {
-                        result = thisChunk.charAt(i) - thatChunk.charAt(i);
-                        if (result != 0) {
-                            return result;
-                        }
-                    }
-                }
-            }
-            else {
-                result = isCaseSensitive() ? thisChunk.compareTo(thatChunk) : thisChunk.compareToIgnoreCase(thatChunk);
-            }
-
-            if (result != 0)
-                return result;
+    /**
+     * Sorts the list using the sort keys of the file names. The sort is stable and gives the same result as
+     * <code>Collections.sort(list, this)</code>.
+     *
+     * @param list the list to be sorted
+     */
+    public void sort(List<File> list) {
+        AlphanumComparator.SortKey[] keys = new AlphanumComparator.SortKey[list.size()];
+        int i = 0;
+        for (File file : list) {
+            keys[i++] = getSortKey(file);
         }
-
-        return s1Length - s2Length;
+        AlphanumComparator.sort(list, keys);
     }
 
     /**
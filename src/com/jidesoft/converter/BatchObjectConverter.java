@@ -0,0 +1,31 @@
+/*
+ * @(#)BatchObjectConverter.java
+ *
+ * Copyright 2002 - 2011 JIDE Software Inc. All rights reserved.
+ */
+package com.jidesoft.converter;
+
+/**
+ * An <code>ObjectConverter</code> which can convert many values to strings at once. The batch methods of {@link
+ * ObjectConverterManager} such as {@link ObjectConverterManager#toStrings(Object, Class, ConverterContext)} use it so
+ * that the format and the other settings of the converter are looked up once for all the values instead of once for
+ * each value.
+ */
+public interface BatchObjectConverter extends ObjectConverter {
+
+    /**
+     * Converts the values in an array to strings. The string for each value must be the same as the one returned from
+     * {@link ObjectConverterManager#toString(Object, Class, ConverterContext)} for the value.
+     * <p/>
+     * When the conversion runs in parallel, this method is called on several threads at the same time for different
+     * ranges of the same array, so it must not change the state of the converter or of the context.
+     *
+     * @param values       an Object array or an array of a primitive type
+     * @param offset       the index of the first value to be converted
+     * @param length       the number of the values to be converted
+     * @param context      converter context to be used
+     * @param result       the array to store the strings
+     * @param resultOffset the index in the result array to store the string for the first value
+     */
+    void toStrings(Object values, int offset, int length, ConverterContext context, String[] result, int resultOffset);
+}
@@ -10,7 +10,7 @@ import java.util.Locale;
 /**
  * Converter which converts Boolean to String and converts it back.
  */
-public class BooleanConverter implements ObjectConverter {
+public class BooleanConverter implements BatchObjectConverter {
 
     public BooleanConverter() {
     }
@@ -31,6 +31,43 @@ public class BooleanConverter implements ObjectConverter {
         return true;
     }
 
+    /**
+     * Converts the values to strings. The strings for true, false and null are looked up once for all the values.
+     *
+     * @param values       a Boolean array, a boolean array or an Object array
+     * @param offset       the index of the first value to be converted
+     * @param length       the number of the values to be converted
+     * @param context      converter context to be used
+     * @param result       the array to store the strings
+     * @param resultOffset the index in the result array to store the string for the first value
+     */
+    public void toStrings(Object values, int offset, int length, ConverterContext context, String[] result, int resultOffset) {
+        if (ObjectConverterManager.isToStringOverridden(this, BooleanConverter.class)) {
+            ObjectConverterManager.toStrings(this, values, offset, length, context, result, resultOffset);
+            return;
+        }
+
+        String trueString = getTrue();
+        String falseString = getFalse();
+        if (values instanceof boolean[]) {
+            boolean[] booleans = (boolean[]) values;
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = booleans[offset + i] ? trueString : falseString;
+            }
+        }
+        else if (values instanceof Object[]) {
+            Object[] objects = (Object[]) values;
+            String nullString = getNull();
+            for (int i = 0; i < length; i++) {
+                Object object = objects[offset + i];
+                result[resultOffset + i] = Boolean.FALSE.equals(object) ? falseString : Boolean.TRUE.equals(object) ? trueString : nullString;
+            }
+        }
+        else {
+            ObjectConverterManager.toStrings(this, values, offset, length, context, result, resultOffset);
+        }
+    }
+
     public Object fromString(String string, ConverterContext context) {
         if (string.equalsIgnoreCase(getTrue())) {
             return Boolean.TRUE;
@@ -10,12 +10,21 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.WeakHashMap;
 
 /**
  * Converter which converts Date to String and converts it back.
+ * <p/>
+ * <code>DateFormat</code> is not thread safe. The default formats created by the converter are never changed, so each
+ * thread formats and parses using its own copies of them without locking. Any other <code>DateFormat</code>, such as
+ * the user object of the converter context, one set by {@link #setDefaultFormat(java.text.DateFormat)} or a default
+ * format returned by {@link #getDefaultFormat()}, may be changed by its owner at any time. It is used directly while
+ * holding its lock, so all of its settings are honored.
  */
-public class DateConverter implements ObjectConverter {
+public class DateConverter implements BatchObjectConverter {
 
     public static final ConverterContext DATETIME_CONTEXT = new ConverterContext("DateTime");
     public static final ConverterContext TIME_CONTEXT = new ConverterContext("Time");
@@ -39,11 +48,104 @@ public class DateConverter implements ObjectConverter {
 
     private DateFormat _defaultTimeFormat = SimpleDateFormat.getTimeInstance(DateFormat.DEFAULT);
 
+    /**
+     * The formats created by this converter which have not been handed out. Only these are copied for each thread. The
+     * map is never modified after it is published, a new one is made instead.
+     */
+    private volatile Map<DateFormat, Boolean> _privateFormats;
+
+    /**
+     * The copies of the private DateFormats used by each thread.
+     */
+    private static final ThreadLocal<Map<DateFormat, DateFormat>> FORMAT_COPIES = new ThreadLocal<Map<DateFormat, DateFormat>>() {
+        @Override
+        protected Map<DateFormat, DateFormat> initialValue() {
+            return new WeakHashMap<DateFormat, DateFormat>();
+        }
+    };
 
     /**
      * Creates a DateConverter.
      */
     public DateConverter() {
+        Map<DateFormat, Boolean> privateFormats = new IdentityHashMap<DateFormat, Boolean>();
+        DateFormat[] formats = {_shortFormat, _mediumFormat, _longFormat, _defaultFormat, _shortDatetimeFormat,
+                _mediumDatetimeFormat, _longDatetimeFormat, _defaultDatetimeFormat, _shortTimeFormat, _mediumTimeFormat,
+                _longTimeFormat, _defaultTimeFormat};
+        for (DateFormat format : formats) {
+            privateFormats.put(format, Boolean.TRUE);
+        }
+        _privateFormats = privateFormats;
+    }
+
+    private boolean isPrivateFormat(DateFormat format) {
+        return _privateFormats.containsKey(format);
+    }
+
+    /**
+     * Marks the format as handed out, so that the changes made to it by the caller are honored.
+     *
+     * @param format the format
+     * @return the format.
+     */
+    private synchronized DateFormat exposeFormat(DateFormat format) {
+        if (isPrivateFormat(format)) {
+            Map<DateFormat, Boolean> privateFormats = new IdentityHashMap<DateFormat, Boolean>(_privateFormats);
+            privateFormats.remove(format);
+            _privateFormats = privateFormats;
+        }
+        return format;
+    }
+
+    /**
+     * Gets the copy of a private DateFormat for the current thread so that it can be used without synchronization.
+     *
+     * @param format   the DateFormat
+     * @param timeZone the time zone to be used by the copy
+     * @return the copy.
+     */
+    private static DateFormat getCopy(DateFormat format, TimeZone timeZone) {
+        Map<DateFormat, DateFormat> copies = FORMAT_COPIES.get();
+        DateFormat copy = copies.get(format);
+        if (copy == null) {
+            copy = (DateFormat) format.clone();
+            copies.put(format, copy);
+        }
+        if (!timeZone.equals(copy.getTimeZone())) {
+            copy.setTimeZone(timeZone);
+        }
+        return copy;
+    }
+
+    private String format(DateFormat format, TimeZone timeZone, Object object) {
+        if (isPrivateFormat(format)) {
+            return getCopy(format, timeZone).format(object);
+        }
+        synchronized (format) {
+            format.setTimeZone(timeZone);
+            return format.format(object);
+        }
+    }
+
+    private Object parse(DateFormat format, String string) throws ParseException {
+        if (isPrivateFormat(format)) {
+            return getCopy(format, TimeZone.getDefault()).parse(string);
+        }
+        synchronized (format) {
+            return format.parse(string);
+        }
+    }
+
+    private DateFormat getContextFormat(ConverterContext context) {
+        if (DATETIME_CONTEXT.equals(context)) {
+            return _defaultDatetimeFormat;
+        }
+        else if (TIME_CONTEXT.equals(context)) {
+            return _defaultTimeFormat;
+        }
+        else {
+            return _defaultFormat;
+        }
     }
 
     /**
@@ -55,7 +157,7 @@ public class DateConverter implements ObjectConverter {
      * @param context the converter context.
      * @return the string
      */
-    synchronized public String toString(Object object, ConverterContext context) {
+    public String toString(Object object, ConverterContext context) {
         if (object == null) {
             return "";
         }
@@ -65,30 +167,19 @@ public class DateConverter implements ObjectConverter {
                 timeZone = ((Calendar) object).getTimeZone();
                 object = ((Calendar) object).getTime();
             }
-            else if (object instanceof Date) {
-                Calendar cal = Calendar.getInstance();
-                cal.setTime(((Date) object));
-                timeZone = cal.getTimeZone();
-            }
             else {
                 timeZone = TimeZone.getDefault();
             }
 
             if (object instanceof Date || object instanceof Number) {
                 if (context != null && context.getUserObject() instanceof DateFormat) {
-                    return ((DateFormat) context.getUserObject()).format(object);
-                }
-                else if (DATETIME_CONTEXT.equals(context)) {
-                    _defaultDatetimeFormat.setTimeZone(timeZone);
-                    return _defaultDatetimeFormat.format(object);
-                }
-                else if (TIME_CONTEXT.equals(context)) {
-                    _defaultTimeFormat.setTimeZone(timeZone);
-                    return _defaultTimeFormat.format(object);
+                    DateFormat format = (DateFormat) context.getUserObject();
+                    synchronized (format) {
+                        return format.format(object);
+                    }
                 }
                 else {
-                    _defaultFormat.setTimeZone(timeZone);
-                    return _defaultFormat.format(object);
+                    return format(getContextFormat(context), timeZone, object);
                 }
             }
             else if (object instanceof String) {
@@ -104,6 +195,87 @@ public class DateConverter implements ObjectConverter {
         return true;
     }
 
+    /**
+     * Converts the values to strings. The format is looked up once for all the values. The values in a long array are
+     * the times in milliseconds and they are formatted without creating a Date for each value.
+     *
+     * @param values       an Object array or a long array
+     * @param offset       the index of the first value to be converted
+     * @param length       the number of the values to be converted
+     * @param context      converter context to be used
+     * @param result       the array to store the strings
+     * @param resultOffset the index in the result array to store the string for the first value
+     */
+    public void toStrings(Object values, int offset, int length, ConverterContext context, String[] result, int resultOffset) {
+        if (ObjectConverterManager.isToStringOverridden(this, DateConverter.class)) {
+            ObjectConverterManager.toStrings(this, values, offset, length, context, result, resultOffset);
+            return;
+        }
+
+        if (!(values instanceof long[]) && !(values instanceof Object[])) {
+            ObjectConverterManager.toStrings(this, values, offset, length, context, result, resultOffset);
+            return;
+        }
+
+        boolean userFormat = context != null && context.getUserObject() instanceof DateFormat;
+        DateFormat format = userFormat ? (DateFormat) context.getUserObject() : getContextFormat(context);
+        if (!userFormat && isPrivateFormat(format)) {
+            toStrings(getCopy(format, TimeZone.getDefault()), false, values, offset, length, result, resultOffset);
+        }
+        else {
+            // the format may be changed by its owner, it is locked once for all the values
+            synchronized (format) {
+                if (!userFormat) {
+                    format.setTimeZone(TimeZone.getDefault());
+                }
+                toStrings(format, userFormat, values, offset, length, result, resultOffset);
+            }
+        }
+    }
+
+    private static void toStrings(DateFormat format, boolean userFormat, Object values, int offset, int length, String[] result, int resultOffset) {
+        if (values instanceof long[]) {
+            long[] times = (long[]) values;
+            Date date = new Date();
+            for (int i = 0; i < length; i++) {
+                date.setTime(times[offset + i]);
+                result[resultOffset + i] = format.format(date);
+            }
+        }
+        else if (values instanceof Object[]) {
+            Object[] objects = (Object[]) values;
+            TimeZone defaultTimeZone = format.getTimeZone();
+            for (int i = 0; i < length; i++) {
+                Object object = objects[offset + i];
+                if (object instanceof Calendar) {
+                    if (!userFormat) {
+                        TimeZone timeZone = ((Calendar) object).getTimeZone();
+                        if (!timeZone.equals(format.getTimeZone())) {
+                            format.setTimeZone(timeZone);
+                        }
+                    }
+                    result[resultOffset + i] = format.format(((Calendar) object).getTime());
+                    continue;
+                }
+                if (!userFormat && format.getTimeZone() != defaultTimeZone) {
+                    format.setTimeZone(defaultTimeZone);
+                }
+                if (object == null) {
+                    result[resultOffset + i] = "";
+                }
+                else if (object instanceof Date || object instanceof Number) {
+                    result[resultOffset + i] = format.format(object);
+                }
+                else if (object instanceof String) {
+                    result[resultOffset + i] = (String) object;
+                }
+                else {
+                    result[resultOffset + i] = null;
+                }
+            }
+        }
+    }
+
     /**
      * Converts from a String to a Date.
      *
@@ -112,7 +284,7 @@ public class DateConverter implements ObjectConverter {
      * @return the Date. If the string is null or empty, null will be returned. If the string cannot be parsed as a
      *         date, the string itself will be returned.
      */
-    synchronized public Object fromString(String string, ConverterContext context) {
+    public Object fromString(String string, ConverterContext context) {
         if (string == null) {
             return null;
         }
@@ -124,30 +296,27 @@ public class DateConverter implements ObjectConverter {
         try {
             Object userObject = context != null ? context.getUserObject() : null;
             if (userObject instanceof DateFormat) {
-                return ((DateFormat) userObject).parse(string);
-            }
-            else if (DATETIME_CONTEXT.equals(context)) {
-                return _defaultDatetimeFormat.parse(string);
-            }
-            else if (TIME_CONTEXT.equals(context)) {
-                return _defaultTimeFormat.parse(string);
+                DateFormat format = (DateFormat) userObject;
+                synchronized (format) {
+                    return format.parse(string);
+                }
             }
             else {
-                return _defaultFormat.parse(string);
+                return parse(getContextFormat(context), string);
             }
         }
         catch (ParseException e1) { // if current formatter doesn't work try those default ones.
             if (DATETIME_CONTEXT.equals(context)) {
                 try {
-                    return _shortDatetimeFormat.parse(string);
+                    return parse(_shortDatetimeFormat, string);
                 }
                 catch (ParseException e2) {
                     try {
-                        return _mediumDatetimeFormat.parse(string);
+                        return parse(_mediumDatetimeFormat, string);
                     }
                     catch (ParseException e3) {
                         try {
-                            return _longDatetimeFormat.parse(string);
+                            return parse(_longDatetimeFormat, string);
                         }
                         catch (ParseException e4) {
                             // null
@@ -157,15 +326,15 @@ public class DateConverter implements ObjectConverter {
             }
             else if (TIME_CONTEXT.equals(context)) {
                 try {
-                    return _shortTimeFormat.parse(string);
+                    return parse(_shortTimeFormat, string);
                 }
                 catch (ParseException e2) {
                     try {
-                        return _mediumTimeFormat.parse(string);
+                        return parse(_mediumTimeFormat, string);
                     }
                     catch (ParseException e3) {
                         try {
-                            return _longTimeFormat.parse(string);
+                            return parse(_longTimeFormat, string);
                         }
                         catch (ParseException e4) {
                             return string;  // nothing works just return null so that old value will be kept.
@@ -175,15 +344,15 @@ public class DateConverter implements ObjectConverter {
             }
             else {
                 try {
-                    return _shortFormat.parse(string);
+                    return parse(_shortFormat, string);
                 }
                 catch (ParseException e2) {
                     try {
-                        return _mediumFormat.parse(string);
+                        return parse(_mediumFormat, string);
                     }
                     catch (ParseException e3) {
                         try {
-                            return _longFormat.parse(string);
+                            return parse(_longFormat, string);
                         }
                         catch (ParseException e4) {
                             // null
@@ -218,7 +387,7 @@ public class DateConverter implements ObjectConverter {
      * @return DefaultFormat
      */
     public DateFormat getDefaultFormat() {
-        return _defaultFormat;
+        return exposeFormat(_defaultFormat);
     }
 
     /**
@@ -236,7 +405,7 @@ public class DateConverter implements ObjectConverter {
      * @return DefaultTimeFormat
      */
     public DateFormat getDefaultTimeFormat() {
-        return _defaultTimeFormat;
+        return exposeFormat(_defaultTimeFormat);
     }
 
     /**
@@ -254,7 +423,7 @@ public class DateConverter implements ObjectConverter {
      * @return DefaultDatetimeFormat
      */
     public DateFormat getDefaultDatetimeFormat() {
-        return _defaultDatetimeFormat;
+        return exposeFormat(_defaultDatetimeFormat);
     }
 
     /**
@@ -18,7 +18,7 @@ import java.util.Locale;
  * Converter which converts Number to String and converts it back. You can pass in a NumberFormat as UserObject of
  * ConverterContext if you want to control the format of the number such as maximum decimal point etc.
  */
-abstract public class NumberConverter implements ObjectConverter {
+abstract public class NumberConverter implements BatchObjectConverter {
     private NumberFormat _numberFormat;
     private boolean _avoidNegativeZero;
 
@@ -100,6 +100,83 @@ abstract public class NumberConverter implements ObjectConverter {
         return true;
     }
 
+    /**
+     * Converts the values to strings. The number format is looked up and copied once for all the values, and the
+     * values in a primitive array are formatted without being boxed.
+     *
+     * @param values       an Object array or an array of a primitive type
+     * @param offset       the index of the first value to be converted
+     * @param length       the number of the values to be converted
+     * @param context      converter context to be used
+     * @param result       the array to store the strings
+     * @param resultOffset the index in the result array to store the string for the first value
+     */
+    public void toStrings(Object values, int offset, int length, ConverterContext context, String[] result, int resultOffset) {
+        if (ObjectConverterManager.isToStringOverridden(this, NumberConverter.class)) {
+            ObjectConverterManager.toStrings(this, values, offset, length, context, result, resultOffset);
+            return;
+        }
+
+        NumberFormat format = context != null && context.getUserObject() instanceof NumberFormat ? (NumberFormat) context.getUserObject() : getNumberFormat();
+        // NumberFormat is not thread safe. The copy is only used by the current thread.
+        format = (NumberFormat) format.clone();
+        boolean avoidNegativeZero = isAvoidNegativeZero();
+        if (values instanceof double[]) {
+            double[] doubles = (double[]) values;
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = format(format.format(doubles[offset + i]), avoidNegativeZero);
+            }
+        }
+        else if (values instanceof float[]) {
+            float[] floats = (float[]) values;
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = format(format.format(floats[offset + i]), avoidNegativeZero);
+            }
+        }
+        else if (values instanceof long[]) {
+            long[] longs = (long[]) values;
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = format(format.format(longs[offset + i]), avoidNegativeZero);
+            }
+        }
+        else if (values instanceof int[]) {
+            int[] ints = (int[]) values;
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = format(format.format(ints[offset + i]), avoidNegativeZero);
+            }
+        }
+        else if (values instanceof short[]) {
+            short[] shorts = (short[]) values;
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = format(format.format(shorts[offset + i]), avoidNegativeZero);
+            }
+        }
+        else if (values instanceof byte[]) {
+            byte[] bytes = (byte[]) values;
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = format(format.format(bytes[offset + i]), avoidNegativeZero);
+            }
+        }
+        else if (values instanceof Object[]) {
+            Object[] objects = (Object[]) values;
+            for (int i = 0; i < length; i++) {
+                try {
+                    result[resultOffset + i] = format(format.format(objects[offset + i]), avoidNegativeZero);
+                }
+                catch (IllegalArgumentException e) {
+                    result[resultOffset + i] = "";
+                }
+            }
+        }
+        else {
+            ObjectConverterManager.toStrings(this, values, offset, length, context, result, resultOffset);
+        }
+    }
+
+    private String format(String text, boolean avoidNegativeZero) {
+        return avoidNegativeZero ? trimNegativeSign(text) : text;
+    }
+
     public void setNumberFormat(NumberFormat numberFormat) {
         _numberFormat = numberFormat;
     }
@@ -7,14 +7,21 @@ package com.jidesoft.converter;
 
 import com.jidesoft.range.*;
 import com.jidesoft.utils.CacheMap;
+import com.jidesoft.utils.ParallelUtils;
 import com.jidesoft.utils.RegistrationListener;
 import com.jidesoft.utils.TypeUtils;
 
 import java.awt.*;
 import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * <code>ObjectConverterManager</code> is a center place to register ObjectConverters with a data type and an optional
@@ -30,6 +37,12 @@ public class ObjectConverterManager {
 
     private static CacheMap<ObjectConverter, ConverterContext> _cache = new CacheMap<ObjectConverter, ConverterContext>(ConverterContext.DEFAULT_CONTEXT);
 
+    /**
+     * Whether toString or supportToString is overridden, for each converter class. See {@link
+     * #isToStringOverridden(ObjectConverter, Class)}.
+     */
+    private static final Map<Class<?>, Boolean> _toStringOverridden = new WeakHashMap<Class<?>, Boolean>();
+
     private static ObjectConverter _defaultConverter = new DefaultObjectConverter();
 
     /**
@@ -250,6 +263,197 @@ public class ObjectConverterManager {
         }
     }
 
+    private static int _parallelThreshold = 10000;
+
+    /**
+     * Converts the values to strings using the converter context specified. The converter is looked up once for all
+     * the values, which is much faster than calling {@link #toString(Object, Class, ConverterContext)} for each value
+     * when a whole column of a table is converted.
+     *
+     * @param values  an Object array or an array of a primitive type
+     * @param clazz   type of the values. If null, the component type of the array is used.
+     * @param context converter context
+     * @return the strings converted from the values
+     */
+    public static String[] toStrings(Object values, Class<?> clazz, ConverterContext context) {
+        return toStrings(values, clazz, context, false);
+    }
+
+    /**
+     * Converts the values to strings using the converter context specified.
+     *
+     * @param values   an Object array or an array of a primitive type
+     * @param clazz    type of the values. If null, the component type of the array is used.
+     * @param context  converter context
+     * @param parallel true to convert the values on several threads. See {@link #toStrings(Object, int, int, Class,
+     *                 ConverterContext, String[], int, boolean)} for details.
+     * @return the strings converted from the values
+     */
+    public static String[] toStrings(Object values, Class<?> clazz, ConverterContext context, boolean parallel) {
+        String[] result = new String[getLength(values)];
+        toStrings(values, 0, result.length, clazz, context, result, 0, parallel);
+        return result;
+    }
+
+    /**
+     * Converts the values in the list to strings using the converter context specified.
+     *
+     * @param values  the values
+     * @param clazz   type of the values
+     * @param context converter context
+     * @return the strings converted from the values
+     */
+    public static String[] toStrings(List<?> values, Class<?> clazz, ConverterContext context) {
+        return toStrings(values.toArray(), clazz, context, false);
+    }
+
+    /**
+     * Converts a range of the values to strings and stores them in the result array, so that the same result array
+     * can be reused for several ranges or columns.
+     * <p/>
+     * If parallel is true and the number of the values is not less than {@link #getParallelThreshold()}, the values are
+     * split into ranges which are converted on several threads. It only happens if the converter is a {@link
+     * BatchObjectConverter} because other converters are not guaranteed to be thread safe.
+     *
+     * @param values       an Object array or an array of a primitive type
+     * @param offset       the index of the first value to be converted
+     * @param length       the number of the values to be converted
+     * @param clazz        type of the values. If null, the component type of the array is used.
+     * @param context      converter context
+     * @param result       the array to store the strings
+     * @param resultOffset the index in the result array to store the string for the first value
+     * @param parallel     true to convert the values on several threads.
+     */
+    public static void toStrings(Object values, int offset, int length, Class<?> clazz, ConverterContext context, String[] result, int resultOffset, boolean parallel) {
+        getLength(values);
+        if (clazz == null) {
+            clazz = values.getClass().getComponentType();
+        }
+        ObjectConverter converter = getConverter(clazz, context);
+        if (!(converter instanceof BatchObjectConverter)) {
+            toStrings(converter, values, offset, length, context, result, resultOffset);
+        }
+        else if (!parallel || length < getParallelThreshold() || ParallelUtils.getChunkCount() < 2) {
+            ((BatchObjectConverter) converter).toStrings(values, offset, length, context, result, resultOffset);
+        }
+        else {
+            toStringsInParallel((BatchObjectConverter) converter, values, offset, length, context, result, resultOffset);
+        }
+    }
+
+    /**
+     * Converts the values to strings and appends them to the StringBuilder, separated by the separator. It can be used
+     * to export a column of a table to a CSV file without creating a string array for all the values.
+     *
+     * @param values    an Object array or an array of a primitive type
+     * @param clazz     type of the values. If null, the component type of the array is used.
+     * @param context   converter context
+     * @param separator the string appended between two values
+     * @param builder   the StringBuilder to append to
+     * @return the StringBuilder.
+     */
+    public static StringBuilder appendStrings(Object values, Class<?> clazz, ConverterContext context, String separator, StringBuilder builder) {
+        int length = getLength(values);
+        String[] strings = new String[Math.min(length, 1024)];
+        for (int offset = 0; offset < length; offset += strings.length) {
+            int count = Math.min(strings.length, length - offset);
+            toStrings(values, offset, count, clazz, context, strings, 0, false);
+            for (int i = 0; i < count; i++) {
+                if (offset + i > 0) {
+                    builder.append(separator);
+                }
+                builder.append(strings[i]);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Gets the minimum number of the values to be converted on several threads when parallel is true in {@link
+     * #toStrings(Object, Class, ConverterContext, boolean)}.
+     *
+     * @return the parallel threshold. Default is 10000.
+     */
+    public static int getParallelThreshold() {
+        return _parallelThreshold;
+    }
+
+    /**
+     * Sets the minimum number of the values to be converted on several threads when parallel is true in {@link
+     * #toStrings(Object, Class, ConverterContext, boolean)}.
+     *
+     * @param parallelThreshold the parallel threshold
+     */
+    public static void setParallelThreshold(int parallelThreshold) {
+        _parallelThreshold = parallelThreshold;
+    }
+
+    private static int getLength(Object values) {
+        if (values == null || !values.getClass().isArray()) {
+            throw new IllegalArgumentException("Parameter values must be an array");
+        }
+        return Array.getLength(values);
+    }
+
+    /**
+     * Converts the values one by one using the converter. It is used for the converters which are not {@link
+     * BatchObjectConverter}.
+     */
+    static void toStrings(ObjectConverter converter, Object values, int offset, int length, ConverterContext context, String[] result, int resultOffset) {
+        Object[] objects = values instanceof Object[] ? (Object[]) values : null;
+        for (int i = 0; i < length; i++) {
+            Object object = objects != null ? objects[offset + i] : Array.get(values, offset + i);
+            if (converter != null && converter.supportToString(object, context)) {
+                result[resultOffset + i] = converter.toString(object, context);
+            }
+            else if (object == null) {
+                result[resultOffset + i] = "";
+            }
+            else {
+                result[resultOffset + i] = object.toString();
+            }
+        }
+    }
+
+    /**
+     * Checks if toString or supportToString of the converter is overridden in a subclass of the base class. The batch
+     * converters use it to fall back to converting the values one by one so that the overridden methods are used. The
+     * result is cached for each converter class, which always has the same base class.
+     */
+    static boolean isToStringOverridden(ObjectConverter converter, Class<?> base) {
+        Class<?> converterClass = converter.getClass();
+        synchronized (_toStringOverridden) {
+            Boolean overridden = _toStringOverridden.get(converterClass);
+            if (overridden != null) {
+                return overridden;
+            }
+        }
+        boolean overridden = false;
+        outer:
+        for (Class<?> c = converterClass; c != base && c != null; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (("toString".equals(method.getName()) || "supportToString".equals(method.getName()))
+                        && Arrays.equals(method.getParameterTypes(), new Class<?>[]{Object.class, ConverterContext.class})) {
+                    overridden = true;
+                    break outer;
+                }
+            }
+        }
+        synchronized (_toStringOverridden) {
+            _toStringOverridden.put(converterClass, overridden);
+        }
+        return overridden;
+    }
+
+    private static void toStringsInParallel(final BatchObjectConverter converter, final Object values, final int offset, int length, final ConverterContext context, final String[] result, final int resultOffset) {
+        ParallelUtils.runInChunks(length, ParallelUtils.getChunkCount(), new ParallelUtils.ChunkTask<Object>() {
+            public Object run(int chunkOffset, int chunkLength) {
+                converter.toStrings(values, offset + chunkOffset, chunkLength, context, result, resultOffset + chunkOffset);
+                return null;
+            }
+        });
+    }
+
     private static boolean _inited = false;
     private static boolean _initing = false;
     private static boolean _autoInit = true;
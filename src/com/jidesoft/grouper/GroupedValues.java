@@ -0,0 +1,72 @@
+/*
+ * @(#)GroupedValues.java
+ *
+ * Copyright 2002 - 2011 JIDE Software Inc. All rights reserved.
+ */
+package com.jidesoft.grouper;
+
+/**
+ * The result of grouping a column of values using {@link ObjectGrouperManager#getGroupValues(Object, Class,
+ * GrouperContext)}. Instead of a group value for each value, it has a group id for each value and the distinct group
+ * values which are indexed by the group ids, so that the values can be aggregated using int arrays.
+ * <p/>
+ * The group ids are assigned in the order the group values first appear in the column. The arrays returned from this
+ * class are not copied, so please don't modify them.
+ */
+public class GroupedValues {
+    private final int[] _groupIds;
+    private final Object[] _groups;
+
+    GroupedValues(int[] groupIds, Object[] groups) {
+        _groupIds = groupIds;
+        _groups = groups;
+    }
+
+    /**
+     * Gets the group ids. The group id of the value at index i is at index i of the array.
+     *
+     * @return the group ids.
+     */
+    public int[] getGroupIds() {
+        return _groupIds;
+    }
+
+    /**
+     * Gets the distinct group values. The group value of group id i is at index i of the array.
+     *
+     * @return the group values.
+     */
+    public Object[] getGroups() {
+        return _groups;
+    }
+
+    /**
+     * Gets the number of the distinct group values.
+     *
+     * @return the number of the groups.
+     */
+    public int getGroupCount() {
+        return _groups.length;
+    }
+
+    /**
+     * Gets the group id of the value.
+     *
+     * @param index the index of the value in the column
+     * @return the group id.
+     */
+    public int getGroupId(int index) {
+        return _groupIds[index];
+    }
+
+    /**
+     * Gets the group value of the value. It is the same as {@link ObjectGrouperManager#getGroupValue(Object, Class,
+     * GrouperContext)} for the value.
+     *
+     * @param index the index of the value in the column
+     * @return the group value.
+     */
+    public Object getGroup(int index) {
+        return _groups[_groupIds[index]];
+    }
+}
@@ -8,10 +8,16 @@ package com.jidesoft.grouper;
 import com.jidesoft.grouper.date.DateMonthGrouper;
 import com.jidesoft.grouper.date.DateYearGrouper;
 import com.jidesoft.utils.CacheMap;
+import com.jidesoft.utils.ParallelUtils;
 import com.jidesoft.utils.RegistrationListener;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * A global object that can register Object Grouper with a type and a GrouperContext.
@@ -22,6 +28,8 @@ public class ObjectGrouperManager {
 
     private static ObjectGrouper _defaultGrouper = null;
 
+    private static int _parallelThreshold = 10000;
+
     /**
      * Registers a grouper with the type specified as class and a grouper context specified as context.
      *
@@ -177,6 +185,150 @@ public class ObjectGrouperManager {
         return null;
     }
 
+    /**
+     * Groups a column of values using the grouper context specified. The grouper is looked up once for all the
+     * values. Instead of a group value for each value, the result has an int group id for each value and the distinct
+     * group values.
+     *
+     * @param values  an Object array or an array of a primitive type
+     * @param clazz   type of the values. If null, the component type of the array is used.
+     * @param context group context
+     * @return the group ids and the group values.
+     */
+    public static GroupedValues getGroupValues(Object values, Class<?> clazz, GrouperContext context) {
+        return getGroupValues(values, clazz, context, false);
+    }
+
+    /**
+     * Groups the values in the list using the grouper context specified.
+     *
+     * @param values  the values
+     * @param clazz   type of the values
+     * @param context group context
+     * @return the group ids and the group values.
+     */
+    public static GroupedValues getGroupValues(List<?> values, Class<?> clazz, GrouperContext context) {
+        return getGroupValues(values.toArray(), clazz, context, false);
+    }
+
+    /**
+     * Groups a column of values using the grouper context specified.
+     * <p/>
+     * If parallel is true and the number of the values is not less than {@link #getParallelThreshold()}, the values are
+     * split into ranges which are grouped on several threads and the group values found in each range are merged
+     * after that. The group ids are the same as grouping the values on one thread. Please only use it if the grouper
+     * is thread safe. All the groupers in this package and its sub-packages are.
+     *
+     * @param values   an Object array or an array of a primitive type
+     * @param clazz    type of the values. If null, the component type of the array is used.
+     * @param context  group context
+     * @param parallel true to group the values on several threads.
+     * @return the group ids and the group values.
+     */
+    public static GroupedValues getGroupValues(Object values, Class<?> clazz, GrouperContext context, boolean parallel) {
+        if (values == null || !values.getClass().isArray()) {
+            throw new IllegalArgumentException("Parameter values must be an array");
+        }
+        if (clazz == null) {
+            clazz = values.getClass().getComponentType();
+        }
+        ObjectGrouper grouper = getGrouper(clazz, context);
+        int length = Array.getLength(values);
+        int[] groupIds = new int[length];
+        int chunks = ParallelUtils.getChunkCount();
+        if (!parallel || length < getParallelThreshold() || chunks < 2) {
+            return new GroupedValues(groupIds, group(grouper, values, 0, length, groupIds).toArray());
+        }
+
+        List<List<Object>> chunkGroups = groupInParallel(grouper, values, chunks, groupIds);
+
+        // merges the group values found in each range and changes the group ids to the merged ones
+        Map<Object, Integer> ids = new HashMap<Object, Integer>();
+        List<Object> groups = new ArrayList<Object>();
+        int chunkSize = ParallelUtils.getChunkSize(length, chunks);
+        for (int chunk = 0; chunk < chunkGroups.size(); chunk++) {
+            List<Object> localGroups = chunkGroups.get(chunk);
+            int[] mergedIds = new int[localGroups.size()];
+            boolean changed = false;
+            for (int i = 0; i < mergedIds.length; i++) {
+                Object group = localGroups.get(i);
+                Integer id = ids.get(group);
+                if (id == null) {
+                    id = groups.size();
+                    ids.put(group, id);
+                    groups.add(group);
+                }
+                mergedIds[i] = id;
+                changed |= id != i;
+            }
+            if (changed) {
+                int end = Math.min(length, (chunk + 1) * chunkSize);
+                for (int i = chunk * chunkSize; i < end; i++) {
+                    groupIds[i] = mergedIds[groupIds[i]];
+                }
+            }
+        }
+        return new GroupedValues(groupIds, groups.toArray());
+    }
+
+    /**
+     * Gets the minimum number of the values to be grouped on several threads when parallel is true in {@link
+     * #getGroupValues(Object, Class, GrouperContext, boolean)}.
+     *
+     * @return the parallel threshold. Default is 10000.
+     */
+    public static int getParallelThreshold() {
+        return _parallelThreshold;
+    }
+
+    /**
+     * Sets the minimum number of the values to be grouped on several threads when parallel is true in {@link
+     * #getGroupValues(Object, Class, GrouperContext, boolean)}.
+     *
+     * @param parallelThreshold the parallel threshold
+     */
+    public static void setParallelThreshold(int parallelThreshold) {
+        _parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Groups a range of the values. The ids are local to the range.
+     *
+     * @return the group values found in the range, indexed by the ids.
+     */
+    private static List<Object> group(ObjectGrouper grouper, Object values, int offset, int length, int[] groupIds) {
+        Map<Object, Integer> ids = new HashMap<Object, Integer>();
+        List<Object> groups = new ArrayList<Object>();
+        Object[] objects = values instanceof Object[] ? (Object[]) values : null;
+        Object lastGroup = null;
+        int lastId = -1;
+        for (int i = offset; i < offset + length; i++) {
+            Object value = objects != null ? objects[i] : Array.get(values, i);
+            Object group = grouper != null ? grouper.getValue(value) : null;
+            // the same group often repeats in a sorted column
+            if (lastId == -1 || (group != lastGroup && (group == null || !group.equals(lastGroup)))) {
+                Integer id = ids.get(group);
+                if (id == null) {
+                    id = groups.size();
+                    ids.put(group, id);
+                    groups.add(group);
+                }
+                lastGroup = group;
+                lastId = id;
+            }
+            groupIds[i] = lastId;
+        }
+        return groups;
+    }
+
+    private static List<List<Object>> groupInParallel(final ObjectGrouper grouper, final Object values, int chunks, final int[] groupIds) {
+        return ParallelUtils.runInChunks(groupIds.length, chunks, new ParallelUtils.ChunkTask<List<Object>>() {
+            public List<Object> run(int offset, int length) {
+                return group(grouper, values, offset, length, groupIds);
+            }
+        });
+    }
+
     private static boolean _inited = false;
     private static boolean _initing = false;
     private static boolean _autoInit = true;
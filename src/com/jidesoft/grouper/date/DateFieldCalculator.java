@@ -0,0 +1,195 @@
+/*
+ * @(#)DateFieldCalculator.java
+ *
+ * Copyright 2002 - 2011 JIDE Software Inc. All rights reserved.
+ */
+package com.jidesoft.grouper.date;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Calculates the calendar fields from the time in milliseconds using the settings of a Calendar. The date fields of a
+ * GregorianCalendar are computed by arithmetic on the number of the days since the epoch, so an instance can be used
+ * by several threads at the same time without locking. Other fields, the dates before the Gregorian change and other
+ * kinds of Calendar use a copy of the Calendar for each thread.
+ * <p/>
+ * An instance is immutable. A new one should be created when the settings of the Calendar are changed, see {@link
+ * #isFor(java.util.Calendar)}.
+ */
+final class DateFieldCalculator {
+    private static final long ONE_DAY = 24 * 60 * 60 * 1000L;
+    private static final long MAX_MILLIS = 1L << 52;
+
+    private final Calendar _calendar;
+    private final TimeZone _calendarTimeZone;
+    private final TimeZone _timeZone;
+    private final int _firstDayOfWeek;
+    private final int _minimalDaysInFirstWeek;
+    private final long _minMillis;
+    private final ThreadLocal<Calendar> _calendars;
+
+    DateFieldCalculator(final Calendar calendar) {
+        _calendar = calendar;
+        _calendarTimeZone = calendar.getTimeZone();
+        _timeZone = (TimeZone) _calendarTimeZone.clone();
+        _firstDayOfWeek = calendar.getFirstDayOfWeek();
+        _minimalDaysInFirstWeek = calendar.getMinimalDaysInFirstWeek();
+        if (calendar.getClass() == GregorianCalendar.class) {
+            // leaves two years after the change so that the week of year never looks at a Julian year
+            _minMillis = ((GregorianCalendar) calendar).getGregorianChange().getTime() + 2 * 366 * ONE_DAY;
+        }
+        else {
+            _minMillis = Long.MAX_VALUE;
+        }
+        _calendars = new ThreadLocal<Calendar>() {
+            @Override
+            protected Calendar initialValue() {
+                return (Calendar) calendar.clone();
+            }
+        };
+    }
+
+    /**
+     * Checks if this calculator uses the current settings of the calendar.
+     *
+     * @param calendar the calendar
+     * @return true if the calculator was created for the calendar and the time zone, the first day of week and the
+     *         minimal days in first week of the calendar have not been changed since then.
+     */
+    boolean isFor(Calendar calendar) {
+        return calendar == _calendar && calendar.getTimeZone() == _calendarTimeZone
+                && calendar.getFirstDayOfWeek() == _firstDayOfWeek && calendar.getMinimalDaysInFirstWeek() == _minimalDaysInFirstWeek;
+    }
+
+    /**
+     * Gets the value of the calendar field for the time.
+     *
+     * @param millis the time in milliseconds since the epoch
+     * @param field  the field as defined in Calendar such as Calender.YEAR, Calendar.DAY_OF_MONTH.
+     * @return the field value.
+     */
+    int get(long millis, int field) {
+        if (millis < _minMillis || millis > MAX_MILLIS) {
+            return getFromCalendar(millis, field);
+        }
+
+        long days = floorDivide(millis + _timeZone.getOffset(millis), ONE_DAY);
+        switch (field) {
+            case Calendar.DAY_OF_WEEK:
+                return getDayOfWeek(days);
+            case Calendar.YEAR:
+            case Calendar.MONTH:
+            case Calendar.DAY_OF_MONTH:
+            case Calendar.DAY_OF_YEAR:
+            case Calendar.DAY_OF_WEEK_IN_MONTH:
+            case Calendar.WEEK_OF_YEAR:
+            case Calendar.WEEK_OF_MONTH:
+                break;
+            default:
+                return getFromCalendar(millis, field);
+        }
+
+        // converts the days to year, month and day, see http://howardhinnant.github.io/date_algorithms.html
+        long z = days + 719468;
+        long era = floorDivide(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfMarchYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long marchMonth = (5 * dayOfMarchYear + 2) / 153;
+        int dayOfMonth = (int) (dayOfMarchYear - (153 * marchMonth + 2) / 5 + 1);
+        int month = (int) (marchMonth < 10 ? marchMonth + 2 : marchMonth - 10); // 0 based as in Calendar
+        int year = (int) (yearOfEra + era * 400 + (month <= Calendar.FEBRUARY ? 1 : 0));
+
+        switch (field) {
+            case Calendar.YEAR:
+                return year;
+            case Calendar.MONTH:
+                return month;
+            case Calendar.DAY_OF_MONTH:
+                return dayOfMonth;
+            case Calendar.DAY_OF_WEEK_IN_MONTH:
+                return (dayOfMonth - 1) / 7 + 1;
+            case Calendar.WEEK_OF_MONTH:
+                return getWeekNumber(days - dayOfMonth + 1, days);
+            case Calendar.DAY_OF_YEAR:
+                return (int) (days - getDays(year, Calendar.JANUARY, 1)) + 1;
+            default:
+                return getWeekOfYear(year, days);
+        }
+    }
+
+    private int getFromCalendar(long millis, int field) {
+        Calendar calendar = _calendars.get();
+        calendar.setTimeInMillis(millis);
+        return calendar.get(field);
+    }
+
+    /**
+     * Gets the week of year in the same way as GregorianCalendar. The first days of a year may be in the last week of
+     * the previous year and the last days may be in the first week of the next year.
+     */
+    private int getWeekOfYear(int year, long days) {
+        long january1 = getDays(year, Calendar.JANUARY, 1);
+        int week = getWeekNumber(january1, days);
+        if (week == 0) {
+            week = getWeekNumber(getDays(year - 1, Calendar.JANUARY, 1), january1 - 1);
+        }
+        else if (week >= 52) {
+            long nextJanuary1 = getDays(year + 1, Calendar.JANUARY, 1);
+            long nextFirstDay = getDayOnOrBefore(nextJanuary1 + 6, _firstDayOfWeek);
+            if (nextFirstDay - nextJanuary1 >= _minimalDaysInFirstWeek && days >= nextFirstDay - 7) {
+                week = 1;
+            }
+        }
+        return week;
+    }
+
+    /**
+     * Gets the number of the week which contains the day in a period starting at the first day.
+     */
+    private int getWeekNumber(long firstDayOfPeriod, long days) {
+        long firstDayOfWeek1 = getDayOnOrBefore(firstDayOfPeriod + 6, _firstDayOfWeek);
+        if (firstDayOfWeek1 - firstDayOfPeriod >= _minimalDaysInFirstWeek) {
+            firstDayOfWeek1 -= 7;
+        }
+        return (int) floorDivide(days - firstDayOfWeek1, 7) + 1;
+    }
+
+    private static long getDayOnOrBefore(long days, int dayOfWeek) {
+        return days - floorModulo(getDayOfWeek(days) - dayOfWeek, 7);
+    }
+
+    private static int getDayOfWeek(long days) {
+        // the epoch is a Thursday
+        return (int) floorModulo(days + 4, 7) + Calendar.SUNDAY;
+    }
+
+    /**
+     * Gets the number of the days since the epoch.
+     *
+     * @param year       the year
+     * @param month      the month, 0 based as in Calendar
+     * @param dayOfMonth the day of month
+     * @return the days.
+     */
+    private static long getDays(long year, int month, int dayOfMonth) {
+        if (month <= Calendar.FEBRUARY) {
+            year--;
+        }
+        long era = floorDivide(year, 400);
+        long yearOfEra = year - era * 400;
+        long dayOfMarchYear = (153 * (month > Calendar.FEBRUARY ? month - 2 : month + 10) + 2) / 5 + dayOfMonth - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfMarchYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static long floorDivide(long n, long d) {
+        return n >= 0 ? n / d : (n + 1) / d - 1;
+    }
+
+    private static long floorModulo(long n, long d) {
+        return n - floorDivide(n, d) * d;
+    }
+}
@@ -9,10 +9,16 @@ import java.util.Date;
  * An abstract Grouper which can take data type such as Date, Calendar or Long and provide {@link
  * #getCalendarFieldAsInt(Object, int)} and {@link #getCalendarField(Object, int)} methods to access the field of the
  * Calendar.
+ * <p/>
+ * The two methods are thread safe and do not lock, so the groupers can be used by several threads at the same time.
+ * The date fields such as the year, the month, the week and the day are computed by arithmetic from the time in
+ * milliseconds.
  */
 abstract public class DateGrouper extends AbstractObjectGrouper {
     protected static Calendar INSTANCE = Calendar.getInstance();
 
+    private static volatile DateFieldCalculator _calculator;
+
     /**
      * To avoid creating too many instance of Calendar and improve the performance, {@link #getCalendarField(Object,
      * int)} and {@link #getCalendarFieldAsInt(Object, int)} will use a cached instance of Calendar if the value passed
@@ -20,6 +26,10 @@ abstract public class DateGrouper extends AbstractObjectGrouper {
      * will give you this instance and allow you to modify it. For example, setting a different time-zone. Since this
      * instance is static, there is only one instance for the whole application. So just so you know, if you modify it,
      * it will affect all the usages.
+     * <p/>
+     * The changes of the time zone, the first day of week and the minimal days in first week of the instance are
+     * picked up by the next call. Please call setTimeZone with a new TimeZone instead of modifying the TimeZone of the
+     * instance.
      *
      * @return the Calendar instance used by the two getCalendarField methods.
      */
@@ -27,6 +37,16 @@ abstract public class DateGrouper extends AbstractObjectGrouper {
         return INSTANCE;
     }
 
+    private static DateFieldCalculator getCalculator() {
+        Calendar calendar = INSTANCE;
+        DateFieldCalculator calculator = _calculator;
+        if (calculator == null || !calculator.isFor(calendar)) {
+            calculator = new DateFieldCalculator(calendar);
+            _calculator = calculator;
+        }
+        return calculator;
+    }
+
     /**
      * Gets the field value from the value.
      *
@@ -37,14 +57,12 @@ abstract public class DateGrouper extends AbstractObjectGrouper {
      * @return the field value. Null if the value that was passed in is null.
      * @throws java.lang.IllegalArgumentException if the value is not a Date, a Long or a Calendar.
      */
-    public synchronized static Object getCalendarField(Object value, int field) {
+    public static Object getCalendarField(Object value, int field) {
         if (value instanceof Date) {
-            INSTANCE.setTime(((Date) value));
-            return INSTANCE.get(field);
+            return getCalculator().get(((Date) value).getTime(), field);
         }
         else if (value instanceof Long) {
-            INSTANCE.setTime(new Date((Long) value));
-            return INSTANCE.get(field);
+            return getCalculator().get((Long) value, field);
         }
         else if (value instanceof Calendar) {
             return ((Calendar) value).get(field);
@@ -67,14 +85,12 @@ abstract public class DateGrouper extends AbstractObjectGrouper {
      * @return the field value. -1 if the value that was passed in is null.
      * @throws java.lang.IllegalArgumentException if the value is not a Date, a Long or a Calendar.
      */
-    public synchronized static int getCalendarFieldAsInt(Object value, int field) {
+    public static int getCalendarFieldAsInt(Object value, int field) {
         if (value instanceof Date) {
-            INSTANCE.setTime(((Date) value));
-            return INSTANCE.get(field);
+            return getCalculator().get(((Date) value).getTime(), field);
         }
         else if (value instanceof Long) {
-            INSTANCE.setTime(new Date((Long) value));
-            return INSTANCE.get(field);
+            return getCalculator().get((Long) value, field);
         }
         else if (value instanceof Calendar) {
             return ((Calendar) value).get(field);
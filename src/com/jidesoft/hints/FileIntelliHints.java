@@ -5,24 +5,51 @@
  */
 package com.jidesoft.hints;
 
+import com.jidesoft.utils.SwingWorker;
+
 import javax.swing.*;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.JTextComponent;
 import java.awt.*;
 import java.io.File;
 import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * <code>FileIntelliHints</code> is a concrete implementation of {@link com.jidesoft.hints.IntelliHints}.
  * It allows user to type in a file patch quickly by providing them the hints based on what
  * is existed on file system. You can use {@link #setFolderOnly(boolean)} to control if
  * the hints contain only the folders, or folders and files.
+ * <p/>
+ * The folders are listed in a background thread so that typing is not blocked by a slow file system. The listing of
+ * recently used folders is cached for a few seconds, or until the folder is modified, so that typing more characters in
+ * the same folder only filters the cached file names.
  */
 public class FileIntelliHints extends AbstractListIntelliHints {
     private boolean _folderOnly = false;
     private boolean _showFullPath = true;
     private FilenameFilter _filter;
 
+    private static final int MAX_CACHED_LISTINGS = 16;
+    private static final long LISTING_TIMEOUT = 5000;
+
+    private final Map<String, DirectoryListing> _listings = new LinkedHashMap<String, DirectoryListing>(16, 0.75f, true) {
+        private static final long serialVersionUID = -3546278140237846385L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DirectoryListing> eldest) {
+            return size() > MAX_CACHED_LISTINGS;
+        }
+    };
+    private SwingWorker<DirectoryListing, Object> _listingWorker;
+    private String _listingDirectory;
+    private boolean _autoPopup;
+
     public FileIntelliHints(JTextComponent comp) {
         super(comp);
     }
@@ -65,6 +92,12 @@ public class FileIntelliHints extends AbstractListIntelliHints {
         _showFullPath = showFullPath;
     }
 
+    @Override
+    public boolean updateHints(Object context, boolean autoPopup) {
+        _autoPopup = autoPopup;
+        return super.updateHints(context, autoPopup);
+    }
+
     public boolean updateHints(Object value) {
         if (value == null) {
             return false;
@@ -80,20 +113,13 @@ public class FileIntelliHints extends AbstractListIntelliHints {
             return false;
         String dir = s.substring(0, index + 1);
         final String prefix = index == s.length() - 1 ? null : s.substring(index + 1).toLowerCase();
-        String[] files = new File(dir).list(new FilenameFilter() {
-            public boolean accept(File dir, String name) {
-                if (isFolderOnly()) {
-                    if (new File(dir.getAbsolutePath() + File.separator + name).isFile()) {
-                        return false;
-                    }
-                }
-                boolean result = prefix == null || name.toLowerCase().startsWith(prefix);
-                if (result && getFilter() != null) {
-                    return getFilter().accept(dir, name);
-                }
-                return result;
-            }
-        });
+        DirectoryListing listing = getListing(dir);
+        if (listing == null) {
+            // the hints will be updated again when the listing is done
+            startListing(dir);
+            return false;
+        }
+        String[] files = listing.getFiles(prefix, getFilter());
 
         if (files == null || files.length == 0 || (files.length == 1 && files[0].equalsIgnoreCase(prefix))) {
             setListData(new String[0]);
@@ -106,6 +132,154 @@ public class FileIntelliHints extends AbstractListIntelliHints {
         }
     }
 
+    /**
+     * Gets the cached listing of the folder.
+     *
+     * @param dir the folder
+     * @return the listing. Null if the folder is not listed yet or if the listing is out of date.
+     */
+    DirectoryListing getListing(String dir) {
+        DirectoryListing listing = _listings.get(dir);
+        if (listing == null || listing._folderOnly != isFolderOnly() || System.currentTimeMillis() - listing._time > LISTING_TIMEOUT
+                || listing._lastModified != listing._dir.lastModified()) {
+            return null;
+        }
+        return listing;
+    }
+
+    /**
+     * Lists the folder in a background thread. The listing started before for another folder is cancelled. When it is
+     * done, the hints are updated again if it is still the latest listing.
+     *
+     * @param dir the folder
+     */
+    private void startListing(final String dir) {
+        if (_listingWorker != null) {
+            if (dir.equals(_listingDirectory)) {
+                return;
+            }
+            _listingWorker.cancel(true);
+        }
+        final boolean folderOnly = isFolderOnly();
+        _listingDirectory = dir;
+        _listingWorker = new SwingWorker<DirectoryListing, Object>() {
+            @Override
+            protected DirectoryListing doInBackground() throws Exception {
+                return new DirectoryListing(new File(dir), folderOnly);
+            }
+
+            @Override
+            protected void done() {
+                if (_listingWorker != this) {
+                    return;
+                }
+                _listingWorker = null;
+                _listingDirectory = null;
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    _listings.put(dir, get());
+                }
+                catch (Exception e) {
+                    return;
+                }
+                showHintsPopup(_autoPopup);
+            }
+        };
+        _listingWorker.execute();
+    }
+
+    @Override
+    protected void hideHintsPopup() {
+        if (_listingWorker != null) {
+            _listingWorker.cancel(true);
+            _listingWorker = null;
+            _listingDirectory = null;
+        }
+        super.hideHintsPopup();
+    }
+
+    /**
+     * The file names in a folder, sorted by the lower case names so that the names starting with a prefix can be found
+     * by a binary search.
+     */
+    static class DirectoryListing {
+        private final File _dir;
+        private final String[] _names;
+        private final String[] _lowerCaseNames;
+        private final boolean _folderOnly;
+        private final long _time = System.currentTimeMillis();
+        private final long _lastModified;
+
+        DirectoryListing(File dir, boolean folderOnly) {
+            _dir = dir;
+            _folderOnly = folderOnly;
+            // read before listing so that a file added during the listing makes it out of date
+            _lastModified = dir.lastModified();
+            String[] names = dir.list();
+            if (names == null) {
+                names = new String[0];
+            }
+            if (folderOnly) {
+                List<String> folders = new ArrayList<String>(names.length);
+                for (String name : names) {
+                    if (!new File(dir, name).isFile()) {
+                        folders.add(name);
+                    }
+                }
+                names = folders.toArray(new String[folders.size()]);
+            }
+            final String[] lowerCaseNames = new String[names.length];
+            Integer[] order = new Integer[names.length];
+            for (int i = 0; i < names.length; i++) {
+                lowerCaseNames[i] = names[i].toLowerCase();
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                public int compare(Integer o1, Integer o2) {
+                    return lowerCaseNames[o1].compareTo(lowerCaseNames[o2]);
+                }
+            });
+            _names = new String[names.length];
+            _lowerCaseNames = new String[names.length];
+            for (int i = 0; i < order.length; i++) {
+                _names[i] = names[order[i]];
+                _lowerCaseNames[i] = lowerCaseNames[order[i]];
+            }
+        }
+
+        /**
+         * Gets the file names starting with the prefix, ignoring case.
+         *
+         * @param prefix the lower case prefix. Null to get all file names.
+         * @param filter the filter. Null to not filter.
+         * @return the file names.
+         */
+        String[] getFiles(String prefix, FilenameFilter filter) {
+            int from = 0;
+            if (prefix != null) {
+                int high = _lowerCaseNames.length;
+                while (from < high) {
+                    int mid = (from + high) >>> 1;
+                    if (_lowerCaseNames[mid].compareTo(prefix) < 0) {
+                        from = mid + 1;
+                    }
+                    else {
+                        high = mid;
+                    }
+                }
+            }
+            List<String> files = new ArrayList<String>();
+            for (int i = from; i < _names.length && (prefix == null || _lowerCaseNames[i].startsWith(prefix)); i++) {
+                if (filter == null || filter.accept(_dir, _names[i])) {
+                    files.add(_names[i]);
+                }
+            }
+            return files.toArray(new String[files.size()]);
+        }
+    }
+
     @Override
     public void acceptHint(Object selected) {
         if (selected == null)
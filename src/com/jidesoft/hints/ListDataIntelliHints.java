@@ -5,6 +5,8 @@
  */
 package com.jidesoft.hints;
 
+import com.jidesoft.utils.CompletionIndex;
+
 import javax.swing.text.JTextComponent;
 import java.util.AbstractList;
 import java.util.ArrayList;
@@ -14,11 +16,17 @@ import java.util.List;
  * <code>ListDataIntelliHints</code> is a concrete implementation of {@link com.jidesoft.hints.IntelliHints}. It
  * provides hints from a known list of data. It is similar to auto complete text field except the list will be filtered
  * depending on what user types in so far.
+ * <p/>
+ * Unless {@link #compare(Object, Object)} is overridden, the hints are looked up in a {@link CompletionIndex} so that
+ * only the matching entries are visited for each key stroke. If the completion list is modified after it is set, please
+ * call {@link #invalidateCompletionIndex()}.
  */
 public class ListDataIntelliHints<T> extends AbstractListIntelliHints {
 
     private boolean _caseSensitive = false;
     private List<T> _completionList;
+    private CompletionIndex _completionIndex;
+    private Boolean _compareOverridden;
 
     public ListDataIntelliHints(JTextComponent comp, List<T> completionList) {
         super(comp);
@@ -46,6 +54,7 @@ public class ListDataIntelliHints<T> extends AbstractListIntelliHints {
      */
     public void setCompletionList(List<T> completionList) {
         _completionList = completionList;
+        _completionIndex = null;
     }
 
     /**
@@ -66,12 +75,31 @@ public class ListDataIntelliHints<T> extends AbstractListIntelliHints {
                 return list.length;
             }
         };
+        _completionIndex = null;
+    }
+
+    /**
+     * Discards the index of the completion list. Call it after an entry of the completion list is added, removed or
+     * replaced so that the index is built again for the next hints.
+     */
+    public void invalidateCompletionIndex() {
+        _completionIndex = null;
     }
 
     public boolean updateHints(Object context) {
         if (context == null) {
             return false;
         }
+        CompletionIndex completionIndex = getCompletionIndex();
+        if (completionIndex != null) {
+            int[] indices = completionIndex.getMatchingIndices(context.toString());
+            Object[] objects = new Object[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                objects[i] = getCompletionList().get(indices[i]);
+            }
+            setListData(objects);
+            return objects.length > 0;
+        }
         List<T> possibleHints = new ArrayList<T>();
         for (T o : getCompletionList()) {
             if (compare(context, o)) possibleHints.add(o);
@@ -82,6 +110,39 @@ public class ListDataIntelliHints<T> extends AbstractListIntelliHints {
         return objects.length > 0;
     }
 
+    /**
+     * Gets the completion index of the completion list. A new index is created if the index found that the completion
+     * list was modified.
+     *
+     * @return the completion index. Null if compare method is overridden so that each entry has to be compared.
+     */
+    private CompletionIndex getCompletionIndex() {
+        if (getCompletionList() == null || isCompareOverridden()) {
+            return null;
+        }
+        if (_completionIndex == null || !_completionIndex.isValid() || _completionIndex.isCaseSensitive() != isCaseSensitive()) {
+            _completionIndex = new CompletionIndex(getCompletionList(), isCaseSensitive());
+        }
+        return _completionIndex;
+    }
+
+    private boolean isCompareOverridden() {
+        if (_compareOverridden == null) {
+            _compareOverridden = Boolean.FALSE;
+            for (Class<?> c = getClass(); c != ListDataIntelliHints.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("compare", Object.class, Object.class);
+                    _compareOverridden = Boolean.TRUE;
+                    break;
+                }
+                catch (NoSuchMethodException e) {
+                    // check the super class
+                }
+            }
+        }
+        return _compareOverridden;
+    }
+
     /**
      * Compares the context with the object in the completion list.
      *
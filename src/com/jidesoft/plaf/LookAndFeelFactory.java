@@ -673,12 +673,14 @@ public class LookAndFeelFactory implements ProductNames {
                 public void propertyChange(PropertyChangeEvent evt) {
                     if ("lookAndFeel".equals(evt.getPropertyName())) {
                         _style = -1;
+                        UIDefaultsLookup.invalidateCache();
                     }
                 }
             };
         }
         UIManager.removePropertyChangeListener(_listener);
         UIManager.addPropertyChangeListener(_listener);
+        UIDefaultsLookup.invalidateCache();
 
         _style = style;
         uiDefaults.put(JIDE_STYLE_INSTALLED, _style);
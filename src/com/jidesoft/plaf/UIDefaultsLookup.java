@@ -7,6 +7,7 @@
 package com.jidesoft.plaf;
 
 import com.jidesoft.converter.ObjectConverterManager;
+import com.jidesoft.jdk.JdkSpecificClass;
 
 import javax.swing.*;
 import javax.swing.border.Border;
@@ -14,6 +15,7 @@ import java.awt.*;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,6 +31,12 @@ public class UIDefaultsLookup {
     private static boolean _debug = false;
     private static boolean _trace = false;
 
+    /**
+     * The painters resolved for each caller class loader from the "Theme.painter" map in _painterMap.
+     */
+    private static final Map<ClassLoader, Object> _painterCache = new WeakHashMap<ClassLoader, Object>();
+    private static Map<?, ?> _painterMap;
+
     /**
      * Sets the debug mode. If debug mode is on, we will print out any UIDefaults that the value is null.
      *
@@ -62,6 +70,18 @@ public class UIDefaultsLookup {
             LOGGER.fine("Put " + key + " " + value + " using ClassLoader: " + cl);
         }
         ((Map) v).put(cl, value);
+        invalidateCache();
+    }
+
+    /**
+     * Clears the painters resolved for the class loaders. It is called when the look and feel changes or the JIDE
+     * extension is installed.
+     */
+    static void invalidateCache() {
+        synchronized (_painterCache) {
+            _painterCache.clear();
+            _painterMap = null;
+        }
     }
 
 /*  This is the old method used before JDk8 b87. The getCallerClass(int) is removed in b87 so we can't use it any longer.
@@ -93,13 +113,9 @@ public class UIDefaultsLookup {
             return (ClassLoader) cl;
         }
 
-        String className = Thread.currentThread().getStackTrace()[3].getClassName();
-        try {
-            return Class.forName(className).getClassLoader();
-        }
-        catch (ClassNotFoundException e) {
-            return null;
-        }
+        // 0 is this method, 1 is get and 2 is the caller of get
+        Class<?> caller = JdkSpecificClass.getCallerClass(2);
+        return caller != null ? caller.getClassLoader() : null;
     }
 
     public static Object get(Object key) {
@@ -113,45 +129,68 @@ public class UIDefaultsLookup {
                     LOGGER.fine("\t" + o + " => " + map.get(o));
                 }
             }
-            try {
-                ClassLoader classLoader = getCallerClassLoader();
-                Object o = map.get(classLoader);
-                if (o != null) {
-                    if (LOGGER.isLoggable(Level.FINE)) {
-                        LOGGER.fine("\tGetting " + o + " using CallerClassLoader" + classLoader);
-                    }
+            if (map.size() == 1) {
+                // the only painter is used no matter which class loader the caller has
+                return map.values().iterator().next();
+            }
+            ClassLoader classLoader = getCallerClassLoader();
+            synchronized (_painterCache) {
+                if (_painterMap != map) {
+                    _painterCache.clear();
+                    _painterMap = map;
                 }
-                while (o == null && classLoader.getParent() != null) {
-                    classLoader = classLoader.getParent();
-                    o = map.get(classLoader);
-                    if (o != null) {
-                        if (LOGGER.isLoggable(Level.FINE)) {
-                            LOGGER.fine("\tGetting " + o + " using one of the parent ClassLoader " + classLoader);
-                        }
-                        break;
-                    }
+                else if (_painterCache.containsKey(classLoader)) {
+                    return _painterCache.get(classLoader);
                 }
-                if (o != null) return o;
             }
-            catch (Exception e) {
-                // ignore
+            Object painter = getPainter(map, classLoader);
+            synchronized (_painterCache) {
+                if (_painterMap == map) {
+                    _painterCache.put(classLoader, painter);
+                }
             }
-            if (map.size() == 1) {
-                Object o = map.values().iterator().next();
+            return painter;
+        }
+        return value;
+    }
+
+    private static Object getPainter(Map<?, ?> map, ClassLoader classLoader) {
+        try {
+            Object o = map.get(classLoader);
+            if (o != null) {
                 if (LOGGER.isLoggable(Level.FINE)) {
-                    LOGGER.fine("Failed...getting the only one " + o);
+                    LOGGER.fine("\tGetting " + o + " using CallerClassLoader" + classLoader);
                 }
-                return o;
             }
-            else {
-                Object o = map.get(LookAndFeelFactory.getUIManagerClassLoader());
-                if (LOGGER.isLoggable(Level.FINE)) {
-                    LOGGER.fine("Failed...getting " + o + " using UIManagerClassLoader " + LookAndFeelFactory.getUIManagerClassLoader());
+            while (o == null && classLoader.getParent() != null) {
+                classLoader = classLoader.getParent();
+                o = map.get(classLoader);
+                if (o != null) {
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.fine("\tGetting " + o + " using one of the parent ClassLoader " + classLoader);
+                    }
+                    break;
                 }
-                return o;
             }
+            if (o != null) return o;
+        }
+        catch (Exception e) {
+            // ignore
+        }
+        if (map.size() == 1) {
+            Object o = map.values().iterator().next();
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Failed...getting the only one " + o);
+            }
+            return o;
+        }
+        else {
+            Object o = map.get(LookAndFeelFactory.getUIManagerClassLoader());
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Failed...getting " + o + " using UIManagerClassLoader " + LookAndFeelFactory.getUIManagerClassLoader());
+            }
+            return o;
         }
-        return value;
     }
 
     public static Object get(Object key, Locale l) {
@@ -13,10 +13,14 @@ import javax.swing.*;
 import javax.swing.event.TreeExpansionEvent;
 import javax.swing.event.TreeExpansionListener;
 import javax.swing.event.TreeWillExpandListener;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.DefaultTreeSelectionModel;
 import javax.swing.tree.ExpandVetoException;
 import javax.swing.tree.TreePath;
 import java.awt.*;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
 
 class BasicFileSystemTree extends JTree {
     public BasicFileSystemTree(FolderChooser folderChooser) {
@@ -25,6 +29,7 @@ class BasicFileSystemTree extends JTree {
     }
 
     protected void initComponents() {
+        setSelectionModel(new FolderTreeSelectionModel());
         setCellRenderer(new BasicFileSystemTreeCellRenderer());
         setShowsRootHandles(false);
         setRootVisible(false);
@@ -48,6 +53,41 @@ class BasicFileSystemTree extends JTree {
         };
     }
 
+    /**
+     * The selection model which doesn't select the nodes which are not folders, such as the "Loading..." node added
+     * while the sub-folders are loaded in background.
+     */
+    static class FolderTreeSelectionModel extends DefaultTreeSelectionModel {
+        private static final long serialVersionUID = -4209327931736432497L;
+
+        @Override
+        public void setSelectionPaths(TreePath[] paths) {
+            TreePath[] folderPaths = getFolderPaths(paths);
+            if (folderPaths != null && folderPaths.length == 0) {
+                return; // keeps the current selection
+            }
+            super.setSelectionPaths(folderPaths);
+        }
+
+        @Override
+        public void addSelectionPaths(TreePath[] paths) {
+            super.addSelectionPaths(getFolderPaths(paths));
+        }
+
+        private static TreePath[] getFolderPaths(TreePath[] paths) {
+            if (paths == null || paths.length == 0) {
+                return paths;
+            }
+            List<TreePath> folderPaths = new ArrayList<TreePath>(paths.length);
+            for (TreePath path : paths) {
+                if (path != null && path.getLastPathComponent() instanceof BasicFileSystemTreeNode) {
+                    folderPaths.add(path);
+                }
+            }
+            return folderPaths.size() == paths.length ? paths : folderPaths.toArray(new TreePath[folderPaths.size()]);
+        }
+    }
+
     private class FolderTreeListener implements TreeWillExpandListener, TreeExpansionListener {
         private Cursor oldCursor;
 
@@ -55,6 +95,12 @@ class BasicFileSystemTree extends JTree {
         // TreeWillExpandListener methods
 
         public void treeWillExpand(TreeExpansionEvent event) throws ExpandVetoException {
+            // loads the sub-folders again if the folder was modified since they were loaded
+            Object node = event.getPath().getLastPathComponent();
+            if (node instanceof BasicFileSystemTreeNode && getModel() instanceof DefaultTreeModel) {
+                ((BasicFileSystemTreeNode) node).reloadIfModified((DefaultTreeModel) getModel());
+            }
+
             // change to busy cursor
             Window window = SwingUtilities.getWindowAncestor(BasicFileSystemTree.this);
             if (window != null) {
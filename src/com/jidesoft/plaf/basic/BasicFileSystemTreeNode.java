@@ -6,21 +6,54 @@
 package com.jidesoft.plaf.basic;
 
 import com.jidesoft.swing.FolderChooser;
+import com.jidesoft.utils.SwingWorker;
 
 import javax.swing.*;
+import javax.swing.plaf.FileChooserUI;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 
 class BasicFileSystemTreeNode extends LazyMutableTreeNode implements Comparable {
     private FolderChooser _folderChooser;
     private File _file;
+    private Icon _icon;
 
-    static HashMap _icons = new HashMap();
+    /**
+     * The number of sub-folders inserted into the tree at a time when loading in background.
+     */
+    private static final int LOADING_BATCH_SIZE = 256;
+
+    /**
+     * The modification time of the folder when the children were loaded.
+     */
+    private long _lastModified;
+
+    /**
+     * Increased whenever the children are cleared so that a background loading started before is discarded.
+     */
+    private int _loadingId;
+
+    /**
+     * The maximum number of the tree nodes kept in the cache. The nodes in the tree are always kept so the cache could
+     * be larger than that.
+     */
+    static final int MAX_CACHED_NODES = 2000;
 
-    static HashMap _nodes = new HashMap();
+    static HashMap<File, BasicFileSystemTreeNode> _nodes = new LinkedHashMap<File, BasicFileSystemTreeNode>(16, 0.75f, true);
+
+    /**
+     * The size of the cache above which the nodes not in the tree are removed.
+     */
+    private static int _evictionThreshold = MAX_CACHED_NODES;
 
     protected BasicFileSystemTreeNode(File file) {
         this(file, null);
@@ -43,7 +76,12 @@ class BasicFileSystemTreeNode extends LazyMutableTreeNode implements Comparable
 
     public boolean hasChildren() {
         if (!_loaded) {
+            if (isBackgroundLoading()) {
+                // don't list the folder just to decide whether to show the expand handle
+                return _file.isDirectory();
+            }
             if (BasicFolderChooserUI.isFileSystem(_file) && _file.isDirectory()) {
+                _lastModified = _file.lastModified();
                 File[] files = _folderChooser.getFileSystemView().getFiles(_file, _folderChooser.isFileHidingEnabled());
                 for (File file : files) {
                     if (file.isDirectory()) {
@@ -64,37 +102,169 @@ class BasicFileSystemTreeNode extends LazyMutableTreeNode implements Comparable
         if (_folderChooser == null) {
             return;
         }
+        _lastModified = _file.lastModified();
         if (_file.isDirectory()) {
-            File[] files = new File[0];
-            try {
-                files = _folderChooser.getFileSystemView().getFiles(_file, _folderChooser.isFileHidingEnabled());
-                ArrayList<File> folders = new ArrayList();
-                for (File file : files) {
-                    if (file.isDirectory()) {
-                        folders.add(file);
-                    }
+            JTree tree = getFileSystemTree();
+            if (isBackgroundLoading() && tree != null) {
+                loadChildrenInBackground(tree);
+                return;
+            }
+            for (File file : listFolders()) {
+                BasicFileSystemTreeNode fileTreeNode = BasicFileSystemTreeNode.createFileSystemTreeNode(file, _folderChooser);
+                add(fileTreeNode);
+            }
+        }
+    }
+
+    /**
+     * Lists the sub-folders of the folder, sorted using the file comparator of the FolderChooser. It doesn't access
+     * the tree so it can be called from a background thread.
+     *
+     * @return the sub-folders.
+     */
+    private File[] listFolders() {
+        File[] files = new File[0];
+        try {
+            files = _folderChooser.getFileSystemView().getFiles(_file, _folderChooser.isFileHidingEnabled());
+            ArrayList<File> folders = new ArrayList<File>();
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    folders.add(file);
+                }
+            }
+            files = folders.toArray(new File[folders.size()]);
+            Comparator<File> comparator = _folderChooser.getFileComparator();
+            if (comparator != null) {
+                Arrays.sort(files, comparator);
+            }
+            else {
+                Arrays.sort(files);
+            }
+        }
+        catch (Error e) {
+            // catch error like java.lang.InternalError: Unable to bind C:\blah blah\::{20D04FE0-3AEA-1069-A2D8-08002B30309D}\::{3D6BE802-FC0D-4595-A304-E611F97089DC} to parent
+        }
+        catch (Exception e) {
+        }
+        return files;
+    }
+
+    private boolean isBackgroundLoading() {
+        return _folderChooser != null && _folderChooser.isBackgroundLoading();
+    }
+
+    private JTree getFileSystemTree() {
+        FileChooserUI ui = _folderChooser.getUI();
+        return ui instanceof BasicFolderChooserUI ? ((BasicFolderChooserUI) ui)._fileSystemTree : null;
+    }
+
+    /**
+     * Adds a "Loading..." node and lists the sub-folders in a background thread. The sub-folders are inserted in
+     * batches on the event dispatch thread as they are published.
+     *
+     * @param tree the folder tree
+     */
+    private void loadChildrenInBackground(final JTree tree) {
+        final int loadingId = ++_loadingId;
+        final DefaultMutableTreeNode loadingNode = new DefaultMutableTreeNode(FolderChooserResource.getResourceBundle(_folderChooser.getLocale()).getString("FolderChooser.tree.loading"), false);
+        add(loadingNode);
+        new SwingWorker<Object, File>() {
+            @Override
+            protected Object doInBackground() throws Exception {
+                File[] folders = listFolders();
+                for (int i = 0; i < folders.length; i += LOADING_BATCH_SIZE) {
+                    File[] batch = new File[Math.min(LOADING_BATCH_SIZE, folders.length - i)];
+                    System.arraycopy(folders, i, batch, 0, batch.length);
+                    publish(batch);
                 }
-                files = folders.toArray(new File[folders.size()]);
-                Comparator<File> comparator = _folderChooser.getFileComparator();
-                if (comparator != null) {
-                    Arrays.sort(files, comparator);
+                return null;
+            }
+
+            @Override
+            protected void process(List<File> chunks) {
+                if (loadingId != _loadingId) {
+                    return;
                 }
-                else {
-                    Arrays.sort(files);
+                DefaultTreeModel model = (DefaultTreeModel) tree.getModel();
+                int[] indices = new int[chunks.size()];
+                int index = getChildCount();
+                if (loadingNode.getParent() == BasicFileSystemTreeNode.this) {
+                    // keep the loading node at the end until all sub-folders are inserted
+                    index--;
                 }
+                for (int i = 0; i < indices.length; i++) {
+                    insert(createFileSystemTreeNode(chunks.get(i), _folderChooser), index);
+                    indices[i] = index++;
+                }
+                model.nodesWereInserted(BasicFileSystemTreeNode.this, indices);
+                updateExpandedChildren(tree, indices);
             }
-            catch (Error e) {
-                // catch error like java.lang.InternalError: Unable to bind C:\blah blah\::{20D04FE0-3AEA-1069-A2D8-08002B30309D}\::{3D6BE802-FC0D-4595-A304-E611F97089DC} to parent
+
+            @Override
+            protected void done() {
+                if (loadingId != _loadingId || loadingNode.getParent() != BasicFileSystemTreeNode.this) {
+                    return;
+                }
+                int index = getIndex(loadingNode);
+                remove(index);
+                ((DefaultTreeModel) tree.getModel()).nodesWereRemoved(BasicFileSystemTreeNode.this, new int[]{index}, new Object[]{loadingNode});
             }
-            catch (Exception e) {
+        }.execute();
+    }
+
+    /**
+     * The sub-folders could have been expanded or selected in the tree before they were loaded, for example, by {@link
+     * BasicFolderChooserUI#ensureFileIsVisible(javax.swing.JFileChooser, java.io.File)}. Makes the tree update the
+     * display of those sub-folders now that they are in the tree.
+     */
+    private void updateExpandedChildren(JTree tree, int[] indices) {
+        TreePath path = new TreePath(getPath());
+        TreePath selectionPath = tree.getSelectionPath();
+        for (int index : indices) {
+            TreePath childPath = path.pathByAddingChild(getChildAt(index));
+            if (tree.isExpanded(childPath)) {
+                tree.fireTreeExpanded(childPath);
             }
-            for (File file : files) {
-                BasicFileSystemTreeNode fileTreeNode = BasicFileSystemTreeNode.createFileSystemTreeNode(file, _folderChooser);
-                add(fileTreeNode);
+            if (selectionPath != null && childPath.isDescendant(selectionPath)) {
+                tree.scrollPathToVisible(selectionPath);
             }
         }
     }
 
+    /**
+     * Checks if the folder was modified after its children were loaded.
+     *
+     * @return true if the children are loaded and the folder was modified since then.
+     */
+    boolean isModified() {
+        return _folderChooser != null && isLoaded() && _lastModified != _file.lastModified();
+    }
+
+    /**
+     * Reloads the children if the folder was modified after they were loaded. The node is kept so the paths in the
+     * tree which contain it are still valid.
+     *
+     * @param model the tree model
+     * @return true if the children were cleared. They will be loaded again when needed.
+     */
+    boolean reloadIfModified(DefaultTreeModel model) {
+        if (!isModified()) {
+            return false;
+        }
+        clear();
+        if (model != null && (getParent() != null || model.getRoot() == this)) {
+            model.nodeStructureChanged(this);
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        // discards the background loading in progress
+        _loadingId++;
+        super.clear();
+    }
+
     public File getFile() {
         return _file;
     }
@@ -104,15 +274,10 @@ class BasicFileSystemTreeNode extends LazyMutableTreeNode implements Comparable
     }
 
     public Icon getIcon() {
-        Icon icon = (Icon) _icons.get(this);
-        if (icon == null) {
-            icon = getIcon(getFile());
-            _icons.put(this, icon);
-            return icon;
-        }
-        else {
-            return icon;
+        if (_icon == null) {
+            _icon = getIcon(getFile());
         }
+        return _icon;
     }
 
     public String getTypeDescription() {
@@ -167,7 +332,9 @@ class BasicFileSystemTreeNode extends LazyMutableTreeNode implements Comparable
     }
 
     /**
-     * Caches the tree nodes ever created for the performance.
+     * Caches the tree nodes created recently for the performance. The same node is always returned for a folder as long
+     * as it is in the tree. Use {@link #reloadIfModified(javax.swing.tree.DefaultTreeModel)} to load its children again
+     * if the folder was modified.
      *
      * @param file
      * @param folderChooser
@@ -175,18 +342,38 @@ class BasicFileSystemTreeNode extends LazyMutableTreeNode implements Comparable
      * @return tree node. If it is created before, returns the previous created instance.
      */
     public static BasicFileSystemTreeNode createFileSystemTreeNode(File file, FolderChooser folderChooser) {
-        BasicFileSystemTreeNode node = (BasicFileSystemTreeNode) _nodes.get(file);
+        BasicFileSystemTreeNode node = _nodes.get(file);
         if (node == null) {
+            if (_nodes.size() >= _evictionThreshold) {
+                removeDetachedNodes();
+            }
             node = new BasicFileSystemTreeNode(file, folderChooser);
             _nodes.put(file, node);
         }
         return node;
     }
 
+    /**
+     * Removes the least recently used nodes which are not in the tree until the cache is not larger than {@link
+     * #MAX_CACHED_NODES}. The nodes in the tree are kept because the paths of the tree must use the same node
+     * instances.
+     */
+    private static void removeDetachedNodes() {
+        Iterator<BasicFileSystemTreeNode> iterator = _nodes.values().iterator();
+        while (_nodes.size() > MAX_CACHED_NODES / 2 && iterator.hasNext()) {
+            if (iterator.next().getParent() == null) {
+                iterator.remove();
+            }
+        }
+        // don't sweep again on every new node if most of the nodes are in the tree
+        _evictionThreshold = Math.max(MAX_CACHED_NODES, _nodes.size() * 2);
+    }
+
     /**
      * Clears the cache of all the tree nodes.
      */
     public static void clearCache() {
         _nodes.clear();
+        _evictionThreshold = MAX_CACHED_NODES;
     }
 }
@@ -311,12 +311,11 @@ public class BasicFolderChooserUI extends BasicFileChooserUI implements FolderCh
 //                    child.setParent(parentTreeNode);
                     if (success) {
                         parentTreeNode.clear();
-                        int insertIndex = _fileSystemTree.getModel().getIndexOfChild(parentTreeNode, child);
-                        if (insertIndex != -1) {
-//                            ((BasicFileSystemTreeModel) _fileSystemTree.getModel()).insertNodeInto(child, parentTreeNode, insertIndex);
-                            ((BasicFileSystemTreeModel) _fileSystemTree.getModel()).nodeStructureChanged(parentTreeNode);
-//                            ((BasicFileSystemTreeModel) _fileSystemTree.getModel()).addPath(parentPath, insertIndex, child);
-                        }
+                        // the children are reloaded. The new folder might not be there yet if they are loaded in background.
+//                        int insertIndex = _fileSystemTree.getModel().getIndexOfChild(parentTreeNode, child);
+//                        ((BasicFileSystemTreeModel) _fileSystemTree.getModel()).insertNodeInto(child, parentTreeNode, insertIndex);
+                        ((BasicFileSystemTreeModel) _fileSystemTree.getModel()).nodeStructureChanged(parentTreeNode);
+//                        ((BasicFileSystemTreeModel) _fileSystemTree.getModel()).addPath(parentPath, insertIndex, child);
                     }
                     TreePath newPath = parentPath.pathByAddingChild(child);
                     _fileSystemTree.setSelectionPath(newPath);
@@ -408,8 +407,9 @@ public class BasicFolderChooserUI extends BasicFileChooserUI implements FolderCh
 
                 List<File> folders = new ArrayList<File>(paths.length);
                 for (TreePath path : paths) {
-                    BasicFileSystemTreeNode f = (BasicFileSystemTreeNode) path.getLastPathComponent();
-                    folders.add(f.getFile());
+                    if (path.getLastPathComponent() instanceof BasicFileSystemTreeNode) {
+                        folders.add(((BasicFileSystemTreeNode) path.getLastPathComponent()).getFile());
+                    }
                 }
                 return folders;
             }
@@ -689,7 +689,7 @@ public class BasicFolderChooserUI extends BasicFileChooserUI implements FolderCh
 
             if (_fileSystemTree.getSelectionCount() > 0) {
                 TreePath path = e.getNewLeadSelectionPath();
-                if (path != null) {
+                if (path != null && path.getLastPathComponent() instanceof BasicFileSystemTreeNode) {
                     String folderPath = (path.getLastPathComponent()).toString();
                     File folder = new File(folderPath);
                     _folderChooser.setSelectedFolder(folder);
@@ -722,8 +722,9 @@ public class BasicFolderChooserUI extends BasicFileChooserUI implements FolderCh
 
         List<File> files = new ArrayList<File>();
         for (int i = 0, c = selectedPaths.length; i < c; i++) {
-            File f = ((BasicFileSystemTreeNode) selectedPaths[i].getLastPathComponent()).getFile();
-            files.add(f);
+            if (selectedPaths[i].getLastPathComponent() instanceof BasicFileSystemTreeNode) {
+                files.add(((BasicFileSystemTreeNode) selectedPaths[i].getLastPathComponent()).getFile());
+            }
         }
 
         _folderChooser.setSelectedFiles(files.toArray(new File[files.size()]));
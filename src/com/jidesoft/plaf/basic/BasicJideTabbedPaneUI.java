@@ -186,6 +186,11 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
     // PENDING(api): See comment for ContainerHandler
     private Vector htmlViews;
 
+    /**
+     * The measured width and the last elided string of each title, for each font metrics.
+     */
+    private Map<FontMetrics, Map<String, TitleLayout>> _titleLayoutCache;
+
     private Hashtable _mnemonicToIndexMap;
 
     /**
@@ -966,7 +971,12 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
         Rectangle rect = new Rectangle(0, 0, c.getWidth(), c.getHeight());
 
         paintTabAreaBackground(g, rect, tabPlacement);
-        boolean leftToRight = tabPlacement == LEFT || tabPlacement == RIGHT || _tabPane.getComponentOrientation().isLeftToRight();
+
+        // only paints the tabs in the clip so that repainting one tab doesn't paint all the others
+        Rectangle clip = g.getClipBounds();
+        if (clip != null) {
+            rect = rect.intersection(clip);
+        }
 
         // Paint tabRuns of tabs from back to front
         for (int i = _runCount - 1; i >= 0; i--) {
@@ -974,7 +984,7 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
             int next = _tabRuns[(i == _runCount - 1) ? 0 : i + 1];
             int end = (next != 0 ? next - 1 : tabCount - 1);
             for (int j = start; j <= end; j++) {
-                if ((_rects[j].intersects(rect) || !leftToRight) && j != selectedIndex) {
+                if (_rects[j].intersects(rect) && j != selectedIndex) {
                     paintTab(g, tabPlacement, _rects, j, iconRect, textRect);
                 }
             }
@@ -983,7 +993,7 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
         // Paint selected tab if its in the front run
         // since it may overlap other tabs
         if (selectedIndex >= 0 && selectedIndex < _tabPane.getTabCount() && getRunForTab(tabCount, selectedIndex) == 0) {
-            if (_rects[selectedIndex].intersects(rect) || !leftToRight) {
+            if (_rects[selectedIndex].intersects(rect)) {
                 paintTab(g, tabPlacement, _rects, selectedIndex, iconRect, textRect);
             }
         }
@@ -1319,35 +1329,19 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
             g2d.setFont(font);
         }
 
-        String actualText = title;
+        String actualText;
 
         if (tabPlacement == JideTabbedPane.TOP || tabPlacement == JideTabbedPane.BOTTOM) {
             if (textRect.width <= 0)
                 return;
 
-            while (SwingUtilities.computeStringWidth(metrics, actualText) > textRect.width) {
-                actualText = actualText.substring(0, actualText.length() - 1);
-            }
-            if (!actualText.equals(title)) {
-                if (actualText.length() >= 2)
-                    actualText = actualText.substring(0, actualText.length() - 2) + "..";
-                else
-                    actualText = "";
-            }
+            actualText = getElidedTitle(metrics, title, textRect.width);
         }
         else {
             if (textRect.height <= 0)
                 return;
 
-            while (SwingUtilities.computeStringWidth(metrics, actualText) > textRect.height) {
-                actualText = actualText.substring(0, actualText.length() - 1);
-            }
-            if (!actualText.equals(title)) {
-                if (actualText.length() >= 2)
-                    actualText = actualText.substring(0, actualText.length() - 2) + "..";
-                else
-                    actualText = "";
-            }
+            actualText = getElidedTitle(metrics, title, textRect.height);
         }
 
         View v = getTextViewForTab(tabIndex);
@@ -4885,7 +4879,7 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
             else {
                 // plain text
                 String title = getCurrentDisplayTitleAt(_tabPane, tabIndex);
-                height += SwingUtilities.computeStringWidth(metrics, title);
+                height += getTitleWidth(metrics, title);
             }
 
             // for gripper
@@ -4909,6 +4903,83 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
         return height;
     }
 
+    private static class TitleLayout {
+        int width;
+        int availableWidth = -1;
+        String elidedTitle;
+    }
+
+    private TitleLayout getTitleLayout(FontMetrics metrics, String title) {
+        if (_titleLayoutCache == null) {
+            _titleLayoutCache = new WeakHashMap<FontMetrics, Map<String, TitleLayout>>();
+        }
+        Map<String, TitleLayout> layouts = _titleLayoutCache.get(metrics);
+        if (layouts == null) {
+            layouts = new HashMap<String, TitleLayout>();
+            _titleLayoutCache.put(metrics, layouts);
+        }
+        TitleLayout layout = layouts.get(title);
+        if (layout == null) {
+            layout = new TitleLayout();
+            layout.width = SwingUtilities.computeStringWidth(metrics, title);
+            layouts.put(title, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Gets the width of the tab title. The width is cached until the title or the font of the tabbed pane changes.
+     *
+     * @param metrics the font metrics of the tab
+     * @param title   the title
+     * @return the width of the title.
+     */
+    protected int getTitleWidth(FontMetrics metrics, String title) {
+        if (title == null) {
+            return 0;
+        }
+        return getTitleLayout(metrics, title).width;
+    }
+
+    /**
+     * Gets the tab title shortened to fit in the available width. If the title is too long, it is cut at the longest
+     * prefix that fits and its last two characters are replaced by "..". The result is cached for the last available
+     * width of each title.
+     *
+     * @param metrics        the font metrics of the tab
+     * @param title          the title
+     * @param availableWidth the available width
+     * @return the shortened title.
+     */
+    protected String getElidedTitle(FontMetrics metrics, String title, int availableWidth) {
+        if (title == null) {
+            return null;
+        }
+        TitleLayout layout = getTitleLayout(metrics, title);
+        if (layout.availableWidth != availableWidth || layout.elidedTitle == null) {
+            if (layout.width <= availableWidth) {
+                layout.elidedTitle = title;
+            }
+            else {
+                // binary search for the length of the longest prefix that fits
+                int low = 0;
+                int high = title.length() - 1;
+                while (low < high) {
+                    int mid = (low + high + 1) >>> 1;
+                    if (SwingUtilities.computeStringWidth(metrics, title.substring(0, mid)) <= availableWidth) {
+                        low = mid;
+                    }
+                    else {
+                        high = mid - 1;
+                    }
+                }
+                layout.elidedTitle = low >= 2 ? title.substring(0, low - 2) + ".." : "";
+            }
+            layout.availableWidth = availableWidth;
+        }
+        return layout.elidedTitle;
+    }
+
     protected int calculateMaxTabHeight(int tabPlacement) {
         int tabCount = _tabPane.getTabCount();
         int result = 0;
@@ -4944,7 +5015,7 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
                 String title = getCurrentDisplayTitleAt(_tabPane, tabIndex);
 //                while (title == null || title.length() < 3)
 //                    title += " ";
-                width += SwingUtilities.computeStringWidth(metrics, title);
+                width += getTitleWidth(metrics, title);
             }
 
             // for gripper
@@ -8428,6 +8499,9 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
         public void propertyChange(PropertyChangeEvent e) {
             JTabbedPane pane = (JTabbedPane) e.getSource();
             String name = e.getPropertyName();
+            if ("indexForTitle".equals(name) || "font".equals(name)) {
+                _titleLayoutCache = null;
+            }
             if ("mnemonicAt".equals(name)) {
                 updateMnemonics();
                 pane.repaint();
@@ -9714,8 +9788,10 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
             super.mouseMoved(e);
             int tabIndex = getTabAtLocation(e.getX(), e.getY());
             if (tabIndex != _indexMouseOver) {
+                int oldIndex = _indexMouseOver;
                 setMouseOverTabIndex(tabIndex);
-                _tabPane.repaint();
+                repaintTab(oldIndex);
+                repaintTab(tabIndex);
             }
 
         }
@@ -9732,17 +9808,20 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
         public void mouseEntered(MouseEvent e) {
             super.mouseEntered(e);
             int tabIndex = getTabAtLocation(e.getX(), e.getY());
+            int oldIndex = _indexMouseOver;
             _mouseEnter = true;
             setMouseOverTabIndex(tabIndex);
-            _tabPane.repaint();
+            repaintTab(oldIndex);
+            repaintTab(tabIndex);
         }
 
         @Override
         public void mouseExited(MouseEvent e) {
             super.mouseExited(e);
+            int oldIndex = _indexMouseOver;
             setMouseOverTabIndex(-1);
             _mouseEnter = false;
-            _tabPane.repaint();
+            repaintTab(oldIndex);
         }
     }
 
@@ -9752,8 +9831,10 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
             super.mouseMoved(e);
             int tabIndex = tabForCoordinate(_tabPane, e.getX(), e.getY());
             if (tabIndex != _indexMouseOver) {
+                int oldIndex = _indexMouseOver;
                 setMouseOverTabIndex(tabIndex);
-                _tabPane.repaint();
+                repaintTab(oldIndex);
+                repaintTab(tabIndex);
             }
 
         }
@@ -9765,17 +9846,20 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
         public void mouseEntered(MouseEvent e) {
             super.mouseEntered(e);
             int tabIndex = tabForCoordinate(_tabPane, e.getX(), e.getY());
+            int oldIndex = _indexMouseOver;
             _mouseEnter = true;
             setMouseOverTabIndex(tabIndex);
-            _tabPane.repaint();
+            repaintTab(oldIndex);
+            repaintTab(tabIndex);
         }
 
         @Override
         public void mouseExited(MouseEvent e) {
             super.mouseExited(e);
+            int oldIndex = _indexMouseOver;
             setMouseOverTabIndex(-1);
             _mouseEnter = false;
-            _tabPane.repaint();
+            repaintTab(oldIndex);
         }
     }
 
@@ -9826,6 +9910,29 @@ public class BasicJideTabbedPaneUI extends JideTabbedPaneUI implements SwingCons
         return Resource.getResourceBundle(Locale.getDefault()).getString(key);
     }
 
+    /**
+     * Repaints the tab, for example when the mouse over state of the tab changed. If the tabs are not laid out from
+     * left to right, the whole tabbed pane is repainted.
+     *
+     * @param tabIndex the tab index. Nothing is repainted if it is -1.
+     */
+    protected void repaintTab(int tabIndex) {
+        if (tabIndex < 0 || _rects == null || tabIndex >= _rects.length || tabIndex >= _tabPane.getTabCount()) {
+            return;
+        }
+        int tabPlacement = _tabPane.getTabPlacement();
+        if (tabPlacement == LEFT || tabPlacement == RIGHT || _tabPane.getComponentOrientation().isLeftToRight()) {
+            Rectangle rect = getTabBounds(tabIndex, new Rectangle());
+            if (rect != null) {
+                // leaves a margin for the tab border
+                _tabPane.repaint(rect.x - 2, rect.y - 2, rect.width + 4, rect.height + 4);
+            }
+        }
+        else {
+            _tabPane.repaint();
+        }
+    }
+
     private void setMouseOverTabIndex(int index) {
         if (_indexMouseOver != index) {
             _indexMouseOver = index;
@@ -18,9 +18,7 @@ import javax.swing.plaf.basic.BasicLabelUI;
 import javax.swing.text.View;
 import java.awt.*;
 import java.beans.PropertyChangeEvent;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.util.*;
 import java.util.List;
 
 public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
@@ -33,9 +31,11 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
         return styledLabelUI;
     }
 
-    class StyledText {
+    static class StyledText {
         StyleRange styleRange;
         String text;
+        Font font;
+        FontMetrics fontMetrics;
 
         public StyledText(String text) {
             this.text = text;
@@ -47,28 +47,205 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
         }
     }
 
-    private final List<StyledText> _styledTexts = new ArrayList<StyledText>();
-    private int _preferredRowCount = 1;
+    /**
+     * The client property key used to cache the {@link StyledTextLayout} on each StyledLabel.
+     */
+    private static final String CLIENT_PROPERTY_TEXT_LAYOUT = "StyledLabel.textLayout";
+
+    private static final int MAX_CACHED_SIZES = 8;
+    private static final int MAX_CACHED_ROW_COUNTS = 256;
+
+    /**
+     * The text layout of a StyledLabel. It contains the styled text runs split at the line breaks together with the
+     * font and the font metrics of each run. It also remembers the row counts of the wrapped text and the preferred
+     * sizes calculated for it so that painting the same label again doesn't need to recompute them. The layout is
+     * cached on the label and will be rebuilt only when the text, the style ranges or the font of the label changes.
+     * It also keeps the state of the preferred size calculation of the label as the UI is shared by all labels. When
+     * the layout is rebuilt, the caches of the previous layout are cleared and reused so that a label used as a cell
+     * renderer doesn't allocate them again for every cell.
+     */
+    protected static class StyledTextLayout {
+        private final String _text;
+        private final Font _font;
+        private final StyleRange[] _styleRanges;
+        private final int[] _starts;
+        private final int[] _lengths;
+        private final List<StyledText> _styledTexts;
+        private final FontMetrics _fontMetrics;
+        private final int _maxRunHeight;
+        private final int _maxRunAscent;
+        private final boolean _endsWithNewLine;
+        private final Map<Long, Integer> _wrappedRowCounts;
+        private final Map<SizeKey, CachedSize> _preferredSizes;
+        private boolean _invalid;
+        private int _preferredRowCount = 1;
+        private boolean _gettingPreferredSize;
+
+        StyledTextLayout(String text, Font font, StyleRange[] styleRanges, List<StyledText> styledTexts, FontMetrics fontMetrics, StyledTextLayout previousLayout) {
+            if (previousLayout != null) {
+                _wrappedRowCounts = previousLayout._wrappedRowCounts;
+                _wrappedRowCounts.clear();
+                _preferredSizes = previousLayout._preferredSizes;
+                _preferredSizes.clear();
+                _gettingPreferredSize = previousLayout._gettingPreferredSize;
+            }
+            else {
+                _wrappedRowCounts = new HashMap<Long, Integer>();
+                _preferredSizes = new LinkedHashMap<SizeKey, CachedSize>(MAX_CACHED_SIZES, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<SizeKey, CachedSize> eldest) {
+                        return size() > MAX_CACHED_SIZES;
+                    }
+                };
+            }
+            _text = text;
+            _font = font;
+            _styleRanges = styleRanges;
+            _starts = new int[styleRanges.length];
+            _lengths = new int[styleRanges.length];
+            for (int i = 0; i < styleRanges.length; i++) {
+                _starts[i] = styleRanges[i].getStart();
+                _lengths[i] = styleRanges[i].getLength();
+            }
+            _styledTexts = Collections.unmodifiableList(styledTexts);
+            _fontMetrics = fontMetrics;
+            int maxRunHeight = 0;
+            int maxRunAscent = 0;
+            boolean endsWithNewLine = false;
+            for (StyledText styledText : styledTexts) {
+                maxRunHeight = Math.max(maxRunHeight, styledText.fontMetrics.getHeight());
+                maxRunAscent = Math.max(maxRunAscent, styledText.fontMetrics.getAscent());
+                if (styledText.text.endsWith("\n")) {
+                    endsWithNewLine = true;
+                }
+            }
+            _maxRunHeight = maxRunHeight;
+            _maxRunAscent = maxRunAscent;
+            _endsWithNewLine = endsWithNewLine;
+        }
+
+        /**
+         * Checks if the layout still matches the text, the style ranges and the font of the label.
+         *
+         * @param text        the text of the label
+         * @param font        the font of the label
+         * @param styleRanges the style ranges of the label
+         * @return true if the layout can be reused. Otherwise false.
+         */
+        boolean isValid(String text, Font font, StyleRange[] styleRanges) {
+            if (_invalid || !JideSwingUtilities.equals(_text, text) || !JideSwingUtilities.equals(_font, font) || _styleRanges.length != styleRanges.length) {
+                return false;
+            }
+            for (int i = 0; i < styleRanges.length; i++) {
+                StyleRange range = styleRanges[i];
+                if (range != _styleRanges[i] || range.getStart() != _starts[i] || range.getLength() != _lengths[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Marks the layout as invalid so that it is rebuilt the next time it is used.
+         */
+        void invalidate() {
+            _invalid = true;
+        }
+
+        /**
+         * Gets the styled text runs of the label. The list is sorted by the start of the style ranges. Each line break
+         * is a separate run.
+         *
+         * @return the styled text runs.
+         */
+        List<StyledText> getStyledTexts() {
+            return _styledTexts;
+        }
+
+        /**
+         * Gets the font metrics of the label font.
+         *
+         * @return the font metrics.
+         */
+        FontMetrics getFontMetrics() {
+            return _fontMetrics;
+        }
+    }
+
+    private static final class SizeKey {
+        private final int[] _values;
+        private final int _hashCode;
+
+        SizeKey(int... values) {
+            _values = values;
+            _hashCode = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof SizeKey && Arrays.equals(_values, ((SizeKey) obj)._values);
+        }
+
+        @Override
+        public int hashCode() {
+            return _hashCode;
+        }
+    }
+
+    private static final class CachedSize {
+        private final Dimension _size;
+        private final int _rowCount;
+        private final boolean _truncated;
+
+        CachedSize(Dimension size, int rowCount, boolean truncated) {
+            _size = size;
+            _rowCount = rowCount;
+            _truncated = truncated;
+        }
+    }
 
     @Override
     public void propertyChange(PropertyChangeEvent e) {
         super.propertyChange(e);
-        if (StyledLabel.PROPERTY_STYLE_RANGE.equals(e.getPropertyName())) {
-            synchronized (_styledTexts) {
-                _styledTexts.clear();
-            }
+        String name = e.getPropertyName();
+        if (StyledLabel.PROPERTY_STYLE_RANGE.equals(name)) {
             if (e.getSource() instanceof StyledLabel) {
+                invalidateStyledTextLayout((StyledLabel) e.getSource());
                 ((StyledLabel) e.getSource()).revalidate();
                 ((StyledLabel) e.getSource()).repaint();
             }
         }
-        else if (StyledLabel.PROPERTY_IGNORE_COLOR_SETTINGS.equals(e.getPropertyName())) {
+        else if ("text".equals(name) || "font".equals(name)) {
+            if (e.getSource() instanceof StyledLabel) {
+                invalidateStyledTextLayout((StyledLabel) e.getSource());
+            }
+        }
+        else if (StyledLabel.PROPERTY_IGNORE_COLOR_SETTINGS.equals(name)) {
             if (e.getSource() instanceof StyledLabel) {
                 ((StyledLabel) e.getSource()).repaint();
             }
         }
     }
 
+    /**
+     * Marks the text layout cached on the label as invalid. The layout is kept so that its caches can be reused when
+     * it is rebuilt.
+     *
+     * @param label the StyledLabel
+     */
+    private void invalidateStyledTextLayout(StyledLabel label) {
+        Object layout = label.getClientProperty(CLIENT_PROPERTY_TEXT_LAYOUT);
+        if (layout instanceof StyledTextLayout) {
+            ((StyledTextLayout) layout).invalidate();
+        }
+    }
+
+    @Override
+    protected void uninstallDefaults(JLabel c) {
+        super.uninstallDefaults(c);
+        c.putClientProperty(CLIENT_PROPERTY_TEXT_LAYOUT, null);
+    }
+
     @Override
     protected void paintEnabledText(JLabel l, Graphics g, String s, int textX, int textY) {
         View v = (l != null) ? (View) l.getClientProperty("html") : null;
@@ -91,67 +268,111 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
         }
     }
 
+    /**
+     * Gets the text layout of the label. The layout is cached on the label and is reused as long as the text, the
+     * style ranges and the font of the label remain the same.
+     *
+     * @param label the StyledLabel
+     * @return the text layout.
+     */
+    protected StyledTextLayout getStyledTextLayout(StyledLabel label) {
+        Object layout = label.getClientProperty(CLIENT_PROPERTY_TEXT_LAYOUT);
+        if (layout instanceof StyledTextLayout && ((StyledTextLayout) layout).isValid(label.getText(), getFont(label), label.getStyleRanges())) {
+            return (StyledTextLayout) layout;
+        }
+        return createStyledTextLayout(label);
+    }
+
+    /**
+     * Builds the text layout of the label and caches it on the label.
+     *
+     * @param label the StyledLabel
+     */
     protected void buildStyledText(StyledLabel label) {
-        synchronized (_styledTexts) {
-            _styledTexts.clear();
-            StyleRange[] styleRanges = label.getStyleRanges();
-            if (_comparator == null) {
-                _comparator = new Comparator<StyleRange>() {
-                    public int compare(StyleRange r1, StyleRange r2) {
-                        if (r1.getStart() < r2.getStart()) {
-                            return -1;
-                        }
-                        else if (r1.getStart() > r2.getStart()) {
-                            return 1;
-                        }
-                        else {
-                            return 0;
-                        }
-                    }
-                };
-            }
-            Arrays.sort(styleRanges, _comparator);
+        createStyledTextLayout(label);
+    }
 
-            String s = label.getText();
-            if (s != null && s.length() > 0) { // do not do anything if the text is empty
-                int index = 0;
-                for (StyleRange styleRange : styleRanges) {
-                    if (index >= s.length()) {
-                        break;
+    private StyledTextLayout createStyledTextLayout(StyledLabel label) {
+        List<StyledText> styledTexts = new ArrayList<StyledText>();
+        StyleRange[] styleRanges = label.getStyleRanges();
+        if (_comparator == null) {
+            _comparator = new Comparator<StyleRange>() {
+                public int compare(StyleRange r1, StyleRange r2) {
+                    if (r1.getStart() < r2.getStart()) {
+                        return -1;
+                    }
+                    else if (r1.getStart() > r2.getStart()) {
+                        return 1;
                     }
-                    if (styleRange.getStart() > index) { // fill in the gap
-                        String text = s.substring(index, Math.min(styleRange.getStart(), s.length()));
-                        StyleRange newRange = new StyleRange(index, styleRange.getStart() - index, -1);
-                        addStyledTexts(text, newRange, label);
-                        index = styleRange.getStart();
+                    else {
+                        return 0;
                     }
+                }
+            };
+        }
+        StyleRange[] sortedRanges = styleRanges.clone();
+        Arrays.sort(sortedRanges, _comparator);
 
-                    if (styleRange.getStart() == index) { // exactly on
-                        if (styleRange.getLength() == -1) {
-                            String text = s.substring(index);
-                            addStyledTexts(text, styleRange, label);
-                            index = s.length();
-                        }
-                        else {
-                            String text = s.substring(index, Math.min(index + styleRange.getLength(), s.length()));
-                            addStyledTexts(text, styleRange, label);
-                            index += styleRange.getLength();
-                        }
+        String s = label.getText();
+        if (s != null && s.length() > 0) { // do not do anything if the text is empty
+            int index = 0;
+            for (StyleRange styleRange : sortedRanges) {
+                if (index >= s.length()) {
+                    break;
+                }
+                if (styleRange.getStart() > index) { // fill in the gap
+                    String text = s.substring(index, Math.min(styleRange.getStart(), s.length()));
+                    StyleRange newRange = new StyleRange(index, styleRange.getStart() - index, -1);
+                    addStyledTexts(styledTexts, text, newRange);
+                    index = styleRange.getStart();
+                }
+
+                if (styleRange.getStart() == index) { // exactly on
+                    if (styleRange.getLength() == -1) {
+                        String text = s.substring(index);
+                        addStyledTexts(styledTexts, text, styleRange);
+                        index = s.length();
                     }
-                    else if (styleRange.getStart() < index) { // overlap
-                        // ignore
+                    else {
+                        String text = s.substring(index, Math.min(index + styleRange.getLength(), s.length()));
+                        addStyledTexts(styledTexts, text, styleRange);
+                        index += styleRange.getLength();
                     }
                 }
-                if (index < s.length()) {
-                    String text = s.substring(index, s.length());
-                    StyleRange range = new StyleRange(index, s.length() - index, -1);
-                    addStyledTexts(text, range, label);
+                else if (styleRange.getStart() < index) { // overlap
+                    // ignore
                 }
             }
+            if (index < s.length()) {
+                String text = s.substring(index, s.length());
+                StyleRange range = new StyleRange(index, s.length() - index, -1);
+                addStyledTexts(styledTexts, text, range);
+            }
+        }
+
+        Font font = getFont(label);
+        FontMetrics fm = label.getFontMetrics(font);
+        int defaultFontSize = font.getSize();
+        for (StyledText styledText : styledTexts) {
+            StyleRange style = styledText.styleRange;
+            int size = (style != null && (style.isSuperscript() || style.isSubscript())) ? Math.round((float) defaultFontSize / style.getFontShrinkRatio()) : defaultFontSize;
+            if (style != null && ((style.getFontStyle() != -1 && font.getStyle() != style.getFontStyle()) || font.getSize() != size)) {
+                styledText.font = FontUtils.getCachedDerivedFont(font, style.getFontStyle() == -1 ? font.getStyle() : style.getFontStyle(), size);
+                styledText.fontMetrics = label.getFontMetrics(styledText.font);
+            }
+            else {
+                styledText.font = font;
+                styledText.fontMetrics = fm;
+            }
         }
+
+        Object previousLayout = label.getClientProperty(CLIENT_PROPERTY_TEXT_LAYOUT);
+        StyledTextLayout layout = new StyledTextLayout(s, font, styleRanges, styledTexts, fm, previousLayout instanceof StyledTextLayout ? (StyledTextLayout) previousLayout : null);
+        label.putClientProperty(CLIENT_PROPERTY_TEXT_LAYOUT, layout);
+        return layout;
     }
 
-    private void addStyledTexts(String text, StyleRange range, StyledLabel label) {
+    private void addStyledTexts(List<StyledText> styledTexts, String text, StyleRange range) {
         range = new StyleRange(range); // keep the passed-in parameter no change
         int index1 = text.indexOf('\r');
         int index2 = text.indexOf('\n');
@@ -164,7 +385,7 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
             StyleRange newRange = new StyleRange(range);
             newRange.setStart(range.getStart());
             newRange.setLength(index);
-            _styledTexts.add(new StyledText(subString, newRange));
+            styledTexts.add(new StyledText(subString, newRange));
             int length = 1;
             if (text.charAt(index) == '\r' && index + 1 < text.length() && text.charAt(index + 1) == '\n') {
                 length++;
@@ -172,7 +393,7 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
             newRange = new StyleRange(range);
             newRange.setStart(range.getStart() + index);
             newRange.setLength(length);
-            _styledTexts.add(new StyledText(text.substring(index, index + length), newRange));
+            styledTexts.add(new StyledText(text.substring(index, index + length), newRange));
 
             text = text.substring(index + length);
             range.setStart(range.getStart() + index + length);
@@ -182,20 +403,29 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
             index2 = text.indexOf('\n');
         }
         if (text.length() > 0) {
-            _styledTexts.add(new StyledText(text, range));
+            styledTexts.add(new StyledText(text, range));
         }
     }
 
-    private boolean _gettingPreferredSize;
     @Override
     public Dimension getPreferredSize(JComponent c) {
-        _gettingPreferredSize = true;
+        if (!(c instanceof StyledLabel)) {
+            return super.getPreferredSize(c);
+        }
+        StyledLabel label = (StyledLabel) c;
+        StyledTextLayout layout = getStyledTextLayout(label);
+        layout._gettingPreferredSize = true;
         Dimension preferredSize;
         try {
             preferredSize = super.getPreferredSize(c);
         }
         finally {
-            _gettingPreferredSize = false;
+            layout._gettingPreferredSize = false;
+            // the layout could have been rebuilt in the meantime
+            Object currentLayout = label.getClientProperty(CLIENT_PROPERTY_TEXT_LAYOUT);
+            if (currentLayout instanceof StyledTextLayout) {
+                ((StyledTextLayout) currentLayout)._gettingPreferredSize = false;
+            }
         }
         return preferredSize;
     }
@@ -260,158 +490,153 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
      * @return the preferred size.
      */
     protected Dimension getPreferredSize(StyledLabel label) {
-        buildStyledText(label);
+        StyledTextLayout layout = getStyledTextLayout(label);
+        SizeKey key = createSizeKey(label, layout);
+        CachedSize cachedSize = layout._preferredSizes.get(key);
+        if (cachedSize == null) {
+            boolean truncated = label.isTruncated();
+            label.setTruncated(false);
+            Dimension size = calculatePreferredSize(label, layout);
+            cachedSize = new CachedSize(size, layout._preferredRowCount, label.isTruncated());
+            label.setTruncated(truncated || cachedSize._truncated);
+            layout._preferredSizes.put(key, cachedSize);
+        }
+        else {
+            layout._preferredRowCount = cachedSize._rowCount;
+            if (cachedSize._truncated) {
+                label.setTruncated(true);
+            }
+        }
+        return new Dimension(cachedSize._size);
+    }
 
-        Font font = getFont(label);
-        FontMetrics fm = label.getFontMetrics(font);
-        FontMetrics fm2;
-        int defaultFontSize = font.getSize();
+    /**
+     * Creates the key of the preferred size cache. It contains all the label settings that the calculation of the
+     * preferred size depends on except the text, the style ranges and the font which are covered by the layout itself.
+     *
+     * @param label  the StyledLabel
+     * @param layout the text layout of the label
+     * @return the key.
+     */
+    private SizeKey createSizeKey(StyledLabel label, StyledTextLayout layout) {
+        Insets insets = label.getInsets();
+        Icon icon = label.getIcon();
+        return new SizeKey(label.isLineWrap() ? 1 : 0, layout._gettingPreferredSize ? 1 : 0, label.getPreferredWidth(),
+                label.getRows(), label.getMinRows(), label.getMaxRows(), label.getRowGap(),
+                label.getWidth(), label.getHeight(),
+                insets != null ? insets.top : 0, insets != null ? insets.left : 0, insets != null ? insets.bottom : 0, insets != null ? insets.right : 0,
+                icon != null ? 1 : 0, icon != null ? icon.getIconWidth() : 0, label.getIconTextGap(),
+                label.getHorizontalAlignment(), label.getHorizontalTextPosition(), label.getComponentOrientation().isLeftToRight() ? 1 : 0);
+    }
+
+    private Dimension calculatePreferredSize(StyledLabel label, StyledTextLayout layout) {
+        List<StyledText> styledTexts = layout.getStyledTexts();
+        FontMetrics fm = layout.getFontMetrics();
         boolean lineWrap = label.isLineWrap() || (label.getText() != null && (label.getText().contains("\r") || label.getText().contains("\n")));
-        synchronized (_styledTexts) {
-            StyledText[] texts = _styledTexts.toArray(new StyledText[_styledTexts.size()]);
-
-            // get maximum row height first by comparing all fonts of styled texts
-            int maxRowHeight = fm.getHeight();
-            for (StyledText styledText : texts) {
-                StyleRange style = styledText.styleRange;
-                int size = (style != null && (style.isSuperscript() || style.isSubscript())) ? Math.round((float) defaultFontSize / style.getFontShrinkRatio()) : defaultFontSize;
-
-                font = getFont(label);
-                int styleHeight = fm.getHeight();
-                if (style != null && ((style.getFontStyle() != -1 && font.getStyle() != style.getFontStyle()) || font.getSize() != size)) {
-                    font = FontUtils.getCachedDerivedFont(font, style.getFontStyle() == -1 ? font.getStyle() : style.getFontStyle(), size);
-                    fm2 = label.getFontMetrics(font);
-                    styleHeight = fm2.getHeight();
-                }
-                styleHeight++;
-/*
-                if (style != null) {
-                    if (style.isWaved()) {
-                        styleHeight += 4;
-                    }
-                    else if (style.isDotted()) {
-                        styleHeight += 3;
-                    }
-                    else if (style.isUnderlined()) {
-                        styleHeight += 2;
-                    }
-                }
-*/
-                maxRowHeight = Math.max(maxRowHeight, styleHeight);
-            }
-
-            int naturalRowCount = 1;
-            int nextRowStartIndex = 0;
-            int width = 0;
-            int maxWidth = 0;
-            List<Integer> lineWidths = new ArrayList<Integer>();
-            // get one line width
-            for (StyledText styledText : _styledTexts) {
-                StyleRange style = styledText.styleRange;
-                int size = (style != null &&
-                        (style.isSuperscript() || style.isSubscript())) ? Math.round((float) defaultFontSize / style.getFontShrinkRatio()) : defaultFontSize;
-                font = getFont(label);
-                String s = styledText.text.substring(nextRowStartIndex);
-                if (s.startsWith("\r") || s.startsWith("\n")) {
-                    lineWidths.add(width);
-                    maxWidth = Math.max(width, maxWidth);
-                    width = 0;
-                    naturalRowCount++;
-                    if (label.getMaxRows() > 0 && naturalRowCount > label.getMaxRows()) {
-                        break;
-                    }
-                    continue;
-                }
-                if (style != null && ((style.getFontStyle() != -1 && font.getStyle() != style.getFontStyle()) || font.getSize() != size)) {
-                    font = FontUtils.getCachedDerivedFont(font, style.getFontStyle() == -1 ? font.getStyle() : style.getFontStyle(), size);
-                    fm2 = label.getFontMetrics(font);
-                    width += fm2.stringWidth(s);
-                }
-                else {
-//                    fm2 = fm;
-                    width += fm.stringWidth(s);
+
+        // get maximum row height first by comparing all fonts of styled texts
+        int maxRowHeight = styledTexts.isEmpty() ? fm.getHeight() : Math.max(fm.getHeight(), layout._maxRunHeight + 1);
+
+        int naturalRowCount = 1;
+        int width = 0;
+        int maxWidth = 0;
+        List<Integer> lineWidths = new ArrayList<Integer>();
+        // get one line width
+        for (StyledText styledText : styledTexts) {
+            String s = styledText.text;
+            if (s.startsWith("\r") || s.startsWith("\n")) {
+                lineWidths.add(width);
+                maxWidth = Math.max(width, maxWidth);
+                width = 0;
+                naturalRowCount++;
+                if (label.getMaxRows() > 0 && naturalRowCount > label.getMaxRows()) {
+                    break;
                 }
+                continue;
             }
-            lineWidths.add(width);
-            maxWidth = Math.max(width, maxWidth);
-            int maxLineWidth = maxWidth;
-            _preferredRowCount = naturalRowCount;
+            width += styledText.fontMetrics.stringWidth(s);
+        }
+        lineWidths.add(width);
+        maxWidth = Math.max(width, maxWidth);
+        int maxLineWidth = maxWidth;
+        layout._preferredRowCount = naturalRowCount;
 
-            // if getPreferredWidth() is not set but getRows() is set, get maximum width and row count based on the required rows.
-            if (lineWrap && label.getPreferredWidth() <= 0 && label.getRows() > 0) {
-                maxWidth = getMaximumWidth(label, maxWidth, naturalRowCount, label.getRows());
-            }
+        // if getPreferredWidth() is not set but getRows() is set, get maximum width and row count based on the required rows.
+        if (lineWrap && label.getPreferredWidth() <= 0 && label.getRows() > 0) {
+            maxWidth = getMaximumWidth(label, layout, maxWidth, naturalRowCount, label.getRows());
+        }
 
-            // if calculated maximum width is larger than label's maximum size, wrap again to get the updated row count and use the label's maximum width as the maximum width.
-            int preferredWidth = label.getPreferredWidth();
-            if (preferredWidth > 0 && label.getInsets() != null) {
-                preferredWidth -= label.getInsets().left + label.getInsets().right;
-            }
-            if (label.getIcon() != null && label.getHorizontalTextPosition() != SwingConstants.CENTER) {
-                preferredWidth -= label.getIcon().getIconWidth() + label.getIconTextGap();
+        // if calculated maximum width is larger than label's maximum size, wrap again to get the updated row count and use the label's maximum width as the maximum width.
+        int preferredWidth = label.getPreferredWidth();
+        if (preferredWidth > 0 && label.getInsets() != null) {
+            preferredWidth -= label.getInsets().left + label.getInsets().right;
+        }
+        if (label.getIcon() != null && label.getHorizontalTextPosition() != SwingConstants.CENTER) {
+            preferredWidth -= label.getIcon().getIconWidth() + label.getIconTextGap();
+        }
+        if (lineWrap && preferredWidth > 0 && maxWidth > preferredWidth) {
+            maxWidth = getLayoutWidth(label, layout, preferredWidth);
+        }
+
+        // label.getPreferredWidth() <= 0 && label.getMaxRows() > 0 && rowCount > label.getMaxRows(), recalculate the maximum width according to the maximum rows
+        if (lineWrap && label.getMaxRows() > 0 && layout._preferredRowCount > label.getMaxRows()) {
+            if (label.getPreferredWidth() <= 0) {
+                maxWidth = getMaximumWidth(label, layout, maxWidth, naturalRowCount, label.getMaxRows());
             }
-            if (lineWrap && preferredWidth > 0 && maxWidth > preferredWidth) {
-                maxWidth = getLayoutWidth(label, preferredWidth);
+            else {
+                layout._preferredRowCount = label.getMaxRows();
             }
+        }
 
-            // label.getPreferredWidth() <= 0 && label.getMaxRows() > 0 && rowCount > label.getMaxRows(), recalculate the maximum width according to the maximum rows
-            if (lineWrap && label.getMaxRows() > 0 && _preferredRowCount > label.getMaxRows()) {
-                if (label.getPreferredWidth() <= 0) {
-                    maxWidth = getMaximumWidth(label, maxWidth, naturalRowCount, label.getMaxRows());
-                }
-                else {
-                    _preferredRowCount = label.getMaxRows();
-                }
+        // label.getPreferredWidth() <= 0 && label.getMinRows() > 0 && rowCount < label.getMinRows(), recalculate the maximum width according to the minimum rows
+        if (lineWrap && label.getPreferredWidth() <= 0 && label.getMinRows() > 0 && layout._preferredRowCount < label.getMinRows()) {
+            maxWidth = getMaximumWidth(label, layout, maxWidth, naturalRowCount, label.getMinRows());
+        }
+        if (layout._gettingPreferredSize && label.getRows() > 0 && layout._preferredRowCount > label.getRows() && (label.getPreferredWidth() <= 0 || label.getPreferredWidth() >= maxLineWidth || naturalRowCount > label.getRows())) {
+            layout._preferredRowCount = label.getRows();
+            maxLineWidth = 0;
+            for (int i = 0; i < lineWidths.size() && i < layout._preferredRowCount; i++) {
+                maxLineWidth = Math.max(maxLineWidth, lineWidths.get(i));
             }
+        }
+        Dimension dimension = new Dimension(Math.min(maxWidth, maxLineWidth), (maxRowHeight + Math.max(0, label.getRowGap())) * layout._preferredRowCount);
+        if (label.getIcon() != null) {
+            dimension = new Dimension(dimension.width + label.getIconTextGap() + label.getIcon().getIconWidth(), dimension.height);
+        }
+        return dimension;
+    }
 
-            // label.getPreferredWidth() <= 0 && label.getMinRows() > 0 && rowCount < label.getMinRows(), recalculate the maximum width according to the minimum rows
-            if (lineWrap && label.getPreferredWidth() <= 0 && label.getMinRows() > 0 && _preferredRowCount < label.getMinRows()) {
-                maxWidth = getMaximumWidth(label, maxWidth, naturalRowCount, label.getMinRows());
-            }
-            if (_gettingPreferredSize && label.getRows() > 0 && _preferredRowCount > label.getRows() && (label.getPreferredWidth() <= 0 || label.getPreferredWidth() >= maxLineWidth || naturalRowCount > label.getRows())) {
-                _preferredRowCount = label.getRows();
-                maxLineWidth = 0;
-                for (int i = 0; i < lineWidths.size() && i < _preferredRowCount; i++) {
-                    maxLineWidth = Math.max(maxLineWidth, lineWidths.get(i));
-                }
-            }
-            Dimension dimension = new Dimension(Math.min(maxWidth, maxLineWidth), (maxRowHeight + Math.max(0, label.getRowGap())) * _preferredRowCount);
-            if (label.getIcon() != null) {
-                dimension = new Dimension(dimension.width + label.getIconTextGap() + label.getIcon().getIconWidth(), dimension.height);
-            }
-            return dimension;
+    private int getLayoutWidth(StyledLabel label, StyledTextLayout layout, int maxWidth) {
+        Long key = ((long) label.getMaxRows() << 32) | (maxWidth & 0xFFFFFFFFL);
+        Integer rowCount = layout._wrappedRowCounts.get(key);
+        if (rowCount != null) {
+            layout._preferredRowCount = rowCount;
+            return maxWidth;
+        }
+        wrapStyledText(label, layout, maxWidth);
+        if (layout._wrappedRowCounts.size() >= MAX_CACHED_ROW_COUNTS) {
+            layout._wrappedRowCounts.clear();
         }
+        layout._wrappedRowCounts.put(key, layout._preferredRowCount);
+        return maxWidth;
     }
 
-    private int getLayoutWidth(StyledLabel label, int maxWidth) {
+    private void wrapStyledText(StyledLabel label, StyledTextLayout layout, int maxWidth) {
+        List<StyledText> styledTexts = layout.getStyledTexts();
         int nextRowStartIndex;
-        Font font = getFont(label);
-        int defaultFontSize = font.getSize();
-        FontMetrics fm = label.getFontMetrics(font);
         FontMetrics fm2;
         nextRowStartIndex = 0;
         int x = 0;
-        _preferredRowCount = 1;
-        for (int i = 0; i < _styledTexts.size(); i++) {
-            StyledText styledText = _styledTexts.get(i);
-            StyleRange style = styledText.styleRange;
+        layout._preferredRowCount = 1;
+        for (int i = 0; i < styledTexts.size(); i++) {
+            StyledText styledText = styledTexts.get(i);
             if (styledText.text.contains("\r") || styledText.text.contains("\n")) {
                 x = 0;
-                _preferredRowCount++;
+                layout._preferredRowCount++;
                 continue;
             }
 
-            int size = (style != null &&
-                    (style.isSuperscript() || style.isSubscript())) ? Math.round((float) defaultFontSize / style.getFontShrinkRatio()) : defaultFontSize;
-
-            font = getFont(label); // cannot omit this one
-            if (style != null && ((style.getFontStyle() != -1 && font.getStyle() != style.getFontStyle()) || font.getSize() != size)) {
-                font = FontUtils.getCachedDerivedFont(font, style.getFontStyle() == -1 ? font.getStyle() : style.getFontStyle(), size);
-                fm2 = label.getFontMetrics(font);
-            }
-            else {
-                fm2 = fm;
-            }
+            fm2 = styledText.fontMetrics;
 
             String s = styledText.text.substring(nextRowStartIndex);
 
@@ -435,7 +660,7 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
                         if (x != 0) {
                             x = 0;
                             i--;
-                            _preferredRowCount++;
+                            layout._preferredRowCount++;
                             needContinue = true;
                             break;
                         }
@@ -445,7 +670,7 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
                         }
                     }
 
-                    if (label.getMaxRows() > 0 && _preferredRowCount >= label.getMaxRows()) {
+                    if (label.getMaxRows() > 0 && layout._preferredRowCount >= label.getMaxRows()) {
                         needBreak = true;
                     }
 
@@ -492,7 +717,7 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
             }
 
             if (wrapped) {
-                _preferredRowCount++;
+                layout._preferredRowCount++;
                 x = 0;
                 i--;
             }
@@ -500,10 +725,9 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
                 x += strWidth;
             }
         }
-        return maxWidth;
     }
 
-    private int getMaximumWidth(StyledLabel label, int maxWidth, int naturalRowCount, int limitedRows) {
+    private int getMaximumWidth(StyledLabel label, StyledTextLayout layout, int maxWidth, int naturalRowCount, int limitedRows) {
         int textWidth = label.getWidth() - label.getInsets().left - label.getInsets().right;
         if (label.getIcon() != null) {
             textWidth -= label.getIcon().getIconWidth() + label.getIconTextGap();
@@ -511,13 +735,13 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
         if (naturalRowCount > 1) {
             int proposedMaxWidthMin = 1;
             int proposedMaxWidthMax = maxWidth;
-            _preferredRowCount = naturalRowCount;
+            layout._preferredRowCount = naturalRowCount;
             while (proposedMaxWidthMin < proposedMaxWidthMax) {
                 int middle = (proposedMaxWidthMax + proposedMaxWidthMin) / 2;
-                maxWidth = getLayoutWidth(label, middle);
-                if (_preferredRowCount > limitedRows) {
+                maxWidth = getLayoutWidth(label, layout, middle);
+                if (layout._preferredRowCount > limitedRows) {
                     proposedMaxWidthMin = middle + 1;
-                    _preferredRowCount = naturalRowCount;
+                    layout._preferredRowCount = naturalRowCount;
                 }
                 else {
                     proposedMaxWidthMax = middle - 1;
@@ -529,22 +753,11 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
         int estimatedWidth = maxWidth / limitedRows + 1;
         int x = 0;
         int nextRowStartIndex = 0;
-        Font font = getFont(label);
-        FontMetrics fm = label.getFontMetrics(font);
-        int defaultFontSize = font.getSize();
+        List<StyledText> styledTexts = layout.getStyledTexts();
         FontMetrics fm2;
-        for (int i = 0; i < _styledTexts.size(); i++) {
-            StyledText styledText = _styledTexts.get(i);
-            StyleRange style = styledText.styleRange;
-            int size = (style != null && (style.isSuperscript() || style.isSubscript())) ? Math.round((float) defaultFontSize / style.getFontShrinkRatio()) : defaultFontSize;
-            font = getFont(label);
-            if (style != null && ((style.getFontStyle() != -1 && font.getStyle() != style.getFontStyle()) || font.getSize() != size)) {
-                font = FontUtils.getCachedDerivedFont(font, style.getFontStyle() == -1 ? font.getStyle() : style.getFontStyle(), size);
-                fm2 = label.getFontMetrics(font);
-            }
-            else {
-                fm2 = fm;
-            }
+        for (int i = 0; i < styledTexts.size(); i++) {
+            StyledText styledText = styledTexts.get(i);
+            fm2 = styledText.fontMetrics;
 
             String s = styledText.text.substring(nextRowStartIndex);
             int strWidth = fm2.stringWidth(s);
@@ -591,23 +804,23 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
         if (label.getInsets() != null) {
             paintWidth += label.getInsets().left + label.getInsets().right;
         }
-        int paintRows = internalPaintStyledText(label, null, 0, 0, paintWidth);
+        int paintRows = internalPaintStyledText(label, layout, null, 0, 0, paintWidth);
         if (paintRows != limitedRows) {
             maxWidth = Math.min(maxWidth, textWidth);
             while (paintRows > limitedRows && paintWidth < maxWidth) {
                 paintWidth += 2;
-                paintRows = internalPaintStyledText(label, null, 0, 0, paintWidth);
+                paintRows = internalPaintStyledText(label, layout, null, 0, 0, paintWidth);
             }
             while (paintRows < limitedRows && paintWidth > 0) {
                 paintWidth -= 2;
-                paintRows = internalPaintStyledText(label, null, 0, 0, paintWidth);
+                paintRows = internalPaintStyledText(label, layout, null, 0, 0, paintWidth);
             }
             x = paintWidth;
             if (label.getInsets() != null) {
                 x -= label.getInsets().left + label.getInsets().right;
             }
         }
-        _preferredRowCount = limitedRows;
+        layout._preferredRowCount = limitedRows;
         return x;
     }
 
@@ -654,11 +867,11 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
             textWidth -= label.getIcon().getIconWidth() + label.getIconTextGap();
         }
         paintWidth = Math.min(paintWidth, textWidth);
-        internalPaintStyledText(label, g, textX, textY, paintWidth);
+        internalPaintStyledText(label, getStyledTextLayout(label), g, textX, textY, paintWidth);
         g.setColor(oldColor);
     }
 
-    private int internalPaintStyledText(StyledLabel label, Graphics g, int textX, int textY, int paintWidth) {
+    private int internalPaintStyledText(StyledLabel label, StyledTextLayout layout, Graphics g, int textX, int textY, int paintWidth) {
         int labelHeight = label.getHeight();
         if (labelHeight <= 0) {
             labelHeight = Integer.MAX_VALUE;
@@ -694,346 +907,305 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
         int charDisplayed = 0;
         boolean displayMnemonic;
         int mneIndex = 0;
-        Font font = getFont(label);
-        FontMetrics fm = label.getFontMetrics(font);
+        List<StyledText> styledTexts = layout.getStyledTexts();
+        FontMetrics fm = layout.getFontMetrics();
+        Font font = fm.getFont();
         FontMetrics fm2;
         FontMetrics nextFm2 = null;
-        int defaultFontSize = font.getSize();
 
-        synchronized (_styledTexts) {
-            String nextS = "";
-            int maxRowHeight = fm.getHeight();
-            int minStartY = fm.getAscent();
-            int horizontalAlignment = label.getHorizontalAlignment();
-            switch (horizontalAlignment) {
-                case LEADING:
-                    horizontalAlignment = label.getComponentOrientation().isLeftToRight() ? LEFT : RIGHT;
-                    break;
-                case TRAILING:
-                    horizontalAlignment = label.getComponentOrientation().isLeftToRight() ? RIGHT : LEFT;
-                    break;
-            }
-            for (StyledText styledText : _styledTexts) {
-                StyleRange style = styledText.styleRange;
-                int size = (style != null && (style.isSuperscript() || style.isSubscript())) ? Math.round((float) defaultFontSize / style.getFontShrinkRatio()) : defaultFontSize;
+        String nextS = "";
+        int maxRowHeight = Math.max(fm.getHeight(), layout._maxRunHeight);
+        int minStartY = Math.max(fm.getAscent(), layout._maxRunAscent);
+        int horizontalAlignment = label.getHorizontalAlignment();
+        switch (horizontalAlignment) {
+            case LEADING:
+                horizontalAlignment = label.getComponentOrientation().isLeftToRight() ? LEFT : RIGHT;
+                break;
+            case TRAILING:
+                horizontalAlignment = label.getComponentOrientation().isLeftToRight() ? RIGHT : LEFT;
+                break;
+        }
+        boolean lineWrap = label.isLineWrap() || layout._endsWithNewLine;
+        if (lineWrap && textY < minStartY) {
+            textY = minStartY;
+        }
 
-                font = getFont(label);
-                if (style != null && ((style.getFontStyle() != -1 && font.getStyle() != style.getFontStyle()) || font.getSize() != size)) {
-                    font = FontUtils.getCachedDerivedFont(font, style.getFontStyle() == -1 ? font.getStyle() : style.getFontStyle(), size);
-                    fm2 = label.getFontMetrics(font);
-                    maxRowHeight = Math.max(maxRowHeight, fm2.getHeight());
-                    minStartY = Math.max(minStartY, fm2.getAscent());
-                }
-            }
-            boolean lineWrap = label.isLineWrap();
-            if (!lineWrap) {
-                for (StyledText styledText : _styledTexts) {
-                    if (styledText.text.endsWith("\n")) {
-                        lineWrap = true;
-                        break;
-                    }
-                }
+        int nextRowStartIndex = 0;
+        int rowCount = 0;
+        int rowStartOffset = 0;
+        for (int i = 0; i < styledTexts.size(); i++) {
+            StyledText styledText = styledTexts.get(i);
+            StyleRange style = styledText.styleRange;
+
+            if (mnemonicIndex >= 0 && styledText.text.length() - nextRowStartIndex > mnemonicIndex - charDisplayed) {
+                displayMnemonic = true;
+                mneIndex = mnemonicIndex - charDisplayed;
             }
-            if (lineWrap && textY < minStartY) {
-                textY = minStartY;
+            else {
+                displayMnemonic = false;
             }
-
-            int nextRowStartIndex = 0;
-            int rowCount = 0;
-            int rowStartOffset = 0;
-            for (int i = 0; i < _styledTexts.size(); i++) {
-                StyledText styledText = _styledTexts.get(i);
-                StyleRange style = styledText.styleRange;
-
-                if (mnemonicIndex >= 0 && styledText.text.length() - nextRowStartIndex > mnemonicIndex - charDisplayed) {
-                    displayMnemonic = true;
-                    mneIndex = mnemonicIndex - charDisplayed;
+            charDisplayed += styledText.text.length() - nextRowStartIndex;
+            if (styledText.text.contains("\r") || styledText.text.contains("\n")) {
+                boolean lastRow = (label.getMaxRows() > 0 && rowCount >= label.getMaxRows() - 1) || textY + maxRowHeight + Math.max(0, label.getRowGap()) > labelHeight;
+                if (horizontalAlignment != LEFT && g != null) {
+                    if (lastRow && i != styledTexts.size() - 1) {
+                        x += fm.stringWidth("...");
+                    }
+                    paintRow(label, layout, g, startX, x, endX, textY, rowStartOffset, style.getStart() + styledText.text.length(), lastRow);
                 }
-                else {
-                    displayMnemonic = false;
+                rowStartOffset = style.getStart();
+                nextRowStartIndex = 0;
+                nextFm2 = null;
+                if (!lastRow) {
+                    rowStartOffset += style.getLength();
+                    rowCount++;
+                    x = startX;
+                    textY += maxRowHeight + Math.max(0, label.getRowGap());
+                    continue; // continue to paint "..." if lastRow is true
                 }
-                charDisplayed += styledText.text.length() - nextRowStartIndex;
-                if (styledText.text.contains("\r") || styledText.text.contains("\n")) {
-                    boolean lastRow = (label.getMaxRows() > 0 && rowCount >= label.getMaxRows() - 1) || textY + maxRowHeight + Math.max(0, label.getRowGap()) > labelHeight;
-                    if (horizontalAlignment != LEFT && g != null) {
-                        if (lastRow && i != _styledTexts.size() - 1) {
-                            x += fm.stringWidth("...");
-                        }
-                        paintRow(label, g, startX, x, endX, textY, rowStartOffset, style.getStart() + styledText.text.length(), lastRow);
-                    }
-                    rowStartOffset = style.getStart();
-                    nextRowStartIndex = 0;
-                    nextFm2 = null;
-                    if (!lastRow) {
-                        rowStartOffset += style.getLength();
-                        rowCount++;
-                        x = startX;
-                        textY += maxRowHeight + Math.max(0, label.getRowGap());
-                        continue; // continue to paint "..." if lastRow is true
-                    }
-                    else if (horizontalAlignment != LEFT && g != null) {
-                        break;
-                    }
+                else if (horizontalAlignment != LEFT && g != null) {
+                    break;
                 }
+            }
 
-                y = textY;
+            y = textY;
 
-                if (nextFm2 == null) {
-                    int size = (style != null &&
-                            (style.isSuperscript() || style.isSubscript())) ? Math.round((float) defaultFontSize / style.getFontShrinkRatio()) : defaultFontSize;
+            if (nextFm2 == null) {
+                font = styledText.font;
+                fm2 = styledText.fontMetrics;
+            }
+            else {
+                fm2 = nextFm2;
+            }
 
-                    font = getFont(label);
-                    if (style != null && ((style.getFontStyle() != -1 && font.getStyle() != style.getFontStyle()) || font.getSize() != size)) {
-                        font = FontUtils.getCachedDerivedFont(font, style.getFontStyle() == -1 ? font.getStyle() : style.getFontStyle(), size);
-                        fm2 = label.getFontMetrics(font);
-                    }
-                    else {
-                        fm2 = fm;
-                    }
-                }
-                else {
-                    fm2 = nextFm2;
-                }
+            if (g != null) {
+                g.setFont(font);
+            }
 
-                if (g != null) {
-                    g.setFont(font);
-                }
+            boolean stop = false;
+            String s = styledText.text.substring(Math.min(nextRowStartIndex, styledText.text.length()));
+            if (s.contains("\r") || s.contains("\n")) {
+                s = "...";
+                stop = true;
+            }
 
-                boolean stop = false;
-                String s = styledText.text.substring(Math.min(nextRowStartIndex, styledText.text.length()));
-                if (s.contains("\r") || s.contains("\n")) {
-                    s = "...";
-                    stop = true;
-                }
+            int strWidth = fm2.stringWidth(s);
 
-                int strWidth = fm2.stringWidth(s);
-
-                boolean wrapped = false;
-                int widthLeft = endX - x;
-                if (widthLeft < strWidth && widthLeft >= 0) {
-                    if (label.isLineWrap() && ((label.getMaxRows() > 0 && rowCount < label.getMaxRows() - 1) || label.getMaxRows() <= 0) && y + maxRowHeight + Math.max(0, label.getRowGap()) <= labelHeight) {
-                        wrapped = true;
-                        int availLength = s.length() * widthLeft / strWidth + 1;
-                        int nextWordStartIndex;
-                        int nextRowStartIndexInSubString = 0;
-                        boolean needBreak = false;
-                        boolean needContinue = false;
-                        int loopCount = 0;
-                        do {
-                            String subString = s.substring(0, Math.max(0, Math.min(availLength, s.length())));
-                            int firstRowWordEndIndex = findFirstRowWordEndIndex(subString);
-                            nextWordStartIndex = firstRowWordEndIndex < 0 ? 0 : findNextWordStartIndex(s, firstRowWordEndIndex);
-                            if (firstRowWordEndIndex < 0) {
-                                if (x != startX) {
-                                    boolean lastRow = label.getMaxRows() > 0 && rowCount >= label.getMaxRows() - 1;
-                                    if (horizontalAlignment != LEFT && g != null) {
-                                        paintRow(label, g, startX, x, endX, textY, rowStartOffset, style.getStart() + Math.min(nextRowStartIndex, styledText.text.length()), lastRow);
-                                    }
-                                    textY += maxRowHeight + Math.max(0, label.getRowGap());
-                                    x = startX;
-                                    i--;
-                                    rowCount++;
-                                    rowStartOffset = style.getStart() + Math.min(nextRowStartIndex, styledText.text.length());
-                                    if (lastRow) {
-                                        needBreak = true;
-                                    }
-                                    needContinue = true;
-                                    break;
+            boolean wrapped = false;
+            int widthLeft = endX - x;
+            if (widthLeft < strWidth && widthLeft >= 0) {
+                if (label.isLineWrap() && ((label.getMaxRows() > 0 && rowCount < label.getMaxRows() - 1) || label.getMaxRows() <= 0) && y + maxRowHeight + Math.max(0, label.getRowGap()) <= labelHeight) {
+                    wrapped = true;
+                    int availLength = s.length() * widthLeft / strWidth + 1;
+                    int nextWordStartIndex;
+                    int nextRowStartIndexInSubString = 0;
+                    boolean needBreak = false;
+                    boolean needContinue = false;
+                    int loopCount = 0;
+                    do {
+                        String subString = s.substring(0, Math.max(0, Math.min(availLength, s.length())));
+                        int firstRowWordEndIndex = findFirstRowWordEndIndex(subString);
+                        nextWordStartIndex = firstRowWordEndIndex < 0 ? 0 : findNextWordStartIndex(s, firstRowWordEndIndex);
+                        if (firstRowWordEndIndex < 0) {
+                            if (x != startX) {
+                                boolean lastRow = label.getMaxRows() > 0 && rowCount >= label.getMaxRows() - 1;
+                                if (horizontalAlignment != LEFT && g != null) {
+                                    paintRow(label, layout, g, startX, x, endX, textY, rowStartOffset, style.getStart() + Math.min(nextRowStartIndex, styledText.text.length()), lastRow);
                                 }
-                                else {
-                                    firstRowWordEndIndex = 0;
-                                    nextWordStartIndex = Math.min(s.length(), availLength);
+                                textY += maxRowHeight + Math.max(0, label.getRowGap());
+                                x = startX;
+                                i--;
+                                rowCount++;
+                                rowStartOffset = style.getStart() + Math.min(nextRowStartIndex, styledText.text.length());
+                                if (lastRow) {
+                                    needBreak = true;
                                 }
-                            }
-                            nextRowStartIndexInSubString = firstRowWordEndIndex + 1;
-                            String subStringThisRow = s.substring(0, Math.min(nextRowStartIndexInSubString, s.length()));
-                            strWidth = fm2.stringWidth(subStringThisRow);
-                            if (strWidth > widthLeft) {
-                                availLength = subString.length() * widthLeft / strWidth;
-                            }
-                            loopCount++;
-                            if (loopCount > 15) {
-                                System.err.println("Painting Styled Label Error: " + styledText);
+                                needContinue = true;
                                 break;
                             }
-                        } while (strWidth > widthLeft && availLength > 0);
-                        if (needBreak) {
+                            else {
+                                firstRowWordEndIndex = 0;
+                                nextWordStartIndex = Math.min(s.length(), availLength);
+                            }
+                        }
+                        nextRowStartIndexInSubString = firstRowWordEndIndex + 1;
+                        String subStringThisRow = s.substring(0, Math.min(nextRowStartIndexInSubString, s.length()));
+                        strWidth = fm2.stringWidth(subStringThisRow);
+                        if (strWidth > widthLeft) {
+                            availLength = subString.length() * widthLeft / strWidth;
+                        }
+                        loopCount++;
+                        if (loopCount > 15) {
+                            System.err.println("Painting Styled Label Error: " + styledText);
                             break;
                         }
-                        if (needContinue) {
-                            continue;
+                    } while (strWidth > widthLeft && availLength > 0);
+                    if (needBreak) {
+                        break;
+                    }
+                    if (needContinue) {
+                        continue;
+                    }
+                    while (nextRowStartIndexInSubString < nextWordStartIndex) {
+                        strWidth += fm2.charWidth(s.charAt(nextRowStartIndexInSubString));
+                        if (strWidth >= widthLeft) {
+                            break;
                         }
-                        while (nextRowStartIndexInSubString < nextWordStartIndex) {
-                            strWidth += fm2.charWidth(s.charAt(nextRowStartIndexInSubString));
-                            if (strWidth >= widthLeft) {
-                                break;
-                            }
-                            nextRowStartIndexInSubString++;
+                        nextRowStartIndexInSubString++;
+                    }
+                    s = s.substring(0, Math.min(nextRowStartIndexInSubString, s.length()));
+                    strWidth = fm2.stringWidth(s);
+                    charDisplayed -= styledText.text.length() - nextRowStartIndex;
+                    if (displayMnemonic) {
+                        if (mnemonicIndex >= 0 && s.length() > mnemonicIndex - charDisplayed) {
+                            displayMnemonic = true;
+                            mneIndex = mnemonicIndex - charDisplayed;
                         }
-                        s = s.substring(0, Math.min(nextRowStartIndexInSubString, s.length()));
-                        strWidth = fm2.stringWidth(s);
-                        charDisplayed -= styledText.text.length() - nextRowStartIndex;
-                        if (displayMnemonic) {
-                            if (mnemonicIndex >= 0 && s.length() > mnemonicIndex - charDisplayed) {
-                                displayMnemonic = true;
-                                mneIndex = mnemonicIndex - charDisplayed;
-                            }
-                            else {
-                                displayMnemonic = false;
-                            }
+                        else {
+                            displayMnemonic = false;
                         }
-                        charDisplayed += s.length();
-                        nextRowStartIndex += nextRowStartIndexInSubString;
                     }
-                    else {
-                        // use this method to clip string
+                    charDisplayed += s.length();
+                    nextRowStartIndex += nextRowStartIndexInSubString;
+                }
+                else {
+                    // use this method to clip string
+                    s = SwingUtilities.layoutCompoundLabel(label, fm2, s, null, label.getVerticalAlignment(), label.getHorizontalAlignment(),
+                            label.getVerticalTextPosition(), label.getHorizontalTextPosition(), new Rectangle(x, y, widthLeft, labelHeight), new Rectangle(), new Rectangle(), 0);
+                    strWidth = fm2.stringWidth(s);
+                }
+                stop = !lineWrap || y + maxRowHeight + Math.max(0, label.getRowGap()) > labelHeight || (label.getMaxRows() > 0 && rowCount >= label.getMaxRows() - 1);
+            }
+            else if (lineWrap) {
+                nextRowStartIndex = 0;
+            }
+            else if (i < styledTexts.size() - 1) {
+                StyledText nextStyledText = styledTexts.get(i + 1);
+                String nextText = nextStyledText.text;
+                font = nextStyledText.font;
+                nextFm2 = nextStyledText.fontMetrics;
+                if (nextS.equals("...")) {
+                    nextS = SwingUtilities.layoutCompoundLabel(label, nextFm2, nextText, null, label.getVerticalAlignment(), label.getHorizontalAlignment(),
+                            label.getVerticalTextPosition(), label.getHorizontalTextPosition(), new Rectangle(x + strWidth, y, widthLeft - strWidth, labelHeight), new Rectangle(), new Rectangle(), 0);
+                    if (nextFm2.stringWidth(nextS) > widthLeft - strWidth) {
                         s = SwingUtilities.layoutCompoundLabel(label, fm2, s, null, label.getVerticalAlignment(), label.getHorizontalAlignment(),
-                                label.getVerticalTextPosition(), label.getHorizontalTextPosition(), new Rectangle(x, y, widthLeft, labelHeight), new Rectangle(), new Rectangle(), 0);
+                                label.getVerticalTextPosition(), label.getHorizontalTextPosition(), new Rectangle(x, y, strWidth - 1, labelHeight), new Rectangle(), new Rectangle(), 0);
                         strWidth = fm2.stringWidth(s);
+                        stop = true;
                     }
-                    stop = !lineWrap || y + maxRowHeight + Math.max(0, label.getRowGap()) > labelHeight || (label.getMaxRows() > 0 && rowCount >= label.getMaxRows() - 1);
                 }
-                else if (lineWrap) {
-                    nextRowStartIndex = 0;
+            }
+
+            // start of actual painting
+            if (rowCount > 0 && x == startX && s.startsWith(" ")) {
+                s = s.substring(1);
+                strWidth = fm2.stringWidth(s);
+            }
+            if (horizontalAlignment == LEFT && g != null) {
+                if (style != null && style.isSuperscript()) {
+                    y -= fm.getHeight() - fm2.getHeight();
                 }
-                else if (i < _styledTexts.size() - 1) {
-                    StyledText nextStyledText = _styledTexts.get(i + 1);
-                    String nextText = nextStyledText.text;
-                    StyleRange nextStyle = nextStyledText.styleRange;
-                    int size = (nextStyle != null &&
-                            (nextStyle.isSuperscript() || nextStyle.isSubscript())) ? Math.round((float) defaultFontSize / nextStyle.getFontShrinkRatio()) : defaultFontSize;
-
-                    font = getFont(label);
-                    if (nextStyle != null && ((nextStyle.getFontStyle() != -1 && font.getStyle() != nextStyle.getFontStyle()) || font.getSize() != size)) {
-                        font = FontUtils.getCachedDerivedFont(font, nextStyle.getFontStyle() == -1 ? font.getStyle() : nextStyle.getFontStyle(), size);
-                        nextFm2 = label.getFontMetrics(font);
-                    }
-                    else {
-                        nextFm2 = fm;
-                    }
-                    if (nextS.equals("...")) {
-                        nextS = SwingUtilities.layoutCompoundLabel(label, nextFm2, nextText, null, label.getVerticalAlignment(), label.getHorizontalAlignment(),
-                                label.getVerticalTextPosition(), label.getHorizontalTextPosition(), new Rectangle(x + strWidth, y, widthLeft - strWidth, labelHeight), new Rectangle(), new Rectangle(), 0);
-                        if (nextFm2.stringWidth(nextS) > widthLeft - strWidth) {
-                            s = SwingUtilities.layoutCompoundLabel(label, fm2, s, null, label.getVerticalAlignment(), label.getHorizontalAlignment(),
-                                    label.getVerticalTextPosition(), label.getHorizontalTextPosition(), new Rectangle(x, y, strWidth - 1, labelHeight), new Rectangle(), new Rectangle(), 0);
-                            strWidth = fm2.stringWidth(s);
-                            stop = true;
-                        }
-                    }
+
+                if (style != null && style.getBackgroundColor() != null) {
+                    g.setColor(style.getBackgroundColor());
+                    g.fillRect(x, y - fm2.getHeight(), strWidth, fm2.getHeight() + 4);
                 }
 
-                // start of actual painting
-                if (rowCount > 0 && x == startX && s.startsWith(" ")) {
-                    s = s.substring(1);
-                    strWidth = fm2.stringWidth(s);
+                Color textColor = (style != null && !label.isIgnoreColorSettings() && style.getFontColor() != null) ? style.getFontColor() : label.getForeground();
+                if (!label.isEnabled()) {
+                    textColor = UIDefaultsLookup.getColor("Label.disabledForeground");
+                }
+                g.setColor(textColor);
+
+                if (displayMnemonic) {
+                    JideSwingUtilities.drawStringUnderlineCharAt(label, g, s, mneIndex, x, y);
+                }
+                else {
+                    JideSwingUtilities.drawString(label, g, s, x, y);
                 }
-                if (horizontalAlignment == LEFT && g != null) {
-                    if (style != null && style.isSuperscript()) {
-                        y -= fm.getHeight() - fm2.getHeight();
-                    }
 
-                    if (style != null && style.getBackgroundColor() != null) {
-                        g.setColor(style.getBackgroundColor());
-                        g.fillRect(x, y - fm2.getHeight(), strWidth, fm2.getHeight() + 4);
+                if (style != null) {
+                    Stroke oldStroke = ((Graphics2D) g).getStroke();
+                    if (style.getLineStroke() != null) {
+                        ((Graphics2D) g).setStroke(style.getLineStroke());
                     }
 
-                    Color textColor = (style != null && !label.isIgnoreColorSettings() && style.getFontColor() != null) ? style.getFontColor() : label.getForeground();
-                    if (!label.isEnabled()) {
-                        textColor = UIDefaultsLookup.getColor("Label.disabledForeground");
+                    if (!label.isIgnoreColorSettings() && style.getLineColor() != null) {
+                        g.setColor(style.getLineColor());
                     }
-                    g.setColor(textColor);
 
-                    if (displayMnemonic) {
-                        JideSwingUtilities.drawStringUnderlineCharAt(label, g, s, mneIndex, x, y);
+                    if (style.isStrikethrough()) {
+                        int lineY = y + (fm2.getDescent() - fm2.getAscent()) / 2;
+                        g.drawLine(x, lineY, x + strWidth - 1, lineY);
                     }
-                    else {
-                        JideSwingUtilities.drawString(label, g, s, x, y);
+                    if (style.isDoublestrikethrough()) {
+                        int lineY = y + (fm2.getDescent() - fm2.getAscent()) / 2;
+                        g.drawLine(x, lineY - 1, x + strWidth - 1, lineY - 1);
+                        g.drawLine(x, lineY + 1, x + strWidth - 1, lineY + 1);
                     }
-
-                    if (style != null) {
-                        Stroke oldStroke = ((Graphics2D) g).getStroke();
-                        if (style.getLineStroke() != null) {
-                            ((Graphics2D) g).setStroke(style.getLineStroke());
-                        }
-
-                        if (!label.isIgnoreColorSettings() && style.getLineColor() != null) {
-                            g.setColor(style.getLineColor());
-                        }
-
-                        if (style.isStrikethrough()) {
-                            int lineY = y + (fm2.getDescent() - fm2.getAscent()) / 2;
-                            g.drawLine(x, lineY, x + strWidth - 1, lineY);
-                        }
-                        if (style.isDoublestrikethrough()) {
-                            int lineY = y + (fm2.getDescent() - fm2.getAscent()) / 2;
-                            g.drawLine(x, lineY - 1, x + strWidth - 1, lineY - 1);
-                            g.drawLine(x, lineY + 1, x + strWidth - 1, lineY + 1);
-                        }
-                        if (style.isUnderlined()) {
-                            int lineY = y + 1;
-                            g.drawLine(x, lineY, x + strWidth - 1, lineY);
-                        }
-                        if (style.isDotted()) {
-                            int dotY = y + 1;
-                            for (int dotX = x; dotX < x + strWidth; dotX += 4) {
-                                g.drawRect(dotX, dotY, 1, 1);
-                            }
-                        }
-                        if (style.isWaved()) {
-                            int waveY = y + 1;
-                            for (int waveX = x; waveX < x + strWidth; waveX += 4) {
-                                if (waveX + 2 <= x + strWidth - 1)
-                                    g.drawLine(waveX, waveY + 2, waveX + 2, waveY);
-                                if (waveX + 4 <= x + strWidth - 1)
-                                    g.drawLine(waveX + 3, waveY + 1, waveX + 4, waveY + 2);
-                            }
+                    if (style.isUnderlined()) {
+                        int lineY = y + 1;
+                        g.drawLine(x, lineY, x + strWidth - 1, lineY);
+                    }
+                    if (style.isDotted()) {
+                        int dotY = y + 1;
+                        for (int dotX = x; dotX < x + strWidth; dotX += 4) {
+                            g.drawRect(dotX, dotY, 1, 1);
                         }
-                        if (style.getLineStroke() != null) {
-                            ((Graphics2D) g).setStroke(oldStroke);
+                    }
+                    if (style.isWaved()) {
+                        int waveY = y + 1;
+                        for (int waveX = x; waveX < x + strWidth; waveX += 4) {
+                            if (waveX + 2 <= x + strWidth - 1)
+                                g.drawLine(waveX, waveY + 2, waveX + 2, waveY);
+                            if (waveX + 4 <= x + strWidth - 1)
+                                g.drawLine(waveX + 3, waveY + 1, waveX + 4, waveY + 2);
                         }
                     }
-                }
-                // end of actual painting
-
-                if (stop) {
-                    if (horizontalAlignment != LEFT && g != null) {
-                        x += strWidth;
-                        paintRow(label, g, startX, x, endX, textY, rowStartOffset, label.getText().length(), true);
+                    if (style.getLineStroke() != null) {
+                        ((Graphics2D) g).setStroke(oldStroke);
                     }
-                    label.setTruncated(true);
-                    break;
                 }
+            }
+            // end of actual painting
 
-                if (wrapped) {
-                    boolean lastRow = (label.getMaxRows() > 0 && rowCount >= label.getMaxRows() - 1) || textY + maxRowHeight + Math.max(0, label.getRowGap()) > labelHeight;
-                    if (horizontalAlignment != LEFT && g != null) {
-                        x += strWidth;
-                        paintRow(label, g, startX, x, endX, textY, rowStartOffset, style.getStart() + Math.min(nextRowStartIndex, styledText.text.length()), lastRow);
-                    }
-                    textY += maxRowHeight + Math.max(0, label.getRowGap());
-                    x = startX;
-                    i--;
-                    rowCount++;
-                    rowStartOffset = style.getStart() + Math.min(nextRowStartIndex, styledText.text.length());
-                    if (lastRow) {
-                        break;
-                    }
+            if (stop) {
+                if (horizontalAlignment != LEFT && g != null) {
+                    x += strWidth;
+                    paintRow(label, layout, g, startX, x, endX, textY, rowStartOffset, label.getText().length(), true);
                 }
-                else {
+                label.setTruncated(true);
+                break;
+            }
+
+            if (wrapped) {
+                boolean lastRow = (label.getMaxRows() > 0 && rowCount >= label.getMaxRows() - 1) || textY + maxRowHeight + Math.max(0, label.getRowGap()) > labelHeight;
+                if (horizontalAlignment != LEFT && g != null) {
                     x += strWidth;
+                    paintRow(label, layout, g, startX, x, endX, textY, rowStartOffset, style.getStart() + Math.min(nextRowStartIndex, styledText.text.length()), lastRow);
                 }
-                if (i == _styledTexts.size() - 1) {
-                    if (horizontalAlignment != LEFT && g != null) {
-                        paintRow(label, g, startX, x, endX, textY, rowStartOffset, -1, true);
-                    }
+                textY += maxRowHeight + Math.max(0, label.getRowGap());
+                x = startX;
+                i--;
+                rowCount++;
+                rowStartOffset = style.getStart() + Math.min(nextRowStartIndex, styledText.text.length());
+                if (lastRow) {
+                    break;
+                }
+            }
+            else {
+                x += strWidth;
+            }
+            if (i == styledTexts.size() - 1) {
+                if (horizontalAlignment != LEFT && g != null) {
+                    paintRow(label, layout, g, startX, x, endX, textY, rowStartOffset, -1, true);
                 }
             }
-            return (int) Math.ceil((double) textY / maxRowHeight);
         }
+        return (int) Math.ceil((double) textY / maxRowHeight);
     }
 
-    private void paintRow(StyledLabel label, Graphics g, int leftAlignmentX, int thisLineEndX, int rightMostX, int textY, int startOffset, int endOffset, boolean lastRow) {
+    private void paintRow(StyledLabel label, StyledTextLayout layout, Graphics g, int leftAlignmentX, int thisLineEndX, int rightMostX, int textY, int startOffset, int endOffset, boolean lastRow) {
         if (g == null) {
             return;
         }
@@ -1091,15 +1263,15 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
         int charDisplayed = 0;
         boolean displayMnemonic;
         int mneIndex = 0;
-        Font font = getFont(label);
-        FontMetrics fm = label.getFontMetrics(font);
+        List<StyledText> styledTexts = layout.getStyledTexts();
+        FontMetrics fm = layout.getFontMetrics();
+        Font font = fm.getFont();
         FontMetrics fm2;
         FontMetrics nextFm2 = null;
-        int defaultFontSize = font.getSize();
 
         int x = textX;
-        for (int i = 0; i < _styledTexts.size() && (endOffset < 0 || charDisplayed < endOffset); i++) {
-            StyledText styledText = _styledTexts.get(i);
+        for (int i = 0; i < styledTexts.size() && (endOffset < 0 || charDisplayed < endOffset); i++) {
+            StyledText styledText = styledTexts.get(i);
             StyleRange style = styledText.styleRange;
             int length = style.getLength();
             if (length < 0) {
@@ -1128,17 +1300,8 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
             int y = textY;
 
             if (nextFm2 == null) {
-                int size = (style != null &&
-                        (style.isSuperscript() || style.isSubscript())) ? Math.round((float) defaultFontSize / style.getFontShrinkRatio()) : defaultFontSize;
-
-                font = getFont(label);
-                if (style != null && ((style.getFontStyle() != -1 && font.getStyle() != style.getFontStyle()) || font.getSize() != size)) {
-                    font = FontUtils.getCachedDerivedFont(font, style.getFontStyle() == -1 ? font.getStyle() : style.getFontStyle(), size);
-                    fm2 = label.getFontMetrics(font);
-                }
-                else {
-                    fm2 = fm;
-                }
+                font = styledText.font;
+                fm2 = styledText.fontMetrics;
             }
             else {
                 fm2 = nextFm2;
@@ -1227,21 +1390,11 @@ public class BasicStyledLabelUI extends BasicLabelUI implements SwingConstants {
             else if (label.isLineWrap()) {
                 nextRowStartIndex = 0;
             }
-            else if (i < _styledTexts.size() - 1) {
-                StyledText nextStyledText = _styledTexts.get(i + 1);
+            else if (i < styledTexts.size() - 1) {
+                StyledText nextStyledText = styledTexts.get(i + 1);
                 String nextText = nextStyledText.text;
-                StyleRange nextStyle = nextStyledText.styleRange;
-                int size = (nextStyle != null &&
-                        (nextStyle.isSuperscript() || nextStyle.isSubscript())) ? Math.round((float) defaultFontSize / nextStyle.getFontShrinkRatio()) : defaultFontSize;
-
-                font = getFont(label);
-                if (nextStyle != null && ((nextStyle.getFontStyle() != -1 && font.getStyle() != nextStyle.getFontStyle()) || font.getSize() != size)) {
-                    font = FontUtils.getCachedDerivedFont(font, nextStyle.getFontStyle() == -1 ? font.getStyle() : nextStyle.getFontStyle(), size);
-                    nextFm2 = label.getFontMetrics(font);
-                }
-                else {
-                    nextFm2 = fm;
-                }
+                font = nextStyledText.font;
+                nextFm2 = nextStyledText.fontMetrics;
                 if (nextFm2.stringWidth(nextText) > widthLeft - strWidth) {
                     String nextS = SwingUtilities.layoutCompoundLabel(label, nextFm2, nextText, null, label.getVerticalAlignment(), label.getHorizontalAlignment(),
                             label.getVerticalTextPosition(), label.getHorizontalTextPosition(), new Rectangle(x + strWidth, y, widthLeft - strWidth, label.getHeight()), new Rectangle(), new Rectangle(), 0);
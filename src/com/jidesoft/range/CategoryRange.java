@@ -12,6 +12,10 @@ import java.util.*;
 
 /**
  * Note that this class is iterable so you can use it in an advanced for.. loop
+ * <p/>
+ * The positions of the values are kept in a hash index, so {@link #position(Object)} and {@link #contains(Object)} don't
+ * scan the values. When the range is sorted, an added category is inserted at its sorted position by a binary search
+ * and only the positions after it are indexed again, lazily on the next lookup.
  *
  * @author Simon White (swhite@catalysoft.com)
  */
@@ -27,7 +31,38 @@ public class CategoryRange<T> extends AbstractRange<T> implements Iterable<Categ
     private boolean sorted = false;
     // Private member variable to flag whether the possible values have been sorted or are in need of a sort
     private boolean alreadySorted = false;
+    // The index of each possible value. Only the indices less than indexedCount are up to date.
     private Map<T, Integer> positionIndices = new HashMap<T, Integer>();
+    private int indexedCount = 0;
+    // Whether all the possible values are keys of positionIndices, even if some of the indices are out of date
+    private boolean allValuesIndexed = false;
+    // Whether the minimum and the maximum were set explicitly rather than computed from the values
+    private boolean minimumSet = false;
+    private boolean maximumSet = false;
+
+    private static final Comparator<Object> DEFAULT_COMPARATOR = new Comparator<Object>() {
+        @SuppressWarnings("unchecked")
+        public int compare(Object o1, Object o2) {
+            if (o1 == null && o2 == null) {
+                return 0;
+            } else if (o1 == null) {
+                return -1;
+            } else if (o2 == null) {
+                return 1;
+            } else {
+                // Use natural sort order if available
+                if (o1 instanceof Comparable) {
+                    Comparable t1 = (Comparable) o1;
+                    return t1.compareTo(o2);
+                } else {
+                    // otherwise use the toString method to derive a string comparator
+                    String s1 = o1.toString();
+                    String s2 = o2.toString();
+                    return s1.compareTo(s2);
+                }
+            }
+        }
+    };
 
     public CategoryRange() {
         _possibleValues = new ArrayList<T>();
@@ -76,39 +111,32 @@ public class CategoryRange<T> extends AbstractRange<T> implements Iterable<Categ
     // which is sorted if necessary
     public List<T> getPossibleValues() {
         if (sorted && !alreadySorted) {
-            if (comparator == null) {
-                Comparator<T> defaultComparator = new Comparator<T>() {
-                    public int compare(T o1, T o2) {
-                        if (o1 == null && o2 == null) {
-                            return 0;
-                        } else if (o1 == null) {
-                            return -1;
-                        } else if (o2 == null) {
-                            return 1;
-                        } else {
-                            // Use natural sort order if available
-                            if (o1 instanceof Comparable) {
-                                Comparable t1 = (Comparable) o1;
-                                return t1.compareTo(o2);
-                            } else {
-                                // otherwise use the toString method to derive a string comparator
-                                String s1 = o1.toString();
-                                String s2 = o2.toString();
-                                return s1.compareTo(s2);
-                            }
-                        }
+            final Comparator<T> sortComparator = getSortComparator();
+            if (_categoryValues != null) {
+                // sorts the categories as well so that they stay in the same order as the values
+                Collections.sort(_categoryValues, new Comparator<Category<T>>() {
+                    public int compare(Category<T> o1, Category<T> o2) {
+                        return sortComparator.compare(o1.getValue(), o2.getValue());
                     }
-                };
-                Collections.sort(_possibleValues, defaultComparator);
-                positionIndices.clear();
+                });
+                _possibleValues.clear();
+                for (Category<T> category : _categoryValues) {
+                    _possibleValues.add(category.getValue());
+                }
             } else {
-                Collections.sort(_possibleValues, comparator);
-                positionIndices.clear();
+                Collections.sort(_possibleValues, sortComparator);
             }
+            alreadySorted = true;
+            invalidatePositions(0);
         }
         return _possibleValues;
     }
 
+    @SuppressWarnings("unchecked")
+    private Comparator<T> getSortComparator() {
+        return comparator != null ? comparator : (Comparator<T>) DEFAULT_COMPARATOR;
+    }
+
     /**
      * Returns the category with the supplied position value. (Note that the first position is 1, not 0.)
      *
@@ -123,30 +151,108 @@ public class CategoryRange<T> extends AbstractRange<T> implements Iterable<Categ
     }
 
     /**
-     * <p>Adds a category to the range. Note that after adding categories, you will need to call reset() if you want the
-     * minimum and maximum numeric values of the range to be recomputed.</p> <p>This method fires a property change
+     * <p>Adds a category to the range. If the range is sorted, the category is inserted at its sorted position.
+     * The minimum and maximum numeric values of the range are recomputed unless they were set explicitly, in which
+     * case you will need to call reset() if you want them to be recomputed.</p> <p>This method fires a property change
      * event, but to avoid cloning a list for efficiency, the old value is always null</p>
      *
      * @param c the category to add
      * @return this range
      */
     public CategoryRange<T> add(Category<T> c) {
-        if (!contains(c)) {
-            if (comparator == null) {
-                _possibleValues.add(c.getValue());
-                _categoryValues.add(c);
-            } else {
-                _possibleValues.add(c.getValue());
-                alreadySorted = false;
-                // Force the category values to be recomputed
-                _categoryValues = null;
-            }
-            c.setRange(this);
+        if (addCategory(c)) {
             firePropertyChange(PROPERTY_VALUES, null, _possibleValues);
         }
         return this;
     }
 
+    /**
+     * Adds the categories to the range. It is the same as calling {@link #add(Category)} for each category except
+     * that only one property change event is fired.
+     *
+     * @param categories the categories to add
+     * @return this range
+     */
+    public CategoryRange<T> addAll(Collection<Category<T>> categories) {
+        boolean added = false;
+        for (Category<T> c : categories) {
+            added |= addCategory(c);
+        }
+        if (added) {
+            firePropertyChange(PROPERTY_VALUES, null, _possibleValues);
+        }
+        return this;
+    }
+
+    private boolean addCategory(Category<T> c) {
+        if (contains(c)) {
+            return false;
+        }
+        List<Category<T>> categoryValues = getCategoryValues();
+        T value = c.getValue();
+        int index = _possibleValues.size();
+        if (sorted) {
+            // the values are sorted by getCategoryValues() above. Finds the index after the equal values.
+            Comparator<T> sortComparator = getSortComparator();
+            int low = 0;
+            int high = _possibleValues.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (sortComparator.compare(_possibleValues.get(middle), value) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            index = low;
+        }
+        _possibleValues.add(index, value);
+        categoryValues.add(index, c);
+        c.setRange(this);
+
+        if (!positionIndices.containsKey(value)) {
+            positionIndices.put(value, index);
+        }
+        if (index == _possibleValues.size() - 1 && indexedCount == index) {
+            indexedCount = _possibleValues.size();
+        } else {
+            invalidatePositions(index);
+        }
+        if (!minimumSet) {
+            minimum = null;
+        }
+        if (!maximumSet) {
+            maximum = null;
+        }
+        return true;
+    }
+
+    /**
+     * Marks the positions from the index on as out of date.
+     */
+    private void invalidatePositions(int index) {
+        indexedCount = Math.min(indexedCount, index);
+    }
+
+    /**
+     * Brings the positions of all the values up to date.
+     */
+    private void updatePositions() {
+        List<T> possibleValues = getPossibleValues();
+        if (indexedCount < possibleValues.size()) {
+            // goes backwards so that a value that occurs more than once gets the first index
+            for (int i = possibleValues.size() - 1; i >= indexedCount; i--) {
+                T value = possibleValues.get(i);
+                Integer index = positionIndices.get(value);
+                if (index == null || index >= indexedCount) {
+                    positionIndices.put(value, i);
+                }
+            }
+            indexedCount = possibleValues.size();
+        }
+        allValuesIndexed = true;
+    }
+
     /**
      * Specify whether the categories of the range should be sorted.
      * If you call this method with <code>true</code> but do not explicitly
@@ -159,11 +265,10 @@ public class CategoryRange<T> extends AbstractRange<T> implements Iterable<Categ
     public void setSorted(boolean sorted) {
         boolean oldValue = this.sorted;
         this.sorted = sorted;
-        // Force the category values to be recomputed
+        // Force the values to be sorted again
         if (sorted) {
-            _categoryValues = null;
+            alreadySorted = false;
         }
-        positionIndices.clear();
         firePropertyChange(PROPERTY_SORTED, oldValue, sorted);
     }
 
@@ -192,7 +297,7 @@ public class CategoryRange<T> extends AbstractRange<T> implements Iterable<Categ
     public void setComparator(Comparator<T> comparator) {
         Comparator<T> oldValue = this.comparator;
         this.comparator = comparator;
-        // This call will also force the category values to be recomputed
+        // This call will also force the values to be sorted again
         setSorted(comparator != null);
         firePropertyChange(PROPERTY_COMPARATOR, oldValue, comparator);
     }
@@ -202,21 +307,19 @@ public class CategoryRange<T> extends AbstractRange<T> implements Iterable<Categ
         return new CategoryRange<T>(this);
     }
 
-    // TODO: This assumes the possible values are sorted
     public T lower() {
         if (_possibleValues == null || _possibleValues.size() == 0) {
             return null;
         }
-        return _possibleValues.get(0);
+        return getPossibleValues().get(0);
     }
 
-    // TODO: This assumes the possible values are sorted
     public T upper() {
         if (_possibleValues == null || _possibleValues.size() == 0) {
             return null;
         }
-        int numElements = _possibleValues.size();
-        return _possibleValues.get(numElements - 1); // get the last element
+        List<T> possibleValues = getPossibleValues();
+        return possibleValues.get(possibleValues.size() - 1); // get the last element
     }
 
     /**
@@ -268,18 +371,24 @@ public class CategoryRange<T> extends AbstractRange<T> implements Iterable<Categ
     public void reset() {
         maximum = null;
         minimum = null;
+        minimumSet = false;
+        maximumSet = false;
         positionIndices.clear();
+        indexedCount = 0;
+        allValuesIndexed = false;
     }
 
     public void setMinimum(double value) {
         Double oldValue = this.minimum;
         this.minimum = value;
+        minimumSet = true;
         firePropertyChange(PROPERTY_MIN, oldValue, value);
     }
 
     public void setMaximum(double value) {
         Double oldValue = this.maximum;
         this.maximum = value;
+        maximumSet = true;
         firePropertyChange(PROPERTY_MAX, oldValue, value);
     }
 
@@ -308,13 +417,12 @@ public class CategoryRange<T> extends AbstractRange<T> implements Iterable<Categ
 
     public int position(T value) {
         Integer index = positionIndices.get(value);
-        if (index == null) {
-            List<T> possibleValues = getPossibleValues();
-            index = possibleValues.indexOf(value);
-            if (index < 0) {
+        if (index == null || index >= indexedCount || (sorted && !alreadySorted)) {
+            updatePositions();
+            index = positionIndices.get(value);
+            if (index == null) {
                 throw new IllegalArgumentException("Value " + value + " not known");
             }
-            positionIndices.put(value, index);
         }
         return 1 + index;
     }
@@ -327,12 +435,10 @@ public class CategoryRange<T> extends AbstractRange<T> implements Iterable<Categ
             return false;
         }
         else {
-            for (T category : _possibleValues) {
-                if (x.equals(category)) {
-                    return true;
-                }
+            if (!allValuesIndexed && !positionIndices.containsKey(x)) {
+                updatePositions();
             }
-            return false;
+            return positionIndices.containsKey(x);
         }
     }
 
@@ -343,11 +449,16 @@ public class CategoryRange<T> extends AbstractRange<T> implements Iterable<Categ
      * @return true if the range contains the specified value. Otherwise false.
      */
     public boolean contains(Category<T> value) {
-        if (value == null) {
+        if (value == null || !contains(value.getValue())) {
             return false;
         }
         else {
-            for (Category<T> category : getCategoryValues()) {
+            List<Category<T>> categoryValues = getCategoryValues();
+            if (value.equals(categoryValues.get(position(value.getValue()) - 1))) {
+                return true;
+            }
+            // the same value may be used by categories with different names
+            for (Category<T> category : categoryValues) {
                 if (value.equals(category)) {
                     return true;
                 }
@@ -369,9 +480,11 @@ public class CategoryRange<T> extends AbstractRange<T> implements Iterable<Categ
      * @return a list of category values
      */
     public List<Category<T>> getCategoryValues() {
+        // sorts the categories if necessary
+        List<T> possibleValues = getPossibleValues();
         if (_categoryValues == null) {
             _categoryValues = new ArrayList<Category<T>>();
-            for (T value : getPossibleValues()) {
+            for (T value : possibleValues) {
                 _categoryValues.add(new Category<T>(value, this));
             }
         }
@@ -4,6 +4,8 @@
  */
 package com.jidesoft.range;
 
+import com.jidesoft.swing.AnimationTimer;
+
 import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -87,7 +89,7 @@ public class RangeMorpher {
                 }
             }
         };
-        timer = new Timer(delay, listener);
+        timer = new AnimationTimer(delay, listener);
         timer.start();
         support.firePropertyChange(PROPERTY_MORPH_STARTED, null, sourceRanges);
     }
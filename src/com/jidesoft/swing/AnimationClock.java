@@ -0,0 +1,152 @@
+/*
+ * @(#)AnimationClock.java
+ *
+ * Copyright 2002 - 2011 JIDE Software Inc. All rights reserved.
+ */
+package com.jidesoft.swing;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <code>AnimationClock</code> drives all the {@link AnimationTimer}s with one Swing timer. Instead of having a timer
+ * for each animation which fires at its own moment, the clock ticks once per frame and fires all the animation timers
+ * which are due in the same pass on the event dispatch thread. As a result, the repaints requested by the animations
+ * are collected by the <code>RepaintManager</code> and painted together after the tick.
+ * <p/>
+ * The clock ticks as often as the shortest delay of the running animation timers but not more often than {@link
+ * #getMinimumFrameDelay()}. An animation timer with a longer delay is fired on the tick closest to its due time. The
+ * clock stops ticking when no animation timer is running or when all the components of the running animation timers
+ * are not showing.
+ */
+public class AnimationClock implements ActionListener {
+    private static AnimationClock _instance;
+
+    private final List<AnimationTimer> _timers = new ArrayList<AnimationTimer>();
+    private AnimationTimer[] _timersArray;
+    private Timer _timer;
+    private int _minimumFrameDelay = 10;
+
+    /**
+     * Gets the animation clock shared by all the animation timers.
+     *
+     * @return the shared animation clock.
+     */
+    public static synchronized AnimationClock getInstance() {
+        if (_instance == null) {
+            _instance = new AnimationClock();
+        }
+        return _instance;
+    }
+
+    protected AnimationClock() {
+    }
+
+    /**
+     * Gets the minimum delay between two ticks of the clock, in ms.
+     *
+     * @return the minimum frame delay.
+     */
+    public int getMinimumFrameDelay() {
+        return _minimumFrameDelay;
+    }
+
+    /**
+     * Sets the minimum delay between two ticks of the clock, in ms. The animation timers with a shorter delay are
+     * fired at most once on each tick. By default, it is 10 ms.
+     *
+     * @param minimumFrameDelay the minimum frame delay.
+     */
+    public synchronized void setMinimumFrameDelay(int minimumFrameDelay) {
+        _minimumFrameDelay = minimumFrameDelay;
+        update();
+    }
+
+    /**
+     * Checks if the clock is ticking.
+     *
+     * @return true if the clock is ticking. Otherwise false.
+     */
+    public synchronized boolean isTicking() {
+        return _timer != null && _timer.isRunning();
+    }
+
+    synchronized void addTimer(AnimationTimer timer) {
+        if (!_timers.contains(timer)) {
+            _timers.add(timer);
+            _timersArray = null;
+        }
+        update();
+    }
+
+    synchronized void removeTimer(AnimationTimer timer) {
+        if (_timers.remove(timer)) {
+            _timersArray = null;
+        }
+        update();
+    }
+
+    synchronized boolean containsTimer(AnimationTimer timer) {
+        return _timers.contains(timer);
+    }
+
+    /**
+     * Starts, stops or adjusts the delay of the clock after the running animation timers or their delays changed.
+     */
+    synchronized void update() {
+        int delay = Integer.MAX_VALUE;
+        for (AnimationTimer timer : _timers) {
+            if (timer.isComponentShowing()) {
+                delay = Math.min(delay, timer.getDelay());
+            }
+        }
+        if (delay == Integer.MAX_VALUE) {
+            if (_timer != null) {
+                _timer.stop();
+                _timer = null;
+            }
+            return;
+        }
+        delay = Math.max(delay, getMinimumFrameDelay());
+        if (_timer == null) {
+            _timer = new Timer(delay, this);
+            _timer.setInitialDelay(delay);
+            _timer.start();
+        }
+        else if (_timer.getDelay() != delay) {
+            _timer.setDelay(delay);
+        }
+    }
+
+    private synchronized AnimationTimer[] getTimers() {
+        if (_timersArray == null) {
+            _timersArray = _timers.toArray(new AnimationTimer[_timers.size()]);
+        }
+        return _timersArray;
+    }
+
+    /**
+     * Fires all the animation timers which are due.
+     *
+     * @param e the action event of the clock timer
+     */
+    public void actionPerformed(ActionEvent e) {
+        long now = System.currentTimeMillis();
+        int frameDelay;
+        synchronized (this) {
+            if (_timer == null) {
+                return;
+            }
+            frameDelay = _timer.getDelay();
+        }
+        for (AnimationTimer timer : getTimers()) {
+            // fires the timers due before the middle of the next frame so that each one is fired on the closest tick
+            if (timer.isComponentShowing() && containsTimer(timer) && timer.isDue(now + frameDelay / 2)) {
+                timer.tick(now);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * @(#)AnimationTimer.java
+ *
+ * Copyright 2002 - 2011 JIDE Software Inc. All rights reserved.
+ */
+package com.jidesoft.swing;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+
+/**
+ * <code>AnimationTimer</code> is a <code>Timer</code> which is fired by the shared {@link AnimationClock} instead of
+ * having its own thread in the timer queue. It can be used in place of a <code>Timer</code> for any animation so that
+ * the animations are fired and repainted together.
+ * <p/>
+ * If a component is specified, the timer is not fired while the component is not showing. The clock stops ticking if
+ * none of the running timers has a showing component and starts again when one of the components is shown.
+ */
+public class AnimationTimer extends Timer {
+    private static final long serialVersionUID = 3810779223307275932L;
+
+    private final Component _component;
+    private long _nextTime;
+    private transient HierarchyListener _hierarchyListener;
+
+    /**
+     * Creates an animation timer.
+     *
+     * @param delay    the delay between each firing, in ms.
+     * @param listener the action listener. It could be null.
+     */
+    public AnimationTimer(int delay, ActionListener listener) {
+        this(delay, listener, null);
+    }
+
+    /**
+     * Creates an animation timer which is only fired when the component is showing.
+     *
+     * @param delay     the delay between each firing, in ms.
+     * @param listener  the action listener. It could be null.
+     * @param component the component which is animated. It could be null.
+     */
+    public AnimationTimer(int delay, ActionListener listener, Component component) {
+        super(delay, listener);
+        _component = component;
+    }
+
+    /**
+     * Gets the component which is animated by this timer.
+     *
+     * @return the component. Null if the timer is fired regardless of any component.
+     */
+    public Component getComponent() {
+        return _component;
+    }
+
+    @Override
+    public void start() {
+        _nextTime = System.currentTimeMillis() + getInitialDelay();
+        if (_component != null && _hierarchyListener == null) {
+            _hierarchyListener = new HierarchyListener() {
+                public void hierarchyChanged(HierarchyEvent e) {
+                    if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                        AnimationClock.getInstance().update();
+                    }
+                }
+            };
+            _component.addHierarchyListener(_hierarchyListener);
+        }
+        AnimationClock.getInstance().addTimer(this);
+    }
+
+    @Override
+    public void stop() {
+        if (_hierarchyListener != null) {
+            _component.removeHierarchyListener(_hierarchyListener);
+            _hierarchyListener = null;
+        }
+        AnimationClock.getInstance().removeTimer(this);
+    }
+
+    @Override
+    public void restart() {
+        stop();
+        start();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return AnimationClock.getInstance().containsTimer(this);
+    }
+
+    @Override
+    public void setDelay(int delay) {
+        super.setDelay(delay);
+        if (isRunning()) {
+            AnimationClock.getInstance().update();
+        }
+    }
+
+    boolean isComponentShowing() {
+        return _component == null || _component.isShowing();
+    }
+
+    boolean isDue(long time) {
+        return _nextTime <= time;
+    }
+
+    /**
+     * Fires the action listeners. It is called by the clock on the event dispatch thread when this timer is due.
+     *
+     * @param when the time of the tick
+     */
+    void tick(long when) {
+        if (!isRepeats()) {
+            stop();
+        }
+        long due = _nextTime;
+        fireActionPerformed(new ActionEvent(this, 0, getActionCommand(), when, 0));
+        // the listeners may have restarted the timer
+        if (_nextTime == due) {
+            _nextTime += getDelay();
+            if (_nextTime <= when) {
+                // skips the missed firings like a coalescing Timer
+                _nextTime = when + getDelay();
+            }
+        }
+    }
+}
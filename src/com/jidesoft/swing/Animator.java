@@ -13,6 +13,9 @@ import java.awt.event.ActionListener;
 
 /**
  * An <code>ActionListener</code> with a timer. It is used to simplify the animation of all kind of sliding windows.
+ * <p/>
+ * By default, the timer is an {@link AnimationTimer} so that all the animators are fired by the shared {@link
+ * AnimationClock}.
  */
 
 public class Animator implements ActionListener {
@@ -67,14 +70,14 @@ public class Animator implements ActionListener {
     }
 
     /**
-     * Creates the timer.
+     * Creates the timer. By default, it creates an {@link AnimationTimer}.
      *
      * @param delay    the delay between each step, in ms.
      * @param listener the action listener associated with the timer.
      * @return the timer
      */
     protected Timer createTimer(int delay, ActionListener listener) {
-        return new Timer(delay, listener);
+        return new AnimationTimer(delay, listener);
     }
 
     /**
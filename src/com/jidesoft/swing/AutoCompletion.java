@@ -5,6 +5,7 @@
  */
 package com.jidesoft.swing;
 
+import com.jidesoft.utils.CompletionIndex;
 import com.jidesoft.utils.PortingUtils;
 import com.jidesoft.utils.SystemInfo;
 
@@ -20,6 +21,7 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -110,65 +112,104 @@ public class AutoCompletion {
     }
 
     public AutoCompletion(final JTextComponent textComponent, final List list) {
-        this(textComponent, new Searchable(new JLabel()) {
-            int _selectIndex = -1;
+        this(textComponent, new ListSearchable(list));
+    }
 
-            @Override
-            protected int getSelectedIndex() {
-                return _selectIndex;
-            }
+    public AutoCompletion(final JTextComponent textComponent, final Object[] array) {
+        this(textComponent, new ListSearchable(Arrays.asList(array)));
+    }
 
-            @Override
-            protected void setSelectedIndex(int index, boolean incremental) {
-                _selectIndex = index;
-            }
+    /**
+     * The Searchable used for a list or an array of known items. It looks up the items using a {@link
+     * CompletionIndex} instead of comparing the items one by one. The index doesn't depend on {@link
+     * Searchable#isSearchIndexEnabled()} because it checks each item it finds against the list, so it is used unless
+     * {@link AutoCompletion#setCompletionIndexEnabled(boolean)} turns it off.
+     */
+    private static class ListSearchable extends Searchable {
+        private final List<?> _list;
+        private int _selectIndex = -1;
+        private CompletionIndex _completionIndex;
+        private boolean _completionIndexEnabled = true;
+
+        ListSearchable(List<?> list) {
+            super(new JLabel());
+            _list = list;
+        }
 
-            @Override
-            protected int getElementCount() {
-                return list.size();
-            }
+        @Override
+        protected int getSelectedIndex() {
+            return _selectIndex;
+        }
 
-            @Override
-            protected Object getElementAt(int index) {
-                return list.get(index);
-            }
+        @Override
+        protected void setSelectedIndex(int index, boolean incremental) {
+            _selectIndex = index;
+        }
 
-            @Override
-            protected String convertElementToString(Object element) {
-                return "" + element;
-            }
-        });
-    }
+        @Override
+        protected int getElementCount() {
+            return _list.size();
+        }
 
-    public AutoCompletion(final JTextComponent textComponent, final Object[] array) {
-        this(textComponent, new Searchable(new JLabel()) {
-            int _selectIndex = -1;
+        @Override
+        protected Object getElementAt(int index) {
+            return _list.get(index);
+        }
 
-            @Override
-            protected int getSelectedIndex() {
-                return _selectIndex;
-            }
+        @Override
+        protected String convertElementToString(Object element) {
+            return "" + element;
+        }
 
-            @Override
-            protected void setSelectedIndex(int index, boolean incremental) {
-                _selectIndex = index;
+        /**
+         * Gets the completion index. It is only used for the prefix search which {@link #compare(String, String)}
+         * does with the default settings.
+         *
+         * @return the completion index. Null if the items have to be compared one by one.
+         */
+        private CompletionIndex getCompletionIndex() {
+            if (!_completionIndexEnabled || isWildcardEnabled() || !isFromStart() || isReverseOrder() || isCountMatch() || _list.isEmpty()) {
+                return null;
             }
+            if (_completionIndex == null || !_completionIndex.isValid() || _completionIndex.isCaseSensitive() != isCaseSensitive()) {
+                _completionIndex = new CompletionIndex(_list, isCaseSensitive()) {
+                    @Override
+                    protected String convertElementToString(Object element) {
+                        return ListSearchable.this.convertElementToString(element);
+                    }
 
-            @Override
-            protected int getElementCount() {
-                return array.length;
+                    @Override
+                    protected String getKey(String text) {
+                        return isCaseSensitive() ? text : text.toLowerCase();
+                    }
+                };
             }
+            return _completionIndex;
+        }
 
-            @Override
-            protected Object getElementAt(int index) {
-                return array[index];
+        @Override
+        protected void invalidateSearchIndex() {
+            super.invalidateSearchIndex();
+            _completionIndex = null;
+        }
+
+        @Override
+        public int findFirstExactly(String s) {
+            CompletionIndex completionIndex = getCompletionIndex();
+            if (completionIndex == null) {
+                return super.findFirstExactly(s);
             }
+            return completionIndex.findExactly(isCaseSensitive() ? s : s.toLowerCase());
+        }
 
-            @Override
-            protected String convertElementToString(Object element) {
-                return "" + element;
+        @Override
+        public int findFromCursor(String s) {
+            CompletionIndex completionIndex = getCompletionIndex();
+            if (completionIndex == null || s.trim().length() == 0) {
+                return super.findFromCursor(s);
             }
-        });
+            return completionIndex.findFirst(isCaseSensitive() ? s : s.toLowerCase(), Math.max(getCurrentIndex(), 0));
+        }
     }
 
     private void registerSelectionListener(Searchable searchable) {
@@ -580,6 +621,32 @@ public class AutoCompletion {
         _strictCompletion = strictCompletion;
     }
 
+    /**
+     * Checks if the known items are looked up in a {@link CompletionIndex}. It only applies to the AutoCompletion
+     * created from a list or an array.
+     *
+     * @return true if the completion index is used. Otherwise false.
+     */
+    public boolean isCompletionIndexEnabled() {
+        return _searchable instanceof ListSearchable && ((ListSearchable) _searchable)._completionIndexEnabled;
+    }
+
+    /**
+     * Sets the flag if the known items are looked up in a {@link CompletionIndex}. It only applies to the
+     * AutoCompletion created from a list or an array. By default, it is true. The index is built when it is first used
+     * and checks each item it finds against the list. If an item is added to or replaced in the list after that, call
+     * this method with false and then true so that the index is built again.
+     *
+     * @param completionIndexEnabled true to use the completion index.
+     */
+    public void setCompletionIndexEnabled(boolean completionIndexEnabled) {
+        if (_searchable instanceof ListSearchable) {
+            ListSearchable searchable = (ListSearchable) _searchable;
+            searchable._completionIndexEnabled = completionIndexEnabled;
+            searchable._completionIndex = null;
+        }
+    }
+
     /**
      * Gets the underlying text component which auto-completes.
      *
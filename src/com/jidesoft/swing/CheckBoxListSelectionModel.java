@@ -4,12 +4,13 @@ import javax.swing.*;
 import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
 
-public class CheckBoxListSelectionModel extends DefaultListSelectionModel implements ListDataListener {
+public class CheckBoxListSelectionModel extends IntervalListSelectionModel implements ListDataListener {
     private static final long serialVersionUID = -4133723317923726786L;
     private ListModel _model;
     private boolean _allEntryConsidered = true;
     private int _allEntryIndex = -1;
     private boolean _allEntryIndexSet = false;
+    private boolean _allEntryIndexFound = false;
 
     public CheckBoxListSelectionModel() {
         setSelectionMode(MULTIPLE_INTERVAL_SELECTION);
@@ -46,14 +47,17 @@ public class CheckBoxListSelectionModel extends DefaultListSelectionModel implem
     public void setAllEntryIndex(int allEntryIndex) {
         _allEntryIndex = allEntryIndex;
         _allEntryIndexSet = _allEntryIndex != -1;
+        _allEntryIndexFound = false;
     }
 
     private int findAllEntryIndex() {
-        if (getModel() == null) {
-            return -1;
-        }
-        int size = getModel().getSize();
-        for (int i = 0; i < size; i++) {
+        _allEntryIndexFound = getModel() != null;
+        return getModel() == null ? -1 : findAllEntryIndex(0, getModel().getSize() - 1);
+    }
+
+    private int findAllEntryIndex(int from, int to) {
+        to = Math.min(to, getModel().getSize() - 1);
+        for (int i = Math.max(from, 0); i <= to; i++) {
             if (JideSwingUtilities.equals(getModel().getElementAt(i), CheckBoxList.ALL_ENTRY)) {
                 return i;
             }
@@ -61,6 +65,50 @@ public class CheckBoxListSelectionModel extends DefaultListSelectionModel implem
         return -1;
     }
 
+    /**
+     * Updates the index of the "all" entry after the list model changed. Only the changed rows are searched if the
+     * index was found before.
+     *
+     * @param e the list data event
+     */
+    private void updateAllEntryIndex(ListDataEvent e) {
+        int index0 = Math.min(e.getIndex0(), e.getIndex1());
+        int index1 = Math.max(e.getIndex0(), e.getIndex1());
+        if (!_allEntryIndexFound || index0 < 0) {
+            _allEntryIndex = findAllEntryIndex();
+            return;
+        }
+        int index = _allEntryIndex;
+        int size = getModel().getSize();
+        switch (e.getType()) {
+            case ListDataEvent.INTERVAL_ADDED:
+                if (index == -1 || index >= index0) {
+                    int found = findAllEntryIndex(index0, index1);
+                    _allEntryIndex = found != -1 ? found : index == -1 ? -1 : index + index1 - index0 + 1;
+                }
+                break;
+            case ListDataEvent.INTERVAL_REMOVED:
+                if (index > index1) {
+                    _allEntryIndex = index - (index1 - index0 + 1);
+                }
+                else if (index >= index0) {
+                    _allEntryIndex = findAllEntryIndex(index0, size - 1);
+                }
+                break;
+            default:
+                if (index == -1 || index >= index0) {
+                    int found = findAllEntryIndex(index0, index1);
+                    if (found != -1) {
+                        _allEntryIndex = found;
+                    }
+                    else if (index != -1 && index <= index1) {
+                        _allEntryIndex = findAllEntryIndex(index1 + 1, size - 1);
+                    }
+                }
+                break;
+        }
+    }
+
     public ListModel getModel() {
         return _model;
     }
@@ -92,7 +140,7 @@ public class CheckBoxListSelectionModel extends DefaultListSelectionModel implem
     @Override
     public void intervalAdded(ListDataEvent e) {
         if (isAllEntryConsidered()) {
-            _allEntryIndex = findAllEntryIndex();
+            updateAllEntryIndex(e);
             updateAllEntryIf();
         }
     }
@@ -100,7 +148,7 @@ public class CheckBoxListSelectionModel extends DefaultListSelectionModel implem
     @Override
     public void intervalRemoved(ListDataEvent e) {
         if (isAllEntryConsidered()) {
-            _allEntryIndex = findAllEntryIndex();
+            updateAllEntryIndex(e);
             updateAllEntryIf();
         }
     }
@@ -108,7 +156,7 @@ public class CheckBoxListSelectionModel extends DefaultListSelectionModel implem
     @Override
     public void contentsChanged(ListDataEvent e) {
         if (isAllEntryConsidered()) {
-            _allEntryIndex = findAllEntryIndex();
+            updateAllEntryIndex(e);
             updateAllEntryIf();
         }
     }
@@ -229,27 +277,41 @@ public class CheckBoxListSelectionModel extends DefaultListSelectionModel implem
         }
     }
 
+    /**
+     * Checks if all entries other than the "all" entry are selected. The selected indices are counted by intervals so
+     * it doesn't check the entries one by one.
+     *
+     * @return true if all other entries are selected.
+     */
+    private boolean isAllOtherEntriesSelected() {
+        int size = getModel().getSize();
+        if (size == 0) {
+            return true;
+        }
+        int allEntryIndex = getAllEntryIndex();
+        boolean allEntryInside = allEntryIndex < size;
+        int selected = getSelectedCount(0, size - 1);
+        if (allEntryInside && super.isSelectedIndex(allEntryIndex)) {
+            selected--;
+        }
+        return selected >= (allEntryInside ? size - 1 : size);
+    }
+
     private void selectAllIf() {
         if (getAllEntryIndex() < 0) {
             return;
         }
-        for (int i = getModel().getSize() - 1; i >= 0; i--) {
-            if (i != getAllEntryIndex() && !super.isSelectedIndex(i)) {
-                return;
-            }
+        if (isAllOtherEntriesSelected()) {
+            super.addSelectionInterval(getAllEntryIndex(), getAllEntryIndex());
         }
-        super.addSelectionInterval(getAllEntryIndex(), getAllEntryIndex());
     }
 
     private void unselectAllIf() {
         if (getAllEntryIndex() < 0) {
             return;
         }
-        for (int i = getModel().getSize() - 1; i >= 0; i--) {
-            if (i != getAllEntryIndex() && !super.isSelectedIndex(i)) {
-                super.removeSelectionInterval(getAllEntryIndex(), getAllEntryIndex());
-                return;
-            }
+        if (!isAllOtherEntriesSelected()) {
+            super.removeSelectionInterval(getAllEntryIndex(), getAllEntryIndex());
         }
     }
 
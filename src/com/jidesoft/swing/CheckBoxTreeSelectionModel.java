@@ -12,6 +12,11 @@ import java.util.*;
 /**
  * <code>CheckBoxTreeSelectionModel</code> is a selection _model based on {@link DefaultTreeSelectionModel} and use in
  * {@link CheckBoxTree} to keep track of the checked tree paths.
+ * <p/>
+ * In dig-in mode, it keeps the number of selected paths under each tree path and remembers which tree paths have all
+ * their children selected. So {@link #isPathSelected(javax.swing.tree.TreePath, boolean)} and {@link
+ * #isPartiallySelected(javax.swing.tree.TreePath)}, which are called to paint each row, don't search the whole
+ * selection or the whole subtree every time. Both are updated when the selection or the tree model changes.
  *
  * @author Santhosh Kumar T
  */
@@ -28,6 +33,25 @@ public class CheckBoxTreeSelectionModel extends DefaultTreeSelectionModel implem
     private boolean _singleEventMode = false;
     private static final long serialVersionUID = 1368502059666946634L;
 
+    /**
+     * The selection that the counts below were updated for.
+     */
+    private TreePath[] _countedSelection;
+    /**
+     * Set while {@link #notifyPathChange(java.util.Vector, javax.swing.tree.TreePath)} creates the event for the
+     * changed paths so that {@link #fireValueChanged(javax.swing.event.TreeSelectionEvent)} updates the counts.
+     */
+    private boolean _countingPathChange;
+    /**
+     * The number of selected paths that are the same as or descendants of each tree path. A tree path without any of
+     * them is not in the map.
+     */
+    private Map<TreePath, int[]> _selectedDescendantCounts = new HashMap<TreePath, int[]>();
+    /**
+     * Whether all children of a tree path are selected, for the tree paths without a selected ancestor.
+     */
+    private Map<TreePath, Boolean> _allChildrenSelected = new HashMap<TreePath, Boolean>();
+
     public CheckBoxTreeSelectionModel(TreeModel model) {
         setModel(model);
         setSelectionMode(TreeSelectionModel.DISCONTIGUOUS_TREE_SELECTION);
@@ -56,6 +80,7 @@ public class CheckBoxTreeSelectionModel extends DefaultTreeSelectionModel implem
             if (_model != null) {
                 _model.addTreeModelListener(this);
             }
+            _allChildrenSelected.clear();
         }
     }
 
@@ -96,14 +121,61 @@ public class CheckBoxTreeSelectionModel extends DefaultTreeSelectionModel implem
         }
         if (isPathSelected(path, true))
             return false;
-        TreePath[] selectionPaths = getSelectionPaths();
-        if (selectionPaths == null)
-            return false;
-        for (TreePath selectionPath : selectionPaths) {
-            if (isDescendant(selectionPath, path))
-                return true;
+        updateSelectionCounts();
+        return _selectedDescendantCounts.containsKey(path);
+    }
+
+    /**
+     * Counts the selected descendants of the tree paths again if the selection has changed without a path change
+     * notification. Normally the counts are updated from the changed paths only, in {@link
+     * #fireValueChanged(javax.swing.event.TreeSelectionEvent)}.
+     */
+    private void updateSelectionCounts() {
+        TreePath[] currentSelection = selection;
+        if (currentSelection == _countedSelection) {
+            return;
+        }
+        _countedSelection = currentSelection;
+        _allChildrenSelected.clear();
+        _selectedDescendantCounts.clear();
+        if (currentSelection != null) {
+            for (TreePath path : currentSelection) {
+                adjustSelectedDescendantCounts(path, 1);
+            }
+        }
+    }
+
+    /**
+     * Updates the number of selected descendants of the tree paths for the paths added to or removed from the
+     * selection.
+     *
+     * @param e the event of the selection change
+     */
+    private void updateSelectionCounts(TreeSelectionEvent e) {
+        if (_countedSelection == selection) {
+            // the counts were already rebuilt for the new selection
+            return;
+        }
+        _allChildrenSelected.clear();
+        TreePath[] paths = e.getPaths();
+        for (int i = 0; i < paths.length; i++) {
+            adjustSelectedDescendantCounts(paths[i], e.isAddedPath(i) ? 1 : -1);
+        }
+        _countedSelection = selection;
+    }
+
+    private void adjustSelectedDescendantCounts(TreePath path, int increase) {
+        for (TreePath parent = path; parent != null; parent = parent.getParentPath()) {
+            int[] count = _selectedDescendantCounts.get(parent);
+            if (count == null) {
+                count = new int[1];
+                _selectedDescendantCounts.put(parent, count);
+            }
+            count[0] += increase;
+            if (count[0] <= 0) {
+                _selectedDescendantCounts.remove(parent);
+            }
         }
-        return false;
     }
 
     @Override
@@ -165,24 +237,35 @@ public class CheckBoxTreeSelectionModel extends DefaultTreeSelectionModel implem
             return true;
         }
 
-        Object node = path.getLastPathComponent();
-        if (getChildrenCount(node) == 0) {
+        return areAllChildrenSelected(path);
+    }
+
+    /**
+     * Checks if all children of the path are selected. The path and its ancestors must not be selected.
+     *
+     * @param path the tree path
+     * @return true if the path has children and all of them are selected.
+     */
+    private boolean areAllChildrenSelected(TreePath path) {
+        updateSelectionCounts();
+        if (!_selectedDescendantCounts.containsKey(path)) {
             return false;
         }
+        Boolean cached = _allChildrenSelected.get(path);
+        if (cached != null) {
+            return cached;
+        }
 
-        // find out if all children are selected
-        boolean allChildrenSelected = true;
-        for (int i = 0; i < getChildrenCount(node); i++) {
-            Object childNode = getChild(node, i);
-            if (!isPathSelected(path.pathByAddingChild(childNode), true)) {
+        Object node = path.getLastPathComponent();
+        int childrenCount = getChildrenCount(node);
+        boolean allChildrenSelected = childrenCount > 0;
+        for (int i = 0; i < childrenCount; i++) {
+            if (!isPathSelected(path.pathByAddingChild(getChild(node, i)), true)) {
                 allChildrenSelected = false;
                 break;
             }
         }
-        // if all children are selected, let's select the parent path only
-        if (_tree.isCheckBoxVisible(path) && allChildrenSelected) {
-            addSelectionPaths(new TreePath[]{path}, false);
-        }
+        _allChildrenSelected.put(path, allChildrenSelected);
         return allChildrenSelected;
     }
 
@@ -213,9 +296,26 @@ public class CheckBoxTreeSelectionModel extends DefaultTreeSelectionModel implem
     @SuppressWarnings({"RawUseOfParameterizedType"})
     @Override
     protected void notifyPathChange(Vector changedPaths, TreePath oldLeadSelection) {
-        if (_fireEvent) {
+        // the event is always created as the counts are updated from its paths. It is not fired if _fireEvent is false.
+        _countingPathChange = true;
+        try {
             super.notifyPathChange(changedPaths, oldLeadSelection);
         }
+        finally {
+            _countingPathChange = false;
+        }
+    }
+
+    @Override
+    protected void fireValueChanged(TreeSelectionEvent e) {
+        if (_countingPathChange) {
+            _countingPathChange = false;
+            updateSelectionCounts(e);
+            if (!_fireEvent) {
+                return;
+            }
+        }
+        super.fireValueChanged(e);
     }
 
     /**
@@ -706,15 +806,38 @@ public class CheckBoxTreeSelectionModel extends DefaultTreeSelectionModel implem
 //    }
 //
     public void treeNodesChanged(TreeModelEvent e) {
+        _allChildrenSelected.clear();
         revalidateSelectedTreePaths();
     }
 
     public void treeNodesInserted(TreeModelEvent e) {
-
+        _allChildrenSelected.clear();
     }
 
     public void treeNodesRemoved(TreeModelEvent e) {
+        _allChildrenSelected.clear();
         revalidateSelectedTreePaths();
+        selectParentIfAllChildrenSelected(e.getTreePath());
+    }
+
+    /**
+     * Selects the path instead of its children if all the children are selected. It is called after some children are
+     * removed as the remaining children could be all selected.
+     *
+     * @param path the tree path
+     */
+    private void selectParentIfAllChildrenSelected(TreePath path) {
+        if (path == null || !isDigIn() || _model == null || _tree == null) {
+            return;
+        }
+        for (TreePath parent = path; parent != null; parent = parent.getParentPath()) {
+            if (super.isPathSelected(parent)) {
+                return;
+            }
+        }
+        if (_tree.isCheckBoxVisible(path) && areAllChildrenSelected(path)) {
+            addSelectionPaths(new TreePath[]{path}, false);
+        }
     }
 
     private boolean isTreePathValid(TreePath path) {
@@ -745,6 +868,7 @@ public class CheckBoxTreeSelectionModel extends DefaultTreeSelectionModel implem
     }
 
     public void treeStructureChanged(TreeModelEvent e) {
+        _allChildrenSelected.clear();
         revalidateSelectedTreePaths();
     }
 
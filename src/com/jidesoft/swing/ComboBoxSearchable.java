@@ -228,6 +228,10 @@ public class ComboBoxSearchable extends Searchable implements ListDataListener,
     }
 
     public void contentsChanged(ListDataEvent e) {
+        // (-1, -1) is fired when only the selected item changes so the search index is still valid.
+        if (e.getIndex0() != -1 || e.getIndex1() != -1) {
+            invalidateSearchIndex(e.getIndex0(), e.getIndex1());
+        }
         if (!isProcessModelChangeEvent()) {
             return;
         }
@@ -240,6 +244,7 @@ public class ComboBoxSearchable extends Searchable implements ListDataListener,
     }
 
     public void intervalAdded(ListDataEvent e) {
+        insertSearchIndexInterval(e.getIndex0(), e.getIndex1());
         if (!isProcessModelChangeEvent()) {
             return;
         }
@@ -248,6 +253,7 @@ public class ComboBoxSearchable extends Searchable implements ListDataListener,
     }
 
     public void intervalRemoved(ListDataEvent e) {
+        removeSearchIndexInterval(e.getIndex0(), e.getIndex1());
         if (!isProcessModelChangeEvent()) {
             return;
         }
@@ -258,6 +264,7 @@ public class ComboBoxSearchable extends Searchable implements ListDataListener,
     public void propertyChange(PropertyChangeEvent evt) {
         if ("model".equals(evt.getPropertyName())) {
             hidePopup();
+            invalidateSearchIndex();
 
             if (evt.getOldValue() instanceof ComboBoxModel) {
                 ((ComboBoxModel) evt.getOldValue()).removeListDataListener(this);
@@ -0,0 +1,462 @@
+/*
+ * @(#)DocumentSearcher.java
+ *
+ * Copyright 2002 - 2011 JIDE Software Inc. All rights reserved.
+ */
+package com.jidesoft.swing;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+/**
+ * <code>DocumentSearcher</code> searches a <code>Document</code> for a text without copying the whole document into a
+ * string. The document is read in chunks using a <code>Segment</code> in partial return mode and each chunk is scanned
+ * using the Boyer-Moore-Horspool algorithm.
+ * <p/>
+ * It also keeps the offsets of all matches of the last counted text. The offsets are patched when the document changes
+ * so that the matches don't have to be searched again after each edit. {@link #insertUpdate(DocumentEvent)} and {@link
+ * #removeUpdate(DocumentEvent)} must be called by the document listener.
+ * <p/>
+ * The document can be changed on any thread. The searches hold the read lock of the document if it is an
+ * <code>AbstractDocument</code> so that it doesn't change while it is read, and the match index is only accessed while
+ * holding the lock of the searcher, so the document listener can patch it on the thread changing the document.
+ * <p/>
+ * It is used by {@link TextComponentSearchable}.
+ */
+class DocumentSearcher {
+    /**
+     * The number of characters read from the document at a time.
+     */
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private static final int SKIP_TABLE_SIZE = 256;
+
+    private volatile Document _document;
+    private final Segment _segment = new Segment();
+    private final Object _lock = new Object();
+
+    // the pattern prepared for the search
+    private String _pattern;
+    private boolean _caseSensitive;
+    private char[] _patternChars;
+    private int[] _skipTable;
+
+    // the offsets of all matches of the indexed pattern
+    private String _indexedPattern;
+    private boolean _indexedCaseSensitive;
+    private int[] _matches;
+    private int _matchCount;
+
+    DocumentSearcher(Document document) {
+        _document = document;
+        _segment.setPartialReturn(true);
+    }
+
+    /**
+     * Sets the document to be searched. The match index is discarded.
+     *
+     * @param document the document
+     */
+    void setDocument(Document document) {
+        synchronized (_lock) {
+            _document = document;
+            invalidate();
+        }
+    }
+
+    /**
+     * Discards the match index.
+     */
+    void invalidate() {
+        synchronized (_lock) {
+            _indexedPattern = null;
+            _matches = null;
+            _matchCount = 0;
+        }
+    }
+
+    /**
+     * Acquires the read lock of the document so that the document is not changed while it is searched. It must be
+     * acquired before the lock of the searcher, in the same order as the document listener which is notified while
+     * the document holds the write lock.
+     *
+     * @return the locked document.
+     */
+    private Document lockDocument() {
+        Document document = _document;
+        if (document instanceof AbstractDocument) {
+            ((AbstractDocument) document).readLock();
+        }
+        return document;
+    }
+
+    private static void unlockDocument(Document document) {
+        if (document instanceof AbstractDocument) {
+            ((AbstractDocument) document).readUnlock();
+        }
+    }
+
+    private int getLength() {
+        return _document == null ? 0 : _document.getLength();
+    }
+
+    private static char fold(char c, boolean caseSensitive) {
+        return caseSensitive ? c : Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private void preparePattern(String pattern, boolean caseSensitive) {
+        if (pattern.equals(_pattern) && caseSensitive == _caseSensitive) {
+            return;
+        }
+        int length = pattern.length();
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = fold(pattern.charAt(i), caseSensitive);
+        }
+        // the characters are hashed into the table so the shift is the smallest of all characters in the same slot
+        int[] skipTable = new int[SKIP_TABLE_SIZE];
+        for (int i = 0; i < SKIP_TABLE_SIZE; i++) {
+            skipTable[i] = length;
+        }
+        for (int i = 0; i < length - 1; i++) {
+            skipTable[chars[i] & (SKIP_TABLE_SIZE - 1)] = length - 1 - i;
+        }
+        _pattern = pattern;
+        _caseSensitive = caseSensitive;
+        _patternChars = chars;
+        _skipTable = skipTable;
+    }
+
+    /**
+     * Reads the text starting at offset into the segment. It reads as much as the document can return without copying
+     * but no less than the minimum length unless the end of the document is reached.
+     *
+     * @param offset    the offset
+     * @param length    the maximum length to read
+     * @param minLength the minimum length to read
+     * @return false if the text couldn't be read.
+     */
+    private boolean readSegment(int offset, int length, int minLength) {
+        try {
+            _segment.setPartialReturn(true);
+            _document.getText(offset, length, _segment);
+            if (_segment.count < minLength && _segment.count < length) {
+                // the chunk ends at the gap of the document content, read it again as a copy
+                _segment.setPartialReturn(false);
+                _document.getText(offset, length, _segment);
+            }
+            return true;
+        }
+        catch (BadLocationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Scans the text in the segment for the prepared pattern.
+     *
+     * @param start the index in the segment to start with
+     * @param last  the last index in the segment where the pattern can start
+     * @return the index in the segment of the first match or the negative value of the index to resume scanning from
+     *         minus one.
+     */
+    private int scanSegment(int start, int last) {
+        char[] text = _segment.array;
+        int offset = _segment.offset;
+        char[] pattern = _patternChars;
+        int patternEnd = pattern.length - 1;
+        boolean caseSensitive = _caseSensitive;
+        int i = start;
+        while (i <= last) {
+            int j = patternEnd;
+            while (j >= 0 && fold(text[offset + i + j], caseSensitive) == pattern[j]) {
+                j--;
+            }
+            if (j < 0) {
+                return i;
+            }
+            i += _skipTable[fold(text[offset + i + patternEnd], caseSensitive) & (SKIP_TABLE_SIZE - 1)];
+        }
+        return -i - 1;
+    }
+
+    /**
+     * Finds the first match starting between fromIndex (inclusive) and toIndex (exclusive).
+     *
+     * @param pattern       the text to search for
+     * @param caseSensitive true for case sensitive search
+     * @param fromIndex     the index to start searching from
+     * @param toIndex       the index to stop searching at
+     * @return the offset of the match. -1 if not found.
+     */
+    int indexOf(String pattern, boolean caseSensitive, int fromIndex, int toIndex) {
+        Document document = lockDocument();
+        try {
+            synchronized (_lock) {
+                if (isIndexed(pattern, caseSensitive) && pattern.length() > 0) {
+                    int i = findMatch(Math.max(0, fromIndex));
+                    toIndex = Math.min(toIndex, getLength() - pattern.length() + 1);
+                    return i < _matchCount && _matches[i] < toIndex ? _matches[i] : -1;
+                }
+                return scan(pattern, caseSensitive, fromIndex, toIndex);
+            }
+        }
+        finally {
+            unlockDocument(document);
+        }
+    }
+
+    /**
+     * Reads the document to find the first match starting between fromIndex (inclusive) and toIndex (exclusive). The
+     * match index is not used.
+     */
+    private int scan(String pattern, boolean caseSensitive, int fromIndex, int toIndex) {
+        int documentLength = getLength();
+        int patternLength = pattern.length();
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        }
+        toIndex = Math.min(toIndex, documentLength - patternLength + 1);
+        if (fromIndex >= toIndex) {
+            return -1;
+        }
+        if (patternLength == 0) {
+            return fromIndex;
+        }
+        preparePattern(pattern, caseSensitive);
+        int position = fromIndex;
+        while (position < toIndex) {
+            int length = Math.min(documentLength - position, Math.min(toIndex - position, CHUNK_SIZE) + patternLength - 1);
+            if (!readSegment(position, length, patternLength)) {
+                return -1;
+            }
+            int last = Math.min(_segment.count - patternLength, toIndex - position - 1);
+            if (last < 0) {
+                return -1;
+            }
+            int found = scanSegment(0, last);
+            if (found >= 0) {
+                return position + found;
+            }
+            position += -found - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first match starting at or after fromIndex.
+     *
+     * @param pattern       the text to search for
+     * @param caseSensitive true for case sensitive search
+     * @param fromIndex     the index to start searching from
+     * @return the offset of the match. -1 if not found.
+     */
+    int indexOf(String pattern, boolean caseSensitive, int fromIndex) {
+        return indexOf(pattern, caseSensitive, fromIndex, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the last match starting at or before fromIndex.
+     *
+     * @param pattern       the text to search for
+     * @param caseSensitive true for case sensitive search
+     * @param fromIndex     the index to start searching backward from
+     * @return the offset of the match. -1 if not found.
+     */
+    int lastIndexOf(String pattern, boolean caseSensitive, int fromIndex) {
+        Document document = lockDocument();
+        try {
+            synchronized (_lock) {
+                return lastIndexOf0(pattern, caseSensitive, fromIndex);
+            }
+        }
+        finally {
+            unlockDocument(document);
+        }
+    }
+
+    private int lastIndexOf0(String pattern, boolean caseSensitive, int fromIndex) {
+        int patternLength = pattern.length();
+        fromIndex = Math.min(fromIndex, getLength() - patternLength);
+        if (fromIndex < 0) {
+            return -1;
+        }
+        if (patternLength == 0) {
+            return fromIndex;
+        }
+        if (isIndexed(pattern, caseSensitive)) {
+            int i = findMatch(fromIndex + 1) - 1;
+            return i >= 0 ? _matches[i] : -1;
+        }
+        // scan the chunks backward, the last match in a chunk is the one we are looking for
+        int end = fromIndex + 1;
+        while (end > 0) {
+            int start = Math.max(0, end - CHUNK_SIZE);
+            int found = -1;
+            int position = start;
+            while (true) {
+                position = scan(pattern, caseSensitive, position, end);
+                if (position == -1) {
+                    break;
+                }
+                found = position++;
+            }
+            if (found != -1) {
+                return found;
+            }
+            end = start;
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the matches in the document. The offsets of the matches are kept so that the following searches for the
+     * same text are done on the offsets until the document changes in a way that can't be patched.
+     *
+     * @param pattern       the text to search for
+     * @param caseSensitive true for case sensitive search
+     * @return the number of matches.
+     */
+    int countMatches(String pattern, boolean caseSensitive) {
+        if (pattern.length() == 0) {
+            return 0;
+        }
+        Document document = lockDocument();
+        try {
+            synchronized (_lock) {
+                if (!isIndexed(pattern, caseSensitive)) {
+                    int[] matches = new int[16];
+                    int count = 0;
+                    int position = 0;
+                    while ((position = scan(pattern, caseSensitive, position, Integer.MAX_VALUE)) != -1) {
+                        if (count == matches.length) {
+                            int[] newMatches = new int[count * 2];
+                            System.arraycopy(matches, 0, newMatches, 0, count);
+                            matches = newMatches;
+                        }
+                        matches[count++] = position++;
+                    }
+                    _matches = matches;
+                    _matchCount = count;
+                    _indexedPattern = pattern;
+                    _indexedCaseSensitive = caseSensitive;
+                }
+                return _matchCount;
+            }
+        }
+        finally {
+            unlockDocument(document);
+        }
+    }
+
+    private boolean isIndexed(String pattern, boolean caseSensitive) {
+        return _matches != null && pattern.equals(_indexedPattern) && caseSensitive == _indexedCaseSensitive;
+    }
+
+    /**
+     * Finds the position in the match index of the first match at or after the offset.
+     *
+     * @param offset the offset in the document
+     * @return the position in the match index.
+     */
+    private int findMatch(int offset) {
+        int low = 0;
+        int high = _matchCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (_matches[mid] < offset) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Patches the match index after text is inserted into the document. It is called on the thread which changed
+     * the document.
+     *
+     * @param e the document event
+     */
+    void insertUpdate(DocumentEvent e) {
+        synchronized (_lock) {
+            if (_matches != null) {
+                insertUpdate(e.getOffset(), e.getLength());
+            }
+        }
+    }
+
+    private void insertUpdate(int offset, int length) {
+        int patternLength = _indexedPattern.length();
+        // the matches across the insertion point are broken, the ones after it are shifted
+        int from = findMatch(offset - patternLength + 1);
+        int to = findMatch(offset);
+        removeMatches(from, to);
+        for (int i = from; i < _matchCount; i++) {
+            _matches[i] += length;
+        }
+        rescan(Math.max(0, offset - patternLength + 1), offset + length, from);
+    }
+
+    /**
+     * Patches the match index after text is removed from the document. It is called on the thread which changed the
+     * document.
+     *
+     * @param e the document event
+     */
+    void removeUpdate(DocumentEvent e) {
+        synchronized (_lock) {
+            if (_matches != null) {
+                removeUpdate(e.getOffset(), e.getLength());
+            }
+        }
+    }
+
+    private void removeUpdate(int offset, int length) {
+        int patternLength = _indexedPattern.length();
+        // the matches overlapping the removed text are gone, the ones after it are shifted
+        int from = findMatch(offset - patternLength + 1);
+        int to = findMatch(offset + length);
+        removeMatches(from, to);
+        for (int i = from; i < _matchCount; i++) {
+            _matches[i] -= length;
+        }
+        rescan(Math.max(0, offset - patternLength + 1), offset, from);
+    }
+
+    private void removeMatches(int from, int to) {
+        if (to > from) {
+            System.arraycopy(_matches, to, _matches, from, _matchCount - to);
+            _matchCount -= to - from;
+        }
+    }
+
+    /**
+     * Searches the matches starting between fromIndex and toIndex again and inserts them into the match index at the
+     * position.
+     */
+    private void rescan(int fromIndex, int toIndex, int position) {
+        String pattern = _indexedPattern;
+        boolean caseSensitive = _indexedCaseSensitive;
+        int[] matches = _matches;
+        int count = _matchCount;
+        int found = fromIndex;
+        while ((found = scan(pattern, caseSensitive, found, toIndex)) != -1) {
+            if (count == matches.length) {
+                int[] newMatches = new int[count * 2];
+                System.arraycopy(matches, 0, newMatches, 0, count);
+                matches = newMatches;
+            }
+            System.arraycopy(matches, position, matches, position + 1, count - position);
+            matches[position++] = found++;
+            count++;
+        }
+        _matches = matches;
+        _matchCount = count;
+    }
+}
@@ -35,7 +35,7 @@ public abstract class Flashable {
         install(_component);
     }
 
-    static class FlashTimer extends Timer implements ActionListener {
+    static class FlashTimer extends AnimationTimer implements ActionListener {
         public FlashTimer(int delay, ActionListener listener) {
             super(delay, listener);
             addActionListener(this);
@@ -60,6 +60,14 @@ public class FolderChooser extends JFileChooser {
     private int _availableButtons;
     private boolean _recentListVisible;
 
+    /**
+     * Bound property for <code>_backgroundLoading</code>.
+     *
+     * @see #setBackgroundLoading(boolean)
+     */
+    public static final String PROPERTY_BACKGROUND_LOADING = "backgroundLoading";
+    private boolean _backgroundLoading;
+
     public FolderChooser() {
         configurationDefaultFlags();
     }
@@ -348,4 +356,30 @@ public class FolderChooser extends JFileChooser {
     public void setFileComparator(Comparator<File> fileComparator) {
         _fileComparator = fileComparator;
     }
+
+    /**
+     * Checks if the sub-folders are loaded in background threads.
+     *
+     * @return true if the sub-folders are loaded in background threads. Otherwise false.
+     * @see #setBackgroundLoading(boolean)
+     */
+    public boolean isBackgroundLoading() {
+        return _backgroundLoading;
+    }
+
+    /**
+     * Sets the flag whether to load the sub-folders in background threads. By default, the sub-folders of a folder are
+     * listed on the event dispatch thread when the folder is expanded in the folder tree, which could freeze the
+     * FolderChooser for a while on network shares or folders with a lot of files. If this flag is true, a "Loading..."
+     * node is displayed under the folder and the sub-folders are added to the tree as they are listed.
+     *
+     * @param backgroundLoading true to load the sub-folders in background threads.
+     */
+    public void setBackgroundLoading(boolean backgroundLoading) {
+        boolean oldValue = _backgroundLoading;
+        if (oldValue != backgroundLoading) {
+            _backgroundLoading = backgroundLoading;
+            firePropertyChange(PROPERTY_BACKGROUND_LOADING, oldValue, _backgroundLoading);
+        }
+    }
 }
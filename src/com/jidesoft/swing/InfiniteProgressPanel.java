@@ -40,7 +40,7 @@ public class InfiniteProgressPanel extends JComponent implements ActionListener
     private Rectangle barsBounds = null;
     private Rectangle barsScreenBounds = null;
     private AffineTransform centerAndScaleTransform = null;
-    private Timer timer = new Timer(1000 / 16, this);
+    private Timer timer = new AnimationTimer(1000 / 16, this, this);
     private Color[] colors = null;
     private int colorOffset = 0;
     private boolean tempHide = false;
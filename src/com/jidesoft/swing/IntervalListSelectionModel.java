@@ -0,0 +1,579 @@
+/*
+ * @(#)IntervalListSelectionModel.java
+ *
+ * Copyright 2002 - 2011 JIDE Software Inc. All rights reserved.
+ */
+package com.jidesoft.swing;
+
+import javax.swing.*;
+
+/**
+ * <code>IntervalListSelectionModel</code> is a <code>ListSelectionModel</code> which keeps the selection as a sorted
+ * list of intervals instead of one bit per index as {@link DefaultListSelectionModel} does. Selecting or deselecting an
+ * interval, inserting or removing indices only touch the intervals, no matter how many indices they have. So it is
+ * suitable for very large lists where all or most of the entries are selected. The number of the selected indices is
+ * also kept so {@link #getSelectedItemsCount()} doesn't need to look at each index.
+ * <p/>
+ * It behaves the same as <code>DefaultListSelectionModel</code>, including the selection modes, the anchor and lead
+ * indices and the events.
+ */
+public class IntervalListSelectionModel extends DefaultListSelectionModel {
+    private static final long serialVersionUID = 2418355867302233264L;
+
+    private static final int MIN = -1;
+    private static final int MAX = Integer.MAX_VALUE;
+
+    // the selected intervals, sorted and neither overlapping nor adjacent
+    private int[] _starts = new int[8];
+    private int[] _ends = new int[8];
+    private int _intervalCount;
+    private int _selectedCount;
+
+    private int _selectionMode = MULTIPLE_INTERVAL_SELECTION;
+    private int _anchorIndex = -1;
+    private int _leadIndex = -1;
+    private int _firstAdjustedIndex = MAX;
+    private int _lastAdjustedIndex = MIN;
+    private int _firstChangedIndex = MAX;
+    private int _lastChangedIndex = MIN;
+
+    public IntervalListSelectionModel() {
+    }
+
+    /**
+     * Finds the last interval starting at or before the index.
+     *
+     * @param index the index
+     * @return the position of the interval. -1 if all intervals start after the index.
+     */
+    private int findInterval(int index) {
+        int low = 0;
+        int high = _intervalCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (_starts[mid] <= index) {
+                low = mid + 1;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Replaces the intervals from position from to position to (both inclusive) with the new intervals.
+     */
+    private void replaceIntervals(int from, int to, int[] starts, int[] ends, int count) {
+        int newCount = _intervalCount - (to - from + 1) + count;
+        if (newCount > _starts.length) {
+            int capacity = Math.max(newCount, _starts.length * 2);
+            int[] newStarts = new int[capacity];
+            int[] newEnds = new int[capacity];
+            System.arraycopy(_starts, 0, newStarts, 0, _intervalCount);
+            System.arraycopy(_ends, 0, newEnds, 0, _intervalCount);
+            _starts = newStarts;
+            _ends = newEnds;
+        }
+        System.arraycopy(_starts, to + 1, _starts, from + count, _intervalCount - to - 1);
+        System.arraycopy(_ends, to + 1, _ends, from + count, _intervalCount - to - 1);
+        for (int i = 0; i < count; i++) {
+            _starts[from + i] = starts[i];
+            _ends[from + i] = ends[i];
+        }
+        _intervalCount = newCount;
+    }
+
+    private void markAsDirty(int r) {
+        if (r == -1) {
+            return;
+        }
+        _firstAdjustedIndex = Math.min(_firstAdjustedIndex, r);
+        _lastAdjustedIndex = Math.max(_lastAdjustedIndex, r);
+    }
+
+    /**
+     * Selects all indices from index0 to index1.
+     */
+    private void set(int index0, int index1) {
+        if (index0 > index1) {
+            return;
+        }
+        // the intervals overlapping or adjacent to the new interval are merged with it
+        int first = findInterval(index0 - 1);
+        if (first < 0 || _ends[first] < index0 - 1) {
+            first++;
+        }
+        int last = findInterval(index1 == MAX ? MAX : index1 + 1);
+        if (first > last) {
+            replaceIntervals(first, first - 1, new int[]{index0}, new int[]{index1}, 1);
+            _selectedCount += index1 - index0 + 1;
+            markAsDirty(index0);
+            markAsDirty(index1);
+            return;
+        }
+        int selected = 0;
+        for (int i = first; i <= last; i++) {
+            selected += Math.max(0, Math.min(index1, _ends[i]) - Math.max(index0, _starts[i]) + 1);
+        }
+        if (selected == index1 - index0 + 1) {
+            return;
+        }
+        // the first and the last index that were not selected
+        markAsDirty(index0 < _starts[first] ? index0 : _ends[first] + 1);
+        markAsDirty(index1 > _ends[last] ? index1 : _starts[last] - 1);
+        _selectedCount += index1 - index0 + 1 - selected;
+        int start = Math.min(index0, _starts[first]);
+        int end = Math.max(index1, _ends[last]);
+        replaceIntervals(first, last, new int[]{start}, new int[]{end}, 1);
+    }
+
+    /**
+     * Deselects all indices from index0 to index1.
+     */
+    private void clear(int index0, int index1) {
+        if (index0 > index1) {
+            return;
+        }
+        int first = findInterval(index0);
+        if (first < 0 || _ends[first] < index0) {
+            first++;
+        }
+        int last = findInterval(index1);
+        if (first > last) {
+            return;
+        }
+        markAsDirty(Math.max(index0, _starts[first]));
+        markAsDirty(Math.min(index1, _ends[last]));
+        for (int i = first; i <= last; i++) {
+            _selectedCount -= Math.min(index1, _ends[i]) - Math.max(index0, _starts[i]) + 1;
+        }
+        int[] starts = new int[2];
+        int[] ends = new int[2];
+        int count = 0;
+        if (_starts[first] < index0) {
+            starts[count] = _starts[first];
+            ends[count++] = index0 - 1;
+        }
+        if (_ends[last] > index1) {
+            starts[count] = index1 + 1;
+            ends[count++] = _ends[last];
+        }
+        replaceIntervals(first, last, starts, ends, count);
+    }
+
+    /**
+     * Gets the number of the selected indices from index0 to index1.
+     *
+     * @param index0 the first index
+     * @param index1 the last index
+     * @return the number of the selected indices.
+     */
+    public int getSelectedCount(int index0, int index1) {
+        int min = Math.min(index0, index1);
+        int max = Math.max(index0, index1);
+        if (_intervalCount == 0 || (min <= _starts[0] && max >= _ends[_intervalCount - 1])) {
+            return _selectedCount;
+        }
+        int first = findInterval(min);
+        if (first < 0 || _ends[first] < min) {
+            first++;
+        }
+        int last = findInterval(max);
+        int count = 0;
+        for (int i = first; i <= last; i++) {
+            count += Math.min(max, _ends[i]) - Math.max(min, _starts[i]) + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of the selected indices.
+     *
+     * @return the number of the selected indices.
+     */
+    public int getSelectedItemsCount() {
+        return _selectedCount;
+    }
+
+    /**
+     * Gets all selected indices in increasing order.
+     *
+     * @return the selected indices.
+     */
+    public int[] getSelectedIndices() {
+        int[] indices = new int[_selectedCount];
+        int n = 0;
+        for (int i = 0; i < _intervalCount; i++) {
+            for (int index = _starts[i]; index <= _ends[i]; index++) {
+                indices[n++] = index;
+            }
+        }
+        return indices;
+    }
+
+    @Override
+    public int getMinSelectionIndex() {
+        return _intervalCount == 0 ? -1 : _starts[0];
+    }
+
+    @Override
+    public int getMaxSelectionIndex() {
+        return _intervalCount == 0 ? -1 : _ends[_intervalCount - 1];
+    }
+
+    @Override
+    public boolean isSelectedIndex(int index) {
+        int i = findInterval(index);
+        return i >= 0 && _ends[i] >= index;
+    }
+
+    @Override
+    public boolean isSelectionEmpty() {
+        return _intervalCount == 0;
+    }
+
+    @Override
+    public int getSelectionMode() {
+        return _selectionMode;
+    }
+
+    @Override
+    public void setSelectionMode(int selectionMode) {
+        int oldMode = _selectionMode;
+        switch (selectionMode) {
+            case SINGLE_SELECTION:
+            case SINGLE_INTERVAL_SELECTION:
+            case MULTIPLE_INTERVAL_SELECTION:
+                _selectionMode = selectionMode;
+                break;
+            default:
+                throw new IllegalArgumentException("invalid selectionMode");
+        }
+        if (oldMode > _selectionMode && !isSelectionEmpty()) {
+            if (_selectionMode == SINGLE_SELECTION) {
+                setSelectionInterval(_starts[0], _starts[0]);
+            }
+            else if (_selectionMode == SINGLE_INTERVAL_SELECTION) {
+                setSelectionInterval(_starts[0], _ends[0]);
+            }
+        }
+    }
+
+    @Override
+    protected void fireValueChanged(boolean isAdjusting) {
+        if (_lastChangedIndex == MIN) {
+            return;
+        }
+        int oldFirstChangedIndex = _firstChangedIndex;
+        int oldLastChangedIndex = _lastChangedIndex;
+        _firstChangedIndex = MAX;
+        _lastChangedIndex = MIN;
+        fireValueChanged(oldFirstChangedIndex, oldLastChangedIndex, isAdjusting);
+    }
+
+    private void fireValueChanged() {
+        if (_lastAdjustedIndex == MIN) {
+            return;
+        }
+        // keeps the changed range to fire an event when the adjusting is done
+        if (getValueIsAdjusting()) {
+            _firstChangedIndex = Math.min(_firstChangedIndex, _firstAdjustedIndex);
+            _lastChangedIndex = Math.max(_lastChangedIndex, _lastAdjustedIndex);
+        }
+        int oldFirstAdjustedIndex = _firstAdjustedIndex;
+        int oldLastAdjustedIndex = _lastAdjustedIndex;
+        _firstAdjustedIndex = MAX;
+        _lastAdjustedIndex = MIN;
+        fireValueChanged(oldFirstAdjustedIndex, oldLastAdjustedIndex);
+    }
+
+    private void updateLeadAnchorIndices(int anchorIndex, int leadIndex) {
+        if (leadAnchorNotificationEnabled) {
+            if (_anchorIndex != anchorIndex) {
+                markAsDirty(_anchorIndex);
+                markAsDirty(anchorIndex);
+            }
+            if (_leadIndex != leadIndex) {
+                markAsDirty(_leadIndex);
+                markAsDirty(leadIndex);
+            }
+        }
+        _anchorIndex = anchorIndex;
+        _leadIndex = leadIndex;
+    }
+
+    /**
+     * Deselects the indices from clearMin to clearMax and selects the indices from setMin to setMax. The indices in
+     * both ranges are selected if clearFirst is true. Otherwise they are deselected.
+     */
+    private void changeSelection(int clearMin, int clearMax, int setMin, int setMax, boolean clearFirst) {
+        if (clearFirst) {
+            clear(clearMin, Math.min(clearMax, setMin - 1));
+            clear(Math.max(clearMin, setMax + 1), clearMax);
+            set(setMin, setMax);
+        }
+        else {
+            set(setMin, Math.min(setMax, clearMin - 1));
+            set(Math.max(setMin, clearMax + 1), setMax);
+            clear(clearMin, clearMax);
+        }
+        fireValueChanged();
+    }
+
+    @Override
+    public void clearSelection() {
+        if (!isSelectionEmpty()) {
+            changeSelection(getMinSelectionIndex(), getMaxSelectionIndex(), MAX, MIN, true);
+        }
+    }
+
+    @Override
+    public void setSelectionInterval(int index0, int index1) {
+        if (index0 == -1 || index1 == -1) {
+            return;
+        }
+        if (getSelectionMode() == SINGLE_SELECTION) {
+            index0 = index1;
+        }
+        updateLeadAnchorIndices(index0, index1);
+        if (isSelectionEmpty()) {
+            changeSelection(MAX, MIN, Math.min(index0, index1), Math.max(index0, index1), true);
+        }
+        else {
+            changeSelection(getMinSelectionIndex(), getMaxSelectionIndex(), Math.min(index0, index1), Math.max(index0, index1), true);
+        }
+    }
+
+    @Override
+    public void addSelectionInterval(int index0, int index1) {
+        if (index0 == -1 || index1 == -1) {
+            return;
+        }
+        // If we only allow a single selection, channel through setSelectionInterval() to enforce the rule.
+        if (getSelectionMode() == SINGLE_SELECTION) {
+            setSelectionInterval(index0, index1);
+            return;
+        }
+        updateLeadAnchorIndices(index0, index1);
+        int setMin = Math.min(index0, index1);
+        int setMax = Math.max(index0, index1);
+        // If we only allow a single interval and this would result in multiple intervals, then set the selection to
+        // be just the new range.
+        if (getSelectionMode() == SINGLE_INTERVAL_SELECTION && !isSelectionEmpty()
+                && (setMax < getMinSelectionIndex() - 1 || setMin > getMaxSelectionIndex() + 1)) {
+            setSelectionInterval(index0, index1);
+            return;
+        }
+        changeSelection(MAX, MIN, setMin, setMax, true);
+    }
+
+    @Override
+    public void removeSelectionInterval(int index0, int index1) {
+        removeSelectionIntervalImpl(index0, index1, true);
+    }
+
+    private void removeSelectionIntervalImpl(int index0, int index1, boolean changeLeadAnchor) {
+        if (index0 == -1 || index1 == -1) {
+            return;
+        }
+        if (changeLeadAnchor) {
+            updateLeadAnchorIndices(index0, index1);
+        }
+        int clearMin = Math.min(index0, index1);
+        int clearMax = Math.max(index0, index1);
+        // If the removal would produce to two disjoint selections in a mode that only allows one, extend the removal
+        // to the end of the selection.
+        if (getSelectionMode() != MULTIPLE_INTERVAL_SELECTION && !isSelectionEmpty()
+                && clearMin > getMinSelectionIndex() && clearMax < getMaxSelectionIndex()) {
+            clearMax = getMaxSelectionIndex();
+        }
+        changeSelection(clearMin, clearMax, MAX, MIN, true);
+    }
+
+    @Override
+    public void insertIndexInterval(int index, int length, boolean before) {
+        // The first new index will appear at insMinIndex and the last one will appear at insMaxIndex
+        int insMinIndex = (before) ? index : index + 1;
+        int insMaxIndex = (insMinIndex + length) - 1;
+        boolean setInsertedValues = getSelectionMode() != SINGLE_SELECTION && isSelectedIndex(index);
+
+        // shift the intervals at or after insMinIndex, splitting the one across it
+        int i = findInterval(insMinIndex);
+        if (i >= 0 && _starts[i] < insMinIndex && _ends[i] >= insMinIndex) {
+            replaceIntervals(i, i, new int[]{_starts[i], insMinIndex}, new int[]{insMinIndex - 1, _ends[i]}, 2);
+        }
+        int first = i >= 0 && _starts[i] < insMinIndex ? i + 1 : Math.max(i, 0);
+        if (first < _intervalCount && length > 0) {
+            markAsDirty(_starts[first]);
+            markAsDirty(_ends[_intervalCount - 1] + length);
+        }
+        for (int j = first; j < _intervalCount; j++) {
+            _starts[j] += length;
+            _ends[j] += length;
+        }
+        if (first > 0 && first < _intervalCount && _ends[first - 1] + 1 >= _starts[first]) {
+            replaceIntervals(first - 1, first, new int[]{_starts[first - 1]}, new int[]{_ends[first]}, 1);
+        }
+
+        // initialize the newly inserted indices
+        if (setInsertedValues) {
+            set(insMinIndex, insMaxIndex);
+        }
+
+        int leadIndex = _leadIndex;
+        if (leadIndex > index || (before && leadIndex == index)) {
+            leadIndex = _leadIndex + length;
+        }
+        int anchorIndex = _anchorIndex;
+        if (anchorIndex > index || (before && anchorIndex == index)) {
+            anchorIndex = _anchorIndex + length;
+        }
+        if (leadIndex != _leadIndex || anchorIndex != _anchorIndex) {
+            updateLeadAnchorIndices(anchorIndex, leadIndex);
+        }
+        fireValueChanged();
+    }
+
+    @Override
+    public void removeIndexInterval(int index0, int index1) {
+        int rmMinIndex = Math.min(index0, index1);
+        int rmMaxIndex = Math.max(index0, index1);
+        int gapLength = (rmMaxIndex - rmMinIndex) + 1;
+
+        if (!isSelectionEmpty() && getMaxSelectionIndex() >= rmMinIndex) {
+            markAsDirty(rmMinIndex);
+            markAsDirty(getMaxSelectionIndex());
+            clear(rmMinIndex, rmMaxIndex);
+            // shift the intervals after the removed indices to close the gap
+            int first = findInterval(rmMinIndex - 1) + 1;
+            for (int j = first; j < _intervalCount; j++) {
+                _starts[j] -= gapLength;
+                _ends[j] -= gapLength;
+            }
+            if (first > 0 && first < _intervalCount && _ends[first - 1] + 1 >= _starts[first]) {
+                replaceIntervals(first - 1, first, new int[]{_starts[first - 1]}, new int[]{_ends[first]}, 1);
+            }
+        }
+
+        int leadIndex = _leadIndex;
+        if (leadIndex == 0 && rmMinIndex == 0) {
+            // do nothing
+        }
+        else if (leadIndex > rmMaxIndex) {
+            leadIndex = _leadIndex - gapLength;
+        }
+        else if (leadIndex >= rmMinIndex) {
+            leadIndex = rmMinIndex - 1;
+        }
+        int anchorIndex = _anchorIndex;
+        if (anchorIndex == 0 && rmMinIndex == 0) {
+            // do nothing
+        }
+        else if (anchorIndex > rmMaxIndex) {
+            anchorIndex = _anchorIndex - gapLength;
+        }
+        else if (anchorIndex >= rmMinIndex) {
+            anchorIndex = rmMinIndex - 1;
+        }
+        if (leadIndex != _leadIndex || anchorIndex != _anchorIndex) {
+            updateLeadAnchorIndices(anchorIndex, leadIndex);
+        }
+        fireValueChanged();
+    }
+
+    @Override
+    public int getAnchorSelectionIndex() {
+        return _anchorIndex;
+    }
+
+    @Override
+    public int getLeadSelectionIndex() {
+        return _leadIndex;
+    }
+
+    @Override
+    public void setAnchorSelectionIndex(int anchorIndex) {
+        updateLeadAnchorIndices(anchorIndex, _leadIndex);
+        fireValueChanged();
+    }
+
+    @Override
+    public void moveLeadSelectionIndex(int leadIndex) {
+        // disallow a -1 lead unless the anchor is already -1
+        if (leadIndex == -1) {
+            if (_anchorIndex != -1) {
+                return;
+            }
+        }
+        updateLeadAnchorIndices(_anchorIndex, leadIndex);
+        fireValueChanged();
+    }
+
+    @Override
+    public void setLeadSelectionIndex(int leadIndex) {
+        int anchorIndex = _anchorIndex;
+        // only allow a -1 lead if the anchor is already -1
+        if (leadIndex == -1) {
+            if (anchorIndex == -1) {
+                updateLeadAnchorIndices(anchorIndex, leadIndex);
+                fireValueChanged();
+            }
+            return;
+        }
+        // otherwise, don't do anything if the anchor is -1
+        else if (anchorIndex == -1) {
+            return;
+        }
+
+        if (_leadIndex == -1) {
+            _leadIndex = leadIndex;
+        }
+
+        boolean shouldSelect = isSelectedIndex(_anchorIndex);
+
+        if (getSelectionMode() == SINGLE_SELECTION) {
+            anchorIndex = leadIndex;
+            shouldSelect = true;
+        }
+
+        int oldMin = Math.min(_anchorIndex, _leadIndex);
+        int oldMax = Math.max(_anchorIndex, _leadIndex);
+        int newMin = Math.min(anchorIndex, leadIndex);
+        int newMax = Math.max(anchorIndex, leadIndex);
+
+        updateLeadAnchorIndices(anchorIndex, leadIndex);
+
+        if (shouldSelect) {
+            changeSelection(oldMin, oldMax, newMin, newMax, true);
+        }
+        else {
+            changeSelection(newMin, newMax, oldMin, oldMax, false);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(getValueIsAdjusting() ? "~" : "=").append("{");
+        for (int i = 0; i < _intervalCount; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(_starts[i]);
+            if (_ends[i] > _starts[i]) {
+                buffer.append("-").append(_ends[i]);
+            }
+        }
+        buffer.append("}");
+        return getClass().getName() + " " + Integer.toString(hashCode()) + " " + buffer;
+    }
+
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        IntervalListSelectionModel clone = (IntervalListSelectionModel) super.clone();
+        clone._starts = _starts.clone();
+        clone._ends = _ends.clone();
+        return clone;
+    }
+}
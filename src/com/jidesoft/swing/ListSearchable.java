@@ -138,10 +138,12 @@ public class ListSearchable extends Searchable implements ListDataListener, Prop
     }
 
     public void contentsChanged(ListDataEvent e) {
-        if (!isProcessModelChangeEvent()) {
+        if (e.getIndex0() == -1 && e.getIndex1() == -1) {
+            invalidateSearchIndex();
             return;
         }
-        if (e.getIndex0() == -1 && e.getIndex1() == -1) {
+        invalidateSearchIndex(e.getIndex0(), e.getIndex1());
+        if (!isProcessModelChangeEvent()) {
             return;
         }
         hidePopup();
@@ -149,6 +151,7 @@ public class ListSearchable extends Searchable implements ListDataListener, Prop
     }
 
     public void intervalAdded(ListDataEvent e) {
+        insertSearchIndexInterval(e.getIndex0(), e.getIndex1());
         if (!isProcessModelChangeEvent()) {
             return;
         }
@@ -157,6 +160,7 @@ public class ListSearchable extends Searchable implements ListDataListener, Prop
     }
 
     public void intervalRemoved(ListDataEvent e) {
+        removeSearchIndexInterval(e.getIndex0(), e.getIndex1());
         if (!isProcessModelChangeEvent()) {
             return;
         }
@@ -167,6 +171,7 @@ public class ListSearchable extends Searchable implements ListDataListener, Prop
     public void propertyChange(PropertyChangeEvent evt) {
         if ("model".equals(evt.getPropertyName())) {
             hidePopup();
+            invalidateSearchIndex();
 
             ListModel oldModel = (ListModel) evt.getOldValue();
             if (oldModel != null) {
@@ -202,5 +207,6 @@ public class ListSearchable extends Searchable implements ListDataListener, Prop
      */
     public void setUseRendererAsConverter(boolean useRendererAsConverter) {
         _useRendererAsConverter = useRendererAsConverter;
+        invalidateSearchIndex();
     }
 }
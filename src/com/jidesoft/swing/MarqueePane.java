@@ -153,7 +153,7 @@ public class MarqueePane extends JScrollPane {
      */
     public void startAutoScrolling() {
         stopAutoScrolling();
-        _scrollTimer = new Timer(getScrollDelay(), new ActionListener() {
+        _scrollTimer = new AnimationTimer(getScrollDelay(), new ActionListener() {
             public void actionPerformed(ActionEvent e) {
                 BoundedRangeModel rangeModel;
                 if (getScrollDirection() == SCROLL_DIRECTION_LEFT || getScrollDirection() == SCROLL_DIRECTION_RIGHT) {
@@ -207,7 +207,7 @@ public class MarqueePane extends JScrollPane {
                     _scrollTimer.setDelay(_reachStayPosition ? getStayDelay() : getScrollDelay());
                 }
             }
-        });
+        }, this);
         _scrollTimer.start();
     }
 
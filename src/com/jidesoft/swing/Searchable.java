@@ -102,7 +102,14 @@ public abstract class Searchable {
     private boolean _repeats = false;
     private boolean _wildcardEnabled = true;
     private boolean _countMatch;
+    private boolean _countMatchInBackground;
     protected int _matchCount;
+    private MatchTask _countMatchTask;
+    private MatchTask _highlightAllTask;
+    private boolean _searchIndexEnabled = false;
+    private Boolean _compareOverridden;
+    private String[] _searchIndex;
+    private int _searchIndexSize;
     private WildcardSupport _wildcardSupport = null;
     private Color _mismatchForeground;
     private Color _foreground = null;
@@ -232,6 +239,19 @@ public abstract class Searchable {
      */
     protected abstract int getElementCount();
 
+    /**
+     * Checks if there is an element at the index. The searches going forward call this method instead of {@link
+     * #getElementCount()} so that a subclass which has to visit all its elements to count them, such as {@link
+     * TreeSearchable} in recursive mode, only visits the elements the search needs. By default, it compares the index
+     * with the element count.
+     *
+     * @param index the index
+     * @return true if the index is within the total count. Otherwise false.
+     */
+    protected boolean hasElementAt(int index) {
+        return index >= 0 && index < getElementCount();
+    }
+
     /**
      * Gets the element at the specified index. The element could be any data structure that internally used in the
      * component. The convertElementToString method will give you a chance to convert the element to string which is
@@ -495,6 +515,8 @@ public abstract class Searchable {
             _previousSearchText = null;
             fireSearchableEvent(new SearchableEvent(Searchable.this, SearchableEvent.SEARCHABLE_END, "", getCurrentIndex(), _previousSearchText));
         }
+        cancelCountMatch();
+        stopHighlightAllTask();
         setCursor(-1);
     }
 
@@ -551,7 +573,7 @@ public abstract class Searchable {
                         if (e.getID() == SearchableEvent.SEARCHABLE_END) {
                             _popupTimer.stop();
                         }
-                        else {
+                        else if (e.getID() != SearchableEvent.SEARCHABLE_MATCH_COUNT) { // not triggered by the user
                             _popupTimer.restart();
                         }
                     }
@@ -766,6 +788,201 @@ public abstract class Searchable {
         }
     }
 
+    /**
+     * Checks if the element at the index matches the searching text. If the search index is enabled and {@link
+     * #compare(Object, String)} is not overridden, the element string is taken from the index so that {@link
+     * #convertElementToString(Object)} is only called once for each element until the index is invalidated.
+     *
+     * @param index         the index of the element
+     * @param searchingText the searching text
+     * @return true if matches.
+     */
+    private boolean compareAt(int index, String searchingText) {
+        if (!isSearchIndexEnabled() || isCompareOverridden()) {
+            return compare(getElementAt(index), searchingText);
+        }
+        String text = getIndexedText(index);
+        return text != NULL_TEXT && compare(text, searchingText);
+    }
+
+    private boolean isCompareOverridden() {
+        if (_compareOverridden == null) {
+            _compareOverridden = Boolean.FALSE;
+            for (Class<?> c = getClass(); c != Searchable.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("compare", Object.class, String.class);
+                    _compareOverridden = Boolean.TRUE;
+                    break;
+                }
+                catch (NoSuchMethodException e) {
+                    // check the super class
+                }
+            }
+        }
+        return _compareOverridden;
+    }
+
+    /**
+     * The marker used in the search index for the elements which are converted to null string.
+     */
+    private static final String NULL_TEXT = new String();
+
+    private String getIndexedText(int index) {
+        // the index only covers the elements up to the last one searched so far
+        if (_searchIndex == null) {
+            _searchIndex = new String[Math.max(index + 1, 16)];
+        }
+        else if (index >= _searchIndex.length) {
+            String[] searchIndex = new String[Math.max(index + 1, _searchIndex.length * 3 / 2)];
+            System.arraycopy(_searchIndex, 0, searchIndex, 0, _searchIndexSize);
+            _searchIndex = searchIndex;
+        }
+        if (index >= _searchIndexSize) {
+            _searchIndexSize = index + 1;
+        }
+        String text = _searchIndex[index];
+        if (text == null) {
+            text = convertElementToString(getElementAt(index));
+            if (text == null) {
+                text = NULL_TEXT;
+            }
+            else if (!isCaseSensitive()) {
+                text = text.toLowerCase();
+            }
+            _searchIndex[index] = text;
+        }
+        return text;
+    }
+
+    /**
+     * Checks if the search index is enabled. If enabled, the string of each element, converted by {@link
+     * #convertElementToString(Object)} and lower cased if not case sensitive, is cached after the first search so that
+     * the following searches only need to match the cached strings. The subclasses keep the index up to date by calling
+     * {@link #invalidateSearchIndex()} and the other index methods when the model changes. The index is not used if
+     * {@link #compare(Object, String)} is overridden.
+     *
+     * @return true if the search index is enabled. Otherwise false.
+     * @see #setSearchIndexEnabled(boolean)
+     */
+    public boolean isSearchIndexEnabled() {
+        return _searchIndexEnabled;
+    }
+
+    /**
+     * Enables or disables the search index. It is disabled by default. Only enable it if the result of {@link
+     * #convertElementToString(Object)} doesn't change unless the model fires an event. For example, the text of a tree
+     * node converted by TreeSearchable depends on whether the node is selected if the tree overrides {@link
+     * JTree#convertValueToText(Object, boolean, boolean, boolean, int, boolean)} to use it.
+     *
+     * @param searchIndexEnabled true to enable the search index. False to disable it.
+     */
+    public void setSearchIndexEnabled(boolean searchIndexEnabled) {
+        _searchIndexEnabled = searchIndexEnabled;
+        invalidateSearchIndex();
+    }
+
+    /**
+     * Discards the whole search index. The element strings will be converted again during next search.
+     */
+    protected void invalidateSearchIndex() {
+        _searchIndex = null;
+        _searchIndexSize = 0;
+    }
+
+    /**
+     * Checks if there is a search index to keep up to date, so that the subclasses can skip finding out which elements
+     * are affected by a model change when there is none.
+     *
+     * @return true if the search index has been built. Otherwise false.
+     */
+    boolean isSearchIndexBuilt() {
+        return _searchIndex != null;
+    }
+
+    /**
+     * Discards the search index of the elements between index0 and index1, inclusive.
+     *
+     * @param index0 one end of the interval
+     * @param index1 the other end of the interval
+     */
+    protected void invalidateSearchIndex(int index0, int index1) {
+        if (_searchIndex == null) {
+            return;
+        }
+        int from = Math.max(0, Math.min(index0, index1));
+        int to = Math.min(_searchIndexSize - 1, Math.max(index0, index1));
+        if (from > to) {
+            if (index0 < 0 || index1 < 0) {
+                invalidateSearchIndex();
+            }
+            return;
+        }
+        java.util.Arrays.fill(_searchIndex, from, to + 1, null);
+    }
+
+    /**
+     * Inserts empty entries into the search index for the elements inserted between index0 and index1, inclusive.
+     *
+     * @param index0 one end of the interval
+     * @param index1 the other end of the interval
+     */
+    protected void insertSearchIndexInterval(int index0, int index1) {
+        if (_searchIndex == null) {
+            return;
+        }
+        int from = Math.min(index0, index1);
+        int length = Math.abs(index1 - index0) + 1;
+        if (from < 0) {
+            invalidateSearchIndex();
+            return;
+        }
+        if (from >= _searchIndexSize) {
+            return; // after the indexed elements
+        }
+        int size = _searchIndexSize + length;
+        if (size > _searchIndex.length) {
+            String[] index = new String[Math.max(size, _searchIndex.length * 3 / 2)];
+            System.arraycopy(_searchIndex, 0, index, 0, from);
+            System.arraycopy(_searchIndex, from, index, from + length, _searchIndexSize - from);
+            _searchIndex = index;
+        }
+        else {
+            System.arraycopy(_searchIndex, from, _searchIndex, from + length, _searchIndexSize - from);
+            java.util.Arrays.fill(_searchIndex, from, from + length, null);
+        }
+        _searchIndexSize = size;
+    }
+
+    /**
+     * Removes the entries from the search index for the elements removed between index0 and index1, inclusive.
+     *
+     * @param index0 one end of the interval
+     * @param index1 the other end of the interval
+     */
+    protected void removeSearchIndexInterval(int index0, int index1) {
+        if (_searchIndex == null) {
+            return;
+        }
+        int from = Math.min(index0, index1);
+        int to = Math.max(index0, index1);
+        if (from < 0) {
+            invalidateSearchIndex();
+            return;
+        }
+        if (from >= _searchIndexSize) {
+            return; // after the indexed elements
+        }
+        if (to >= _searchIndexSize) {
+            java.util.Arrays.fill(_searchIndex, from, _searchIndexSize, null);
+            _searchIndexSize = from;
+            return;
+        }
+        int length = to - from + 1;
+        System.arraycopy(_searchIndex, to + 1, _searchIndex, from, _searchIndexSize - to - 1);
+        java.util.Arrays.fill(_searchIndex, _searchIndexSize - length, _searchIndexSize, null);
+        _searchIndexSize -= length;
+    }
+
 
     /**
      * Gets the cursor which is the index of current location when searching. The value will be used in findNext and
@@ -808,8 +1025,21 @@ public abstract class Searchable {
      * <p/>
      * In default implementation, it will just search all texts in the target to highlight all. If you have a really
      * huge text to search, you may want to override this method to have a lazy behavior on visible areas only.
+     * <p/>
+     * If {@link #isCountMatchInBackground()} is true, the matches are highlighted in small slices on the event dispatch
+     * thread so that the UI stays responsive. Only one {@link SearchableEvent#SEARCHABLE_MATCH} event is fired for the
+     * first match when all matches are highlighted.
      */
     protected void highlightAll() {
+        if (isCountMatchInBackground()) {
+            stopHighlightAllTask();
+            String text = getSearchingText();
+            if (text != null && text.length() > 0) {
+                _highlightAllTask = new MatchTask(text, true);
+                _highlightAllTask.start();
+            }
+            return;
+        }
         int firstIndex = -1;
         int index = getSelectedIndex();
         String text = getSearchingText();
@@ -838,11 +1068,19 @@ public abstract class Searchable {
     /**
      * Cancel highlight all.
      * <p/>
-     * By default, it does nothing. However, if you want to override {@link #highlightAll()}, you may want to override
-     * this method to notify your Searchable that the highlightAll button is to be released.
+     * By default, it only stops highlighting the matches in background. However, if you want to override {@link
+     * #highlightAll()}, you may want to override this method to notify your Searchable that the highlightAll button is
+     * to be released.
      */
     protected void cancelHighlightAll() {
+        stopHighlightAllTask();
+    }
 
+    private void stopHighlightAllTask() {
+        if (_highlightAllTask != null) {
+            _highlightAllTask.stop();
+            _highlightAllTask = null;
+        }
     }
 
     /**
@@ -872,25 +1110,22 @@ public abstract class Searchable {
      */
     public int findNext(String s) {
         String str = isCaseSensitive() ? s : s.toLowerCase();
-        int count = getElementCount();
-        if (count == 0)
+        if (!hasElementAt(0))
             return s.length() > 0 ? -1 : 0;
         int selectedIndex = getCurrentIndex();
-        for (int i = selectedIndex + 1; i < count; i++) {
-            Object element = getElementAt(i);
-            if (compare(element, str))
+        for (int i = selectedIndex + 1; hasElementAt(i); i++) {
+            if (compareAt(i, str))
                 return i;
         }
 
         if (isRepeats()) {
             for (int i = 0; i < selectedIndex; i++) {
-                Object element = getElementAt(i);
-                if (compare(element, str))
+                if (compareAt(i, str))
                     return i;
             }
         }
 
-        return selectedIndex == -1 ? -1 : (compare(getElementAt(selectedIndex), str) ? selectedIndex : -1);
+        return selectedIndex == -1 ? -1 : (compareAt(selectedIndex, str) ? selectedIndex : -1);
     }
 
     protected int getCurrentIndex() {
@@ -916,19 +1151,17 @@ public abstract class Searchable {
             return s.length() > 0 ? -1 : 0;
         int selectedIndex = getCurrentIndex();
         for (int i = selectedIndex - 1; i >= 0; i--) {
-            Object element = getElementAt(i);
-            if (compare(element, str))
+            if (compareAt(i, str))
                 return i;
         }
 
         if (isRepeats()) {
             for (int i = count - 1; i >= selectedIndex; i--) {
-                Object element = getElementAt(i);
-                if (compare(element, str))
+                if (compareAt(i, str))
                     return i;
             }
         }
-        return selectedIndex == -1 ? -1 : (compare(getElementAt(selectedIndex), str) ? selectedIndex : -1);
+        return selectedIndex == -1 ? -1 : (compareAt(selectedIndex, str) ? selectedIndex : -1);
     }
 
     /**
@@ -940,7 +1173,10 @@ public abstract class Searchable {
      * @return the next index that the element matches the searching text.
      */
     public int findFromCursor(String s) {
-        if (isCountMatch()) {
+        if (isCountMatch() && isCountMatchInBackground()) {
+            startCountMatch(s);
+        }
+        else if (isCountMatch()) {
             boolean reverse = isReverseOrder();
             setReverseOrder(false);
             int selectedIndex = getCurrentIndex();
@@ -969,21 +1205,18 @@ public abstract class Searchable {
         int selectedIndex = getCurrentIndex();
         if (selectedIndex < 0)
             selectedIndex = 0;
-        int count = getElementCount();
-        if (count == 0)
+        if (!hasElementAt(0))
             return -1; // no match
 
         // find from cursor
-        for (int i = selectedIndex; i < count; i++) {
-            Object element = getElementAt(i);
-            if (compare(element, str))
+        for (int i = selectedIndex; hasElementAt(i); i++) {
+            if (compareAt(i, str))
                 return i;
         }
 
         // if not found, start over from the beginning
         for (int i = 0; i < selectedIndex; i++) {
-            Object element = getElementAt(i);
-            if (compare(element, str))
+            if (compareAt(i, str))
                 return i;
         }
 
@@ -1011,15 +1244,13 @@ public abstract class Searchable {
 
         // find from cursor to beginning
         for (int i = selectedIndex; i >= 0; i--) {
-            Object element = getElementAt(i);
-            if (compare(element, str))
+            if (compareAt(i, str))
                 return i;
         }
 
         // if not found, start over from the end
         for (int i = count - 1; i >= selectedIndex; i--) {
-            Object element = getElementAt(i);
-            if (compare(element, str))
+            if (compareAt(i, str))
                 return i;
         }
 
@@ -1034,14 +1265,21 @@ public abstract class Searchable {
      */
     public int findFirst(String s) {
         String str = isCaseSensitive() ? s : s.toLowerCase();
-        int count = getElementCount();
-        if (count == 0)
+        if (!hasElementAt(0))
             return s.length() > 0 ? -1 : 0;
 
+        if (!isReverseOrder()) {
+            for (int i = 0; hasElementAt(i); i++) {
+                if (compareAt(i, str))
+                    return i;
+            }
+            return -1;
+        }
+
+        int count = getElementCount();
         for (int i = 0; i < count; i++) {
             int index = getIndex(count, i);
-            Object element = getElementAt(index);
-            if (compare(element, str))
+            if (compareAt(index, str))
                 return index;
         }
 
@@ -1060,8 +1298,7 @@ public abstract class Searchable {
         if (count == 0)
             return s.length() > 0 ? -1 : 0;
         for (int i = count - 1; i >= 0; i--) {
-            Object element = getElementAt(i);
-            if (compare(element, str))
+            if (compareAt(i, str))
                 return i;
         }
         return -1;
@@ -1415,6 +1652,9 @@ public abstract class Searchable {
      * @param caseSensitive the flag if searching is case sensitive
      */
     public void setCaseSensitive(boolean caseSensitive) {
+        if (_caseSensitive != caseSensitive) {
+            invalidateSearchIndex();
+        }
         _caseSensitive = caseSensitive;
     }
 
@@ -1949,10 +2189,194 @@ public abstract class Searchable {
         _countMatch = countMatch;
     }
 
-    int getMatchCount() {
+    /**
+     * Gets the number of matches counted for the last search. It is only updated when {@link #isCountMatch()} is true.
+     * If the matches are counted in background, it is the number of matches found so far. A {@link
+     * SearchableEvent#SEARCHABLE_MATCH_COUNT} event is fired whenever it is updated.
+     *
+     * @return the number of matches.
+     */
+    public int getMatchCount() {
         return _matchCount;
     }
 
+    /**
+     * Gets the flag indicating if the matches are counted and highlighted in background.
+     *
+     * @return true if the matches are counted and highlighted in background. Otherwise false.
+     * @see #setCountMatchInBackground(boolean)
+     */
+    public boolean isCountMatchInBackground() {
+        return _countMatchInBackground;
+    }
+
+    /**
+     * Sets the flag indicating if the matches are counted and highlighted in background.
+     * <p/>
+     * By default, the flag is false and {@link #findFromCursor(String)} doesn't return until all matches are counted,
+     * which could take a while for a component with a large number of elements. If the flag is true, the first match is
+     * returned immediately and the matches are counted in small slices of time. As the models of the Swing components
+     * can only be accessed on the event dispatch thread, the slices run there between the other events. {@link
+     * #getMatchCount()} returns the number of matches found so far and a {@link SearchableEvent#SEARCHABLE_MATCH_COUNT}
+     * event is fired after each slice. The counting is cancelled when the searching text changes or the popup is
+     * hidden. {@link #highlightAll()} works the same way.
+     *
+     * @param countMatchInBackground the flag
+     */
+    public void setCountMatchInBackground(boolean countMatchInBackground) {
+        _countMatchInBackground = countMatchInBackground;
+        if (!countMatchInBackground) {
+            cancelCountMatch();
+            stopHighlightAllTask();
+        }
+    }
+
+    /**
+     * Checks if the matches are being counted in background.
+     *
+     * @return true if the matches are being counted. Otherwise false.
+     */
+    public boolean isCountingMatch() {
+        return _countMatchTask != null;
+    }
+
+    /**
+     * Starts counting the matches of the searching text in background. The previous counting, if any, is cancelled.
+     *
+     * @param searchingText the searching text
+     */
+    protected void startCountMatch(String searchingText) {
+        cancelCountMatch();
+        _matchCount = 0;
+        _countMatchTask = new MatchTask(searchingText, false);
+        _countMatchTask.start();
+    }
+
+    /**
+     * Cancels counting the matches in background. {@link #getMatchCount()} keeps the number of matches found so far.
+     */
+    protected void cancelCountMatch() {
+        if (_countMatchTask != null) {
+            _countMatchTask.stop();
+            _countMatchTask = null;
+        }
+    }
+
+    /**
+     * Finds the first element between fromIndex (inclusive) and toIndex (exclusive) that matches the searching text. It
+     * is used to count and highlight the matches in background.
+     *
+     * @param s         the searching text
+     * @param fromIndex the index to start searching from
+     * @param toIndex   the index to stop searching at
+     * @return the index of the first matching element in the range. -1 if not found.
+     */
+    protected int findMatch(String s, int fromIndex, int toIndex) {
+        String str = isCaseSensitive() ? s : s.toLowerCase();
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (compareAt(i, str))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * The time in milliseconds a slice of the background counting and highlighting can run on the event dispatch
+     * thread.
+     */
+    private static final int MATCH_TASK_TIME_SLICE = 20;
+
+    /**
+     * The number of elements searched before checking the time in the background counting and highlighting.
+     */
+    private static final int MATCH_TASK_CHUNK = 256;
+
+    /**
+     * Counts or highlights all matches of the searching text in slices of time on the event dispatch thread.
+     */
+    private class MatchTask implements ActionListener {
+        private final String _searchingText;
+        private final boolean _highlight;
+        private Timer _timer;
+        private int _index;
+        private int _count;
+        private int _firstIndex = -1;
+
+        MatchTask(String searchingText, boolean highlight) {
+            _searchingText = searchingText;
+            _highlight = highlight;
+        }
+
+        void start() {
+            // run the first slice right away so the result for a small component is the same as before.
+            if (runSlice()) {
+                _timer = new Timer(0, this);
+                _timer.start();
+            }
+        }
+
+        void stop() {
+            if (_timer != null) {
+                _timer.stop();
+                _timer = null;
+            }
+        }
+
+        public void actionPerformed(ActionEvent e) {
+            if (_timer != null && !runSlice()) {
+                stop();
+            }
+        }
+
+        /**
+         * Runs a slice of the task.
+         *
+         * @return true if there are more elements to search. Otherwise false.
+         */
+        private boolean runSlice() {
+            long deadline = System.currentTimeMillis() + MATCH_TASK_TIME_SLICE;
+            int count = getElementCount();
+            while (_index < count) {
+                int toIndex = Math.min(count, _index + MATCH_TASK_CHUNK);
+                int found = findMatch(_searchingText, _index, toIndex);
+                if (found == -1) {
+                    _index = toIndex;
+                }
+                else {
+                    _count++;
+                    _index = found + 1;
+                    if (_highlight) {
+                        if (_firstIndex == -1) {
+                            _firstIndex = found;
+                        }
+                        setSelectedIndex(found, true);
+                        setCursor(found, true);
+                    }
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    break;
+                }
+            }
+            boolean more = _index < count;
+            if (_highlight) {
+                if (!more) {
+                    _highlightAllTask = null;
+                    if (_firstIndex != -1) {
+                        select(_firstIndex, _searchingText);
+                    }
+                }
+            }
+            else {
+                _matchCount = _count;
+                if (!more) {
+                    _countMatchTask = null;
+                }
+                fireSearchableEvent(new SearchableEvent(Searchable.this, SearchableEvent.SEARCHABLE_MATCH_COUNT, _searchingText));
+            }
+            return more;
+        }
+    }
+
     /**
      * <code>findAll</code> uses the Searchable to find all the element indices that match the searching string.
      *
@@ -1963,8 +2387,7 @@ public abstract class Searchable {
         String str = isCaseSensitive() ? s : s.toLowerCase();
         java.util.List<Integer> list = new ArrayList<Integer>();
         for (int i = 0, count = getElementCount(); i < count; i++) {
-            Object elementAt = getElementAt(i);
-            if (compare(elementAt, str)) {
+            if (compareAt(i, str)) {
                 list.add(i);
             }
         }
@@ -141,6 +141,9 @@ public class SearchableBar extends JToolBar implements SearchableProvider {
                 if (e.getID() == SearchableEvent.SEARCHABLE_MODEL_CHANGE && _searchable.getSearchingText() != null && _searchable.getSearchingText().length() != 0) {
                     highlightAllOrNext();
                 }
+                else if (e.getID() == SearchableEvent.SEARCHABLE_MATCH_COUNT && _statusLabel != null && _statusLabel.getIcon() == null) {
+                    updateMatchCount();
+                }
             }
         });
         _searchable.setSearchableProvider(this);
@@ -714,13 +717,18 @@ public class SearchableBar extends JToolBar implements SearchableProvider {
         _statusLabel.setIcon(null);
         _textField.setBackground(UIDefaultsLookup.getColor("TextField.background"));
         _comboBox.getEditor().getEditorComponent().setBackground(UIDefaultsLookup.getColor("TextField.background"));
+        updateMatchCount();
+        hideMessage();
+    }
+
+    private void updateMatchCount() {
         if (isShowMatchCount() && (_textField.getText().length() > 0 || (_comboBox.isVisible() && _comboBox.getEditor().getEditorComponent() instanceof JTextField && ((JTextField) _comboBox.getEditor().getEditorComponent()).getText().length() > 0))) {
-            _statusLabel.setText(getSearchable().getMatchCount() + " " + getResourceString("SearchableBar.matches"));
+            // a plus sign indicates there could be more matches while still counting in background
+            _statusLabel.setText(getSearchable().getMatchCount() + (getSearchable().isCountingMatch() ? "+ " : " ") + getResourceString("SearchableBar.matches"));
         }
         else {
             _statusLabel.setText("");
         }
-        hideMessage();
     }
 
     private void setStatus(String message, Icon icon) {
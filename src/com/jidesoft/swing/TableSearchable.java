@@ -6,10 +6,18 @@
 package com.jidesoft.swing;
 
 import com.jidesoft.swing.event.SearchableEvent;
+import com.jidesoft.utils.SystemInfo;
 
 import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.RowSorterListener;
+import javax.swing.event.TableColumnModelEvent;
+import javax.swing.event.TableColumnModelListener;
 import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
+import javax.swing.table.TableColumnModel;
 import javax.swing.table.TableModel;
 import java.awt.event.KeyEvent;
 import java.beans.PropertyChangeEvent;
@@ -54,6 +62,8 @@ import java.beans.PropertyChangeListener;
 public class TableSearchable extends Searchable implements TableModelListener, PropertyChangeListener {
 
     private int[] _searchColumnIndices = {0};
+    private RowSorterListener _rowSorterListener;
+    private TableColumnModelListener _columnModelListener;
 
     public TableSearchable(JTable table) {
         super(table);
@@ -65,6 +75,14 @@ public class TableSearchable extends Searchable implements TableModelListener, P
         if (_component instanceof JTable) {
             ((JTable) _component).getModel().addTableModelListener(this);
             _component.addPropertyChangeListener("model", this);
+            _component.addPropertyChangeListener("columnModel", this);
+            installColumnModelListener(((JTable) _component).getColumnModel());
+            _component.addPropertyChangeListener("rowSelectionAllowed", this);
+            _component.addPropertyChangeListener("columnSelectionAllowed", this);
+            if (SystemInfo.isJdk6Above()) {
+                _component.addPropertyChangeListener("rowSorter", this);
+                installRowSorterListener(((JTable) _component).getRowSorter());
+            }
         }
     }
 
@@ -74,9 +92,86 @@ public class TableSearchable extends Searchable implements TableModelListener, P
         if (_component instanceof JTable) {
             ((JTable) _component).getModel().removeTableModelListener(this);
             _component.removePropertyChangeListener("model", this);
+            _component.removePropertyChangeListener("columnModel", this);
+            uninstallColumnModelListener(((JTable) _component).getColumnModel());
+            _component.removePropertyChangeListener("rowSelectionAllowed", this);
+            _component.removePropertyChangeListener("columnSelectionAllowed", this);
+            if (SystemInfo.isJdk6Above()) {
+                _component.removePropertyChangeListener("rowSorter", this);
+                uninstallRowSorterListener(((JTable) _component).getRowSorter());
+            }
         }
     }
 
+    private void installRowSorterListener(RowSorter<?> rowSorter) {
+        if (rowSorter == null) {
+            return;
+        }
+        if (_rowSorterListener == null) {
+            _rowSorterListener = new RowSorterListener() {
+                public void sorterChanged(RowSorterEvent e) {
+                    invalidateSearchIndex();
+                }
+            };
+        }
+        rowSorter.addRowSorterListener(_rowSorterListener);
+    }
+
+    private void uninstallRowSorterListener(RowSorter<?> rowSorter) {
+        if (rowSorter != null && _rowSorterListener != null) {
+            rowSorter.removeRowSorterListener(_rowSorterListener);
+        }
+    }
+
+    private void installColumnModelListener(TableColumnModel columnModel) {
+        if (columnModel == null) {
+            return;
+        }
+        if (_columnModelListener == null) {
+            // the elements are looked up by the view column index of the main column
+            _columnModelListener = new TableColumnModelListener() {
+                public void columnAdded(TableColumnModelEvent e) {
+                    invalidateSearchIndex();
+                }
+
+                public void columnRemoved(TableColumnModelEvent e) {
+                    invalidateSearchIndex();
+                }
+
+                public void columnMoved(TableColumnModelEvent e) {
+                    if (e.getFromIndex() != e.getToIndex()) {
+                        invalidateSearchIndex();
+                    }
+                }
+
+                public void columnMarginChanged(ChangeEvent e) {
+                }
+
+                public void columnSelectionChanged(ListSelectionEvent e) {
+                }
+            };
+        }
+        columnModel.addColumnModelListener(_columnModelListener);
+    }
+
+    private void uninstallColumnModelListener(TableColumnModel columnModel) {
+        if (columnModel != null && _columnModelListener != null) {
+            columnModel.removeColumnModelListener(_columnModelListener);
+        }
+    }
+
+    /**
+     * Checks if the search index is enabled. The search index is only used in row selection mode where each element is
+     * a cell in the main column. In the column and cell selection modes, the elements are always converted during
+     * search.
+     *
+     * @return true if the search index is enabled and the table is in row selection mode.
+     */
+    @Override
+    public boolean isSearchIndexEnabled() {
+        return super.isSearchIndexEnabled() && _component instanceof JTable && isRowSelectionAllowed((JTable) _component);
+    }
+
     @Override
     protected void setSelectedIndex(int index, boolean incremental) {
         int majorIndex, minorIndex;
@@ -281,6 +376,7 @@ public class TableSearchable extends Searchable implements TableModelListener, P
         int[] old = _searchColumnIndices;
         if (!JideSwingUtilities.equals(old, columnIndices, true)) {
             _searchColumnIndices = columnIndices;
+            invalidateSearchIndex();
             hidePopup();
         }
     }
@@ -298,6 +394,7 @@ public class TableSearchable extends Searchable implements TableModelListener, P
         int[] old = _searchColumnIndices;
         if (old != temp) {
             _searchColumnIndices = temp;
+            invalidateSearchIndex();
             hidePopup();
         }
     }
@@ -333,15 +430,58 @@ public class TableSearchable extends Searchable implements TableModelListener, P
     }
 
     public void tableChanged(TableModelEvent e) {
+        updateSearchIndex(e);
         if (isProcessModelChangeEvent()) {
             hidePopup();
             fireSearchableEvent(new SearchableEvent(this, SearchableEvent.SEARCHABLE_MODEL_CHANGE));
         }
     }
 
+    /**
+     * Updates the search index for the table model event. The rows in the event are model rows so the whole index is
+     * discarded if the table has a row sorter.
+     *
+     * @param e the table model event
+     */
+    private void updateSearchIndex(TableModelEvent e) {
+        JTable table = (JTable) _component;
+        if (e == null || e.getFirstRow() == TableModelEvent.HEADER_ROW || e.getLastRow() == Integer.MAX_VALUE
+                || (SystemInfo.isJdk6Above() && table.getRowSorter() != null)) {
+            invalidateSearchIndex();
+            return;
+        }
+        switch (e.getType()) {
+            case TableModelEvent.INSERT:
+                insertSearchIndexInterval(e.getFirstRow(), e.getLastRow());
+                break;
+            case TableModelEvent.DELETE:
+                removeSearchIndexInterval(e.getFirstRow(), e.getLastRow());
+                break;
+            default:
+                if (e.getColumn() == TableModelEvent.ALL_COLUMNS || e.getColumn() == getMainIndex()) {
+                    invalidateSearchIndex(e.getFirstRow(), e.getLastRow());
+                }
+                break;
+        }
+    }
+
     public void propertyChange(PropertyChangeEvent evt) {
-        if ("model".equals(evt.getPropertyName())) {
+        if ("rowSelectionAllowed".equals(evt.getPropertyName()) || "columnSelectionAllowed".equals(evt.getPropertyName())) {
+            invalidateSearchIndex();
+        }
+        else if ("columnModel".equals(evt.getPropertyName())) {
+            invalidateSearchIndex();
+            uninstallColumnModelListener((TableColumnModel) evt.getOldValue());
+            installColumnModelListener((TableColumnModel) evt.getNewValue());
+        }
+        else if ("rowSorter".equals(evt.getPropertyName())) {
+            invalidateSearchIndex();
+            uninstallRowSorterListener((RowSorter<?>) evt.getOldValue());
+            installRowSorterListener((RowSorter<?>) evt.getNewValue());
+        }
+        else if ("model".equals(evt.getPropertyName())) {
             hidePopup();
+            invalidateSearchIndex();
 
             if (evt.getOldValue() instanceof TableModel) {
                 ((TableModel) evt.getOldValue()).removeTableModelListener(this);
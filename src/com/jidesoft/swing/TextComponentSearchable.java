@@ -5,6 +5,7 @@
  */
 package com.jidesoft.swing;
 
+import com.jidesoft.jdk.JdkSpecificClass;
 import com.jidesoft.swing.event.SearchableEvent;
 
 import javax.swing.*;
@@ -61,9 +62,21 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
     private Color _highlightColor = null;
     private int _selectedIndex = -1;
     private HighlighCache _highlighCache;
+    private DocumentSearcher _searcher;
+
+    private boolean _lazyHighlighting;
+    // the sorted ranges of the lazy highlights, painted by the only highlight tagged _lazyHighlightTag
+    private int[] _lazyHighlightStarts;
+    private int[] _lazyHighlightEnds;
+    private int _lazyHighlightCount;
+    private int _lazyHighlightMaxLength;
+    private Object _lazyHighlightTag;
+    private LazyHighlightPainter _lazyHighlightPainter;
+    private boolean _lazyHighlightRepaintPending;
 
     public TextComponentSearchable(JTextComponent textComponent) {
         super(textComponent);
+        _searcher = new DocumentSearcher(textComponent.getDocument());
         _highlighCache = new HighlighCache();
         installHighlightsRemover();
         setHighlightColor(DEFAULT_HIGHLIGHT_COLOR);
@@ -160,8 +173,13 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
     protected void addHighlight(final int index, final String text, boolean incremental) throws BadLocationException {
         if (_component instanceof JTextComponent) {
             final JTextComponent textComponent = ((JTextComponent) _component);
-            Object obj = textComponent.getHighlighter().addHighlight(index, index + text.length(), _highlightPainter);
-            _highlighCache.addHighlight(obj);
+            if (isLazyHighlighting()) {
+                addLazyHighlight(textComponent, index, index + text.length());
+            }
+            else {
+                Object obj = textComponent.getHighlighter().addHighlight(index, index + text.length(), _highlightPainter);
+                _highlighCache.addHighlight(obj);
+            }
             _selectedIndex = index;
             if (!incremental) {
                 Runnable runnable = new Runnable() {
@@ -174,6 +192,216 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
         }
     }
 
+    /**
+     * Adds the range to the lazy highlights. The first lazy highlight installs the only highlight that paints all of
+     * them.
+     */
+    private void addLazyHighlight(JTextComponent textComponent, int start, int end) throws BadLocationException {
+        if (_lazyHighlightTag == null) {
+            if (_lazyHighlightPainter == null) {
+                _lazyHighlightPainter = new LazyHighlightPainter();
+            }
+            _lazyHighlightTag = textComponent.getHighlighter().addHighlight(0, textComponent.getDocument().getLength(), _lazyHighlightPainter);
+            _highlighCache.addHighlight(_lazyHighlightTag);
+            _lazyHighlightStarts = new int[16];
+            _lazyHighlightEnds = new int[16];
+            _lazyHighlightCount = 0;
+            _lazyHighlightMaxLength = 0;
+        }
+        int index = findLazyHighlight(start);
+        if (index < _lazyHighlightCount && _lazyHighlightStarts[index] == start && _lazyHighlightEnds[index] == end) {
+            return;
+        }
+        if (_lazyHighlightCount == _lazyHighlightStarts.length) {
+            int[] starts = new int[_lazyHighlightCount * 2];
+            int[] ends = new int[_lazyHighlightCount * 2];
+            System.arraycopy(_lazyHighlightStarts, 0, starts, 0, _lazyHighlightCount);
+            System.arraycopy(_lazyHighlightEnds, 0, ends, 0, _lazyHighlightCount);
+            _lazyHighlightStarts = starts;
+            _lazyHighlightEnds = ends;
+        }
+        System.arraycopy(_lazyHighlightStarts, index, _lazyHighlightStarts, index + 1, _lazyHighlightCount - index);
+        System.arraycopy(_lazyHighlightEnds, index, _lazyHighlightEnds, index + 1, _lazyHighlightCount - index);
+        _lazyHighlightStarts[index] = start;
+        _lazyHighlightEnds[index] = end;
+        _lazyHighlightCount++;
+        _lazyHighlightMaxLength = Math.max(_lazyHighlightMaxLength, end - start);
+        repaintLazyHighlights();
+    }
+
+    /**
+     * Repaints the text component once after all lazy highlights of the current batch, such as the ones added by a
+     * slice of {@link #highlightAll()}, are added. Only the visible area is painted.
+     */
+    private void repaintLazyHighlights() {
+        if (_lazyHighlightRepaintPending) {
+            return;
+        }
+        _lazyHighlightRepaintPending = true;
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                _lazyHighlightRepaintPending = false;
+                _component.repaint();
+            }
+        });
+    }
+
+    /**
+     * Finds the first lazy highlight which starts at or after the offset.
+     *
+     * @param offset the offset
+     * @return the index of the lazy highlight.
+     */
+    private int findLazyHighlight(int offset) {
+        int low = 0;
+        int high = _lazyHighlightCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (_lazyHighlightStarts[mid] < offset) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the ranges of the lazy highlights.
+     *
+     * @return the start and the end offsets of each lazy highlight, sorted by the start offsets.
+     */
+    int[][] getLazyHighlights() {
+        int[][] highlights = new int[_lazyHighlightTag == null ? 0 : _lazyHighlightCount][];
+        for (int i = 0; i < highlights.length; i++) {
+            highlights[i] = new int[]{_lazyHighlightStarts[i], _lazyHighlightEnds[i]};
+        }
+        return highlights;
+    }
+
+    /**
+     * Updates the lazy highlights after the document changes. The highlights overlapping the changed text are found by
+     * binary search and removed, and the ones after it are shifted.
+     *
+     * @param offset the offset of the change
+     * @param length the length of the inserted text if positive or the removed text if negative
+     */
+    private void updateLazyHighlights(int offset, int length) {
+        if (_lazyHighlightTag == null) {
+            return;
+        }
+        int removedEnd = length < 0 ? offset - length : offset;
+        // no highlight is longer than the max length, so the ones starting before from end before the change
+        int from = findLazyHighlight(offset - _lazyHighlightMaxLength + 1);
+        int to = findLazyHighlight(removedEnd);
+        int count = from;
+        for (int i = from; i < to; i++) {
+            if (_lazyHighlightEnds[i] <= offset) {
+                _lazyHighlightStarts[count] = _lazyHighlightStarts[i];
+                _lazyHighlightEnds[count] = _lazyHighlightEnds[i];
+                count++;
+            }
+        }
+        for (int i = to; i < _lazyHighlightCount; i++) {
+            _lazyHighlightStarts[count] = _lazyHighlightStarts[i] + length;
+            _lazyHighlightEnds[count] = _lazyHighlightEnds[i] + length;
+            count++;
+        }
+        _lazyHighlightCount = count;
+        if (length > 0 && _component instanceof JTextComponent) {
+            // the highlight doesn't grow when text is appended at its end
+            try {
+                JTextComponent textComponent = (JTextComponent) _component;
+                textComponent.getHighlighter().changeHighlight(_lazyHighlightTag, 0, textComponent.getDocument().getLength());
+            }
+            catch (BadLocationException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * The painter of the lazy highlights. It is installed as one highlight covering the whole document. The text views
+     * only ask it to paint the lines within the clip, which is the visible area of the viewport, so only the lazy
+     * highlights in those lines are painted.
+     */
+    private class LazyHighlightPainter extends LayeredHighlighter.LayerPainter {
+        @Override
+        public Shape paintLayer(Graphics g, int offs0, int offs1, Shape bounds, JTextComponent c, View view) {
+            Rectangle result = null;
+            Highlighter.HighlightPainter painter = _highlightPainter;
+            for (int i = findLazyHighlight(offs0 - _lazyHighlightMaxLength + 1); i < _lazyHighlightCount && _lazyHighlightStarts[i] < offs1; i++) {
+                if (_lazyHighlightEnds[i] <= offs0) {
+                    continue;
+                }
+                int p0 = Math.max(_lazyHighlightStarts[i], offs0);
+                int p1 = Math.min(_lazyHighlightEnds[i], offs1);
+                if (painter instanceof LayeredHighlighter.LayerPainter) {
+                    Shape shape = ((LayeredHighlighter.LayerPainter) painter).paintLayer(g, p0, p1, bounds, c, view);
+                    if (shape != null) {
+                        Rectangle r = shape.getBounds();
+                        result = result == null ? r : result.union(r);
+                    }
+                }
+                else if (painter != null) {
+                    painter.paint(g, p0, p1, bounds, c);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Only called when the highlighter doesn't draw layered highlights. The visible part of the text is calculated
+         * from the clip.
+         */
+        public void paint(Graphics g, int p0, int p1, Shape bounds, JTextComponent c) {
+            Highlighter.HighlightPainter painter = _highlightPainter;
+            if (painter == null) {
+                return;
+            }
+            Rectangle visible = c.getVisibleRect();
+            Rectangle clip = g.getClipBounds();
+            if (clip != null) {
+                visible = visible.intersection(clip);
+            }
+            int from = JdkSpecificClass.viewToModel(c, new Point(0, visible.y));
+            int to = JdkSpecificClass.viewToModel(c, new Point(c.getWidth(), visible.y + visible.height));
+            for (int i = findLazyHighlight(from - _lazyHighlightMaxLength + 1); i < _lazyHighlightCount && _lazyHighlightStarts[i] <= to; i++) {
+                if (_lazyHighlightEnds[i] > from) {
+                    painter.paint(g, _lazyHighlightStarts[i], _lazyHighlightEnds[i], bounds, c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the highlights are painted lazily.
+     *
+     * @return true if the highlights are painted lazily. Otherwise false.
+     * @see #setLazyHighlighting(boolean)
+     */
+    public boolean isLazyHighlighting() {
+        return _lazyHighlighting;
+    }
+
+    /**
+     * Sets the flag if the highlights are painted lazily.
+     * <p/>
+     * By default, the flag is false and a highlight is added to the <code>Highlighter</code> of the text component for
+     * each match. When all matches are highlighted in a large document, there could be hundreds of thousands of them,
+     * which slows down the painting and editing. If the flag is true, the matches are kept in a sorted array and a
+     * single highlight paints the matches in the visible area only.
+     *
+     * @param lazyHighlighting the flag
+     */
+    public void setLazyHighlighting(boolean lazyHighlighting) {
+        if (_lazyHighlighting != lazyHighlighting) {
+            removeAllHighlights();
+            _lazyHighlighting = lazyHighlighting;
+        }
+    }
+
     private void scrollTextVisible(JTextComponent textComponent, int index, int length) {
         // scroll highlight visible
         if (index != -1) {
@@ -214,6 +442,10 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
                 ((JTextComponent) _component).getHighlighter().removeHighlight(o);
             }
             _highlighCache.removeAllHighlights();
+            _lazyHighlightTag = null;
+            _lazyHighlightStarts = null;
+            _lazyHighlightEnds = null;
+            _lazyHighlightCount = 0;
         }
     }
 
@@ -246,6 +478,16 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
         return "";
     }
 
+    /**
+     * The elements of a text component depend on the searching text so they can't be indexed.
+     *
+     * @return false.
+     */
+    @Override
+    public boolean isSearchIndexEnabled() {
+        return false;
+    }
+
     @Override
     protected int getElementCount() {
         if (_component instanceof JTextComponent) {
@@ -272,11 +514,17 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
     }
 
     public void propertyChange(PropertyChangeEvent evt) {
+        if (evt.getNewValue() instanceof Document) {
+            _searcher.setDocument((Document) evt.getNewValue());
+            if (_lazyHighlightTag != null) {
+                // the lazy highlights are relative to the old document
+                removeAllHighlights();
+            }
+        }
         if (isProcessModelChangeEvent()) {
             hidePopup();
-            _text = null;
             if (evt.getOldValue() instanceof Document) {
-                ((Document) evt.getNewValue()).removeDocumentListener(this);
+                ((Document) evt.getOldValue()).removeDocumentListener(this);
             }
             if (evt.getNewValue() instanceof Document) {
                 ((Document) evt.getNewValue()).addDocumentListener(this);
@@ -286,17 +534,19 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
     }
 
     public void insertUpdate(DocumentEvent e) {
+        _searcher.insertUpdate(e);
+        updateLazyHighlights(e.getOffset(), e.getLength());
         if (isProcessModelChangeEvent()) {
             hidePopup();
-            _text = null;
             fireSearchableEvent(new SearchableEvent(this, SearchableEvent.SEARCHABLE_MODEL_CHANGE));
         }
     }
 
     public void removeUpdate(DocumentEvent e) {
+        _searcher.removeUpdate(e);
+        updateLazyHighlights(e.getOffset(), -e.getLength());
         if (isProcessModelChangeEvent()) {
             hidePopup();
-            _text = null;
             fireSearchableEvent(new SearchableEvent(this, SearchableEvent.SEARCHABLE_MODEL_CHANGE));
         }
     }
@@ -304,7 +554,6 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
     public void changedUpdate(DocumentEvent e) {
         if (isProcessModelChangeEvent()) {
             hidePopup();
-            _text = null;
             fireSearchableEvent(new SearchableEvent(this, SearchableEvent.SEARCHABLE_MODEL_CHANGE));
         }
     }
@@ -346,166 +595,30 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
     @Override
     public int findLast(String s) {
         if (_component instanceof JTextComponent) {
-            String text = getDocumentText();
-            if (isCaseSensitive()) {
-                return text.lastIndexOf(s);
-            }
-            else {
-                return lastIndexOf(text, s, text.length());
-            }
+            return _searcher.lastIndexOf(s, isCaseSensitive(), getElementCount());
         }
         else {
             return super.findLast(s);
         }
     }
 
-    private String _text = null;
-
-    /**
-     * Gets the text from Document.
-     *
-     * @return the text of this JTextComponent. It used Document to get the text.
-     */
-    private String getDocumentText() {
-        if (_text == null) {
-            Document document = ((JTextComponent) _component).getDocument();
-            try {
-                String text = document.getText(0, document.getLength());
-                _text = text;
-            }
-            catch (BadLocationException e) {
-                return "";
-            }
-        }
-        return _text;
-    }
-
     @Override
     public int findFirst(String s) {
         if (_component instanceof JTextComponent) {
-            String text = getDocumentText();
-            if (isCaseSensitive()) {
-                return text.indexOf(s);
-            }
-            else {
-                return indexOf(text, s, 0);
-            }
+            return _searcher.indexOf(s, isCaseSensitive(), 0);
         }
         else {
             return super.findFirst(s);
         }
     }
 
-    static int lastIndexOf(String source, String target, int fromIndex) {
-        int sourceCount = source.length();
-        int targetCount = target.length();
-        int rightIndex = sourceCount - targetCount;
-        if (fromIndex < 0) {
-            return -1;
-        }
-        if (fromIndex > rightIndex) {
-            fromIndex = rightIndex;
-        }
-        /* Empty string always matches. */
-        if (targetCount == 0) {
-            return fromIndex;
-        }
-        char[] lowerTarget = target.toLowerCase().toCharArray();
-        char[] upperTarget = target.toUpperCase().toCharArray();
-
-        int strLastIndex = targetCount - 1;
-        int min = targetCount - 1;
-        int i = min + fromIndex;
-
-        while (i >= min) {
-            while (i >= min && source.charAt(i) != lowerTarget[strLastIndex] && source.charAt(i) != upperTarget[strLastIndex]) {
-                i--;
-            }
-            if (i < min) {
-                break;
-            }
-            int j = i - 1;
-            int start = j - (targetCount - 1);
-            int k = strLastIndex - 1;
-
-            while (j > start) {
-                char ch = source.charAt(j);
-                if (ch != lowerTarget[k] && ch != upperTarget[k]) {
-                    i--;
-                    break;
-                }
-                j--;
-                k--;
-            }
-            if (j <= start) {
-                return start + 1;
-            }
-        }
-        return -1;
-    }
-
-    private static int indexOf(String source, String target, int fromIndex) {
-        int sourceCount = source.length();
-        int targetCount = target.length();
-        if (fromIndex >= sourceCount) {
-            return (targetCount == 0 ? sourceCount : -1);
-        }
-        if (fromIndex < 0) {
-            fromIndex = 0;
-        }
-        if (targetCount == 0) {
-            return fromIndex;
-        }
-        char[] lowerTarget = target.toLowerCase().toCharArray();
-        char[] upperTarget = target.toUpperCase().toCharArray();
-
-        int max = sourceCount - targetCount;
-
-        for (int i = fromIndex; i <= max; i++) {
-            /* Look for first character. */
-            char c = source.charAt(i);
-            if (c != lowerTarget[0] && c != upperTarget[0]) {
-                i++;
-                while (i <= max && source.charAt(i) != lowerTarget[0] && source.charAt(i) != upperTarget[0]) {
-                    i++;
-                }
-            }
-
-            /* Found first character, now look at the rest of v2 */
-            if (i <= max) {
-                int j = i + 1;
-                int end = j + targetCount - 1;
-                for (int k = 1; j < end; j++) {
-                    char ch = source.charAt(j);
-                    if (ch != lowerTarget[k] && ch != upperTarget[k]) {
-                        break;
-                    }
-                    k++;
-                }
-
-                if (j == end) {
-                    /* Found whole string. */
-                    return i;
-                }
-            }
-        }
-        return -1;
-    }
-
     @Override
     public int findFromCursor(String s) {
-        if (isCountMatch()) {
-            String text = getDocumentText();
-            int oldIndex;
-            int newIndex = 0;
-            _matchCount = -1;
-            do
-            {
-                oldIndex = newIndex;
-                newIndex = (isCaseSensitive() ? text.indexOf(s, oldIndex) : indexOf(text, s, oldIndex)) + 1;
-                _matchCount++;
-            }
-            while (newIndex > oldIndex);
+        if (isCountMatch() && isCountMatchInBackground()) {
+            startCountMatch(s);
+        }
+        else if (isCountMatch()) {
+            _matchCount = _searcher.countMatches(s, isCaseSensitive());
         }
 
         if (isReverseOrder()) {
@@ -513,7 +626,6 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
         }
 
         if (_component instanceof JTextComponent) {
-            String text = getDocumentText();
             int selectedIndex = (getCursor() != -1 ? getCursor() : getSelectedIndex());
             if (selectedIndex < 0)
                 selectedIndex = 0;
@@ -522,11 +634,11 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
                 return s.length() > 0 ? -1 : 0;
 
             // find from cursor
-            int found = isCaseSensitive() ? text.indexOf(s, selectedIndex) : indexOf(text, s, selectedIndex);
+            int found = _searcher.indexOf(s, isCaseSensitive(), selectedIndex);
 
             // if not found, start over from the beginning
             if (found == -1) {
-                found = isCaseSensitive() ? text.indexOf(s, 0) : indexOf(text, s, 0);
+                found = _searcher.indexOf(s, isCaseSensitive(), 0);
                 if (found >= selectedIndex) {
                     found = -1;
                 }
@@ -539,6 +651,16 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
         }
     }
 
+    @Override
+    protected int findMatch(String s, int fromIndex, int toIndex) {
+        if (_component instanceof JTextComponent) {
+            return _searcher.indexOf(s, isCaseSensitive(), fromIndex, toIndex);
+        }
+        else {
+            return super.findMatch(s, fromIndex, toIndex);
+        }
+    }
+
     @Override
     public int reverseFindFromCursor(String s) {
         if (!isReverseOrder()) {
@@ -546,7 +668,6 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
         }
 
         if (_component instanceof JTextComponent) {
-            String text = getDocumentText();
             int selectedIndex = (getCursor() != -1 ? getCursor() : getSelectedIndex());
             if (selectedIndex < 0)
                 selectedIndex = 0;
@@ -555,11 +676,11 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
                 return s.length() > 0 ? -1 : 0;
 
             // find from cursor
-            int found = isCaseSensitive() ? text.lastIndexOf(s, selectedIndex) : lastIndexOf(text, s, selectedIndex);
+            int found = _searcher.lastIndexOf(s, isCaseSensitive(), selectedIndex);
 
             // if not found, start over from the end
             if (found == -1) {
-                found = isCaseSensitive() ? text.lastIndexOf(s, text.length() - 1) : lastIndexOf(text, s, text.length() - 1);
+                found = _searcher.lastIndexOf(s, isCaseSensitive(), count - 1);
                 if (found <= selectedIndex) {
                     found = -1;
                 }
@@ -575,7 +696,6 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
     @Override
     public int findNext(String s) {
         if (_component instanceof JTextComponent) {
-            String text = getDocumentText();
             int selectedIndex = (getCursor() != -1 ? getCursor() : getSelectedIndex());
             if (selectedIndex < 0)
                 selectedIndex = 0;
@@ -584,11 +704,11 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
                 return s.length() > 0 ? -1 : 0;
 
             // find from cursor
-            int found = isCaseSensitive() ? text.indexOf(s, selectedIndex + 1) : indexOf(text, s, selectedIndex + 1);
+            int found = _searcher.indexOf(s, isCaseSensitive(), selectedIndex + 1);
 
             // if not found, start over from the beginning
             if (found == -1 && isRepeats()) {
-                found = isCaseSensitive() ? text.indexOf(s, 0) : indexOf(text, s, 0);
+                found = _searcher.indexOf(s, isCaseSensitive(), 0);
                 if (found > selectedIndex) {
                     found = -1;
                 }
@@ -604,7 +724,6 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
     @Override
     public int findPrevious(String s) {
         if (_component instanceof JTextComponent) {
-            String text = getDocumentText();
             int selectedIndex = (getCursor() != -1 ? getCursor() : getSelectedIndex());
             if (selectedIndex < 0)
                 selectedIndex = 0;
@@ -613,11 +732,11 @@ public class TextComponentSearchable extends Searchable implements DocumentListe
                 return s.length() > 0 ? -1 : 0;
 
             // find from cursor
-            int found = isCaseSensitive() ? text.lastIndexOf(s, selectedIndex - 1) : lastIndexOf(text, s, selectedIndex - 1);
+            int found = _searcher.lastIndexOf(s, isCaseSensitive(), selectedIndex - 1);
 
             // if not found, start over from the beginning
             if (found == -1 && isRepeats()) {
-                found = isCaseSensitive() ? text.lastIndexOf(s, count - 1) : lastIndexOf(text, s, count - 1);
+                found = _searcher.lastIndexOf(s, isCaseSensitive(), count - 1);
                 if (found < selectedIndex) {
                     found = -1;
                 }
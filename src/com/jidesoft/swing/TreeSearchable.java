@@ -6,6 +6,8 @@
 package com.jidesoft.swing;
 
 import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
 import javax.swing.event.TreeModelEvent;
 import javax.swing.event.TreeModelListener;
 import javax.swing.tree.TreeModel;
@@ -13,7 +15,10 @@ import javax.swing.tree.TreePath;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <code>TreeSearchable</code> is an concrete implementation of {@link Searchable} that enables the search function in
@@ -53,6 +58,25 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
 
     private boolean _recursive = false;
     private transient List<TreePath> _treePathes;
+    private transient Boolean _treePathsOverridden;
+
+    /**
+     * The flattened positions of the tree nodes used in recursive mode. For the tree path of each node that has
+     * children, it keeps the number of descendants before each child, i.e. offsets[i] is the total size of the subtrees
+     * of child 0 to i - 1 and offsets[childCount] is the number of descendants. They are only counted when the element
+     * count or the index of a tree path is needed. Leaf nodes are not kept.
+     */
+    private transient Map<TreePath, int[]> _childOffsets;
+
+    /**
+     * The tree node last accessed in recursive mode. A search going forward or backward just moves it to the next or
+     * the previous node in depth-first order.
+     */
+    private transient TreePath _cursorPath;
+    private transient int[] _cursorChildIndices;
+    private transient int _cursorIndex = -1;
+    private static final int[] NO_CHILD_OFFSETS = new int[]{0};
+    private TreeExpansionListener _treeExpansionListener;
 
     public TreeSearchable(JTree tree) {
         super(tree);
@@ -61,6 +85,22 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
         }
 
         tree.addPropertyChangeListener(JTree.TREE_MODEL_PROPERTY, this);
+        tree.addPropertyChangeListener(JTree.ROOT_VISIBLE_PROPERTY, this);
+        _treeExpansionListener = new TreeExpansionListener() {
+            public void treeExpanded(TreeExpansionEvent event) {
+                // the rows are shifted in non-recursive mode
+                if (!isRecursive()) {
+                    invalidateSearchIndex();
+                }
+            }
+
+            public void treeCollapsed(TreeExpansionEvent event) {
+                if (!isRecursive()) {
+                    invalidateSearchIndex();
+                }
+            }
+        };
+        tree.addTreeExpansionListener(_treeExpansionListener);
     }
 
     /**
@@ -84,6 +124,8 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
      */
     public void setRecursive(boolean recursive) {
         _recursive = recursive;
+        invalidateSearchIndex();
+        resetFlattenedTree();
         resetTreePathes();
     }
 
@@ -96,6 +138,10 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
             }
         }
         _component.removePropertyChangeListener(JTree.TREE_MODEL_PROPERTY, this);
+        _component.removePropertyChangeListener(JTree.ROOT_VISIBLE_PROPERTY, this);
+        if (_component instanceof JTree && _treeExpansionListener != null) {
+            ((JTree) _component).removeTreeExpansionListener(_treeExpansionListener);
+        }
     }
 
     @Override
@@ -133,7 +179,7 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
         else {
             TreePath[] treePaths = ((JTree) _component).getSelectionPaths();
             if (treePaths != null && treePaths.length > 0) {
-                return getTreePathes().indexOf(treePaths[0]);
+                return isTreePathsOverridden() ? getTreePathes().indexOf(treePaths[0]) : getFlattenedIndex(treePaths[0]);
             }
             else
                 return -1;
@@ -148,9 +194,12 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
         if (!isRecursive()) {
             return ((JTree) _component).getPathForRow(index);
         }
-        else {
+        else if (isTreePathsOverridden()) {
             return getTreePathes().get(index);
         }
+        else {
+            return getFlattenedPath(index);
+        }
     }
 
     @Override
@@ -158,15 +207,35 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
         if (!isRecursive()) {
             return ((JTree) _component).getRowCount();
         }
-        else {
+        else if (isTreePathsOverridden()) {
             return getTreePathes().size();
         }
+        else {
+            return getFlattenedCount();
+        }
+    }
+
+    /**
+     * Checks if there is a tree node at the index. In recursive mode, it moves through the tree nodes from the last
+     * accessed one so that searching forward doesn't need to count all tree nodes.
+     *
+     * @param index the index
+     * @return true if the index is within the total count. Otherwise false.
+     */
+    @Override
+    protected boolean hasElementAt(int index) {
+        if (!isRecursive() || isTreePathsOverridden()) {
+            return super.hasElementAt(index);
+        }
+        return getFlattenedPath(index) != null;
     }
 
     /**
      * Recursively go through the tree to populate the tree paths into a list and cache them.
      * <p/>
-     * Tree paths list is only used when recursive attribute is true.
+     * By default, the search in recursive mode walks the tree model lazily instead of using the list. If a subclass
+     * overrides this method or {@link #getTreePathes()}, the search uses the list returned from {@link #getTreePathes()}
+     * instead.
      */
     protected void populateTreePaths() {
         _treePathes = new ArrayList<TreePath>();
@@ -197,7 +266,8 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
     /**
      * Gets the cached tree paths list. If it has never been cached before, this method will create the cache.
      * <p/>
-     * Tree paths list is only used when recursive atattributes true.
+     * Tree paths list is only used when recursive atattributes true and this method or {@link #populateTreePaths()} is
+     * overridden.
      *
      * @return the tree paths list.
      */
@@ -208,6 +278,376 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
         return _treePathes;
     }
 
+    /**
+     * Checks if a subclass overrides {@link #populateTreePaths()} or {@link #getTreePathes()}. If so, the search in
+     * recursive mode uses the tree paths list so that the overridden methods still take effect.
+     *
+     * @return true if overridden. Otherwise false.
+     */
+    private boolean isTreePathsOverridden() {
+        if (_treePathsOverridden == null) {
+            _treePathsOverridden = Boolean.FALSE;
+            for (Class<?> c = getClass(); c != TreeSearchable.class && !_treePathsOverridden; c = c.getSuperclass()) {
+                for (String name : new String[]{"populateTreePaths", "getTreePathes"}) {
+                    try {
+                        c.getDeclaredMethod(name);
+                        _treePathsOverridden = Boolean.TRUE;
+                        break;
+                    }
+                    catch (NoSuchMethodException e) {
+                        // check the next method
+                    }
+                }
+            }
+        }
+        return _treePathsOverridden;
+    }
+
+    /**
+     * Discards the flattened positions of all tree nodes used in recursive mode.
+     */
+    private void resetFlattenedTree() {
+        _childOffsets = null;
+        resetCursor();
+    }
+
+    private void resetCursor() {
+        _cursorPath = null;
+        _cursorChildIndices = null;
+        _cursorIndex = -1;
+    }
+
+    private int getRootOffset() {
+        return ((JTree) _component).isRootVisible() ? 0 : 1;
+    }
+
+    /**
+     * Gets the child offsets of the node. See {@link #_childOffsets}. They are calculated and cached if they were not
+     * cached before.
+     *
+     * @param model the tree model
+     * @param path  the tree path to the node
+     * @return the child offsets.
+     */
+    private int[] getChildOffsets(TreeModel model, TreePath path) {
+        int[] offsets = _childOffsets != null ? _childOffsets.get(path) : null;
+        if (offsets == null) {
+            Object node = path.getLastPathComponent();
+            int childCount = model.getChildCount(node);
+            if (childCount == 0) {
+                return NO_CHILD_OFFSETS;
+            }
+            offsets = new int[childCount + 1];
+            for (int i = 0; i < childCount; i++) {
+                offsets[i + 1] = offsets[i] + getSubtreeSize(model, path, model.getChild(node, i));
+            }
+            if (_childOffsets == null) {
+                _childOffsets = new HashMap<TreePath, int[]>();
+            }
+            _childOffsets.put(path, offsets);
+        }
+        return offsets;
+    }
+
+    /**
+     * Gets the number of the tree nodes in the subtree of the node, including the node itself.
+     *
+     * @param model      the tree model
+     * @param parentPath the tree path to the parent of the node. Null if the node is the root.
+     * @param node       the tree node
+     * @return the size of the subtree.
+     */
+    private int getSubtreeSize(TreeModel model, TreePath parentPath, Object node) {
+        if (model.getChildCount(node) == 0) {
+            return 1;
+        }
+        int[] offsets = getChildOffsets(model, parentPath != null ? parentPath.pathByAddingChild(node) : new TreePath(node));
+        return offsets[offsets.length - 1] + 1;
+    }
+
+    private int getFlattenedCount() {
+        TreeModel model = ((JTree) _component).getModel();
+        Object root = model != null ? model.getRoot() : null;
+        if (root == null) {
+            return 0;
+        }
+        return getSubtreeSize(model, null, root) - getRootOffset();
+    }
+
+    /**
+     * Gets the tree path at the index as if all tree nodes were flattened in depth-first order. Accessing the index
+     * right before or after the previous one just moves the cursor to the previous or next node. Otherwise the path is
+     * found by descending from the root using the child offsets if they have been counted, or by moving the cursor
+     * forward node by node if not.
+     *
+     * @param index the index
+     * @return the tree path. Null if the index is beyond the last tree node.
+     */
+    private TreePath getFlattenedPath(int index) {
+        TreeModel model = ((JTree) _component).getModel();
+        Object root = model != null ? model.getRoot() : null;
+        if (root == null || index < 0) {
+            return null;
+        }
+        int flatIndex = index + getRootOffset();
+        if (_cursorPath != null) {
+            if (flatIndex == _cursorIndex) {
+                return _cursorPath;
+            }
+            if (flatIndex == _cursorIndex + 1) {
+                return moveCursorToNext(model) ? _cursorPath : null;
+            }
+            if (flatIndex == _cursorIndex - 1 && moveCursorToPrevious(model)) {
+                return _cursorPath;
+            }
+        }
+
+        TreePath path = new TreePath(root);
+        if (_childOffsets == null || !_childOffsets.containsKey(path)) {
+            // walks to the index without counting the tree nodes after it
+            if (_cursorPath == null || flatIndex < _cursorIndex) {
+                _cursorPath = path;
+                _cursorChildIndices = new int[0];
+                _cursorIndex = 0;
+            }
+            while (_cursorIndex < flatIndex) {
+                if (!moveCursorToNext(model)) {
+                    return null;
+                }
+            }
+            return _cursorPath;
+        }
+
+        if (flatIndex >= getSubtreeSize(model, null, root)) {
+            return null;
+        }
+        Object node = root;
+        int[] childIndices = new int[8];
+        int depth = 0;
+        int remaining = flatIndex;
+        while (remaining > 0) {
+            int[] offsets = getChildOffsets(model, path);
+            // find the child whose subtree contains the remaining index
+            int low = 0;
+            int high = offsets.length - 2;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (offsets[mid] <= remaining - 1) {
+                    low = mid;
+                }
+                else {
+                    high = mid - 1;
+                }
+            }
+            remaining -= offsets[low] + 1;
+            node = model.getChild(node, low);
+            path = path.pathByAddingChild(node);
+            if (depth == childIndices.length) {
+                int[] newIndices = new int[depth * 2];
+                System.arraycopy(childIndices, 0, newIndices, 0, depth);
+                childIndices = newIndices;
+            }
+            childIndices[depth++] = low;
+        }
+        _cursorPath = path;
+        _cursorChildIndices = new int[depth];
+        System.arraycopy(childIndices, 0, _cursorChildIndices, 0, depth);
+        _cursorIndex = flatIndex;
+        return path;
+    }
+
+    /**
+     * Moves the cursor to the next tree node in depth-first order.
+     *
+     * @param model the tree model
+     * @return true if moved. False if the cursor is at the last node.
+     */
+    private boolean moveCursorToNext(TreeModel model) {
+        TreePath path = _cursorPath;
+        int[] childIndices = _cursorChildIndices;
+        Object node = path.getLastPathComponent();
+        if (model.getChildCount(node) > 0) {
+            _cursorPath = path.pathByAddingChild(model.getChild(node, 0));
+            _cursorChildIndices = addChildIndex(childIndices, childIndices.length, 0);
+            _cursorIndex++;
+            return true;
+        }
+        int depth = childIndices.length;
+        while (depth > 0) {
+            TreePath parentPath = path.getParentPath();
+            Object parent = parentPath.getLastPathComponent();
+            int next = childIndices[depth - 1] + 1;
+            if (next < model.getChildCount(parent)) {
+                _cursorPath = parentPath.pathByAddingChild(model.getChild(parent, next));
+                _cursorChildIndices = addChildIndex(childIndices, depth - 1, next);
+                _cursorIndex++;
+                return true;
+            }
+            path = parentPath;
+            depth--;
+        }
+        return false;
+    }
+
+    /**
+     * Moves the cursor to the previous tree node in depth-first order, which is the last descendant of the previous
+     * sibling or the parent if there is no previous sibling.
+     *
+     * @param model the tree model
+     * @return true if moved. False if the cursor is at the root.
+     */
+    private boolean moveCursorToPrevious(TreeModel model) {
+        int depth = _cursorChildIndices.length;
+        if (depth == 0) {
+            return false;
+        }
+        TreePath path = _cursorPath.getParentPath();
+        int previous = _cursorChildIndices[depth - 1] - 1;
+        if (previous < 0) {
+            _cursorChildIndices = addChildIndex(_cursorChildIndices, depth - 1, -1);
+        }
+        else {
+            Object node = model.getChild(path.getLastPathComponent(), previous);
+            path = path.pathByAddingChild(node);
+            int[] childIndices = addChildIndex(_cursorChildIndices, depth - 1, previous);
+            int childCount;
+            while ((childCount = model.getChildCount(node)) > 0) {
+                node = model.getChild(node, childCount - 1);
+                path = path.pathByAddingChild(node);
+                childIndices = addChildIndex(childIndices, childIndices.length, childCount - 1);
+            }
+            _cursorChildIndices = childIndices;
+        }
+        _cursorPath = path;
+        _cursorIndex--;
+        return true;
+    }
+
+    /**
+     * Copies the first child indices and adds a child index after them.
+     *
+     * @param childIndices the child indices
+     * @param length       the number of the child indices to copy
+     * @param childIndex   the child index to add. -1 to add nothing.
+     * @return the new child indices.
+     */
+    private static int[] addChildIndex(int[] childIndices, int length, int childIndex) {
+        int[] newIndices = new int[childIndex == -1 ? length : length + 1];
+        System.arraycopy(childIndices, 0, newIndices, 0, length);
+        if (childIndex != -1) {
+            newIndices[length] = childIndex;
+        }
+        return newIndices;
+    }
+
+    /**
+     * Gets the index of the tree path as if all tree nodes were flattened in depth-first order.
+     *
+     * @param path the tree path
+     * @return the index. -1 if the path is not in the tree model.
+     */
+    private int getFlattenedIndex(TreePath path) {
+        int flatIndex = getFlattenedPosition(path);
+        return flatIndex == -1 ? -1 : flatIndex - getRootOffset();
+    }
+
+    /**
+     * Gets the position of the tree path in depth-first order, counting the root. Only the tree nodes before the path
+     * are counted. The cursor is moved to the path so that a search starting from it doesn't count them again.
+     *
+     * @param path the tree path
+     * @return the position. -1 if the path is not in the tree model.
+     */
+    private int getFlattenedPosition(TreePath path) {
+        TreeModel model = ((JTree) _component).getModel();
+        if (model == null || path == null || !JideSwingUtilities.equals(path.getPathComponent(0), model.getRoot())) {
+            return -1;
+        }
+        if (path.equals(_cursorPath)) {
+            return _cursorIndex;
+        }
+        int pathCount = path.getPathCount();
+        TreePath[] parentPaths = new TreePath[pathCount];
+        TreePath parentPath = path;
+        for (int i = pathCount - 1; i >= 0; i--) {
+            parentPaths[i] = parentPath;
+            parentPath = parentPath.getParentPath();
+        }
+        int[] childIndices = new int[pathCount - 1];
+        int flatIndex = 0;
+        for (int i = 1; i < pathCount; i++) {
+            Object parent = path.getPathComponent(i - 1);
+            int index = model.getIndexOfChild(parent, path.getPathComponent(i));
+            if (index < 0) {
+                return -1;
+            }
+            int[] offsets = _childOffsets != null ? _childOffsets.get(parentPaths[i - 1]) : null;
+            if (offsets != null) {
+                flatIndex += offsets[index];
+            }
+            else {
+                for (int j = 0; j < index; j++) {
+                    flatIndex += getSubtreeSize(model, parentPaths[i - 1], model.getChild(parent, j));
+                }
+            }
+            flatIndex++;
+            childIndices[i - 1] = index;
+        }
+        _cursorPath = path;
+        _cursorChildIndices = childIndices;
+        _cursorIndex = flatIndex;
+        return flatIndex;
+    }
+
+    /**
+     * Discards the child offsets of the node and all its ancestors as the number of their descendants has changed.
+     *
+     * @param path the path to the node
+     */
+    private void invalidateChildOffsets(TreePath path) {
+        resetCursor();
+        if (_childOffsets == null) {
+            return;
+        }
+        while (path != null) {
+            _childOffsets.remove(path);
+            path = path.getParentPath();
+        }
+    }
+
+    /**
+     * Discards the child offsets of the node and its descendants. It is used for the nodes that are added to the tree
+     * in case the child offsets of some nodes at the same tree paths were not discarded.
+     *
+     * @param model the tree model
+     * @param path  the tree path to the node
+     */
+    private void purgeChildOffsets(TreeModel model, TreePath path) {
+        if (_childOffsets != null && _childOffsets.remove(path) != null) {
+            Object node = path.getLastPathComponent();
+            for (int i = 0, count = model.getChildCount(node); i < count; i++) {
+                purgeChildOffsets(model, path.pathByAddingChild(model.getChild(node, i)));
+            }
+        }
+    }
+
+    /**
+     * Discards the child offsets of the node and its descendants. It is used for the nodes that are removed from the
+     * tree, whose descendants can no longer be reached using the tree model.
+     *
+     * @param path the tree path to the node
+     */
+    private void removeChildOffsets(TreePath path) {
+        if (_childOffsets == null || _childOffsets.isEmpty()) {
+            return;
+        }
+        for (Iterator<TreePath> iterator = _childOffsets.keySet().iterator(); iterator.hasNext(); ) {
+            if (path.isDescendant(iterator.next())) {
+                iterator.remove();
+            }
+        }
+    }
+
     /**
      * Converts the element in JTree to string. The element by default is TreePath. The returned value will be
      * <code>toString()</code> of the last path component in the TreePath.
@@ -244,6 +684,7 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
     }
 
     public void treeNodesChanged(TreeModelEvent e) {
+        invalidateSearchIndex(e);
         if (!isProcessModelChangeEvent()) {
             return;
         }
@@ -252,6 +693,36 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
     }
 
     public void treeNodesInserted(TreeModelEvent e) {
+        TreePath parentPath = e.getTreePath();
+        Object[] children = e.getChildren();
+        if (parentPath == null || children == null) {
+            invalidateSearchIndex();
+            resetFlattenedTree();
+        }
+        else {
+            TreeModel model = ((JTree) _component).getModel();
+            invalidateChildOffsets(parentPath);
+            for (Object child : children) {
+                purgeChildOffsets(model, parentPath.pathByAddingChild(child));
+            }
+            if (!isSearchIndexBuilt()) {
+                // nothing to patch
+            }
+            else if (!isRecursive() || isTreePathsOverridden()) {
+                invalidateSearchIndex();
+            }
+            else {
+                // the children are in ascending order so each one is inserted at its final position
+                for (Object child : children) {
+                    int index = getFlattenedIndex(parentPath.pathByAddingChild(child));
+                    if (index < 0) {
+                        invalidateSearchIndex();
+                        break;
+                    }
+                    insertSearchIndexInterval(index, index + getSubtreeSize(model, parentPath, child) - 1);
+                }
+            }
+        }
         if (!isProcessModelChangeEvent()) {
             return;
         }
@@ -260,6 +731,34 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
     }
 
     public void treeNodesRemoved(TreeModelEvent e) {
+        TreePath parentPath = e.getTreePath();
+        Object[] children = e.getChildren();
+        int[] childIndices = e.getChildIndices();
+        if (parentPath == null || children == null || childIndices == null) {
+            invalidateSearchIndex();
+            resetFlattenedTree();
+        }
+        else {
+            // the child offsets of the parent still have the sizes of the removed children before they are discarded
+            int[] offsets = _childOffsets != null ? _childOffsets.get(parentPath) : null;
+            boolean patch = isRecursive() && !isTreePathsOverridden() && isSearchIndexBuilt() && offsets != null
+                    && childIndices[childIndices.length - 1] + 1 < offsets.length;
+            int parentIndex = patch ? getFlattenedPosition(parentPath) : -1;
+            invalidateChildOffsets(parentPath);
+            for (Object child : children) {
+                removeChildOffsets(parentPath.pathByAddingChild(child));
+            }
+            if (parentIndex != -1) {
+                for (int i = childIndices.length - 1; i >= 0; i--) {
+                    int from = parentIndex + 1 + offsets[childIndices[i]] - getRootOffset();
+                    int to = parentIndex + offsets[childIndices[i] + 1] - getRootOffset();
+                    removeSearchIndexInterval(from, to);
+                }
+            }
+            else if (isSearchIndexBuilt()) {
+                invalidateSearchIndex();
+            }
+        }
         if (!isProcessModelChangeEvent()) {
             return;
         }
@@ -268,6 +767,15 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
     }
 
     public void treeStructureChanged(TreeModelEvent e) {
+        invalidateSearchIndex();
+        TreePath path = e.getTreePath();
+        if (path == null || path.getParentPath() == null) {
+            resetFlattenedTree();
+        }
+        else {
+            invalidateChildOffsets(path);
+            removeChildOffsets(path);
+        }
         if (!isProcessModelChangeEvent()) {
             return;
         }
@@ -275,9 +783,38 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
         resetTreePathes();
     }
 
+    /**
+     * Discards the search index of the changed tree nodes.
+     *
+     * @param e the tree model event
+     */
+    private void invalidateSearchIndex(TreeModelEvent e) {
+        if (!isSearchIndexBuilt()) {
+            return;
+        }
+        TreePath parent = e.getTreePath();
+        Object[] children = e.getChildren();
+        if (parent == null || children == null || (isRecursive() && isTreePathsOverridden())) {
+            invalidateSearchIndex();
+            return;
+        }
+        JTree tree = (JTree) _component;
+        for (Object child : children) {
+            TreePath path = parent.pathByAddingChild(child);
+            int index = isRecursive() ? getFlattenedIndex(path) : tree.getRowForPath(path);
+            if (index != -1) {
+                invalidateSearchIndex(index, index);
+            }
+        }
+    }
+
     public void propertyChange(PropertyChangeEvent evt) {
-        if (JTree.TREE_MODEL_PROPERTY.equals(evt.getPropertyName())) {
+        if (JTree.ROOT_VISIBLE_PROPERTY.equals(evt.getPropertyName())) {
+            invalidateSearchIndex();
+        }
+        else if (JTree.TREE_MODEL_PROPERTY.equals(evt.getPropertyName())) {
             hidePopup();
+            invalidateSearchIndex();
 
             if (evt.getOldValue() instanceof TreeModel) {
                 ((TreeModel) evt.getOldValue()).removeTreeModelListener(this);
@@ -287,6 +824,7 @@ public class TreeSearchable extends Searchable implements TreeModelListener, Pro
                 ((TreeModel) evt.getNewValue()).addTreeModelListener(this);
             }
 
+            resetFlattenedTree();
             resetTreePathes();
         }
     }
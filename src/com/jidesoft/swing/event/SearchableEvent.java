@@ -66,7 +66,7 @@ public class SearchableEvent extends AWTEvent {
     /**
      * The last number in the range of IDs used for <code>SearchableEvent</code>.
      */
-    public static final int SEARCHABLE_LAST = SEARCHABLE_FIRST + 6;
+    public static final int SEARCHABLE_LAST = SEARCHABLE_FIRST + 7;
 
     /**
      * To indicate the searching process started. It is fired when the search popup shows up.
@@ -103,6 +103,13 @@ public class SearchableEvent extends AWTEvent {
      */
     public static final int SEARCHABLE_MODEL_CHANGE = SEARCHABLE_FIRST + 6;
 
+    /**
+     * To indicate the number of matches is updated while the matches are counted in background. In this case,
+     * <code>getSearchingText()</code> will return the text that is being searched for. The number of matches can be
+     * retrieved from the <code>Searchable</code> which is the source of the event.
+     */
+    public static final int SEARCHABLE_MATCH_COUNT = SEARCHABLE_FIRST + 7;
+
     /**
      * Returns a parameter string identifying this event.
      * This method is useful for event logging and for debugging.
@@ -131,6 +138,9 @@ public class SearchableEvent extends AWTEvent {
             case SEARCHABLE_MODEL_CHANGE:
                 typeStr = "SEARCHABLE_MODEL";
                 break;
+            case SEARCHABLE_MATCH_COUNT:
+                typeStr = "SEARCHABLE_MATCH_COUNT: searchingText = \"" + _searchingText + "\"";
+                break;
             default:
                 typeStr = "SEARCHABLE_UNKNOWN";
         }
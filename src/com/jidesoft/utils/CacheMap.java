@@ -12,6 +12,11 @@ import java.util.*;
  * object and a context as a pair. We use context because we want to register multiple objects with the same Class.
  * {@link #register(Class, Object, Object)} is the method to register a new entry. {@link #getRegisteredObject(Class,
  * Object)} will allow you to look up the object by specifying the Class and the context.
+ * <p/>
+ * The objects found by {@link #getRegisteredObject(Class, Object)} are remembered so that the super classes and
+ * interfaces are only searched once for each class and context. The remembered objects are kept in a snapshot which is
+ * replaced, never modified, so it can be read without locking from any thread. The snapshot is discarded whenever the
+ * registration changes.
  */
 public class CacheMap<T, K> {
 
@@ -19,6 +24,16 @@ public class CacheMap<T, K> {
 
     private K _defaultContext; // used for fallback lookup.
 
+    /**
+     * The objects found by getRegisteredObject, keyed by the class and then the context.
+     */
+    private volatile Map<Class<?>, Map<K, Object>> _resolved = new HashMap<Class<?>, Map<K, Object>>();
+
+    /**
+     * The object in the resolved map when nothing is registered for the class and context.
+     */
+    private static final Object NOT_FOUND = new Object();
+
     /**
      * Constructs a <code>CacheMap</code>.
      *
@@ -60,7 +75,7 @@ public class CacheMap<T, K> {
      *
      * @return the secondary keys.
      */
-    public K[] getKeys(Class<?> clazz, K[] a) {
+    public synchronized K[] getKeys(Class<?> clazz, K[] a) {
         Cache<K, T> cache = getCache(clazz);
         if (cache != null) {
             Set<K> set = cache.keySet();
@@ -96,8 +111,11 @@ public class CacheMap<T, K> {
             throw new IllegalArgumentException("Parameter clazz cannot be null");
         }
 
-        Cache<K, T> cache = initCache(clazz);
-        cache.setObject(context, object);
+        synchronized (this) {
+            Cache<K, T> cache = initCache(clazz);
+            cache.setObject(context, object);
+            invalidateResolved();
+        }
         fireRegistrationChanged(new RegistrationEvent(this, RegistrationEvent.REGISTRATION_ADDED, object, clazz, context));
     }
 
@@ -108,15 +126,20 @@ public class CacheMap<T, K> {
      * @param context the context
      */
     public void unregister(Class<?> clazz, K context) {
-        Cache<K, T> cache = getCache(clazz);
-        if (cache != null) {
-            Object object = cache.getObject(context);
+        Object object;
+        synchronized (this) {
+            Cache<K, T> cache = getCache(clazz);
+            if (cache == null) {
+                return;
+            }
+            object = cache.getObject(context);
             cache.setObject(context, null);
-            fireRegistrationChanged(new RegistrationEvent(this, RegistrationEvent.REGISTRATION_REMOVED, object, clazz, context));
             if (cache.size() == 0) {
                 _cache.remove(clazz);
             }
+            invalidateResolved();
         }
+        fireRegistrationChanged(new RegistrationEvent(this, RegistrationEvent.REGISTRATION_REMOVED, object, clazz, context));
     }
 
     /**
@@ -132,11 +155,49 @@ public class CacheMap<T, K> {
      *
      * @return registered object the object associated with the class and the context.
      */
+    @SuppressWarnings("unchecked")
     public T getRegisteredObject(Class<?> clazz, K context) {
         if (clazz == null) {
             return null;
         }
 
+        Map<K, Object> objects = _resolved.get(clazz);
+        Object object = objects != null ? objects.get(context) : null;
+        if (object == null) {
+            object = resolveRegisteredObject(clazz, context);
+        }
+        return object == NOT_FOUND ? null : (T) object;
+    }
+
+    /**
+     * Looks up the registered object and adds it to the resolved snapshot.
+     */
+    private synchronized Object resolveRegisteredObject(Class<?> clazz, K context) {
+        Map<K, Object> objects = _resolved.get(clazz);
+        Object object = objects != null ? objects.get(context) : null;
+        if (object != null) {
+            return object;
+        }
+        object = findRegisteredObject(clazz, context);
+        if (object == null) {
+            object = NOT_FOUND;
+        }
+        Map<Class<?>, Map<K, Object>> resolved = new HashMap<Class<?>, Map<K, Object>>(_resolved);
+        objects = objects != null ? new HashMap<K, Object>(objects) : new HashMap<K, Object>();
+        objects.put(context, object);
+        resolved.put(clazz, objects);
+        _resolved = resolved;
+        return object;
+    }
+
+    /**
+     * Discards the objects found by getRegisteredObject so far.
+     */
+    private void invalidateResolved() {
+        _resolved = new HashMap<Class<?>, Map<K, Object>>();
+    }
+
+    private T findRegisteredObject(Class<?> clazz, K context) {
         Cache<K, T> cache = getCache(clazz);
 
         if (cache == null || !cache.containsKey(context)) {
@@ -207,7 +268,7 @@ public class CacheMap<T, K> {
         if (cache != null) {
             T object = cache.getObject(context);
             if (object == null && !_defaultContext.equals(context)) {
-                return getRegisteredObject(clazz, _defaultContext);
+                return findRegisteredObject(clazz, _defaultContext);
             }
             if (object != null) {
                 return object;
@@ -239,7 +300,7 @@ public class CacheMap<T, K> {
      *
      * @return registered object the object associated with the class and the context.
      */
-    public T getMatchRegisteredObject(Class<?> clazz, K context) {
+    public synchronized T getMatchRegisteredObject(Class<?> clazz, K context) {
         if (clazz == null) {
             return null;
         }
@@ -258,7 +319,7 @@ public class CacheMap<T, K> {
         return null;
     }
 
-    public List<T> getValues() {
+    public synchronized List<T> getValues() {
         List<T> list = new ArrayList<T>();
         Collection<Cache<K, T>> col = _cache.values();
         for (Cache<K, T> o : col) {
@@ -279,20 +340,33 @@ public class CacheMap<T, K> {
      */
     @SuppressWarnings("unchecked")
     public void remove(Class<?> clazz) {
-        Cache<K, T> cache = getCache(clazz);
-        if (cache != null) {
-            Object[] keys = cache.keySet().toArray();
-            for (Object context : keys) {
-                Object object = cache.getObject((K) context);
-                cache.setObject((K) context, null);
-                fireRegistrationChanged(new RegistrationEvent(this, RegistrationEvent.REGISTRATION_REMOVED, object, clazz, context));
+        Object[] keys;
+        Object[] objects;
+        synchronized (this) {
+            Cache<K, T> cache = getCache(clazz);
+            if (cache != null) {
+                keys = cache.keySet().toArray();
+                objects = new Object[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    objects[i] = cache.getObject((K) keys[i]);
+                }
+            }
+            else {
+                keys = objects = new Object[0];
             }
+            _cache.remove(clazz);
+            invalidateResolved();
+        }
+        for (int i = 0; i < keys.length; i++) {
+            fireRegistrationChanged(new RegistrationEvent(this, RegistrationEvent.REGISTRATION_REMOVED, objects[i], clazz, keys[i]));
         }
-        _cache.remove(clazz);
     }
 
     public void clear() {
-        _cache.clear();
+        synchronized (this) {
+            _cache.clear();
+            invalidateResolved();
+        }
         fireRegistrationChanged(new RegistrationEvent(this, RegistrationEvent.REGISTRATION_CLEARED));
     }
 
@@ -342,6 +416,9 @@ public class CacheMap<T, K> {
      * @see RegistrationEvent
      */
     public void fireRegistrationChanged(RegistrationEvent e) {
+        synchronized (this) {
+            invalidateResolved();
+        }
         // Guaranteed to return a non-null array
         // Process the listeners last to first, notifying
         // those that are interested in this event
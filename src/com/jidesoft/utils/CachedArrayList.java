@@ -5,6 +5,8 @@
  */
 package com.jidesoft.utils;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.IdentityHashMap;
@@ -15,10 +17,17 @@ import java.util.Map;
  * O(n) to O(1). However it will at least double the memory used by ArrayList. So use it appropriately. <p><strong>Just
  * like ArrayList, this implementation is not synchronized.</strong> If you want a thread safe implementation, you can
  * use {@link com.jidesoft.utils.CachedArrayList}.
+ * <p/>
+ * The indices are kept in a primitive identity hash table. Inserting or removing an element in the middle of the list
+ * doesn't update the indices of the elements after it immediately. The change is recorded and applied to an index when
+ * it is read so indexOf stays O(1). If a subclass overrides {@link #createCache()}, the map returned from it is used
+ * instead, as in the previous versions.
  */
 public class CachedArrayList<E> extends ArrayList<E> {
     private static final long serialVersionUID = 3835017332487313880L;
-    private Map<Object, IntegerWrapper> _indexCache;
+    private transient IndexCache _indexCache;
+    private transient Map<Object, IntegerWrapper> _mapCache;
+    private transient Boolean _createCacheOverridden;
     private boolean _lazyCaching = false;
 
     public CachedArrayList() {
@@ -38,9 +47,9 @@ public class CachedArrayList<E> extends ArrayList<E> {
     @Override
     public int indexOf(Object elem) {
         initializeCache();
-        IntegerWrapper o = _indexCache.get(elem);
-        if (o != null) {
-            return o.integer;
+        int index = getCachedIndex(elem);
+        if (index != -1) {
+            return index;
         }
         else if (isLazyCaching()) {
             int i = super.indexOf(elem);
@@ -66,8 +75,11 @@ public class CachedArrayList<E> extends ArrayList<E> {
      */
     protected synchronized void adjustCache(int index, int increase) {
         if (_indexCache != null) {
+            _indexCache.shift(index, increase);
+        }
+        else if (_mapCache != null) {
             if (size() - index <= size() >> 2) {
-                Collection<IntegerWrapper> values = _indexCache.values();
+                Collection<IntegerWrapper> values = _mapCache.values();
                 for (IntegerWrapper value : values) {
                     if (value.integer >= index) {
                         value.integer += increase;
@@ -83,10 +95,49 @@ public class CachedArrayList<E> extends ArrayList<E> {
         }
     }
 
+    /**
+     * Creates the map for the index cache. By default, the indices are kept in a primitive identity table and this
+     * method is not called. If it is overridden, the map returned from it is used instead and the indices in the map
+     * are adjusted one by one when an element is inserted or removed in the middle of the list.
+     *
+     * @return a new map.
+     */
     protected Map<Object, IntegerWrapper> createCache() {
         return new IdentityHashMap<Object, IntegerWrapper>();
     }
 
+    private boolean isCreateCacheOverridden() {
+        if (_createCacheOverridden == null) {
+            _createCacheOverridden = Boolean.FALSE;
+            for (Class<?> c = getClass(); c != CachedArrayList.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("createCache");
+                    _createCacheOverridden = Boolean.TRUE;
+                    break;
+                }
+                catch (NoSuchMethodException e) {
+                    // check the super class
+                }
+            }
+        }
+        return _createCacheOverridden;
+    }
+
+    private int getCachedIndex(Object o) {
+        if (_indexCache != null) {
+            return _indexCache.get(o);
+        }
+        else if (_mapCache != null) {
+            IntegerWrapper index = _mapCache.get(o);
+            return index != null ? index.integer : -1;
+        }
+        return -1;
+    }
+
+    private boolean isCacheInitialized() {
+        return _indexCache != null || _mapCache != null;
+    }
+
     /**
      * Caches the index of the element.
      *
@@ -94,8 +145,16 @@ public class CachedArrayList<E> extends ArrayList<E> {
      * @param index the index.
      */
     public synchronized void cacheIt(Object o, int index) {
-        if (_indexCache != null && (_indexCache.get(o) == null || index < _indexCache.get(o).integer)) {
-            _indexCache.put(o, new IntegerWrapper(index));
+        if (isCacheInitialized()) {
+            int cachedIndex = getCachedIndex(o);
+            if (cachedIndex == -1 || index < cachedIndex) {
+                if (_indexCache != null) {
+                    _indexCache.put(o, index);
+                }
+                else {
+                    _mapCache.put(o, new IntegerWrapper(index));
+                }
+            }
         }
     }
 
@@ -108,6 +167,9 @@ public class CachedArrayList<E> extends ArrayList<E> {
         if (_indexCache != null) {
             _indexCache.remove(o);
         }
+        else if (_mapCache != null) {
+            _mapCache.remove(o);
+        }
     }
 
     @Override
@@ -128,25 +190,28 @@ public class CachedArrayList<E> extends ArrayList<E> {
             adjustCache(index, 1);
             cacheIt(element, index);
         }
-        else if (_indexCache != null) {
+        else if (isCacheInitialized()) {
             adjustCache(index, 1);
             cacheIt(element, index);
         }
     }
 
     private void initializeCache() {
-        if (_indexCache == null) {
-            _indexCache = createCache();
+        if (!isCacheInitialized()) {
+            if (isCreateCacheOverridden()) {
+                _mapCache = createCache();
+            }
+            else {
+                _indexCache = new IndexCache();
+            }
         }
     }
 
     @Override
     public E remove(int index) {
         E element = super.remove(index);
-        if (element != null) {
-            uncacheIt(element);
-            adjustCache(index, -1);
-        }
+        uncacheIt(element);
+        adjustCache(index, -1);
         return element;
     }
 
@@ -164,7 +229,11 @@ public class CachedArrayList<E> extends ArrayList<E> {
     @Override
     public boolean removeAll(Collection<?> c) {
         uncacheAll();
-        return super.removeAll(c);
+        boolean removed = super.removeAll(c);
+        if (!isLazyCaching()) {
+            cacheAll();
+        }
+        return removed;
     }
 
 
@@ -177,9 +246,13 @@ public class CachedArrayList<E> extends ArrayList<E> {
 
     @Override
     public boolean addAll(Collection<? extends E> c) {
+        int index = size();
         boolean added = super.addAll(c);
-        if (added) {
-            cacheAll();
+        if (added && (!isLazyCaching() || isCacheInitialized())) {
+            initializeCache();
+            for (int i = index; i < size(); i++) {
+                cacheIt(get(i), i);
+            }
         }
         return added;
     }
@@ -220,23 +293,31 @@ public class CachedArrayList<E> extends ArrayList<E> {
      * Uncache the whole cache. It is the same as {@link #invalidateCache()}.
      */
     public synchronized void uncacheAll() {
-        if (_indexCache != null) {
-            _indexCache.clear();
-            _indexCache = null;
-        }
+        _indexCache = null;
+        _mapCache = null;
     }
 
     /**
      * Cache all the element index.
      */
     public synchronized void cacheAll() {
-        _indexCache = createCache();
-        Integer i = 0;
+        uncacheAll();
+        if (isCreateCacheOverridden()) {
+            _mapCache = createCache();
+        }
+        else {
+            _indexCache = new IndexCache(size());
+        }
+        int i = 0;
         for (Object elem : this) {
-            if (_indexCache.get(elem) == null) {
-                _indexCache.put(elem, new IntegerWrapper(i));
-            }
-            i++;
+            cacheIt(elem, i++);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (!isLazyCaching()) {
+            cacheAll();
         }
     }
 
@@ -250,18 +331,23 @@ public class CachedArrayList<E> extends ArrayList<E> {
 
     @Override
     protected void removeRange(int fromIndex, int toIndex) {
-        if (fromIndex == toIndex) {
+        if (toIndex - fromIndex == 1) {
             remove(fromIndex);
         }
         else {
-            super.removeRange(fromIndex, toIndex);
-            uncacheAll();
-            if (!isLazyCaching()) {
-                cacheAll();
+            if (isCacheInitialized()) {
+                for (int i = fromIndex; i < toIndex; i++) {
+                    uncacheIt(get(i));
+                }
             }
+            super.removeRange(fromIndex, toIndex);
+            adjustCache(fromIndex, fromIndex - toIndex);
         }
     }
 
+    /**
+     * The index of an element in the map returned from {@link CachedArrayList#createCache()}.
+     */
     public static class IntegerWrapper {
         int integer;
 
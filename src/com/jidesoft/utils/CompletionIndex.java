@@ -0,0 +1,284 @@
+/*
+ * @(#)CompletionIndex.java
+ *
+ * Copyright 2002 - 2011 JIDE Software Inc. All rights reserved.
+ */
+package com.jidesoft.utils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <code>CompletionIndex</code> is an index of a list of completion candidates which finds the candidates starting with
+ * a prefix without looking at each of them. The candidates are converted to strings once, folded to a common case if
+ * the index is case insensitive and sorted, so the candidates with the same prefix are next to each other and can be
+ * found by a binary search in O(log n). The range found for the last prefix is kept. When the user types one more
+ * character, the prefix is only searched in that range.
+ * <p/>
+ * The index doesn't listen to the list. Call {@link #invalidate()} after the list is modified so that the index is
+ * built again during next search. The candidates found in the index are converted again before they are returned, so a
+ * candidate which was replaced by one not matching the prefix is never returned. Such a replacement marks the index as
+ * not valid, see {@link #isValid()}.
+ */
+public class CompletionIndex {
+    private final List<?> _list;
+    private final boolean _caseSensitive;
+    private int _size;
+    private boolean _stale;
+
+    // the keys in sorted order and the index of each key's element in the list
+    private String[] _keys;
+    private int[] _indices;
+
+    // the range of the last searched prefix
+    private String _lastPrefix;
+    private int _lastFrom;
+    private int _lastTo;
+
+    /**
+     * Creates a <code>CompletionIndex</code> for the list.
+     *
+     * @param list          the list of the candidates
+     * @param caseSensitive true to match the prefix case sensitively.
+     */
+    public CompletionIndex(List<?> list, boolean caseSensitive) {
+        _list = list;
+        _caseSensitive = caseSensitive;
+        _size = list.size();
+    }
+
+    /**
+     * Converts the candidate to the string to be matched. By default, it returns toString() of the element or an empty
+     * string if the element is null.
+     *
+     * @param element the element in the list
+     * @return the string.
+     */
+    protected String convertElementToString(Object element) {
+        return element == null ? "" : element.toString();
+    }
+
+    /**
+     * Converts the text to the key in the index. The prefix to be searched is converted using the same method. If the
+     * index is case insensitive, each character is converted to upper case and then lower case, the same way as
+     * {@link String#equalsIgnoreCase(String)} compares the characters. Otherwise the text is returned as is.
+     *
+     * @param text the text
+     * @return the key.
+     */
+    protected String getKey(String text) {
+        if (isCaseSensitive()) {
+            return text;
+        }
+        char[] chars = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            char folded = Character.toLowerCase(Character.toUpperCase(c));
+            if (folded != c) {
+                if (chars == null) {
+                    chars = text.toCharArray();
+                }
+                chars[i] = folded;
+            }
+        }
+        return chars == null ? text : new String(chars);
+    }
+
+    /**
+     * Gets the list of the candidates.
+     *
+     * @return the list.
+     */
+    public List<?> getList() {
+        return _list;
+    }
+
+    /**
+     * Checks if the prefix is matched case sensitively.
+     *
+     * @return true if case sensitive.
+     */
+    public boolean isCaseSensitive() {
+        return _caseSensitive;
+    }
+
+    /**
+     * Checks if the index still matches the list. It returns false if the list size changed since the index was built
+     * or if a candidate found in the index no longer matched the prefix it was found for. A replacement which keeps the
+     * size is not always detected, so please call {@link #invalidate()} when the list is modified.
+     *
+     * @return true if the index can be used.
+     */
+    public boolean isValid() {
+        return !_stale && _list.size() == _size;
+    }
+
+    /**
+     * Discards the index. It will be built again from the current elements of the list during next search.
+     */
+    public void invalidate() {
+        _keys = null;
+        _indices = null;
+        _stale = false;
+    }
+
+    private void buildIndex() {
+        if (_keys != null) {
+            return;
+        }
+        _size = _list.size();
+        _stale = false;
+        final String[] keys = new String[_size];
+        Integer[] order = new Integer[_size];
+        for (int i = 0; i < _size; i++) {
+            keys[i] = getKey(convertElementToString(_list.get(i)));
+            order[i] = i;
+        }
+        // the sort is stable so the elements with the same key remain in the list order
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer o1, Integer o2) {
+                return keys[o1].compareTo(keys[o2]);
+            }
+        });
+        _keys = new String[_size];
+        _indices = new int[_size];
+        for (int i = 0; i < _size; i++) {
+            _indices[i] = order[i];
+            _keys[i] = keys[_indices[i]];
+        }
+        _lastPrefix = "";
+        _lastFrom = 0;
+        _lastTo = _size;
+    }
+
+    /**
+     * Finds the range in the sorted keys of the keys starting with the prefix key.
+     *
+     * @param prefix the prefix key
+     * @return the first position in the keys at index 0 and the position after the last one at index 1.
+     */
+    private int[] findRange(String prefix) {
+        buildIndex();
+        int from = 0;
+        int to = _size;
+        if (prefix.startsWith(_lastPrefix)) {
+            // narrows the range of the last prefix
+            from = _lastFrom;
+            to = _lastTo;
+        }
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (_keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        from = low;
+        high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (_keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        to = low;
+        _lastPrefix = prefix;
+        _lastFrom = from;
+        _lastTo = to;
+        return new int[]{from, to};
+    }
+
+    /**
+     * Checks if the candidate found in the index for the prefix key still starts with it. If not, the list was
+     * modified and the index is marked as not valid.
+     */
+    private boolean verify(int index, String prefix) {
+        if (index < _list.size() && getKey(convertElementToString(_list.get(index))).startsWith(prefix)) {
+            return true;
+        }
+        _stale = true;
+        return false;
+    }
+
+    /**
+     * Gets the number of the candidates starting with the prefix.
+     *
+     * @param prefix the prefix
+     * @return the number of the matching candidates.
+     */
+    public int getMatchCount(String prefix) {
+        return getMatchingIndices(prefix).length;
+    }
+
+    /**
+     * Gets the indices of the candidates starting with the prefix.
+     *
+     * @param prefix the prefix
+     * @return the indices in the list, in increasing order.
+     */
+    public int[] getMatchingIndices(String prefix) {
+        String key = getKey(prefix);
+        int[] range = findRange(key);
+        int[] indices = new int[range[1] - range[0]];
+        int count = 0;
+        for (int i = range[0]; i < range[1]; i++) {
+            if (verify(_indices[i], key)) {
+                indices[count++] = _indices[i];
+            }
+        }
+        if (count < indices.length) {
+            int[] verified = new int[count];
+            System.arraycopy(indices, 0, verified, 0, count);
+            indices = verified;
+        }
+        Arrays.sort(indices);
+        return indices;
+    }
+
+    /**
+     * Finds the first candidate starting with the prefix at or after the fromIndex. If there is no such candidate
+     * after the fromIndex, it finds the first one from the beginning of the list.
+     *
+     * @param prefix    the prefix
+     * @param fromIndex the index to start with
+     * @return the index of the candidate in the list. -1 if no candidate starts with the prefix.
+     */
+    public int findFirst(String prefix, int fromIndex) {
+        int[] indices = getMatchingIndices(prefix);
+        if (indices.length == 0) {
+            return -1;
+        }
+        int next = Arrays.binarySearch(indices, fromIndex);
+        if (next < 0) {
+            next = -next - 1;
+        }
+        return next < indices.length ? indices[next] : indices[0];
+    }
+
+    /**
+     * Finds the first candidate which is converted to exactly the same string as the text.
+     *
+     * @param text the text
+     * @return the index of the candidate in the list. -1 if not found.
+     */
+    public int findExactly(String text) {
+        String key = getKey(text);
+        int[] range = findRange(key);
+        int found = -1;
+        for (int i = range[0]; i < range[1] && _keys[i].length() == key.length(); i++) {
+            int index = _indices[i];
+            if ((found == -1 || index < found) && index < _list.size() && text.equals(convertElementToString(_list.get(index)))) {
+                found = index;
+            }
+        }
+        return found;
+    }
+}
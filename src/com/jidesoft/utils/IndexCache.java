@@ -0,0 +1,309 @@
+/*
+ * @(#)IndexCache.java
+ *
+ * Copyright 2002 - 2011 JIDE Software Inc. All rights reserved.
+ */
+package com.jidesoft.utils;
+
+import java.util.Arrays;
+
+/**
+ * <code>IndexCache</code> maps elements to their indices in a list. The elements are compared by identity. It is an
+ * open addressing hash table which keeps the indices in an int array so that no object is created per element.
+ * <p/>
+ * When an element is inserted into or removed from the middle of the list, the indices after it are not changed right
+ * away. The change is recorded as a shift and applied to an index when the index is read. The recorded shifts are
+ * applied to the whole table once there are too many of them.
+ * <p/>
+ * It is used by {@link CachedArrayList}.
+ */
+class IndexCache {
+    private static final Object NULL_KEY = new Object();
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The maximum number of shifts recorded before they are applied to the whole table.
+     */
+    private static final int MAX_SHIFTS = 1024;
+
+    private Object[] _keys;
+    private int[] _indices;
+    // the number of recorded shifts which are already applied to the index
+    private int[] _appliedShifts;
+    private int _size;
+
+    private final int[] _shiftIndices = new int[MAX_SHIFTS];
+    private final int[] _shiftIncreases = new int[MAX_SHIFTS];
+    private int _shiftCount;
+
+    IndexCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    IndexCache(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * 2 < expectedSize * 3) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        _keys = new Object[capacity];
+        _indices = new int[capacity];
+        _appliedShifts = new int[capacity];
+    }
+
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    private static int hash(Object key, int mask) {
+        int h = System.identityHashCode(key);
+        // the low bits of the identity hash code are not well distributed on some VMs
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return h & mask;
+    }
+
+    private int findSlot(Object key) {
+        Object[] keys = _keys;
+        int mask = keys.length - 1;
+        int i = hash(key, mask);
+        while (true) {
+            Object k = keys[i];
+            if (k == key || k == null) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Gets the cached index of the element.
+     *
+     * @param key the element
+     * @return the index. -1 if the index of the element is not cached.
+     */
+    int get(Object key) {
+        int slot = findSlot(maskNull(key));
+        if (_keys[slot] == null) {
+            return -1;
+        }
+        int applied = _appliedShifts[slot];
+        if (applied == _shiftCount) {
+            return _indices[slot];
+        }
+        int index = resolve(_indices[slot], applied);
+        _indices[slot] = index;
+        _appliedShifts[slot] = _shiftCount;
+        return index;
+    }
+
+    private int resolve(int index, int applied) {
+        for (int i = applied; i < _shiftCount; i++) {
+            if (index >= _shiftIndices[i]) {
+                index += _shiftIncreases[i];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Caches the index of the element.
+     *
+     * @param key   the element
+     * @param index the index
+     */
+    void put(Object key, int index) {
+        key = maskNull(key);
+        int slot = findSlot(key);
+        if (_keys[slot] == null) {
+            if ((_size + 1) * 3 > _keys.length * 2) {
+                rehash(_keys.length << 1);
+                slot = findSlot(key);
+            }
+            _keys[slot] = key;
+            _size++;
+        }
+        _indices[slot] = index;
+        _appliedShifts[slot] = _shiftCount;
+    }
+
+    /**
+     * Removes the element from the cache.
+     *
+     * @param key the element
+     */
+    void remove(Object key) {
+        Object[] keys = _keys;
+        int mask = keys.length - 1;
+        int slot = findSlot(maskNull(key));
+        if (keys[slot] == null) {
+            return;
+        }
+        _size--;
+        // moves the following entries of the same cluster back so that the lookups don't need tombstones
+        int i = slot;
+        int j = slot;
+        while (true) {
+            j = (j + 1) & mask;
+            Object k = keys[j];
+            if (k == null) {
+                break;
+            }
+            int home = hash(k, mask);
+            if (i <= j ? (i < home && home <= j) : (i < home || home <= j)) {
+                continue;
+            }
+            keys[i] = k;
+            _indices[i] = _indices[j];
+            _appliedShifts[i] = _appliedShifts[j];
+            i = j;
+        }
+        keys[i] = null;
+    }
+
+    /**
+     * Records that all indices that are greater than or equal to index change by the value of the increase parameter.
+     *
+     * @param index    the index
+     * @param increase a positive number to increase or a negative number to decrease.
+     */
+    void shift(int index, int increase) {
+        if (_size == 0 || increase == 0) {
+            return;
+        }
+        if (_shiftCount == MAX_SHIFTS) {
+            applyShifts();
+        }
+        _shiftIndices[_shiftCount] = index;
+        _shiftIncreases[_shiftCount] = increase;
+        _shiftCount++;
+    }
+
+    /**
+     * Applies the recorded shifts to all indices in the table.
+     */
+    private void applyShifts() {
+        int count = _shiftCount;
+        if (count == 0) {
+            return;
+        }
+        // Most indices have none of the shifts applied. For them, each shift is turned into a cutoff so that the shift
+        // applies to all indices at or above it. The total increase of the indices below the last cutoff is put in a
+        // table so that each index only needs a lookup.
+        long[] sortedCutoffs = new long[count];
+        for (int i = 0; i < count; i++) {
+            sortedCutoffs[i] = ((long) findCutoff(i) << 32) | i;
+        }
+        Arrays.sort(sortedCutoffs);
+        int lastCutoff = -1;
+        for (int i = count - 1; i >= 0 && lastCutoff == -1; i--) {
+            int cutoff = (int) (sortedCutoffs[i] >>> 32);
+            if (cutoff != Integer.MAX_VALUE) {
+                lastCutoff = cutoff;
+            }
+        }
+        int[] increases = new int[lastCutoff + 1];
+        int increase = 0;
+        int from = 0;
+        for (int i = 0; i < count; i++) {
+            int cutoff = (int) (sortedCutoffs[i] >>> 32);
+            if (cutoff == Integer.MAX_VALUE) {
+                break;
+            }
+            Arrays.fill(increases, from, cutoff, increase);
+            increase += _shiftIncreases[(int) sortedCutoffs[i]];
+            from = cutoff;
+        }
+        Arrays.fill(increases, from, increases.length, increase);
+
+        Object[] keys = _keys;
+        int[] indices = _indices;
+        int[] appliedShifts = _appliedShifts;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                if (appliedShifts[i] == 0) {
+                    int index = indices[i];
+                    indices[i] = index + (index <= lastCutoff ? increases[index] : increase);
+                }
+                else {
+                    indices[i] = resolve(indices[i], appliedShifts[i]);
+                }
+            }
+            appliedShifts[i] = 0;
+        }
+        _shiftCount = 0;
+    }
+
+    /**
+     * Finds the smallest index which is moved by the shift if none of the shifts are applied to it yet.
+     *
+     * @param shift the shift
+     * @return the index. Integer.MAX_VALUE if there is none.
+     */
+    private int findCutoff(int shift) {
+        int target = _shiftIndices[shift];
+        // the shifts before it move an index by no more than the sum of their increases or decreases
+        long increases = 0;
+        long decreases = 0;
+        for (int i = 0; i < shift; i++) {
+            if (_shiftIncreases[i] > 0) {
+                increases += _shiftIncreases[i];
+            }
+            else {
+                decreases -= _shiftIncreases[i];
+            }
+        }
+        int low = (int) Math.max(0, target - increases);
+        int high = (int) Math.min(Integer.MAX_VALUE, target + decreases + 1);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (applyShifts(mid, shift) >= target) {
+                high = mid;
+            }
+            else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Applies the first shifts to the index. The indices removed by a shift are moved to where the removal happened so
+     * that the result never decreases when the index increases. It doesn't matter for the cached indices as none of
+     * them were removed.
+     */
+    private long applyShifts(long index, int shiftCount) {
+        for (int i = 0; i < shiftCount; i++) {
+            int shiftIndex = _shiftIndices[i];
+            int increase = _shiftIncreases[i];
+            if (index >= shiftIndex) {
+                index = increase >= 0 || index >= shiftIndex - increase ? index + increase : shiftIndex;
+            }
+        }
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        applyShifts();
+        Object[] oldKeys = _keys;
+        int[] oldIndices = _indices;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object key = oldKeys[i];
+            if (key != null) {
+                int slot = findSlot(key);
+                _keys[slot] = key;
+                _indices[slot] = oldIndices[i];
+            }
+        }
+    }
+
+    int size() {
+        return _size;
+    }
+}
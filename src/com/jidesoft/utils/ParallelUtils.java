@@ -0,0 +1,125 @@
+/*
+ * @(#)ParallelUtils.java
+ *
+ * Copyright 2002 - 2011 JIDE Software Inc. All rights reserved.
+ */
+package com.jidesoft.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Utils methods to process a range of values on several threads. The range is split into chunks of the same size,
+ * one for each processor. The current thread processes the first chunk while the other chunks are processed by a
+ * thread pool shared by all the callers, such as ObjectConverterManager and ObjectGrouperManager.
+ */
+public class ParallelUtils {
+    private static ExecutorService _executor;
+
+    /**
+     * The task which processes one chunk of the range.
+     *
+     * @param <T> the type of the result of a chunk
+     */
+    public interface ChunkTask<T> {
+        /**
+         * Processes the chunk.
+         *
+         * @param offset the index of the first value of the chunk in the range
+         * @param length the number of the values in the chunk
+         * @return the result of the chunk.
+         */
+        T run(int offset, int length);
+    }
+
+    /**
+     * Gets the number of the chunks a range is split into. It is the number of the available processors.
+     *
+     * @return the number of the chunks.
+     */
+    public static int getChunkCount() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Gets the number of the values in each chunk except the last one, which may be smaller.
+     *
+     * @param length the number of the values in the range
+     * @param chunks the number of the chunks
+     * @return the chunk size.
+     */
+    public static int getChunkSize(int length, int chunks) {
+        return (length + chunks - 1) / chunks;
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (_executor == null) {
+            _executor = Executors.newFixedThreadPool(getChunkCount(), new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "ParallelUtils");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return _executor;
+    }
+
+    /**
+     * Splits the range from 0 to length into the chunks and runs the task for each chunk on several threads. It returns
+     * after all the chunks are processed. If the task throws a RuntimeException or an Error for any chunk, it is thrown
+     * again on the current thread.
+     *
+     * @param length the number of the values in the range
+     * @param chunks the number of the chunks
+     * @param task   the task
+     * @return the results of the chunks, in the order of the chunks.
+     */
+    public static <T> List<T> runInChunks(int length, int chunks, final ChunkTask<T> task) {
+        int chunkSize = getChunkSize(length, chunks);
+        List<Future<T>> futures = new ArrayList<Future<T>>();
+        // the current thread processes the first chunk
+        for (int start = chunkSize; start < length; start += chunkSize) {
+            final int offset = start;
+            final int chunkLength = Math.min(chunkSize, length - start);
+            futures.add(getExecutor().submit(new Callable<T>() {
+                public T call() throws Exception {
+                    return task.run(offset, chunkLength);
+                }
+            }));
+        }
+        try {
+            List<T> results = new ArrayList<T>();
+            results.add(task.run(0, Math.min(chunkSize, length)));
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        finally {
+            for (Future<T> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+}
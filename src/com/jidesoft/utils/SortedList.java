@@ -9,38 +9,115 @@ package com.jidesoft.utils;
 import java.util.*;
 
 /**
+ * A list that keeps its elements sorted by the comparator. An element added to the list is inserted after all elements
+ * that are equal to it so the order of the equal elements is the order they were added.
+ * <p/>
+ * The insertion point is found by a binary search if the delegate list supports fast random access. If you need
+ * insertion, removal and indexed access to be all logarithmic, use {@link #SortedList(java.util.Comparator, boolean)}
+ * to create a list stored in a balanced tree.
+ *
  * @author Patrick Gotthardt
  */
 public class SortedList<E> implements List<E> {
-    private Comparator<E> comparator;
+    private Comparator<? super E> comparator;
     private List<E> delegate;
 
-    public SortedList(List<E> delegate, Comparator comparator) {
+    /**
+     * The minimum number of elements added in one addAll call to sort them and merge them with the list in one pass
+     * instead of inserting them one by one.
+     */
+    private static final int MERGE_THRESHOLD = 4;
+
+    public SortedList(List<E> delegate, Comparator<? super E> comparator) {
         this.delegate = delegate;
         this.comparator = comparator;
     }
 
+    /**
+     * Creates a SortedList. If treeBacked is true, the elements are stored in a balanced tree instead of an array so
+     * that adding, removing and getting an element by index are all O(log n). Otherwise, an ArrayList is used.
+     *
+     * @param comparator the comparator
+     * @param treeBacked true to store the elements in a balanced tree.
+     */
+    public SortedList(Comparator<? super E> comparator, boolean treeBacked) {
+        this(treeBacked ? new TreeStorage<E>() : new ArrayList<E>(), comparator);
+    }
+
     public void add(int index, E element) {
         // no indexed insertion supported
         add(element);
     }
 
     public boolean add(E o) {
-        int size = delegate.size();
-        for (int i = 0; i < size; i++) {
-            if (comparator.compare(delegate.get(i), o) > 0) {
-                delegate.add(i, o);
-                return true;
+        delegate.add(findInsertionIndex(o), o);
+        return true;
+    }
+
+    /**
+     * Finds the index of the first element that is greater than the element.
+     *
+     * @param o the element
+     * @return the index where the element should be inserted.
+     */
+    private int findInsertionIndex(E o) {
+        if (delegate instanceof TreeStorage) {
+            return ((TreeStorage<E>) delegate).findInsertionIndex(o, comparator);
+        }
+        if (delegate instanceof RandomAccess) {
+            int low = 0;
+            int high = delegate.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (comparator.compare(delegate.get(mid), o) > 0) {
+                    high = mid;
+                }
+                else {
+                    low = mid + 1;
+                }
             }
+            return low;
         }
-        delegate.add(o);
-        return true;
+        int i = 0;
+        for (E e : delegate) {
+            if (comparator.compare(e, o) > 0) {
+                return i;
+            }
+            i++;
+        }
+        return i;
     }
 
     public boolean addAll(Collection<? extends E> c) {
-        for (E o : c) {
-            add(o);
+        if (c.size() < MERGE_THRESHOLD || delegate instanceof TreeStorage) {
+            for (E o : c) {
+                add(o);
+            }
+            return !c.isEmpty();
+        }
+
+        // sort the new elements (the sort is stable) and merge them with the existing ones in one pass
+        List<E> added = new ArrayList<E>(c);
+        Collections.sort(added, comparator);
+        List<E> merged = new ArrayList<E>(delegate.size() + added.size());
+        Iterator<E> existing = delegate.iterator();
+        boolean hasNext = existing.hasNext();
+        E next = hasNext ? existing.next() : null;
+        for (E o : added) {
+            while (hasNext && comparator.compare(next, o) <= 0) {
+                merged.add(next);
+                hasNext = existing.hasNext();
+                next = hasNext ? existing.next() : null;
+            }
+            merged.add(o);
         }
+        while (hasNext) {
+            merged.add(next);
+            hasNext = existing.hasNext();
+            next = hasNext ? existing.next() : null;
+        }
+        delegate.clear();
+        delegate.addAll(merged);
         return true;
     }
 
@@ -134,6 +211,162 @@ public class SortedList<E> implements List<E> {
         return delegate.toArray(a);
     }
 
+    /**
+     * An order statistic tree which stores the elements of a tree backed SortedList. It is a treap whose nodes are
+     * ordered by the index of the elements and know the size of their subtrees. It doesn't implement RandomAccess
+     * because getting an element by index is O(log n).
+     */
+    private static class TreeStorage<E> extends AbstractList<E> {
+        private static class Node<E> {
+            E value;
+            final int priority;
+            int size = 1;
+            Node<E> left;
+            Node<E> right;
+
+            Node(E value, int priority) {
+                this.value = value;
+                this.priority = priority;
+            }
+        }
+
+        /**
+         * The two trees a tree is split into.
+         */
+        private static class Split<E> {
+            Node<E> left;
+            Node<E> right;
+        }
+
+        private Node<E> root;
+        private final Random random = new Random();
+
+        private static int size(Node<?> node) {
+            return node == null ? 0 : node.size;
+        }
+
+        private static <E> Node<E> update(Node<E> node) {
+            node.size = 1 + size(node.left) + size(node.right);
+            return node;
+        }
+
+        private static <E> Node<E> merge(Node<E> left, Node<E> right) {
+            if (left == null) {
+                return right;
+            }
+            if (right == null) {
+                return left;
+            }
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                return update(left);
+            }
+            else {
+                right.left = merge(left, right.left);
+                return update(right);
+            }
+        }
+
+        /**
+         * Splits the tree into the first count elements and the rest.
+         */
+        private static <E> Split<E> split(Node<E> node, int count) {
+            if (node == null) {
+                return new Split<E>();
+            }
+            if (size(node.left) >= count) {
+                Split<E> result = split(node.left, count);
+                node.left = result.right;
+                result.right = update(node);
+                return result;
+            }
+            else {
+                Split<E> result = split(node.right, count - size(node.left) - 1);
+                node.right = result.left;
+                result.left = update(node);
+                return result;
+            }
+        }
+
+        private Node<E> getNode(int index) {
+            if (index < 0 || index >= size(root)) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size(root));
+            }
+            Node<E> node = root;
+            while (true) {
+                int leftSize = size(node.left);
+                if (index < leftSize) {
+                    node = node.left;
+                }
+                else if (index == leftSize) {
+                    return node;
+                }
+                else {
+                    index -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        int findInsertionIndex(E o, Comparator<? super E> comparator) {
+            int index = 0;
+            Node<E> node = root;
+            while (node != null) {
+                if (comparator.compare(node.value, o) > 0) {
+                    node = node.left;
+                }
+                else {
+                    index += size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+            return index;
+        }
+
+        @Override
+        public E get(int index) {
+            return getNode(index).value;
+        }
+
+        @Override
+        public E set(int index, E element) {
+            Node<E> node = getNode(index);
+            E old = node.value;
+            node.value = element;
+            return old;
+        }
+
+        @Override
+        public void add(int index, E element) {
+            if (index < 0 || index > size(root)) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size(root));
+            }
+            Split<E> parts = split(root, index);
+            root = merge(merge(parts.left, new Node<E>(element, random.nextInt())), parts.right);
+            modCount++;
+        }
+
+        @Override
+        public E remove(int index) {
+            E old = get(index);
+            Split<E> parts = split(root, index);
+            root = merge(parts.left, split(parts.right, 1).right);
+            modCount++;
+            return old;
+        }
+
+        @Override
+        public void clear() {
+            root = null;
+            modCount++;
+        }
+
+        @Override
+        public int size() {
+            return size(root);
+        }
+    }
+
     public static void main(String[] args) {
         List<String> sortedList = new SortedList(new ArrayList(), new Comparator<String>() {
             public int compare(String o1, String o2) {
@@ -13,9 +13,12 @@ import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -156,6 +159,12 @@ import java.util.concurrent.locks.ReentrantLock;
  * <p/>
  * Because {@code SwingWorker} implements {@code Runnable}, a {@code SwingWorker} can be submitted to an {@link
  * java.util.concurrent.Executor} for execution.
+ * <p/>
+ * By default, {@link #execute()} runs the workers in a pool of at most {@link #getMaximumWorkerThreads()} threads. The
+ * waiting workers with a higher {@link #getPriority() priority} run first. A different executor service, such as the
+ * one created by {@link #createVirtualThreadExecutorService()}, can be set using {@link
+ * #setExecutorService(java.util.concurrent.ExecutorService)}. The workers can be monitored by adding a {@link
+ * SwingWorkerListener}.
  *
  * @param <T> the result type returned by this {@code SwingWorker's} {@code doInBackground} and {@code get} methods
  * @param <V> the type used for carrying out intermediate results by this {@code SwingWorker's} {@code publish} and
@@ -169,6 +178,39 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
      */
     private static final int MAX_WORKER_THREADS = 10;
 
+    private static int maximumWorkerThreads = MAX_WORKER_THREADS;
+
+    private static int maximumQueueSize = Integer.MAX_VALUE;
+
+    /**
+     * the delay between two deliveries of the {@code process} and {@code progress} notifications to the EDT.
+     */
+    private static volatile int deliveryDelay = 1000 / 30;
+
+    /**
+     * number of the workers which are queued but not started.
+     */
+    private static final AtomicInteger queueSize = new AtomicInteger();
+
+    private static final List<SwingWorkerListener> swingWorkerListeners = new CopyOnWriteArrayList<SwingWorkerListener>();
+
+    /**
+     * priority in the queue of the default executor service.
+     */
+    private volatile int priority = Thread.NORM_PRIORITY;
+
+    /**
+     * the times when this worker was queued and started, in ms. 0 if not yet.
+     */
+    private volatile long queuedTime;
+    private volatile long startedTime;
+
+    /**
+     * true once this worker is no longer counted in the queue size, so that a worker cancelled while it is starting is
+     * only removed once.
+     */
+    private final AtomicBoolean dequeued = new AtomicBoolean();
+
     /**
      * current progress.
      */
@@ -204,6 +246,8 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
 
     private static ExecutorService executorService = null;
 
+    private static ExecutorService defaultExecutorService = null;
+
     /**
      * Values for the {@code state} bound property.
      */
@@ -232,6 +276,7 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
         Callable<T> callable =
                 new Callable<T>() {
                     public T call() throws Exception {
+                        workerStarted();
                         setState(StateValue.STARTED);
                         return doInBackground();
                     }
@@ -240,6 +285,7 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
         future = new FutureTask<T>(callable) {
             @Override
             protected void done() {
+                workerFinished();
                 doneEDT();
                 setState(StateValue.DONE);
             }
@@ -453,7 +499,213 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
      * will not result in invoking the {@code doInBackground} method twice.
      */
     public final void execute() {
-        getWorkersExecutorService().execute(this);
+        ExecutorService service = getExecutorService();
+        synchronized (this) {
+            if (queuedTime != 0) {
+                // executed again, it will not run so it is not counted
+                service.execute(this);
+                return;
+            }
+            queuedTime = System.currentTimeMillis();
+        }
+        int size = queueSize.incrementAndGet();
+        try {
+            service.execute(this);
+        }
+        catch (RejectedExecutionException e) {
+            leaveQueue();
+            queuedTime = 0;
+            dequeued.set(false);
+            throw e;
+        }
+        for (SwingWorkerListener listener : swingWorkerListeners) {
+            listener.workerQueued(this, size);
+        }
+    }
+
+    /**
+     * Removes this worker from the queue size if it was queued and not removed yet.
+     *
+     * @return true if it was removed by this call.
+     */
+    private boolean leaveQueue() {
+        if (queuedTime != 0 && dequeued.compareAndSet(false, true)) {
+            queueSize.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void workerStarted() {
+        startedTime = System.currentTimeMillis();
+        long waitingTime = 0;
+        if (leaveQueue()) {
+            waitingTime = startedTime - queuedTime;
+        }
+        for (SwingWorkerListener listener : swingWorkerListeners) {
+            listener.workerStarted(this, waitingTime);
+        }
+    }
+
+    private void workerFinished() {
+        long runningTime = 0;
+        if (startedTime != 0) {
+            runningTime = System.currentTimeMillis() - startedTime;
+        }
+        // cancelled while waiting in the queue or while starting
+        leaveQueue();
+        for (SwingWorkerListener listener : swingWorkerListeners) {
+            listener.workerFinished(this, runningTime);
+        }
+    }
+
+    /**
+     * Gets the priority of this worker. The default executor service runs the waiting workers with a higher priority
+     * first. The workers with the same priority run in the order they are executed.
+     *
+     * @return the priority. By default, it is {@code Thread.NORM_PRIORITY}.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of this worker. It should be called before {@link #execute()}. The priority is not the priority
+     * of the worker thread. It only decides the order of the waiting workers in the default executor service and it is
+     * ignored by a executor service set by {@link #setExecutorService(java.util.concurrent.ExecutorService)}.
+     *
+     * @param priority the priority
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Adds a listener which is notified when any {@code SwingWorker} is queued, started or finished.
+     *
+     * @param listener the listener
+     */
+    public static void addSwingWorkerListener(SwingWorkerListener listener) {
+        swingWorkerListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added by {@link #addSwingWorkerListener(SwingWorkerListener)}.
+     *
+     * @param listener the listener
+     */
+    public static void removeSwingWorkerListener(SwingWorkerListener listener) {
+        swingWorkerListeners.remove(listener);
+    }
+
+    /**
+     * Gets the number of the {@code SwingWorker}s which are executed but not started yet.
+     *
+     * @return the queue size.
+     */
+    public static int getQueueSize() {
+        return queueSize.get();
+    }
+
+    /**
+     * Gets the executor service which runs the {@code SwingWorker}s in {@link #execute()}.
+     *
+     * @return the executor service.
+     */
+    public static synchronized ExecutorService getExecutorService() {
+        if (executorService == null) {
+            executorService = getWorkersExecutorService();
+        }
+        return executorService;
+    }
+
+    /**
+     * Sets the executor service which runs the {@code SwingWorker}s in {@link #execute()}. The executor service
+     * previously set is not shut down.
+     *
+     * @param service the executor service. Null to use the default executor service.
+     */
+    public static synchronized void setExecutorService(ExecutorService service) {
+        executorService = service;
+    }
+
+    /**
+     * Creates an executor service which runs each {@code SwingWorker} in a new virtual thread. It requires JDK 21 or
+     * above.
+     *
+     * @return the executor service. Null if the JDK doesn't support virtual threads.
+     */
+    public static ExecutorService createVirtualThreadExecutorService() {
+        try {
+            return (ExecutorService) ReflectionUtils.callStatic(Executors.class, "newVirtualThreadPerTaskExecutor", null, null);
+        }
+        catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the maximum number of threads in the default executor service.
+     *
+     * @return the maximum number of worker threads.
+     */
+    public static synchronized int getMaximumWorkerThreads() {
+        return maximumWorkerThreads;
+    }
+
+    /**
+     * Sets the maximum number of threads in the default executor service. By default, it is 10.
+     *
+     * @param maximumWorkerThreads the maximum number of worker threads
+     */
+    public static synchronized void setMaximumWorkerThreads(int maximumWorkerThreads) {
+        if (maximumWorkerThreads <= 0) {
+            throw new IllegalArgumentException("the value should be greater than 0");
+        }
+        SwingWorker.maximumWorkerThreads = maximumWorkerThreads;
+    }
+
+    /**
+     * Gets the maximum number of the waiting workers in the default executor service.
+     *
+     * @return the maximum queue size.
+     */
+    public static synchronized int getMaximumQueueSize() {
+        return maximumQueueSize;
+    }
+
+    /**
+     * Sets the maximum number of the waiting workers in the default executor service. If the queue is full, {@link
+     * #execute()} throws a {@code RejectedExecutionException}. By default, the queue is not bounded.
+     *
+     * @param maximumQueueSize the maximum queue size
+     */
+    public static synchronized void setMaximumQueueSize(int maximumQueueSize) {
+        SwingWorker.maximumQueueSize = maximumQueueSize;
+    }
+
+    /**
+     * Gets the maximum number of times per second the {@code process} method, the {@code progress} property change
+     * events and the {@code done} method are delivered to the EDT.
+     *
+     * @return the maximum delivery rate.
+     */
+    public static int getMaximumDeliveryRate() {
+        return 1000 / deliveryDelay;
+    }
+
+    /**
+     * Sets the maximum number of times per second the {@code process} method, the {@code progress} property change
+     * events and the {@code done} method are delivered to the EDT. All the deliveries from all workers between two
+     * times are run together. By default, it is 30.
+     *
+     * @param rate the maximum delivery rate
+     */
+    public static void setMaximumDeliveryRate(int rate) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("the value should be greater than 0");
+        }
+        deliveryDelay = Math.max(1000 / rate, 1);
     }
 
     // Future methods START
@@ -657,7 +909,7 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
 
 
     /**
-     * returns workersExecutorService.
+     * returns the default workersExecutorService.
      * <p/>
      * returns the service stored in the appContext or creates it if necessary. If the last one it triggers autoShutdown
      * thread to get started.
@@ -665,7 +917,7 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
      * @return ExecutorService for the {@code SwingWorkers}
      */
     private static synchronized ExecutorService getWorkersExecutorService() {
-        if (executorService == null) {
+        if (defaultExecutorService == null) {
             //this creates non-daemon threads. 
             ThreadFactory threadFactory =
                     new ThreadFactory() {
@@ -689,15 +941,15 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
                     };
 
             /*
-             * We want a to have no more than MAX_WORKER_THREADS
+             * We want a to have no more than maximumWorkerThreads
              * running threads.
              *
              * We want a worker thread to wait no longer than 1 second
              * for new tasks before terminating.
              */
-            executorService = new ThreadPoolExecutor(0, MAX_WORKER_THREADS,
+            defaultExecutorService = new ThreadPoolExecutor(0, getMaximumWorkerThreads(),
                     5L, TimeUnit.SECONDS,
-                    new LinkedBlockingQueue<Runnable>(),
+                    new PriorityBlockingQueue<Runnable>(11, new PriorityComparator()),
                     threadFactory) {
 
                 private final ReentrantLock pauseLock = new ReentrantLock();
@@ -714,7 +966,7 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
                     * fails it run task in maximumPool.
                     *
                     * We want corePool to be 0 and
-                    * maximumPool to be MAX_WORKER_THREADS
+                    * maximumPool to be maximumWorkerThreads
                     * We need to change the order of the execution.
                     * First try corePool then try maximumPool
                     * pool and only then store to the waiting
@@ -722,7 +974,7 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
                     * need access to the private methods.
                     *
                     * Instead we enlarge corePool to
-                    * MAX_WORKER_THREADS before the execution and
+                    * maximumWorkerThreads before the execution and
                     * shrink it back to 0 after.
                     * It does pretty much what we need.
                     *
@@ -734,6 +986,13 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
                     //we need atomicity for the execute method.
                     executeLock.lock();
                     try {
+                        if (getQueue().size() >= getMaximumQueueSize()) {
+                            throw new RejectedExecutionException("the SwingWorker queue is full");
+                        }
+                        int maximumWorkerThreads = getMaximumWorkerThreads();
+                        if (getMaximumPoolSize() != maximumWorkerThreads) {
+                            setMaximumPoolSize(maximumWorkerThreads);
+                        }
 
                         pauseLock.lock();
                         try {
@@ -743,8 +1002,8 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
                             pauseLock.unlock();
                         }
 
-                        setCorePoolSize(MAX_WORKER_THREADS);
-                        super.execute(command);
+                        setCorePoolSize(maximumWorkerThreads);
+                        super.execute(new PrioritizedRunnable(command));
                         setCorePoolSize(0);
 
                         pauseLock.lock();
@@ -779,13 +1038,46 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
                 }
             };
         }
-        return executorService;
+        return defaultExecutorService;
+    }
+
+    /**
+     * The task in the queue of the default executor service.
+     */
+    private static class PrioritizedRunnable implements Runnable {
+        private static final AtomicLong sequence = new AtomicLong();
+
+        private final Runnable runnable;
+        private final int priority;
+        private final long order;
+
+        PrioritizedRunnable(Runnable runnable) {
+            this.runnable = runnable;
+            this.priority = runnable instanceof SwingWorker ? ((SwingWorker) runnable).getPriority() : Thread.NORM_PRIORITY;
+            this.order = sequence.getAndIncrement();
+        }
+
+        public void run() {
+            runnable.run();
+        }
+    }
+
+    /**
+     * Orders the tasks by priority first and then in the order they are executed.
+     */
+    private static class PriorityComparator implements Comparator<Runnable> {
+        public int compare(Runnable o1, Runnable o2) {
+            PrioritizedRunnable r1 = (PrioritizedRunnable) o1;
+            PrioritizedRunnable r2 = (PrioritizedRunnable) o2;
+            if (r1.priority != r2.priority) {
+                return r1.priority > r2.priority ? -1 : 1;
+            }
+            return r1.order < r2.order ? -1 : (r1.order == r2.order ? 0 : 1);
+        }
     }
 
     private static class DoSubmitAccumulativeRunnable
             extends AccumulativeRunnable<Runnable> implements ActionListener {
-        private static final int DELAY = (int) (1000 / 30);
-
         @Override
         protected void run(List<Runnable> args) {
             for (Runnable runnable : args) {
@@ -795,7 +1087,7 @@ public abstract class SwingWorker<T, V> implements Future<T>, Runnable {
 
         @Override
         protected void submit() {
-            Timer timer = new Timer(DELAY, this);
+            Timer timer = new Timer(deliveryDelay, this);
             timer.setRepeats(false);
             timer.start();
         }
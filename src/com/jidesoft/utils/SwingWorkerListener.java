@@ -0,0 +1,42 @@
+/*
+ * @(#)SwingWorkerListener.java
+ *
+ * Copyright 2002 - 2011 JIDE Software Inc. All rights reserved.
+ */
+package com.jidesoft.utils;
+
+import java.util.EventListener;
+
+/**
+ * The listener which is notified when the {@link SwingWorker}s are queued, started and finished. It can be used to
+ * monitor the queue depth and the latency of the workers. The methods are called on the thread which executes the
+ * worker or calls {@link SwingWorker#execute()}, so they should return quickly.
+ *
+ * @see SwingWorker#addSwingWorkerListener(SwingWorkerListener)
+ */
+public interface SwingWorkerListener extends EventListener {
+
+    /**
+     * Called when the worker is submitted to the executor service.
+     *
+     * @param worker    the worker
+     * @param queueSize the number of the workers which are submitted but not started yet, including this one
+     */
+    void workerQueued(SwingWorker<?, ?> worker, int queueSize);
+
+    /**
+     * Called when the worker starts to run in background.
+     *
+     * @param worker      the worker
+     * @param waitingTime the time the worker waited in the queue, in ms
+     */
+    void workerStarted(SwingWorker<?, ?> worker, long waitingTime);
+
+    /**
+     * Called when the worker is finished or cancelled.
+     *
+     * @param worker      the worker
+     * @param runningTime the time the worker ran in background, in ms. 0 if it is cancelled before it started.
+     */
+    void workerFinished(SwingWorker<?, ?> worker, long runningTime);
+}
@@ -0,0 +1,62 @@
+package com.jidesoft.comparator;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class TestAlphanumComparator extends TestCase {
+    public void testCompare() {
+        AlphanumComparator comparator = new AlphanumComparator();
+        assertTrue(comparator.compare("a2", "a10") < 0);
+        assertTrue(comparator.compare("a10", "a1c1") > 0);
+        assertTrue(comparator.compare("1.doc", "10.doc") < 0);
+        assertTrue(comparator.compare("cc2", "cc3") < 0);
+        assertTrue(comparator.compare("B1", "a1") < 0);
+        comparator.setCaseSensitive(false);
+        assertTrue(comparator.compare("B1", "a1") > 0);
+        assertEquals(0, comparator.compare("Abc10", "aBC10"));
+    }
+
+    private static String randomString(Random random) {
+        StringBuilder buffer = new StringBuilder();
+        int length = random.nextInt(8);
+        for (int i = 0; i < length; i++) {
+            buffer.append("0129aAbB.-_ éÉ".charAt(random.nextInt(14)));
+        }
+        return buffer.toString();
+    }
+
+    private static int signum(int value) {
+        return value < 0 ? -1 : value > 0 ? 1 : 0;
+    }
+
+    public void testSortKey() {
+        Random random = new Random(0);
+        for (boolean caseSensitive : new boolean[]{true, false}) {
+            AlphanumComparator comparator = new AlphanumComparator(caseSensitive);
+            for (int i = 0; i < 20000; i++) {
+                String s1 = randomString(random);
+                String s2 = random.nextInt(4) == 0 ? s1.toUpperCase() : randomString(random);
+                assertEquals(s1 + " " + s2, signum(comparator.compare(s1, s2)), signum(comparator.getSortKey(s1).compareTo(comparator.getSortKey(s2))));
+            }
+        }
+    }
+
+    public void testSort() {
+        Random random = new Random(0);
+        String[] strings = new String[5000];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = randomString(random);
+        }
+        AlphanumComparator comparator = new AlphanumComparator(false);
+        List<String> expected = new ArrayList<String>(Arrays.asList(strings));
+        Collections.sort(expected, comparator);
+        List<String> list = new ArrayList<String>(Arrays.asList(strings));
+        comparator.sort(list);
+        assertEquals(expected, list);
+    }
+}
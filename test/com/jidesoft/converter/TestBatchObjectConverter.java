@@ -0,0 +1,98 @@
+package com.jidesoft.converter;
+
+import junit.framework.TestCase;
+
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+public class TestBatchObjectConverter extends TestCase {
+    private static void assertSameAsToString(Object values, Class<?> clazz, ConverterContext context) {
+        String[] strings = ObjectConverterManager.toStrings(values, clazz, context);
+        for (int i = 0; i < strings.length; i++) {
+            Object value = java.lang.reflect.Array.get(values, i);
+            assertEquals(ObjectConverterManager.toString(value, clazz, context), strings[i]);
+        }
+    }
+
+    public void testNumbers() {
+        assertSameAsToString(new int[]{0, 1, -12345, Integer.MAX_VALUE}, int.class, null);
+        assertSameAsToString(new Integer[]{0, null, 1234567}, Integer.class, null);
+        assertSameAsToString(new double[]{0, -0.0, 1.5, 1234567.891, Double.NaN}, double.class, null);
+        assertSameAsToString(new float[]{0, 2.25f, -1e6f}, float.class, null);
+        assertSameAsToString(new long[]{Long.MIN_VALUE, 0, 99}, long.class, null);
+        assertSameAsToString(new Object[]{1, 2.5, null, 3L}, Number.class, NumberConverter.CONTEXT_FRACTION_NUMBER);
+        assertSameAsToString(new double[]{0.1234, 12}, double.class, PercentConverter.CONTEXT);
+        assertSameAsToString(new int[]{2011, 1}, int.class, YearNameConverter.CONTEXT);
+        assertSameAsToString(new double[]{0.5, 1234.5}, double.class, new ConverterContext("Format", new DecimalFormat("0.000")));
+    }
+
+    public void testBooleans() {
+        assertSameAsToString(new boolean[]{true, false}, boolean.class, null);
+        assertSameAsToString(new Boolean[]{true, null, false}, Boolean.class, null);
+    }
+
+    public void testDates() {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+        calendar.setTimeInMillis(1234567890000L);
+        Object[] values = {new Date(0), null, calendar, new Date(1234567890000L), "text"};
+        assertSameAsToString(values, Date.class, null);
+        assertSameAsToString(values, Date.class, DateConverter.DATETIME_CONTEXT);
+        assertSameAsToString(values, Calendar.class, null);
+
+        long[] times = {0, 1234567890000L};
+        String[] strings = ObjectConverterManager.toStrings(times, Date.class, DateConverter.DATETIME_CONTEXT);
+        assertEquals(ObjectConverterManager.toString(new Date(times[1]), Date.class, DateConverter.DATETIME_CONTEXT), strings[1]);
+    }
+
+    private static class PrefixIntegerConverter extends IntegerConverter {
+        @Override
+        public String toString(Object object, ConverterContext context) {
+            return "#" + super.toString(object, context);
+        }
+    }
+
+    public void testOverriddenToString() {
+        IntegerConverter converter = new IntegerConverter();
+        assertFalse(ObjectConverterManager.isToStringOverridden(converter, NumberConverter.class));
+        assertFalse(ObjectConverterManager.isToStringOverridden(converter, NumberConverter.class));
+
+        PrefixIntegerConverter prefixConverter = new PrefixIntegerConverter();
+        assertTrue(ObjectConverterManager.isToStringOverridden(prefixConverter, NumberConverter.class));
+        // the cached result is used for another instance of the same class
+        assertTrue(ObjectConverterManager.isToStringOverridden(new PrefixIntegerConverter(), NumberConverter.class));
+
+        String[] result = new String[2];
+        prefixConverter.toStrings(new int[]{1, 2}, 0, 2, null, result, 0);
+        assertEquals(Arrays.asList("#1", "#2"), Arrays.asList(result));
+    }
+
+    public void testNonBatchConverter() {
+        assertSameAsToString(new Object[]{"a", null, 1}, String.class, null);
+        assertSameAsToString(new Object[]{new java.awt.Point(1, 2)}, java.awt.Point.class, null);
+    }
+
+    public void testRangeAndAppend() {
+        int[] values = {1, 2, 3, 4};
+        String[] result = new String[4];
+        Arrays.fill(result, "x");
+        ObjectConverterManager.toStrings(values, 1, 2, int.class, null, result, 2, false);
+        assertEquals(Arrays.asList("x", "x", "2", "3"), Arrays.asList(result));
+
+        assertEquals("1,2,3,4", ObjectConverterManager.appendStrings(values, null, null, ",", new StringBuilder()).toString());
+        assertEquals("", ObjectConverterManager.appendStrings(new int[0], null, null, ",", new StringBuilder()).toString());
+        assertEquals(Arrays.asList("1", "2"), Arrays.asList(ObjectConverterManager.toStrings(Arrays.asList(1, 2), Integer.class, null)));
+    }
+
+    public void testParallel() {
+        double[] values = new double[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 1.25 - 5000;
+        }
+        String[] sequential = ObjectConverterManager.toStrings(values, double.class, null, false);
+        String[] parallel = ObjectConverterManager.toStrings(values, double.class, null, true);
+        assertTrue(Arrays.equals(sequential, parallel));
+    }
+}
@@ -0,0 +1,120 @@
+package com.jidesoft.converter;
+
+import junit.framework.TestCase;
+
+import java.text.DateFormat;
+import java.text.DateFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TestDateConverter extends TestCase {
+    private final DateConverter _converter = new DateConverter();
+
+    public void testContexts() {
+        Date date = new Date(1234567890000L);
+        assertEquals(DateFormat.getDateInstance().format(date), _converter.toString(date, null));
+        assertEquals(DateFormat.getTimeInstance().format(date), _converter.toString(date, DateConverter.TIME_CONTEXT));
+        assertEquals(DateFormat.getDateTimeInstance().format(date), _converter.toString(date, DateConverter.DATETIME_CONTEXT));
+
+        String text = _converter.toString(date, DateConverter.DATETIME_CONTEXT);
+        assertEquals(date.getTime() / 1000, ((Date) _converter.fromString(text, DateConverter.DATETIME_CONTEXT)).getTime() / 1000);
+    }
+
+    public void testCalendarTimeZone() {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+        calendar.setTimeInMillis(0);
+        DateFormat format = DateFormat.getDateTimeInstance();
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        assertEquals(format.format(calendar.getTime()), _converter.toString(calendar, DateConverter.DATETIME_CONTEXT));
+        // the time zone of the calendar is not kept for the next date
+        Date date = new Date(0);
+        assertEquals(DateFormat.getDateTimeInstance().format(date), _converter.toString(date, DateConverter.DATETIME_CONTEXT));
+    }
+
+    public void testUserObject() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy/MM/dd");
+        ConverterContext context = new ConverterContext("Test", format);
+        Date date = new Date(0);
+        assertEquals(format.format(date), _converter.toString(date, context));
+        // the changes to the user object are used
+        format.applyPattern("dd.MM.yyyy");
+        assertEquals(format.format(date), _converter.toString(date, context));
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        assertEquals("01.01.1970", _converter.toString(date, context));
+
+        // the settings which don't change the pattern are used too
+        format.applyPattern("dd MMM yy");
+        format.setDateFormatSymbols(new DateFormatSymbols(Locale.FRENCH));
+        assertEquals("01 janv. 70", _converter.toString(date, context));
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+        calendar.set(1900, Calendar.JANUARY, 1);
+        format.set2DigitYearStart(calendar.getTime());
+        Date parsed = (Date) _converter.fromString("01 janv. 70", context);
+        calendar.setTime(parsed);
+        assertEquals(1970, calendar.get(Calendar.YEAR));
+        calendar.set(1800, Calendar.JANUARY, 1);
+        format.set2DigitYearStart(calendar.getTime());
+        calendar.setTime((Date) _converter.fromString("01 janv. 70", context));
+        assertEquals(1870, calendar.get(Calendar.YEAR));
+    }
+
+    public void testDefaultFormatChanged() {
+        Date date = new Date(0);
+        SimpleDateFormat format = (SimpleDateFormat) _converter.getDefaultFormat();
+        format.applyPattern("dd MMM yyyy");
+        format.setDateFormatSymbols(new DateFormatSymbols(Locale.FRENCH));
+        String expected = format.format(date);
+        assertEquals(expected, _converter.toString(date, null));
+        String[] result = new String[1];
+        _converter.toStrings(new Object[]{date}, 0, 1, null, result, 0);
+        assertEquals(expected, result[0]);
+        assertEquals(expected, format.format(_converter.fromString(expected, null)));
+    }
+
+    public void testConcurrent() throws Exception {
+        final Date[] dates = new Date[200];
+        final String[] expected = new String[dates.length];
+        DateFormat format = DateFormat.getDateTimeInstance();
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = new Date(i * 86400000L * 37 + i * 3600000L);
+            expected[i] = format.format(dates[i]);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    public Boolean call() throws Exception {
+                        for (int n = 0; n < 50; n++) {
+                            for (int i = 0; i < dates.length; i++) {
+                                String text = _converter.toString(dates[i], DateConverter.DATETIME_CONTEXT);
+                                if (!expected[i].equals(text)) {
+                                    return false;
+                                }
+                                if (!dates[i].equals(_converter.fromString(text, DateConverter.DATETIME_CONTEXT))) {
+                                    return false;
+                                }
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.jidesoft.grouper;
+
+import com.jidesoft.grouper.date.DateMonthGrouper;
+import com.jidesoft.grouper.date.DateYearGrouper;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+
+public class TestObjectGrouperManager extends TestCase {
+    private static final GrouperContext CONTEXT = new GrouperContext("Test");
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ObjectGrouperManager.registerGrouper(Object.class, new DefaultObjectGrouper(), CONTEXT);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        ObjectGrouperManager.unregisterGrouper(Object.class, CONTEXT);
+        super.tearDown();
+    }
+
+    public void testGroupValues() {
+        String[] values = {"b", "a", "b", null, "c", "a"};
+        GroupedValues groupedValues = ObjectGrouperManager.getGroupValues(values, String.class, CONTEXT);
+        assertEquals(4, groupedValues.getGroupCount());
+        assertTrue(Arrays.equals(new int[]{0, 1, 0, 2, 3, 1}, groupedValues.getGroupIds()));
+        assertEquals(Arrays.asList("b", "a", null, "c"), Arrays.asList(groupedValues.getGroups()));
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(ObjectGrouperManager.getGroupValue(values[i], String.class, CONTEXT), groupedValues.getGroup(i));
+        }
+
+        groupedValues = ObjectGrouperManager.getGroupValues(new int[]{3, 3, 1}, null, CONTEXT);
+        assertTrue(Arrays.equals(new int[]{0, 0, 1}, groupedValues.getGroupIds()));
+        assertEquals(Arrays.asList((Object) 3, 1), Arrays.asList(groupedValues.getGroups()));
+
+        // no grouper is registered for String with the default context
+        assertEquals(1, ObjectGrouperManager.getGroupValues(values, String.class, null).getGroupCount());
+    }
+
+    public void testDateGroupValues() {
+        Calendar calendar = Calendar.getInstance();
+        Date[] dates = new Date[1000];
+        Random random = new Random(0);
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = new Date((long) (random.nextDouble() * 2000000000000L));
+        }
+        GroupedValues years = ObjectGrouperManager.getGroupValues(dates, Date.class, DateYearGrouper.CONTEXT);
+        GroupedValues months = ObjectGrouperManager.getGroupValues(Arrays.asList(dates), Date.class, DateMonthGrouper.CONTEXT);
+        assertEquals(12, months.getGroupCount());
+        for (int i = 0; i < dates.length; i++) {
+            calendar.setTime(dates[i]);
+            assertEquals(calendar.get(Calendar.YEAR), years.getGroup(i));
+            assertEquals(calendar.get(Calendar.MONTH), months.getGroup(i));
+        }
+    }
+
+    public void testParallel() {
+        Long[] times = new Long[100000];
+        Random random = new Random(1);
+        for (int i = 0; i < times.length; i++) {
+            times[i] = (long) (random.nextDouble() * 2000000000000L);
+        }
+        GroupedValues sequential = ObjectGrouperManager.getGroupValues(times, Long.class, DateYearGrouper.CONTEXT, false);
+        GroupedValues parallel = ObjectGrouperManager.getGroupValues(times, Long.class, DateYearGrouper.CONTEXT, true);
+        assertTrue(Arrays.equals(sequential.getGroupIds(), parallel.getGroupIds()));
+        assertTrue(Arrays.equals(sequential.getGroups(), parallel.getGroups()));
+    }
+}
@@ -0,0 +1,113 @@
+package com.jidesoft.grouper.date;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TestDateGrouper extends TestCase {
+    private static final int[] FIELDS = {Calendar.YEAR, Calendar.MONTH, Calendar.DAY_OF_MONTH, Calendar.DAY_OF_YEAR,
+            Calendar.DAY_OF_WEEK, Calendar.DAY_OF_WEEK_IN_MONTH, Calendar.WEEK_OF_YEAR, Calendar.WEEK_OF_MONTH,
+            Calendar.HOUR_OF_DAY, Calendar.ERA};
+
+    private TimeZone _timeZone;
+    private int _firstDayOfWeek;
+    private int _minimalDaysInFirstWeek;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        Calendar calendar = DateGrouper.getCalendarInstance();
+        _timeZone = calendar.getTimeZone();
+        _firstDayOfWeek = calendar.getFirstDayOfWeek();
+        _minimalDaysInFirstWeek = calendar.getMinimalDaysInFirstWeek();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Calendar calendar = DateGrouper.getCalendarInstance();
+        calendar.setTimeZone(_timeZone);
+        calendar.setFirstDayOfWeek(_firstDayOfWeek);
+        calendar.setMinimalDaysInFirstWeek(_minimalDaysInFirstWeek);
+        super.tearDown();
+    }
+
+    private static void assertSameAsCalendar(long millis) {
+        Calendar calendar = (Calendar) DateGrouper.getCalendarInstance().clone();
+        calendar.setTimeInMillis(millis);
+        for (int field : FIELDS) {
+            assertEquals("field " + field + " of " + calendar.getTime(), calendar.get(field), DateGrouper.getCalendarFieldAsInt(millis, field));
+            assertEquals(calendar.get(field), DateGrouper.getCalendarField(new Date(millis), field));
+        }
+    }
+
+    public void testFields() {
+        String[] timeZones = {"GMT", "America/New_York", "Europe/Berlin", "Australia/Lord_Howe", "Asia/Kolkata", "Pacific/Apia"};
+        Random random = new Random(0);
+        for (String id : timeZones) {
+            Calendar calendar = DateGrouper.getCalendarInstance();
+            calendar.setTimeZone(TimeZone.getTimeZone(id));
+            for (int firstDayOfWeek = Calendar.SUNDAY; firstDayOfWeek <= Calendar.SATURDAY; firstDayOfWeek += 3) {
+                for (int minimalDays = 1; minimalDays <= 7; minimalDays += 3) {
+                    calendar.setFirstDayOfWeek(firstDayOfWeek);
+                    calendar.setMinimalDaysInFirstWeek(minimalDays);
+                    for (int i = 0; i < 2000; i++) {
+                        // from year 1500 to year 2500
+                        assertSameAsCalendar(-14831769600000L + (long) (random.nextDouble() * 31556952000000L));
+                    }
+                    for (int day = -3; day <= 3; day++) {
+                        // around new year
+                        assertSameAsCalendar(1293840000000L + day * 86400000L);
+                        assertSameAsCalendar(1262304000000L + day * 86400000L);
+                    }
+                }
+            }
+        }
+        assertNull(DateGrouper.getCalendarField(null, Calendar.YEAR));
+    }
+
+    public void testConcurrent() throws Exception {
+        final long[] times = new long[5000];
+        final int[] expected = new int[times.length];
+        Calendar calendar = (Calendar) DateGrouper.getCalendarInstance().clone();
+        Random random = new Random(1);
+        for (int i = 0; i < times.length; i++) {
+            times[i] = (long) (random.nextDouble() * 2000000000000L);
+            calendar.setTimeInMillis(times[i]);
+            expected[i] = calendar.get(Calendar.WEEK_OF_YEAR);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    public Boolean call() throws Exception {
+                        DateWeekOfYearGrouper grouper = new DateWeekOfYearGrouper();
+                        for (int n = 0; n < 20; n++) {
+                            for (int i = 0; i < times.length; i++) {
+                                if (!Integer.valueOf(expected[i]).equals(grouper.getValue(times[i]))) {
+                                    return false;
+                                }
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.jidesoft.hints;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+public class TestFileIntelliHints extends TestCase {
+    private File _folder;
+    private File _otherFolder;
+    private FileIntelliHints _hints;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        _folder = createFolder();
+        _otherFolder = createFolder();
+        createFile(_folder, "apple");
+        createFile(_folder, "Banana");
+        createFile(_folder, "berry");
+        createFile(_otherFolder, "bean");
+        _hints = runOnEdt(new Callable<FileIntelliHints>() {
+            public FileIntelliHints call() throws Exception {
+                FileIntelliHints hints = new FileIntelliHints(new JTextField());
+                // the list is created when the popup is shown for the first time
+                hints.createHintsComponent();
+                return hints;
+            }
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        delete(_folder);
+        delete(_otherFolder);
+        super.tearDown();
+    }
+
+    private static File createFolder() throws IOException {
+        File folder = File.createTempFile("hints", "");
+        assertTrue(folder.delete());
+        assertTrue(folder.mkdir());
+        return folder;
+    }
+
+    private static void createFile(File folder, String name) throws IOException {
+        assertTrue(new File(folder, name).createNewFile());
+    }
+
+    private static void delete(File folder) {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    private static <T> T runOnEdt(Callable<T> callable) throws Exception {
+        FutureTask<T> task = new FutureTask<T>(callable);
+        SwingUtilities.invokeAndWait(task);
+        return task.get();
+    }
+
+    private static String getPath(File folder) {
+        return folder.getPath() + File.separator;
+    }
+
+    private boolean updateHints(final String text) throws Exception {
+        return runOnEdt(new Callable<Boolean>() {
+            public Boolean call() throws Exception {
+                return _hints.updateHints(text);
+            }
+        });
+    }
+
+    private FileIntelliHints.DirectoryListing getListing(final File folder) throws Exception {
+        return runOnEdt(new Callable<FileIntelliHints.DirectoryListing>() {
+            public FileIntelliHints.DirectoryListing call() throws Exception {
+                return _hints.getListing(getPath(folder));
+            }
+        });
+    }
+
+    /**
+     * Updates the hints and waits for the folder to be listed in background if it is not listed yet.
+     */
+    private FileIntelliHints.DirectoryListing list(File folder, String prefix) throws Exception {
+        if (!updateHints(getPath(folder) + prefix)) {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (getListing(folder) == null) {
+                assertTrue("the folder isn't listed", System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+        }
+        return getListing(folder);
+    }
+
+    private String[] getHints() throws Exception {
+        return runOnEdt(new Callable<String[]>() {
+            public String[] call() throws Exception {
+                ListModel model = _hints.getList().getModel();
+                String[] hints = new String[model.getSize()];
+                for (int i = 0; i < hints.length; i++) {
+                    hints[i] = (String) model.getElementAt(i);
+                }
+                return hints;
+            }
+        });
+    }
+
+    public void testListingReused() throws Exception {
+        assertNull(getListing(_folder));
+        FileIntelliHints.DirectoryListing listing = list(_folder, "b");
+        assertNotNull(listing);
+
+        // typing more characters in the same folder only filters the listing
+        assertTrue(updateHints(getPath(_folder) + "b"));
+        assertEquals(Arrays.asList("Banana", "berry"), Arrays.asList(getHints()));
+        assertTrue(updateHints(getPath(_folder) + "be"));
+        assertEquals(Arrays.asList("berry"), Arrays.asList(getHints()));
+        assertTrue(updateHints(getPath(_folder)));
+        assertEquals(Arrays.asList("apple", "Banana", "berry"), Arrays.asList(getHints()));
+        assertFalse(updateHints(getPath(_folder) + "c"));
+        assertSame(listing, getListing(_folder));
+    }
+
+    public void testOtherFolder() throws Exception {
+        FileIntelliHints.DirectoryListing listing = list(_folder, "b");
+        FileIntelliHints.DirectoryListing otherListing = list(_otherFolder, "b");
+        assertNotSame(listing, otherListing);
+        assertTrue(updateHints(getPath(_otherFolder) + "b"));
+        assertEquals(Arrays.asList("bean"), Arrays.asList(getHints()));
+
+        // the listing of the first folder is still cached
+        assertSame(listing, getListing(_folder));
+        assertTrue(updateHints(getPath(_folder) + "b"));
+        assertEquals(Arrays.asList("Banana", "berry"), Arrays.asList(getHints()));
+    }
+
+    public void testFolderModified() throws Exception {
+        FileIntelliHints.DirectoryListing listing = list(_folder, "b");
+        long lastModified = _folder.lastModified();
+        createFile(_folder, "blueberry");
+        // the modified time of the folder may not change within the precision of the file system
+        assertTrue(_folder.setLastModified(lastModified + 2000));
+        assertNull(getListing(_folder));
+
+        FileIntelliHints.DirectoryListing newListing = list(_folder, "b");
+        assertNotSame(listing, newListing);
+        assertTrue(updateHints(getPath(_folder) + "b"));
+        assertEquals(Arrays.asList("Banana", "berry", "blueberry"), Arrays.asList(getHints()));
+        assertSame(newListing, getListing(_folder));
+    }
+
+    public void testFolderOnly() throws Exception {
+        assertTrue(new File(_folder, "bin").mkdir());
+        list(_folder, "b");
+        assertTrue(updateHints(getPath(_folder) + "b"));
+        assertEquals(Arrays.asList("Banana", "berry", "bin"), Arrays.asList(getHints()));
+
+        // the listing with the files isn't used for the folders only
+        _hints.setFolderOnly(true);
+        assertNull(getListing(_folder));
+        list(_folder, "b");
+        assertTrue(updateHints(getPath(_folder) + "b"));
+        assertEquals(Arrays.asList("bin"), Arrays.asList(getHints()));
+    }
+}
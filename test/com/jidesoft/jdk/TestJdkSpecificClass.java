@@ -0,0 +1,18 @@
+package com.jidesoft.jdk;
+
+import junit.framework.TestCase;
+
+public class TestJdkSpecificClass extends TestCase {
+    private static class Caller {
+        static Class<?> getCaller(int depth) {
+            return JdkSpecificClass.getCallerClass(depth);
+        }
+    }
+
+    public void testGetCallerClass() {
+        assertEquals(TestJdkSpecificClass.class, JdkSpecificClass.getCallerClass(0));
+        assertEquals(Caller.class, Caller.getCaller(0));
+        assertEquals(TestJdkSpecificClass.class, Caller.getCaller(1));
+        assertNull(JdkSpecificClass.getCallerClass(10000));
+    }
+}
@@ -0,0 +1,120 @@
+package com.jidesoft.plaf.basic;
+
+import com.jidesoft.swing.FolderChooser;
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeNode;
+import javax.swing.tree.TreePath;
+import java.io.File;
+
+public class TestBasicFolderChooser extends TestCase {
+    private File _folder;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        _folder = File.createTempFile("folderChooser", "");
+        assertTrue(_folder.delete());
+        assertTrue(new File(_folder, "a").mkdirs());
+        assertTrue(new File(_folder, "b").mkdirs());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        new File(_folder, "a").delete();
+        new File(_folder, "b").delete();
+        _folder.delete();
+        super.tearDown();
+    }
+
+    public void testSelectLoadingNode() throws Exception {
+        final FolderChooser chooser = new FolderChooser();
+        chooser.setBackgroundLoading(true);
+        final JTree tree = ((BasicFolderChooserUI) chooser.getUI())._fileSystemTree;
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                // the background loading can't insert the sub-folders or remove the loading node until this returns
+                BasicFileSystemTreeNode root = BasicFileSystemTreeNode.createFileSystemTreeNode(_folder, chooser);
+                tree.setModel(new DefaultTreeModel(root));
+                TreePath rootPath = new TreePath(root);
+                tree.expandPath(rootPath);
+                assertEquals(1, root.getChildCount());
+                TreeNode loadingNode = root.getChildAt(0);
+                assertFalse(loadingNode instanceof BasicFileSystemTreeNode);
+                TreePath loadingPath = rootPath.pathByAddingChild(loadingNode);
+
+                tree.setSelectionPath(loadingPath);
+                assertTrue(tree.isSelectionEmpty());
+
+                tree.setSelectionPath(rootPath);
+                tree.setSelectionPath(loadingPath);
+                assertEquals(rootPath, tree.getSelectionPath());
+                tree.addSelectionPath(loadingPath);
+                assertEquals(1, tree.getSelectionCount());
+                tree.setSelectionPaths(new TreePath[]{loadingPath, rootPath});
+                assertEquals(rootPath, tree.getSelectionPath());
+
+                ((BasicFolderChooserUI) chooser.getUI()).getApproveSelectionAction().actionPerformed(null);
+                assertEquals(_folder, chooser.getSelectedFile());
+                assertEquals(_folder, chooser.getSelectedFolder());
+
+                tree.clearSelection();
+                assertTrue(tree.isSelectionEmpty());
+            }
+        });
+    }
+
+    public void testNodesInTreeAreNotEvicted() {
+        BasicFileSystemTreeNode.clearCache();
+        BasicFileSystemTreeNode parent = BasicFileSystemTreeNode.createFileSystemTreeNode(_folder, null);
+        BasicFileSystemTreeNode child = BasicFileSystemTreeNode.createFileSystemTreeNode(new File(_folder, "a"), null);
+        parent.add(child);
+        BasicFileSystemTreeNode detached = BasicFileSystemTreeNode.createFileSystemTreeNode(new File(_folder, "b"), null);
+        for (int i = 0; i < BasicFileSystemTreeNode.MAX_CACHED_NODES * 2; i++) {
+            BasicFileSystemTreeNode.createFileSystemTreeNode(new File(_folder, "c" + i), null);
+        }
+        assertTrue(BasicFileSystemTreeNode._nodes.size() <= BasicFileSystemTreeNode.MAX_CACHED_NODES);
+        assertSame(child, BasicFileSystemTreeNode.createFileSystemTreeNode(new File(_folder, "a"), null));
+        assertNotSame(detached, BasicFileSystemTreeNode.createFileSystemTreeNode(new File(_folder, "b"), null));
+        BasicFileSystemTreeNode.clearCache();
+    }
+
+    public void testReloadModifiedFolder() throws Exception {
+        BasicFileSystemTreeNode.clearCache();
+        final FolderChooser chooser = new FolderChooser();
+        final JTree tree = ((BasicFolderChooserUI) chooser.getUI())._fileSystemTree;
+        final File newFolder = new File(_folder, "c");
+        try {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                public void run() {
+                    BasicFileSystemTreeNode root = BasicFileSystemTreeNode.createFileSystemTreeNode(_folder, chooser);
+                    DefaultTreeModel model = new DefaultTreeModel(root);
+                    tree.setModel(model);
+                    TreePath rootPath = new TreePath(root);
+                    tree.expandPath(rootPath);
+                    assertEquals(2, root.getChildCount());
+                    TreeNode a = root.getChildAt(0);
+                    tree.collapsePath(rootPath);
+
+                    assertTrue(newFolder.mkdir());
+                    // the modification time could have the resolution of a second
+                    assertTrue(_folder.setLastModified(_folder.lastModified() - 10000));
+
+                    // the cached node is reused instead of a new one
+                    assertSame(root, BasicFileSystemTreeNode.createFileSystemTreeNode(_folder, chooser));
+                    tree.expandPath(rootPath);
+                    assertSame(root, model.getRoot());
+                    assertTrue(tree.isExpanded(rootPath));
+                    assertEquals(3, root.getChildCount());
+                    assertSame(a, root.getChildAt(0));
+                    assertFalse(root.isModified());
+                }
+            });
+        }
+        finally {
+            newFolder.delete();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.jidesoft.plaf.basic;
+
+import com.jidesoft.swing.JideTabbedPane;
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestBasicJideTabbedPaneUI extends TestCase {
+    private RecordingTabbedPane _tabbedPane;
+    private RecordingUI _ui;
+
+    /**
+     * A UI which records the painted tabs.
+     */
+    private static class RecordingUI extends BasicJideTabbedPaneUI {
+        private final List<Integer> _paintedTabs = new ArrayList<Integer>();
+
+        @Override
+        protected void paintTab(Graphics g, int tabPlacement, Rectangle[] rects, int tabIndex, Rectangle iconRect, Rectangle textRect) {
+            _paintedTabs.add(tabIndex);
+            super.paintTab(g, tabPlacement, rects, tabIndex, iconRect, textRect);
+        }
+    }
+
+    /**
+     * A tabbed pane which records the repainted areas.
+     */
+    private static class RecordingTabbedPane extends JideTabbedPane {
+        private static final long serialVersionUID = 2722539541587400637L;
+        private final List<Rectangle> _repaintedRects = new ArrayList<Rectangle>();
+
+        @Override
+        public void updateUI() {
+            // the drop target can't be created in a headless environment
+            setDragOverDisabled(true);
+            super.updateUI();
+        }
+
+        @Override
+        public void repaint(long tm, int x, int y, int width, int height) {
+            if (_repaintedRects != null) {
+                _repaintedRects.add(new Rectangle(x, y, width, height));
+            }
+            super.repaint(tm, x, y, width, height);
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        _tabbedPane = new RecordingTabbedPane();
+        _ui = new RecordingUI();
+        _tabbedPane.setUI(_ui);
+        _tabbedPane.setFont(new Font("Dialog", Font.PLAIN, 12));
+    }
+
+    private static String elideOneCharAtATime(FontMetrics metrics, String title, int width) {
+        String actualText = title;
+        while (SwingUtilities.computeStringWidth(metrics, actualText) > width) {
+            actualText = actualText.substring(0, actualText.length() - 1);
+        }
+        if (!actualText.equals(title)) {
+            if (actualText.length() >= 2)
+                actualText = actualText.substring(0, actualText.length() - 2) + "..";
+            else
+                actualText = "";
+        }
+        return actualText;
+    }
+
+    public void testElidedTitle() {
+        FontMetrics metrics = _tabbedPane.getFontMetrics(_tabbedPane.getFont());
+        List<String> titles = new ArrayList<String>();
+        titles.add("");
+        titles.add("a");
+        titles.add("ab");
+        titles.add("Tab");
+        titles.add("A long tab title");
+        titles.add("WWWWWWWWiiiiiiii");
+        Random random = new Random(0);
+        for (int i = 0; i < 20; i++) {
+            StringBuilder title = new StringBuilder();
+            int length = random.nextInt(30);
+            for (int j = 0; j < length; j++) {
+                title.append("aiWm .Xl".charAt(random.nextInt(8)));
+            }
+            titles.add(title.toString());
+        }
+        for (String title : titles) {
+            int width = SwingUtilities.computeStringWidth(metrics, title);
+            assertEquals(width, _ui.getTitleWidth(metrics, title));
+            for (int availableWidth = 0; availableWidth <= width + 5; availableWidth++) {
+                assertEquals(title + " in " + availableWidth, elideOneCharAtATime(metrics, title, availableWidth), _ui.getElidedTitle(metrics, title, availableWidth));
+            }
+            // the cached elided title for a width used before
+            assertEquals(elideOneCharAtATime(metrics, title, width / 2), _ui.getElidedTitle(metrics, title, width / 2));
+        }
+        assertNull(_ui.getElidedTitle(metrics, null, 10));
+        assertEquals(0, _ui.getTitleWidth(metrics, null));
+    }
+
+    public void testElidedTitleCache() {
+        String title = "A long tab title";
+        _tabbedPane.addTab(title, new JPanel());
+        FontMetrics metrics = _tabbedPane.getFontMetrics(_tabbedPane.getFont());
+        int availableWidth = SwingUtilities.computeStringWidth(metrics, title) / 2;
+        String elidedTitle = _ui.getElidedTitle(metrics, title, availableWidth);
+        assertTrue(elidedTitle.endsWith(".."));
+        assertSame(elidedTitle, _ui.getElidedTitle(metrics, title, availableWidth));
+
+        // a title change drops the cache
+        _tabbedPane.setTitleAt(0, "Another title");
+        String newElidedTitle = _ui.getElidedTitle(metrics, title, availableWidth);
+        assertNotSame(elidedTitle, newElidedTitle);
+        assertEquals(elidedTitle, newElidedTitle);
+        assertSame(newElidedTitle, _ui.getElidedTitle(metrics, title, availableWidth));
+
+        // a font change drops the cache
+        _tabbedPane.setFont(new Font("Dialog", Font.PLAIN, 20));
+        assertNotSame(newElidedTitle, _ui.getElidedTitle(metrics, title, availableWidth));
+        assertEquals(newElidedTitle, _ui.getElidedTitle(metrics, title, availableWidth));
+        FontMetrics largeMetrics = _tabbedPane.getFontMetrics(_tabbedPane.getFont());
+        assertEquals(SwingUtilities.computeStringWidth(largeMetrics, title), _ui.getTitleWidth(largeMetrics, title));
+        assertEquals(elideOneCharAtATime(largeMetrics, title, availableWidth), _ui.getElidedTitle(largeMetrics, title, availableWidth));
+    }
+
+    /**
+     * Lays out the container and its children. Validating doesn't lay out a container which isn't displayable.
+     */
+    private static void layoutContainer(Container container) {
+        container.doLayout();
+        for (Component child : container.getComponents()) {
+            if (child instanceof Container) {
+                layoutContainer((Container) child);
+            }
+        }
+    }
+
+    private static void runOnEdt(Runnable runnable) throws Exception {
+        try {
+            SwingUtilities.invokeAndWait(runnable);
+        }
+        catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void createScrollingTabs(ComponentOrientation orientation, int tabPlacement) {
+        _tabbedPane.setTabLayoutPolicy(JTabbedPane.SCROLL_TAB_LAYOUT);
+        _tabbedPane.setTabPlacement(tabPlacement);
+        _tabbedPane.setComponentOrientation(orientation);
+        for (int i = 0; i < 30; i++) {
+            _tabbedPane.addTab("Tab " + i, new JPanel());
+        }
+        _tabbedPane.setSize(300, 300);
+        layoutContainer(_tabbedPane);
+    }
+
+    private void scrollTabs(int tabPlacement) {
+        for (int i = 0; i < 5; i++) {
+            _ui._tabScroller.scrollForward(tabPlacement);
+        }
+        layoutContainer(_tabbedPane);
+    }
+
+    private void assertScrollingTabs(final ComponentOrientation orientation, final int tabPlacement, final boolean repaintsWholeTabbedPane) throws Exception {
+        runOnEdt(new Runnable() {
+            public void run() {
+                createScrollingTabs(orientation, tabPlacement);
+            }
+        });
+        // the selected tab is made visible later on the event dispatch thread, so the tabs are scrolled after that
+        runOnEdt(new Runnable() {
+            public void run() {
+                scrollTabs(tabPlacement);
+                assertPaintedFully();
+                assertRepaintTab(repaintsWholeTabbedPane);
+            }
+        });
+    }
+
+    private BufferedImage paintTabPanel(Rectangle clip) {
+        JComponent tabPanel = _ui._tabScroller.tabPanel;
+        BufferedImage image = new BufferedImage(tabPanel.getWidth(), tabPanel.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setClip(clip);
+        _ui._paintedTabs.clear();
+        _ui._tabScroller.tabPanel.paintComponent(g);
+        g.dispose();
+        return image;
+    }
+
+    private void assertPaintedFully() {
+        JComponent tabPanel = _ui._tabScroller.tabPanel;
+        Rectangle visibleRect = _ui._tabScroller.viewport.getViewRect();
+        assertTrue(visibleRect.x > 0 || visibleRect.y > 0);
+
+        BufferedImage all = paintTabPanel(new Rectangle(0, 0, tabPanel.getWidth(), tabPanel.getHeight()));
+        assertEquals(_tabbedPane.getTabCount(), _ui._paintedTabs.size());
+        BufferedImage visible = paintTabPanel(visibleRect);
+        for (int x = visibleRect.x; x < visibleRect.x + visibleRect.width; x++) {
+            for (int y = visibleRect.y; y < visibleRect.y + visibleRect.height; y++) {
+                assertEquals("(" + x + ", " + y + ")", all.getRGB(x, y), visible.getRGB(x, y));
+            }
+        }
+
+        // only the tabs shown in the viewport are painted
+        Rectangle viewportBounds = _ui._tabScroller.viewport.getBounds();
+        List<Integer> shownTabs = new ArrayList<Integer>();
+        for (int i = 0; i < _tabbedPane.getTabCount(); i++) {
+            Rectangle rect = SwingUtilities.convertRectangle(tabPanel, _ui._rects[i], _tabbedPane);
+            if (rect.intersects(viewportBounds)) {
+                shownTabs.add(i);
+            }
+        }
+        assertTrue(shownTabs.size() > 0);
+        assertTrue(shownTabs.size() < _tabbedPane.getTabCount());
+        assertTrue(_ui._paintedTabs.containsAll(shownTabs));
+        assertTrue(shownTabs.containsAll(_ui._paintedTabs));
+    }
+
+    private int getShownTab() {
+        Rectangle viewportBounds = _ui._tabScroller.viewport.getBounds();
+        return _ui.tabForCoordinate(_tabbedPane, viewportBounds.x + viewportBounds.width / 2, viewportBounds.y + viewportBounds.height / 2);
+    }
+
+    private void assertRepaintTab(boolean wholeTabbedPane) {
+        int tabIndex = getShownTab();
+        assertTrue(tabIndex >= 0);
+        _tabbedPane._repaintedRects.clear();
+        _ui.repaintTab(tabIndex);
+        assertEquals(1, _tabbedPane._repaintedRects.size());
+        Rectangle repaintedRect = _tabbedPane._repaintedRects.get(0);
+        if (wholeTabbedPane) {
+            assertEquals(new Rectangle(0, 0, _tabbedPane.getWidth(), _tabbedPane.getHeight()), repaintedRect);
+        }
+        else {
+            Rectangle rect = SwingUtilities.convertRectangle(_ui._tabScroller.tabPanel, _ui._rects[tabIndex], _tabbedPane);
+            assertEquals(new Rectangle(rect.x - 2, rect.y - 2, rect.width + 4, rect.height + 4), repaintedRect);
+        }
+
+        _tabbedPane._repaintedRects.clear();
+        _ui.repaintTab(-1);
+        assertEquals(0, _tabbedPane._repaintedRects.size());
+    }
+
+    public void testPaintLeftToRight() throws Exception {
+        assertScrollingTabs(ComponentOrientation.LEFT_TO_RIGHT, JTabbedPane.TOP, false);
+    }
+
+    public void testPaintRightToLeft() throws Exception {
+        assertScrollingTabs(ComponentOrientation.RIGHT_TO_LEFT, JTabbedPane.TOP, true);
+    }
+
+    public void testPaintRightToLeftVertical() throws Exception {
+        assertScrollingTabs(ComponentOrientation.RIGHT_TO_LEFT, JTabbedPane.LEFT, false);
+    }
+}
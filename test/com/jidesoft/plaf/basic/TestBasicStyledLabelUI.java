@@ -0,0 +1,175 @@
+package com.jidesoft.plaf.basic;
+
+import com.jidesoft.swing.StyleRange;
+import com.jidesoft.swing.StyledLabel;
+import junit.framework.TestCase;
+
+import java.awt.*;
+
+public class TestBasicStyledLabelUI extends TestCase {
+    private BasicStyledLabelUI _ui;
+
+    /**
+     * A font metrics which counts the calls to measure a string.
+     */
+    private static class CountingFontMetrics extends FontMetrics {
+        private static final long serialVersionUID = -2290958151398622178L;
+        private final FontMetrics _delegate;
+        private int _count;
+
+        CountingFontMetrics(FontMetrics delegate) {
+            super(delegate.getFont());
+            _delegate = delegate;
+        }
+
+        @Override
+        public int stringWidth(String str) {
+            _count++;
+            return _delegate.stringWidth(str);
+        }
+
+        @Override
+        public int charWidth(char ch) {
+            return _delegate.charWidth(ch);
+        }
+
+        @Override
+        public int getAscent() {
+            return _delegate.getAscent();
+        }
+
+        @Override
+        public int getDescent() {
+            return _delegate.getDescent();
+        }
+
+        @Override
+        public int getLeading() {
+            return _delegate.getLeading();
+        }
+
+        @Override
+        public int[] getWidths() {
+            return _delegate.getWidths();
+        }
+    }
+
+    /**
+     * A StyledLabel which measures the text using the counting font metrics.
+     */
+    private static class CountingLabel extends StyledLabel {
+        private static final long serialVersionUID = 6119245226426342306L;
+        private CountingFontMetrics _fontMetrics;
+
+        CountingLabel(String text) {
+            super(text);
+        }
+
+        @Override
+        public FontMetrics getFontMetrics(Font font) {
+            FontMetrics fontMetrics = super.getFontMetrics(font);
+            if (_fontMetrics == null || !_fontMetrics.getFont().equals(font)) {
+                _fontMetrics = new CountingFontMetrics(fontMetrics);
+            }
+            return _fontMetrics;
+        }
+
+        int getCount() {
+            return _fontMetrics == null ? 0 : _fontMetrics._count;
+        }
+
+        void resetCount() {
+            if (_fontMetrics != null) {
+                _fontMetrics._count = 0;
+            }
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        _ui = new BasicStyledLabelUI();
+    }
+
+    private CountingLabel createLabel(String text) {
+        CountingLabel label = new CountingLabel(text);
+        label.setFont(new Font("Dialog", Font.PLAIN, 12));
+        label.setUI(_ui);
+        return label;
+    }
+
+    public void testLayoutInvalidated() {
+        StyledLabel label = createLabel("Hello World");
+        BasicStyledLabelUI.StyledTextLayout layout = _ui.getStyledTextLayout(label);
+        assertSame(layout, _ui.getStyledTextLayout(label));
+        Dimension size = label.getPreferredSize();
+
+        label.setText("Hello World, again");
+        BasicStyledLabelUI.StyledTextLayout textLayout = _ui.getStyledTextLayout(label);
+        assertNotSame(layout, textLayout);
+        assertTrue(label.getPreferredSize().width > size.width);
+
+        label.addStyleRange(new StyleRange(0, 5, Font.BOLD));
+        BasicStyledLabelUI.StyledTextLayout styleLayout = _ui.getStyledTextLayout(label);
+        assertNotSame(textLayout, styleLayout);
+        assertEquals(Font.BOLD, styleLayout.getStyledTexts().get(0).font.getStyle());
+
+        label.setFont(new Font("Dialog", Font.PLAIN, 20));
+        BasicStyledLabelUI.StyledTextLayout fontLayout = _ui.getStyledTextLayout(label);
+        assertNotSame(styleLayout, fontLayout);
+        assertEquals(20, fontLayout.getFontMetrics().getFont().getSize());
+        assertTrue(label.getPreferredSize().height > size.height);
+    }
+
+    public void testPreferredSizeReused() {
+        CountingLabel label = createLabel("The quick brown fox jumps over the lazy dog");
+        Dimension size = label.getPreferredSize();
+        assertTrue(label.getCount() > 0);
+        label.resetCount();
+        assertEquals(size, label.getPreferredSize());
+        assertEquals(0, label.getCount());
+
+        label.setText("The quick brown fox");
+        Dimension newSize = label.getPreferredSize();
+        assertTrue(newSize.width < size.width);
+        assertTrue(label.getCount() > 0);
+    }
+
+    public void testRowCountReused() {
+        CountingLabel label = createLabel("The quick brown fox jumps over the lazy dog");
+        label.setLineWrap(true);
+        label.setPreferredWidth(60);
+        Dimension size = label.getPreferredSize();
+        int rowHeight = createLabel("The").getPreferredSize().height;
+        assertTrue(size.height > rowHeight);
+
+        label.resetCount();
+        assertEquals(size, label.getPreferredSize());
+        assertEquals(0, label.getCount());
+
+        // the row count is reused for the preferred width used before
+        label.setPreferredWidth(80);
+        Dimension widerSize = label.getPreferredSize();
+        assertTrue(widerSize.height <= size.height);
+        label.setPreferredWidth(60);
+        label.resetCount();
+        assertEquals(size, label.getPreferredSize());
+        assertEquals(0, label.getCount());
+    }
+
+    public void testLabelsShareUI() {
+        CountingLabel wrapped = createLabel("The quick brown fox jumps over the lazy dog");
+        wrapped.setLineWrap(true);
+        wrapped.setPreferredWidth(60);
+        CountingLabel single = createLabel("Hello");
+        Dimension wrappedSize = wrapped.getPreferredSize();
+        Dimension singleSize = single.getPreferredSize();
+        assertTrue(wrappedSize.height > singleSize.height);
+
+        // the row count of one label doesn't leak into the other
+        single.setText("World");
+        assertEquals(singleSize.height, single.getPreferredSize().height);
+        wrapped.setText("The quick brown fox jumps over the lazy cat");
+        assertEquals(wrappedSize.height, wrapped.getPreferredSize().height);
+    }
+}
@@ -0,0 +1,108 @@
+package com.jidesoft.range;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TestCategoryRange extends TestCase {
+    private static <T> void assertPositions(CategoryRange<T> range) {
+        List<T> values = range.getPossibleValues();
+        List<Category<T>> categories = range.getCategoryValues();
+        assertEquals(values.size(), categories.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i), categories.get(i).getValue());
+            assertEquals(values.indexOf(values.get(i)) + 1, range.position(values.get(i)));
+            assertTrue(range.contains(values.get(i)));
+            assertTrue(range.contains(categories.get(i)));
+        }
+    }
+
+    public void testAdd() {
+        CategoryRange<String> range = new CategoryRange<String>("c", "a");
+        assertTrue(range.contains("a"));
+        assertFalse(range.contains("b"));
+        range.add(new Category<String>("b"));
+        range.add(new Category<String>("a"));
+        assertEquals(3, range.getPossibleValues().size());
+        assertEquals(3, range.position("b"));
+        assertEquals(0.0, range.minimum());
+        assertEquals(4.0, range.maximum());
+        range.add(new Category<String>("d"));
+        assertEquals(5.0, range.maximum());
+        assertPositions(range);
+        try {
+            range.position("e");
+            fail("e is not in the range");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testSortedAdd() {
+        CategoryRange<String> range = new CategoryRange<String>("m", "c", "x");
+        range.setComparator(new Comparator<String>() {
+            public int compare(String o1, String o2) {
+                return o2.compareTo(o1);
+            }
+        });
+        Category<String> named = new Category<String>("Named", "k");
+        range.add(named);
+        range.add(new Category<String>("z"));
+        range.add(new Category<String>("a"));
+        assertEquals("[z, x, m, k, c, a]", range.getPossibleValues().toString());
+        assertSame(named, range.getCategory(4));
+        assertEquals(7.0, range.maximum());
+        assertPositions(range);
+
+        // a category with a different name but the same value
+        range.add(new Category<String>("Other", "k"));
+        assertEquals("[z, x, m, k, k, c, a]", range.getPossibleValues().toString());
+        assertSame(named, range.getCategory(4));
+        assertPositions(range);
+
+        range.setComparator(null);
+        range.setSorted(true);
+        assertEquals("[a, c, k, k, m, x, z]", range.getPossibleValues().toString());
+        assertPositions(range);
+    }
+
+    public void testExplicitMaximum() {
+        CategoryRange<Integer> range = new CategoryRange<Integer>(1, 2);
+        range.setMaximum(10);
+        range.add(new Category<Integer>(3));
+        assertEquals(10.0, range.maximum());
+        range.reset();
+        assertEquals(4.0, range.maximum());
+    }
+
+    public void testManySortedAdds() {
+        CategoryRange<Integer> range = new CategoryRange<Integer>();
+        range.setSorted(true);
+        Set<Integer> values = new HashSet<Integer>();
+        Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            Integer value = random.nextInt();
+            if (values.contains(value)) {
+                continue;
+            }
+            values.add(value);
+            range.add(new Category<Integer>(value));
+            if (i % 1000 == 0) {
+                range.maximum();
+            }
+        }
+        List<Integer> sortedValues = new ArrayList<Integer>(values);
+        Collections.sort(sortedValues);
+        assertEquals(sortedValues, range.getPossibleValues());
+        for (int i = 0; i < sortedValues.size(); i += 997) {
+            assertEquals(i + 1, range.position(sortedValues.get(i)));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.jidesoft.swing;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestAnimationTimer extends TestCase {
+    public void testFireAndStop() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(5);
+        final AtomicInteger once = new AtomicInteger();
+        AnimationTimer repeating = new AnimationTimer(20, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                assertTrue(SwingUtilities.isEventDispatchThread());
+                latch.countDown();
+            }
+        });
+        AnimationTimer single = new AnimationTimer(20, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                once.incrementAndGet();
+            }
+        });
+        single.setRepeats(false);
+        repeating.start();
+        single.start();
+        assertTrue(repeating.isRunning());
+        assertTrue(AnimationClock.getInstance().isTicking());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, once.get());
+        assertFalse(single.isRunning());
+        repeating.stop();
+        assertFalse(repeating.isRunning());
+        assertFalse(AnimationClock.getInstance().isTicking());
+    }
+
+    public void testHiddenComponent() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        AnimationTimer timer = new AnimationTimer(10, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                count.incrementAndGet();
+            }
+        }, new JLabel());
+        timer.start();
+        assertTrue(timer.isRunning());
+        assertFalse(AnimationClock.getInstance().isTicking());
+        Thread.sleep(100);
+        assertEquals(0, count.get());
+        timer.stop();
+    }
+}
@@ -0,0 +1,81 @@
+package com.jidesoft.swing;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestAutoCompletion extends TestCase {
+    /**
+     * A list which counts the calls to get.
+     */
+    private static class CountingList extends AbstractList<String> {
+        private final List<String> _items = new ArrayList<String>();
+        private int _getCount;
+
+        @Override
+        public String get(int index) {
+            _getCount++;
+            return _items.get(index);
+        }
+
+        @Override
+        public String set(int index, String element) {
+            return _items.set(index, element);
+        }
+
+        @Override
+        public int size() {
+            return _items.size();
+        }
+    }
+
+    private CountingList createList() {
+        CountingList list = new CountingList();
+        for (int i = 0; i < 1000; i++) {
+            list._items.add("item" + i);
+        }
+        return list;
+    }
+
+    public void testCompletionIndexUsed() {
+        CountingList list = createList();
+        AutoCompletion autoCompletion = new AutoCompletion(new JTextField(), list);
+        assertTrue(autoCompletion.isCompletionIndexEnabled());
+        Searchable searchable = autoCompletion.getSearchable();
+        assertEquals(99, searchable.findFromCursor("item99"));
+
+        // the index is built once, then only the matching items are read
+        list._getCount = 0;
+        assertEquals(567, searchable.findFromCursor("item567"));
+        assertEquals(321, searchable.findFirstExactly("item321"));
+        assertTrue(list._getCount < 10);
+    }
+
+    public void testCompletionIndexDisabled() {
+        CountingList list = createList();
+        AutoCompletion autoCompletion = new AutoCompletion(new JTextField(), list);
+        autoCompletion.setCompletionIndexEnabled(false);
+        assertFalse(autoCompletion.isCompletionIndexEnabled());
+        Searchable searchable = autoCompletion.getSearchable();
+        list._getCount = 0;
+        assertEquals(999, searchable.findFirstExactly("item999"));
+        assertTrue(list._getCount >= 1000);
+    }
+
+    public void testListChanged() {
+        CountingList list = createList();
+        AutoCompletion autoCompletion = new AutoCompletion(new JTextField(), list);
+        Searchable searchable = autoCompletion.getSearchable();
+        assertEquals(5, searchable.findFirstExactly("item5"));
+
+        // the replaced item is not found in the old index
+        list.set(5, "other");
+        assertEquals(-1, searchable.findFirstExactly("item5"));
+        autoCompletion.setCompletionIndexEnabled(false);
+        autoCompletion.setCompletionIndexEnabled(true);
+        assertEquals(5, searchable.findFirstExactly("other"));
+    }
+}
@@ -0,0 +1,177 @@
+package com.jidesoft.swing;
+
+import junit.framework.TestCase;
+
+import javax.swing.event.TreeSelectionEvent;
+import javax.swing.event.TreeSelectionListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TestCheckBoxTreeSelectionModel extends TestCase {
+    private Random _random;
+    private DefaultTreeModel _model;
+    private CheckBoxTree _tree;
+    private List<TreePath> _paths;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        _random = new Random(0);
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode("root");
+        populate(root, 4);
+        _model = new DefaultTreeModel(root);
+        _tree = new CheckBoxTree(_model);
+        _paths = new ArrayList<TreePath>();
+        collectPaths(new TreePath(root), _paths);
+    }
+
+    private void populate(DefaultMutableTreeNode node, int depth) {
+        if (depth == 0) {
+            return;
+        }
+        int count = _random.nextInt(4) + (depth > 2 ? 1 : 0);
+        for (int i = 0; i < count; i++) {
+            DefaultMutableTreeNode child = new DefaultMutableTreeNode(node.getUserObject() + "." + i);
+            node.add(child);
+            populate(child, depth - 1);
+        }
+    }
+
+    private void collectPaths(TreePath path, List<TreePath> paths) {
+        paths.add(path);
+        Object node = path.getLastPathComponent();
+        for (int i = 0; i < _model.getChildCount(node); i++) {
+            collectPaths(path.pathByAddingChild(_model.getChild(node, i)), paths);
+        }
+    }
+
+    private boolean isChecked(TreePath path, Set<TreePath> selection) {
+        for (TreePath parent = path; parent != null; parent = parent.getParentPath()) {
+            if (selection.contains(parent)) {
+                return true;
+            }
+        }
+        Object node = path.getLastPathComponent();
+        int count = _model.getChildCount(node);
+        for (int i = 0; i < count; i++) {
+            if (!isChecked(path.pathByAddingChild(_model.getChild(node, i)), selection)) {
+                return false;
+            }
+        }
+        return count > 0;
+    }
+
+    private boolean isPartiallyChecked(TreePath path, Set<TreePath> selection) {
+        if (isChecked(path, selection)) {
+            return false;
+        }
+        for (TreePath selectionPath : selection) {
+            if (path.isDescendant(selectionPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void assertStates() {
+        CheckBoxTreeSelectionModel selectionModel = _tree.getCheckBoxTreeSelectionModel();
+        TreePath[] selectionPaths = selectionModel.getSelectionPaths();
+        Set<TreePath> selection = new HashSet<TreePath>();
+        if (selectionPaths != null) {
+            selection.addAll(Arrays.asList(selectionPaths));
+        }
+        for (TreePath path : _paths) {
+            assertEquals(path.toString(), isChecked(path, selection), selectionModel.isPathSelected(path, true));
+            assertEquals(path.toString(), isPartiallyChecked(path, selection), selectionModel.isPartiallySelected(path));
+        }
+    }
+
+    public void testToggle() {
+        CheckBoxTreeSelectionModel selectionModel = _tree.getCheckBoxTreeSelectionModel();
+        assertStates();
+        for (int i = 0; i < 200; i++) {
+            TreePath path = _paths.get(_random.nextInt(_paths.size()));
+            if (selectionModel.isPathSelected(path, true)) {
+                selectionModel.removeSelectionPath(path);
+            }
+            else {
+                selectionModel.addSelectionPath(path);
+            }
+            assertStates();
+        }
+    }
+
+    public void testSingleEventMode() {
+        CheckBoxTreeSelectionModel selectionModel = _tree.getCheckBoxTreeSelectionModel();
+        selectionModel.setSingleEventMode(true);
+        final int[] events = new int[1];
+        selectionModel.addTreeSelectionListener(new TreeSelectionListener() {
+            public void valueChanged(TreeSelectionEvent e) {
+                events[0]++;
+            }
+        });
+        for (int i = 0; i < 100; i++) {
+            TreePath path = _paths.get(_random.nextInt(_paths.size()));
+            if (selectionModel.isPathSelected(path, true)) {
+                selectionModel.removeSelectionPath(path);
+            }
+            else {
+                selectionModel.addSelectionPath(path);
+            }
+            assertStates();
+        }
+        assertTrue(events[0] > 0);
+        selectionModel.clearSelection();
+        assertStates();
+    }
+
+    public void testOverriddenIsPathSelected() {
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode("root");
+        final DefaultMutableTreeNode a = new DefaultMutableTreeNode("a");
+        DefaultMutableTreeNode b = new DefaultMutableTreeNode("b");
+        root.add(a);
+        root.add(b);
+        DefaultTreeModel model = new DefaultTreeModel(root);
+        CheckBoxTree tree = new CheckBoxTree(model) {
+            @Override
+            protected CheckBoxTreeSelectionModel createCheckBoxTreeSelectionModel(TreeModel model) {
+                return new CheckBoxTreeSelectionModel(model) {
+                    @Override
+                    public boolean isPathSelected(TreePath path, boolean digIn) {
+                        // a is always checked, like a node hidden by a filter
+                        return path.getLastPathComponent() == a || super.isPathSelected(path, digIn);
+                    }
+                };
+            }
+        };
+        CheckBoxTreeSelectionModel selectionModel = tree.getCheckBoxTreeSelectionModel();
+        TreePath rootPath = new TreePath(root);
+        assertFalse(selectionModel.isPathSelected(rootPath, true));
+        selectionModel.addSelectionPath(rootPath.pathByAddingChild(b));
+        assertTrue(selectionModel.isPathSelected(rootPath, true));
+    }
+
+    public void testRemoveNodes() {
+        CheckBoxTreeSelectionModel selectionModel = _tree.getCheckBoxTreeSelectionModel();
+        for (int i = 0; i < 20; i++) {
+            selectionModel.addSelectionPath(_paths.get(_random.nextInt(_paths.size())));
+        }
+        for (int i = 0; i < 20; i++) {
+            DefaultMutableTreeNode node = (DefaultMutableTreeNode) _paths.get(_random.nextInt(_paths.size())).getLastPathComponent();
+            if (node.getParent() != null) {
+                _model.removeNodeFromParent(node);
+                _paths.clear();
+                collectPaths(new TreePath(_model.getRoot()), _paths);
+                assertStates();
+            }
+        }
+    }
+}
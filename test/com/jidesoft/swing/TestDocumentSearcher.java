@@ -0,0 +1,160 @@
+package com.jidesoft.swing;
+
+import junit.framework.TestCase;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestDocumentSearcher extends TestCase {
+    private static final String[] PATTERNS = {"a", "ab", "aBa", "abcab", "cc", "bb"};
+
+    private Random _random;
+    private PlainDocument _document;
+    private DocumentSearcher _searcher;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        _random = new Random(0);
+        _document = new PlainDocument();
+        _document.insertString(0, randomText(100000), null);
+        _searcher = new DocumentSearcher(_document);
+        _document.addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) {
+                _searcher.insertUpdate(e);
+            }
+
+            public void removeUpdate(DocumentEvent e) {
+                _searcher.removeUpdate(e);
+            }
+
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+    }
+
+    private String randomText(int length) {
+        StringBuilder buffer = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            buffer.append("abcABC\n".charAt(_random.nextInt(7)));
+        }
+        return buffer.toString();
+    }
+
+    private String getText() throws BadLocationException {
+        return _document.getText(0, _document.getLength());
+    }
+
+    private static int indexOf(String text, String pattern, boolean caseSensitive, int fromIndex) {
+        for (int i = Math.max(0, fromIndex); i <= text.length() - pattern.length(); i++) {
+            if (text.regionMatches(!caseSensitive, i, pattern, 0, pattern.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(String text, String pattern, boolean caseSensitive, int fromIndex) {
+        for (int i = Math.min(fromIndex, text.length() - pattern.length()); i >= 0; i--) {
+            if (text.regionMatches(!caseSensitive, i, pattern, 0, pattern.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int count(String text, String pattern, boolean caseSensitive) {
+        int count = 0;
+        for (int i = indexOf(text, pattern, caseSensitive, 0); i != -1; i = indexOf(text, pattern, caseSensitive, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private void assertSearch(String pattern, boolean caseSensitive) throws BadLocationException {
+        String text = getText();
+        for (int i = 0; i < 50; i++) {
+            int from = _random.nextInt(text.length() + 10) - 5;
+            assertEquals(indexOf(text, pattern, caseSensitive, from), _searcher.indexOf(pattern, caseSensitive, from));
+            assertEquals(lastIndexOf(text, pattern, caseSensitive, from), _searcher.lastIndexOf(pattern, caseSensitive, from));
+        }
+    }
+
+    public void testIndexOf() throws BadLocationException {
+        for (String pattern : PATTERNS) {
+            assertSearch(pattern, true);
+            assertSearch(pattern, false);
+        }
+    }
+
+    public void testCountMatches() throws BadLocationException {
+        String text = getText();
+        for (String pattern : PATTERNS) {
+            assertEquals(count(text, pattern, true), _searcher.countMatches(pattern, true));
+            assertEquals(count(text, pattern, false), _searcher.countMatches(pattern, false));
+        }
+    }
+
+    public void testPatchMatches() throws BadLocationException {
+        for (String pattern : PATTERNS) {
+            boolean caseSensitive = _random.nextBoolean();
+            _searcher.countMatches(pattern, caseSensitive);
+            for (int i = 0; i < 100; i++) {
+                int offset = _random.nextInt(_document.getLength());
+                if (_random.nextBoolean()) {
+                    _document.insertString(offset, randomText(_random.nextInt(10) + 1), null);
+                }
+                else {
+                    _document.remove(offset, Math.min(_random.nextInt(10) + 1, _document.getLength() - offset));
+                }
+                if (i % 10 == 0) {
+                    // searches on the patched match index
+                    assertSearch(pattern, caseSensitive);
+                }
+            }
+            assertEquals(count(getText(), pattern, caseSensitive), _searcher.countMatches(pattern, caseSensitive));
+        }
+    }
+
+    public void testChangeInAnotherThread() throws Exception {
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                Random random = new Random(1);
+                try {
+                    for (int i = 0; i < 2000; i++) {
+                        int offset = random.nextInt(_document.getLength());
+                        if (random.nextBoolean()) {
+                            _document.insertString(offset, "abcab", null);
+                        }
+                        else {
+                            _document.remove(offset, Math.min(5, _document.getLength() - offset));
+                        }
+                    }
+                }
+                catch (Throwable e) {
+                    error.set(e);
+                }
+            }
+        };
+        _searcher.countMatches("abcab", false);
+        writer.start();
+        while (writer.isAlive()) {
+            int from = _random.nextInt(_document.getLength());
+            int found = _searcher.indexOf("abcab", false, from);
+            assertTrue(found == -1 || found >= from);
+            _searcher.lastIndexOf("abcab", false, from);
+            _searcher.countMatches("abcab", false);
+        }
+        writer.join();
+        assertNull(error.get());
+        String text = getText();
+        assertEquals(count(text, "abcab", false), _searcher.countMatches("abcab", false));
+        assertSearch("abcab", false);
+    }
+}
@@ -0,0 +1,179 @@
+package com.jidesoft.swing;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+import java.util.Random;
+
+public class TestIntervalListSelectionModel extends TestCase {
+    private static final int SIZE = 60;
+
+    private Random _random;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        _random = new Random(0);
+    }
+
+    private static class EventRecorder implements ListSelectionListener {
+        int _count;
+        int _firstIndex = Integer.MAX_VALUE;
+        int _lastIndex = -1;
+
+        public void valueChanged(ListSelectionEvent e) {
+            _count++;
+            _firstIndex = Math.min(_firstIndex, e.getFirstIndex());
+            _lastIndex = Math.max(_lastIndex, e.getLastIndex());
+        }
+
+        void reset() {
+            _count = 0;
+            _firstIndex = Integer.MAX_VALUE;
+            _lastIndex = -1;
+        }
+    }
+
+    private boolean[] getSelection(ListSelectionModel model) {
+        boolean[] selection = new boolean[SIZE * 2];
+        for (int i = 0; i < selection.length; i++) {
+            selection[i] = model.isSelectedIndex(i);
+        }
+        return selection;
+    }
+
+    private void randomOperation(ListSelectionModel expected, ListSelectionModel actual) {
+        int index0 = _random.nextInt(SIZE + 1) - 1;
+        int index1 = _random.nextInt(SIZE + 1) - 1;
+        switch (_random.nextInt(12)) {
+            case 0:
+            case 1:
+                expected.addSelectionInterval(index0, index1);
+                actual.addSelectionInterval(index0, index1);
+                break;
+            case 2:
+            case 3:
+                expected.removeSelectionInterval(index0, index1);
+                actual.removeSelectionInterval(index0, index1);
+                break;
+            case 4:
+                expected.setSelectionInterval(index0, index1);
+                actual.setSelectionInterval(index0, index1);
+                break;
+            case 5:
+                boolean before = _random.nextBoolean();
+                int length = _random.nextInt(5) + 1;
+                expected.insertIndexInterval(Math.max(index0, 0), length, before);
+                actual.insertIndexInterval(Math.max(index0, 0), length, before);
+                break;
+            case 6:
+                expected.removeIndexInterval(Math.max(index0, 0), Math.max(index1, 0));
+                actual.removeIndexInterval(Math.max(index0, 0), Math.max(index1, 0));
+                break;
+            case 7:
+                expected.setLeadSelectionIndex(index0);
+                actual.setLeadSelectionIndex(index0);
+                break;
+            case 8:
+                expected.setAnchorSelectionIndex(index0);
+                actual.setAnchorSelectionIndex(index0);
+                break;
+            case 9:
+                boolean adjusting = _random.nextBoolean();
+                expected.setValueIsAdjusting(adjusting);
+                actual.setValueIsAdjusting(adjusting);
+                break;
+            case 10:
+                ((DefaultListSelectionModel) expected).moveLeadSelectionIndex(index0);
+                ((DefaultListSelectionModel) actual).moveLeadSelectionIndex(index0);
+                break;
+            default:
+                if (_random.nextInt(10) == 0) {
+                    expected.clearSelection();
+                    actual.clearSelection();
+                }
+                break;
+        }
+    }
+
+    private void assertSameModel(int mode) {
+        DefaultListSelectionModel expected = new DefaultListSelectionModel();
+        IntervalListSelectionModel actual = new IntervalListSelectionModel();
+        expected.setSelectionMode(mode);
+        actual.setSelectionMode(mode);
+        EventRecorder expectedEvents = new EventRecorder();
+        EventRecorder actualEvents = new EventRecorder();
+        expected.addListSelectionListener(expectedEvents);
+        actual.addListSelectionListener(actualEvents);
+        for (int i = 0; i < 2000; i++) {
+            boolean[] before = getSelection(actual);
+            expectedEvents.reset();
+            actualEvents.reset();
+            randomOperation(expected, actual);
+            boolean[] after = getSelection(actual);
+            assertTrue(java.util.Arrays.equals(getSelection(expected), after));
+            assertEquals(expected.getMinSelectionIndex(), actual.getMinSelectionIndex());
+            assertEquals(expected.getMaxSelectionIndex(), actual.getMaxSelectionIndex());
+            assertEquals(expected.isSelectionEmpty(), actual.isSelectionEmpty());
+            assertEquals(expected.getAnchorSelectionIndex(), actual.getAnchorSelectionIndex());
+            assertEquals(expected.getLeadSelectionIndex(), actual.getLeadSelectionIndex());
+            assertEquals(expected.getValueIsAdjusting(), actual.getValueIsAdjusting());
+            int count = 0;
+            for (boolean selected : after) {
+                if (selected) {
+                    count++;
+                }
+            }
+            assertEquals(count, actual.getSelectedItemsCount());
+            assertEquals(count, actual.getSelectedIndices().length);
+            assertEquals(count, actual.getSelectedCount(0, after.length - 1));
+            // the events cover all changed indices
+            assertEquals(expectedEvents._count, actualEvents._count);
+            for (int index = 0; index < after.length; index++) {
+                if (before[index] != after[index]) {
+                    assertTrue(index >= actualEvents._firstIndex && index <= actualEvents._lastIndex);
+                }
+            }
+        }
+    }
+
+    public void testMultipleIntervalSelection() {
+        assertSameModel(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+    }
+
+    public void testSingleIntervalSelection() {
+        assertSameModel(ListSelectionModel.SINGLE_INTERVAL_SELECTION);
+    }
+
+    public void testSingleSelection() {
+        assertSameModel(ListSelectionModel.SINGLE_SELECTION);
+    }
+
+    public void testCheckBoxListAllEntry() {
+        DefaultListModel model = new DefaultListModel();
+        model.addElement(CheckBoxList.ALL_ENTRY);
+        for (int i = 0; i < 1000; i++) {
+            model.addElement("item" + i);
+        }
+        CheckBoxListSelectionModel selectionModel = new CheckBoxListSelectionModel(model);
+        assertEquals(0, selectionModel.getAllEntryIndex());
+        selectionModel.addSelectionInterval(1, 1000);
+        assertTrue(selectionModel.isSelectedIndex(0));
+        selectionModel.removeSelectionInterval(500, 500);
+        assertFalse(selectionModel.isSelectedIndex(0));
+        selectionModel.addSelectionInterval(500, 500);
+        assertTrue(selectionModel.isSelectedIndex(0));
+        selectionModel.addSelectionInterval(0, 0);
+        assertEquals(1001, selectionModel.getSelectedItemsCount());
+        model.add(0, "first");
+        assertEquals(1, selectionModel.getAllEntryIndex());
+        model.remove(0);
+        assertEquals(0, selectionModel.getAllEntryIndex());
+        model.set(0, "none");
+        assertEquals(-1, selectionModel.getAllEntryIndex());
+        model.set(10, CheckBoxList.ALL_ENTRY);
+        assertEquals(10, selectionModel.getAllEntryIndex());
+    }
+}
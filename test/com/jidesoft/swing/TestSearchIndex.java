@@ -0,0 +1,121 @@
+package com.jidesoft.swing;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.util.Random;
+
+/**
+ * Checks that the search index of ListSearchable, TableSearchable and ComboBoxSearchable is kept correct when the model
+ * changes. Each indexed searchable is compared with a searchable without the index on another component sharing the
+ * same model.
+ */
+public class TestSearchIndex extends TestCase {
+    private static final String[] SEARCHING_TEXTS = {"item1", "item2", "item33", "new", "changed", "item"};
+    private Random _random;
+    private int _itemCount;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        _random = new Random(0);
+    }
+
+    private String createItem(String prefix) {
+        return prefix + (_itemCount++);
+    }
+
+    private static void assertSameResults(Searchable indexed, Searchable plain) {
+        for (String text : SEARCHING_TEXTS) {
+            assertEquals(text, plain.findFirst(text), indexed.findFirst(text));
+            assertEquals(text, plain.findLast(text), indexed.findLast(text));
+        }
+        assertTrue(indexed.isSearchIndexBuilt());
+    }
+
+    public void testList() {
+        DefaultListModel model = new DefaultListModel();
+        for (int i = 0; i < 100; i++) {
+            model.addElement(createItem("item"));
+        }
+        ListSearchable indexed = new ListSearchable(new JList(model));
+        indexed.setSearchIndexEnabled(true);
+        ListSearchable plain = new ListSearchable(new JList(model));
+        assertSameResults(indexed, plain);
+
+        for (int i = 0; i < 50; i++) {
+            switch (_random.nextInt(3)) {
+                case 0:
+                    model.add(_random.nextInt(model.size() + 1), createItem("new"));
+                    break;
+                case 1:
+                    model.remove(_random.nextInt(model.size()));
+                    break;
+                default:
+                    model.set(_random.nextInt(model.size()), createItem("changed"));
+                    break;
+            }
+            assertSameResults(indexed, plain);
+        }
+    }
+
+    public void testTable() {
+        DefaultTableModel model = new DefaultTableModel(new Object[]{"Name", "Value"}, 0);
+        for (int i = 0; i < 100; i++) {
+            model.addRow(new Object[]{createItem("item"), i});
+        }
+        TableSearchable indexed = new TableSearchable(new JTable(model));
+        indexed.setSearchIndexEnabled(true);
+        assertTrue(indexed.isSearchIndexEnabled());
+        TableSearchable plain = new TableSearchable(new JTable(model));
+        assertSameResults(indexed, plain);
+
+        for (int i = 0; i < 50; i++) {
+            switch (_random.nextInt(4)) {
+                case 0:
+                    model.insertRow(_random.nextInt(model.getRowCount() + 1), new Object[]{createItem("new"), i});
+                    break;
+                case 1:
+                    model.removeRow(_random.nextInt(model.getRowCount()));
+                    break;
+                case 2:
+                    model.setValueAt(createItem("changed"), _random.nextInt(model.getRowCount()), 0);
+                    break;
+                default:
+                    // the other column is not searched
+                    model.setValueAt(createItem("item"), _random.nextInt(model.getRowCount()), 1);
+                    break;
+            }
+            assertSameResults(indexed, plain);
+        }
+    }
+
+    public void testComboBox() {
+        DefaultComboBoxModel model = new DefaultComboBoxModel();
+        for (int i = 0; i < 100; i++) {
+            model.addElement(createItem("item"));
+        }
+        ComboBoxSearchable indexed = new ComboBoxSearchable(new JComboBox(model));
+        indexed.setSearchIndexEnabled(true);
+        ComboBoxSearchable plain = new ComboBoxSearchable(new JComboBox(model));
+        assertSameResults(indexed, plain);
+
+        for (int i = 0; i < 50; i++) {
+            switch (_random.nextInt(3)) {
+                case 0:
+                    model.insertElementAt(createItem("new"), _random.nextInt(model.getSize() + 1));
+                    break;
+                case 1:
+                    model.removeElementAt(_random.nextInt(model.getSize()));
+                    break;
+                default:
+                    int index = _random.nextInt(model.getSize());
+                    model.removeElementAt(index);
+                    model.insertElementAt(createItem("changed"), index);
+                    break;
+            }
+            assertSameResults(indexed, plain);
+        }
+    }
+}
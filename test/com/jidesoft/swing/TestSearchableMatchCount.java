@@ -0,0 +1,149 @@
+package com.jidesoft.swing;
+
+import com.jidesoft.swing.event.SearchableEvent;
+import com.jidesoft.swing.event.SearchableListener;
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Checks the match count after counting the matches in background, with and without a new search cancelling the
+ * previous one.
+ */
+public class TestSearchableMatchCount extends TestCase {
+    private static final int COUNT = 6000;
+    private ListSearchable _searchable;
+    private SearchableBar _searchableBar;
+    private final List<SearchableEvent> _events = new ArrayList<SearchableEvent>();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        runOnEdt(new Callable<Object>() {
+            public Object call() throws Exception {
+                DefaultListModel model = new DefaultListModel();
+                for (int i = 0; i < COUNT; i++) {
+                    model.addElement((i % 3 == 0 ? "a" : "b") + i);
+                }
+                _searchable = new ListSearchable(new JList(model)) {
+                    private int _calls;
+
+                    @Override
+                    protected int findMatch(String s, int fromIndex, int toIndex) {
+                        // slows down the counting so that it takes several slices
+                        if (++_calls % 20 == 0) {
+                            try {
+                                Thread.sleep(1);
+                            }
+                            catch (InterruptedException e) {
+                                // ignore
+                            }
+                        }
+                        return super.findMatch(s, fromIndex, toIndex);
+                    }
+                };
+                _searchable.setSearchingDelay(0);
+                _searchable.setCountMatchInBackground(true);
+                _searchable.addSearchableListener(new SearchableListener() {
+                    public void searchableEventFired(SearchableEvent e) {
+                        if (e.getID() == SearchableEvent.SEARCHABLE_MATCH_COUNT) {
+                            synchronized (_events) {
+                                _events.add(e);
+                            }
+                        }
+                    }
+                });
+                _searchableBar = new SearchableBar(_searchable);
+                _searchableBar.setShowMatchCount(true);
+                return null;
+            }
+        });
+    }
+
+    private static <T> T runOnEdt(Callable<T> callable) throws Exception {
+        FutureTask<T> task = new FutureTask<T>(callable);
+        SwingUtilities.invokeAndWait(task);
+        return task.get();
+    }
+
+    private void search(final String text) throws Exception {
+        runOnEdt(new Callable<Object>() {
+            public Object call() throws Exception {
+                _searchableBar._textField.setText(text);
+                return null;
+            }
+        });
+    }
+
+    private boolean isCountingMatch() throws Exception {
+        return runOnEdt(new Callable<Boolean>() {
+            public Boolean call() throws Exception {
+                return _searchable.isCountingMatch();
+            }
+        });
+    }
+
+    private void waitForCount() throws Exception {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (isCountingMatch()) {
+            assertTrue("the counting doesn't finish", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private int getEventCount(String searchingText) {
+        int count = 0;
+        synchronized (_events) {
+            for (SearchableEvent event : _events) {
+                if (searchingText.equals(event.getSearchingText())) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void assertMatchCount(final int expected) throws Exception {
+        runOnEdt(new Callable<Object>() {
+            public Object call() throws Exception {
+                assertEquals(expected, _searchable.getMatchCount());
+                assertTrue(_searchableBar._statusLabel.getText(), _searchableBar._statusLabel.getText().startsWith(expected + " "));
+                return null;
+            }
+        });
+    }
+
+    public void testMatchCount() throws Exception {
+        search("a");
+        waitForCount();
+        assertMatchCount((COUNT + 2) / 3);
+        assertTrue(getEventCount("a") > 1);
+        synchronized (_events) {
+            SearchableEvent last = _events.get(_events.size() - 1);
+            assertEquals("a", last.getSearchingText());
+        }
+    }
+
+    public void testNewSearchCancelsCount() throws Exception {
+        search("a");
+        long deadline = System.currentTimeMillis() + 30000;
+        while (getEventCount("a") < 2) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        assertTrue(isCountingMatch());
+        search("b");
+        int eventsOfA = getEventCount("a");
+        waitForCount();
+        assertMatchCount(COUNT - ((COUNT + 2) / 3));
+        // no more event of the cancelled count
+        assertEquals(eventsOfA, getEventCount("a"));
+        synchronized (_events) {
+            assertEquals("b", _events.get(_events.size() - 1).getSearchingText());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.jidesoft.swing;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Highlighter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestTextComponentSearchable extends TestCase {
+    private JTextArea _textArea;
+    private TextComponentSearchable _searchable;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        _textArea = new JTextArea();
+        _searchable = new TextComponentSearchable(_textArea);
+        _searchable.setLazyHighlighting(true);
+    }
+
+    private List<int[]> highlightAll(String s) throws BadLocationException {
+        String text = _textArea.getText();
+        List<int[]> highlights = new ArrayList<int[]>();
+        for (int i = text.indexOf(s); i != -1; i = text.indexOf(s, i + 1)) {
+            _searchable.addHighlight(i, s, true);
+            highlights.add(new int[]{i, i + s.length()});
+        }
+        return highlights;
+    }
+
+    private void assertHighlights(List<int[]> expected) {
+        int[][] highlights = _searchable.getLazyHighlights();
+        assertEquals(expected.size(), highlights.length);
+        for (int i = 0; i < highlights.length; i++) {
+            assertEquals(expected.get(i)[0], highlights[i][0]);
+            assertEquals(expected.get(i)[1], highlights[i][1]);
+        }
+    }
+
+    public void testInsert() throws BadLocationException {
+        _textArea.setText("ab ab ab");
+        List<int[]> highlights = highlightAll("ab");
+        _textArea.getDocument().insertString(3, "xx", null);
+        highlights.set(1, new int[]{5, 7});
+        highlights.set(2, new int[]{8, 10});
+        assertHighlights(highlights);
+
+        // the text inserted inside a highlight breaks it
+        _textArea.getDocument().insertString(6, "y", null);
+        highlights.remove(1);
+        highlights.set(1, new int[]{9, 11});
+        assertHighlights(highlights);
+    }
+
+    public void testRemove() throws BadLocationException {
+        _textArea.setText("ab ab ab");
+        List<int[]> highlights = highlightAll("ab");
+        _textArea.getDocument().remove(2, 1);
+        highlights.set(1, new int[]{2, 4});
+        highlights.set(2, new int[]{5, 7});
+        assertHighlights(highlights);
+
+        // the removed text overlaps a highlight
+        _textArea.getDocument().remove(3, 2);
+        highlights.remove(1);
+        highlights.set(1, new int[]{3, 5});
+        assertHighlights(highlights);
+    }
+
+    public void testAppend() throws BadLocationException {
+        _textArea.setText("ab ab");
+        List<int[]> highlights = highlightAll("ab");
+        Document document = _textArea.getDocument();
+        document.insertString(document.getLength(), " more text", null);
+        assertHighlights(highlights);
+        // the highlight painting the lazy highlights still covers the whole document
+        Highlighter.Highlight[] allHighlights = _textArea.getHighlighter().getHighlights();
+        assertEquals(1, allHighlights.length);
+        assertEquals(0, allHighlights[0].getStartOffset());
+        assertEquals(document.getLength(), allHighlights[0].getEndOffset());
+    }
+
+    public void testRandomEdits() throws BadLocationException {
+        Random random = new Random(0);
+        for (int round = 0; round < 50; round++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                text.append("ab ".charAt(random.nextInt(3)));
+            }
+            _textArea.setText(text.toString());
+            _searchable.removeAllHighlights();
+            List<int[]> expected = highlightAll("ab");
+            assertHighlights(expected);
+            Document document = _textArea.getDocument();
+            for (int edit = 0; edit < 10; edit++) {
+                int length = document.getLength();
+                int offset = random.nextInt(length + 1);
+                List<int[]> next = new ArrayList<int[]>();
+                if (random.nextBoolean()) {
+                    int count = 1 + random.nextInt(4);
+                    document.insertString(offset, "xxxx".substring(0, count), null);
+                    for (int[] highlight : expected) {
+                        if (highlight[1] <= offset) {
+                            next.add(highlight);
+                        }
+                        else if (highlight[0] >= offset) {
+                            next.add(new int[]{highlight[0] + count, highlight[1] + count});
+                        }
+                    }
+                }
+                else {
+                    int count = Math.min(length - offset, 1 + random.nextInt(5));
+                    document.remove(offset, count);
+                    for (int[] highlight : expected) {
+                        if (highlight[1] <= offset) {
+                            next.add(highlight);
+                        }
+                        else if (highlight[0] >= offset + count) {
+                            next.add(new int[]{highlight[0] - count, highlight[1] - count});
+                        }
+                    }
+                }
+                expected = next;
+                assertHighlights(expected);
+            }
+        }
+    }
+}
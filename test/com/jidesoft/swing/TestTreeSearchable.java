@@ -0,0 +1,192 @@
+package com.jidesoft.swing;
+
+import junit.framework.TestCase;
+
+import javax.swing.*;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestTreeSearchable extends TestCase {
+    private Random _random;
+    private int _nodeCount;
+    private DefaultTreeModel _model;
+    private JTree _tree;
+    private TreeSearchable _searchable;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        _random = new Random(0);
+        DefaultMutableTreeNode root = createNode();
+        populate(root, 4);
+        _model = new DefaultTreeModel(root);
+        _tree = new JTree(_model);
+        _searchable = new TreeSearchable(_tree);
+        _searchable.setRecursive(true);
+    }
+
+    private DefaultMutableTreeNode createNode() {
+        int id = _nodeCount++;
+        return new DefaultMutableTreeNode((id % 5 == 0 ? "match" : "other") + id);
+    }
+
+    private void populate(DefaultMutableTreeNode node, int depth) {
+        if (depth == 0) {
+            return;
+        }
+        int count = 1 + _random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            DefaultMutableTreeNode child = createNode();
+            node.add(child);
+            populate(child, depth - 1);
+        }
+    }
+
+    private List<TreePath> getExpectedPaths() {
+        List<TreePath> paths = new ArrayList<TreePath>();
+        collectPaths(new TreePath(_model.getRoot()), paths);
+        return paths;
+    }
+
+    private void collectPaths(TreePath path, List<TreePath> paths) {
+        paths.add(path);
+        Object node = path.getLastPathComponent();
+        for (int i = 0; i < _model.getChildCount(node); i++) {
+            collectPaths(path.pathByAddingChild(_model.getChild(node, i)), paths);
+        }
+    }
+
+    private DefaultMutableTreeNode getRandomNode() {
+        List<TreePath> paths = getExpectedPaths();
+        return (DefaultMutableTreeNode) paths.get(_random.nextInt(paths.size())).getLastPathComponent();
+    }
+
+    private void assertElements() {
+        List<TreePath> expected = getExpectedPaths();
+        assertEquals(expected.size(), _searchable.getElementCount());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), _searchable.getElementAt(i));
+        }
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            assertEquals(expected.get(i), _searchable.getElementAt(i));
+        }
+        for (int i = 0; i < 20; i++) {
+            int index = _random.nextInt(expected.size());
+            assertEquals(expected.get(index), _searchable.getElementAt(index));
+        }
+        assertFalse(_searchable.hasElementAt(expected.size()));
+    }
+
+    private static boolean isMatch(TreePath path) {
+        return path.getLastPathComponent().toString().startsWith("match");
+    }
+
+    public void testElements() {
+        assertTrue(getExpectedPaths().size() > 20);
+        assertElements();
+    }
+
+    public void testNodesInserted() {
+        assertElements();
+        for (int i = 0; i < 20; i++) {
+            DefaultMutableTreeNode parent = getRandomNode();
+            DefaultMutableTreeNode child = createNode();
+            populate(child, 2);
+            _model.insertNodeInto(child, parent, _random.nextInt(parent.getChildCount() + 1));
+            assertElements();
+        }
+    }
+
+    public void testNodesRemoved() {
+        assertElements();
+        for (int i = 0; i < 20; i++) {
+            DefaultMutableTreeNode node = getRandomNode();
+            if (node.getParent() != null) {
+                _model.removeNodeFromParent(node);
+                assertElements();
+            }
+        }
+    }
+
+    public void testStructureChanged() {
+        assertElements();
+        for (int i = 0; i < 10; i++) {
+            DefaultMutableTreeNode node = getRandomNode();
+            node.removeAllChildren();
+            populate(node, 2);
+            _model.nodeStructureChanged(node);
+            assertElements();
+        }
+        DefaultMutableTreeNode root = createNode();
+        populate(root, 3);
+        _model.setRoot(root);
+        assertElements();
+    }
+
+    public void testSearchForward() {
+        List<TreePath> expected = getExpectedPaths();
+        for (int i = 0; i < 30; i++) {
+            int selected = _random.nextInt(expected.size());
+            _tree.setSelectionPath(expected.get(selected));
+            int next = -1;
+            for (int j = selected + 1; j < expected.size() && next == -1; j++) {
+                if (isMatch(expected.get(j))) {
+                    next = j;
+                }
+            }
+            if (next != -1) {
+                assertEquals(next, _searchable.findNext("match"));
+            }
+        }
+        int first = -1;
+        for (int j = 0; j < expected.size() && first == -1; j++) {
+            if (isMatch(expected.get(j))) {
+                first = j;
+            }
+        }
+        assertEquals(first, _searchable.findFirst("match"));
+    }
+
+    public void testSearchBackward() {
+        List<TreePath> expected = getExpectedPaths();
+        for (int i = 0; i < 30; i++) {
+            int selected = _random.nextInt(expected.size());
+            _tree.setSelectionPath(expected.get(selected));
+            int previous = -1;
+            for (int j = selected - 1; j >= 0 && previous == -1; j--) {
+                if (isMatch(expected.get(j))) {
+                    previous = j;
+                }
+            }
+            if (previous != -1) {
+                assertEquals(previous, _searchable.findPrevious("match"));
+            }
+        }
+        int last = -1;
+        for (int j = expected.size() - 1; j >= 0 && last == -1; j--) {
+            if (isMatch(expected.get(j))) {
+                last = j;
+            }
+        }
+        assertEquals(last, _searchable.findLast("match"));
+    }
+
+    public void testSearchAfterChange() {
+        List<TreePath> expected = getExpectedPaths();
+        _tree.setSelectionPath(expected.get(0));
+        _searchable.findFirst("match");
+
+        DefaultMutableTreeNode root = (DefaultMutableTreeNode) _model.getRoot();
+        DefaultMutableTreeNode node = new DefaultMutableTreeNode("matchNew");
+        _model.insertNodeInto(node, root, 0);
+        assertEquals(1, _searchable.findFirst("matchnew"));
+        assertEquals(1, _searchable.findNext("matchnew"));
+
+        _model.removeNodeFromParent(node);
+        assertEquals(-1, _searchable.findFirst("matchnew"));
+    }
+}
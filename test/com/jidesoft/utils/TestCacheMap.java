@@ -0,0 +1,41 @@
+package com.jidesoft.utils;
+
+import junit.framework.TestCase;
+
+import java.io.Serializable;
+
+public class TestCacheMap extends TestCase {
+    private CacheMap<String, String> _cacheMap;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        _cacheMap = new CacheMap<String, String>("");
+    }
+
+    public void testLookup() {
+        _cacheMap.register(Number.class, "number", "");
+        _cacheMap.register(Serializable.class, "serializable", "context");
+        assertEquals("number", _cacheMap.getRegisteredObject(Integer.class, ""));
+        assertEquals("serializable", _cacheMap.getRegisteredObject(Integer.class, "context"));
+        assertEquals("number", _cacheMap.getRegisteredObject(Integer.class, "other"));
+        assertNull(_cacheMap.getRegisteredObject(String.class, ""));
+        assertEquals("serializable", _cacheMap.getRegisteredObject(String.class, "context"));
+    }
+
+    public void testRegistrationChanged() {
+        assertNull(_cacheMap.getRegisteredObject(Integer.class, ""));
+        _cacheMap.register(Number.class, "number", "");
+        assertEquals("number", _cacheMap.getRegisteredObject(Integer.class, ""));
+        _cacheMap.register(Integer.class, "integer", "");
+        assertEquals("integer", _cacheMap.getRegisteredObject(Integer.class, ""));
+        _cacheMap.unregister(Integer.class, "");
+        assertEquals("number", _cacheMap.getRegisteredObject(Integer.class, ""));
+        _cacheMap.remove(Number.class);
+        assertNull(_cacheMap.getRegisteredObject(Integer.class, ""));
+        _cacheMap.register(Object.class, "object", "");
+        assertEquals("object", _cacheMap.getRegisteredObject(Integer.class, ""));
+        _cacheMap.clear();
+        assertNull(_cacheMap.getRegisteredObject(Integer.class, ""));
+    }
+}
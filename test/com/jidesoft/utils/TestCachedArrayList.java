@@ -3,6 +3,9 @@ package com.jidesoft.utils;
 import junit.framework.TestCase;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
 
 public class TestCachedArrayList extends TestCase {
     CachedArrayList cachedList;
@@ -151,4 +154,75 @@ public class TestCachedArrayList extends TestCase {
         list.clear();
         assertEquals(0, list.size());
     }
+
+    public void testIndexOfAfterChanges() {
+        Random random = new Random(0);
+        for (int n = 0; n < 4; n++) {
+            boolean lazy = n % 2 == 1;
+            CachedArrayList<Object> cached = n < 2 ? new CachedArrayList<Object>() : new CachedArrayList<Object>() {
+                @Override
+                protected Map<Object, IntegerWrapper> createCache() {
+                    return new HashMap<Object, IntegerWrapper>();
+                }
+            };
+            cached.setLazyCaching(lazy);
+            ArrayList<Object> expected = new ArrayList<Object>();
+            for (int i = 0; i < 5000; i++) {
+                Object o = new Object();
+                int index = random.nextInt(expected.size() + 1);
+                switch (random.nextInt(5)) {
+                    case 0:
+                    case 1:
+                        cached.add(index, o);
+                        expected.add(index, o);
+                        break;
+                    case 2:
+                        cached.add(o);
+                        expected.add(o);
+                        break;
+                    case 3:
+                        if (index < expected.size()) {
+                            assertSame(expected.remove(index), cached.remove(index));
+                        }
+                        break;
+                    case 4:
+                        int to = Math.min(expected.size(), index + random.nextInt(5));
+                        cached.subList(index, to).clear();
+                        expected.subList(index, to).clear();
+                        break;
+                }
+                if (!expected.isEmpty()) {
+                    int j = random.nextInt(expected.size());
+                    assertEquals(j, cached.indexOf(expected.get(j)));
+                }
+            }
+            assertEquals(expected, cached);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(i, cached.indexOf(expected.get(i)));
+            }
+        }
+    }
+
+    public void testCreateCacheOverridden() {
+        final int[] created = new int[1];
+        CachedArrayList<String> list = new CachedArrayList<String>() {
+            @Override
+            protected Map<Object, IntegerWrapper> createCache() {
+                created[0]++;
+                return new HashMap<Object, IntegerWrapper>();
+            }
+        };
+        list.add("a");
+        list.add("b");
+        list.add(0, "c");
+        assertTrue(created[0] > 0);
+        // the overridden map compares the elements by equality
+        assertEquals(2, list.indexOf(new String("b")));
+        list.remove(0);
+        assertEquals(0, list.indexOf(new String("a")));
+        int count = created[0];
+        list.cacheAll();
+        assertEquals(count + 1, created[0]);
+        assertEquals(1, list.indexOf(new String("b")));
+    }
 }
@@ -0,0 +1,111 @@
+package com.jidesoft.utils;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestCompletionIndex extends TestCase {
+    private Random _random;
+    private List<String> _list;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        _random = new Random(0);
+        _list = new ArrayList<String>();
+        for (int i = 0; i < 2000; i++) {
+            _list.add(randomText(_random.nextInt(6)));
+        }
+        _list.add(null);
+    }
+
+    private String randomText(int length) {
+        StringBuilder buffer = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            buffer.append("abcABCäÄ".charAt(_random.nextInt(8)));
+        }
+        return buffer.toString();
+    }
+
+    private static boolean matches(String entry, String prefix, boolean caseSensitive) {
+        String text = entry == null ? "" : entry;
+        if (prefix.length() > text.length()) {
+            return false;
+        }
+        return caseSensitive ? text.startsWith(prefix) : prefix.equalsIgnoreCase(text.substring(0, prefix.length()));
+    }
+
+    private void assertSameMatches(boolean caseSensitive) {
+        CompletionIndex index = new CompletionIndex(_list, caseSensitive);
+        for (int i = 0; i < 200; i++) {
+            // types a prefix character by character so that the range is narrowed
+            String text = randomText(4);
+            for (int length = 0; length <= text.length(); length++) {
+                String prefix = text.substring(0, length);
+                List<Integer> expected = new ArrayList<Integer>();
+                for (int j = 0; j < _list.size(); j++) {
+                    if (matches(_list.get(j), prefix, caseSensitive)) {
+                        expected.add(j);
+                    }
+                }
+                int[] actual = index.getMatchingIndices(prefix);
+                assertEquals(expected.size(), actual.length);
+                for (int j = 0; j < actual.length; j++) {
+                    assertEquals((int) expected.get(j), actual[j]);
+                }
+                int from = _random.nextInt(_list.size());
+                int next = -1;
+                for (int j : expected) {
+                    if (j >= from) {
+                        next = j;
+                        break;
+                    }
+                }
+                if (next == -1 && !expected.isEmpty()) {
+                    next = expected.get(0);
+                }
+                assertEquals(next, index.findFirst(prefix, from));
+                assertEquals(_list.indexOf(prefix), index.findExactly(prefix));
+            }
+        }
+    }
+
+    public void testCaseInsensitive() {
+        assertSameMatches(false);
+    }
+
+    public void testCaseSensitive() {
+        assertSameMatches(true);
+    }
+
+    public void testValid() {
+        CompletionIndex index = new CompletionIndex(_list, false);
+        assertTrue(index.isValid());
+        _list.add("abc");
+        assertFalse(index.isValid());
+    }
+
+    public void testReplaced() {
+        List<String> list = new ArrayList<String>();
+        list.add("apple");
+        list.add("banana");
+        list.add("apricot");
+        CompletionIndex index = new CompletionIndex(list, false);
+        assertEquals(2, index.getMatchCount("ap"));
+
+        // the replacement keeps the size
+        list.set(2, "cherry");
+        assertEquals(1, index.getMatchingIndices("ap").length);
+        assertEquals(0, index.findFirst("ap", 1));
+        assertFalse(index.isValid());
+
+        list.set(1, "apex");
+        index.invalidate();
+        assertTrue(index.isValid());
+        assertEquals(1, index.findFirst("ap", 1));
+        assertEquals(2, index.getMatchCount("ap"));
+        assertEquals(2, index.findExactly("cherry"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.jidesoft.utils;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+public class TestSortedList extends TestCase {
+    // compares the first digit only so that there are many equal elements
+    private static final Comparator<Integer> COMPARATOR = new Comparator<Integer>() {
+        public int compare(Integer o1, Integer o2) {
+            return o1 / 10 - o2 / 10;
+        }
+    };
+
+    private static List<Integer> insertLinearly(List<Integer> list, Integer o) {
+        int i = 0;
+        while (i < list.size() && COMPARATOR.compare(list.get(i), o) <= 0) {
+            i++;
+        }
+        list.add(i, o);
+        return list;
+    }
+
+    private void assertSorted(SortedList<Integer> list) {
+        Random random = new Random(0);
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 500; i++) {
+            Integer o = random.nextInt(100);
+            insertLinearly(expected, o);
+            list.add(o);
+            if (i % 50 == 0) {
+                List<Integer> batch = new ArrayList<Integer>();
+                for (int j = 0; j < 20; j++) {
+                    batch.add(random.nextInt(100));
+                    insertLinearly(expected, batch.get(j));
+                }
+                list.addAll(batch);
+            }
+            if (i % 7 == 0) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.remove(index));
+            }
+        }
+        assertEquals(expected, new ArrayList<Integer>(list));
+    }
+
+    public void testArrayList() {
+        assertSorted(new SortedList<Integer>(new ArrayList<Integer>(), COMPARATOR));
+    }
+
+    public void testLinkedList() {
+        assertSorted(new SortedList<Integer>(new LinkedList<Integer>(), COMPARATOR));
+    }
+
+    public void testTreeBacked() {
+        assertSorted(new SortedList<Integer>(COMPARATOR, true));
+    }
+}
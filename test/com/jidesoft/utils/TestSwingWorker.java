@@ -0,0 +1,111 @@
+package com.jidesoft.utils;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class TestSwingWorker extends TestCase {
+    private final List<String> _order = Collections.synchronizedList(new ArrayList<String>());
+
+    @Override
+    protected void tearDown() throws Exception {
+        SwingWorker.setMaximumWorkerThreads(10);
+        SwingWorker.setMaximumQueueSize(Integer.MAX_VALUE);
+        SwingWorker.setExecutorService(null);
+        super.tearDown();
+    }
+
+    private SwingWorker<Object, Object> createWorker(final String name, final CountDownLatch start, final CountDownLatch done) {
+        return new SwingWorker<Object, Object>() {
+            @Override
+            protected Object doInBackground() throws Exception {
+                if (start != null) {
+                    start.await(5, TimeUnit.SECONDS);
+                }
+                _order.add(name);
+                done.countDown();
+                return null;
+            }
+        };
+    }
+
+    public void testPriority() throws Exception {
+        SwingWorker.setMaximumWorkerThreads(1);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        final List<Long> waitingTimes = Collections.synchronizedList(new ArrayList<Long>());
+        SwingWorkerListener listener = new SwingWorkerListener() {
+            public void workerQueued(SwingWorker<?, ?> worker, int queueSize) {
+            }
+
+            public void workerStarted(SwingWorker<?, ?> worker, long waitingTime) {
+                waitingTimes.add(waitingTime);
+            }
+
+            public void workerFinished(SwingWorker<?, ?> worker, long runningTime) {
+            }
+        };
+        SwingWorker.addSwingWorkerListener(listener);
+        try {
+            createWorker("blocking", start, done).execute();
+            createWorker("low", null, done).execute();
+            SwingWorker<Object, Object> high = createWorker("high", null, done);
+            high.setPriority(Thread.MAX_PRIORITY);
+            high.execute();
+            createWorker("normal", null, done).execute();
+            Thread.sleep(100);
+            assertEquals(3, SwingWorker.getQueueSize());
+            start.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals("blocking", _order.get(0));
+            assertEquals("high", _order.get(1));
+            assertEquals("low", _order.get(2));
+            assertEquals("normal", _order.get(3));
+            assertEquals(0, SwingWorker.getQueueSize());
+            assertEquals(4, waitingTimes.size());
+        }
+        finally {
+            SwingWorker.removeSwingWorkerListener(listener);
+        }
+    }
+
+    public void testMaximumQueueSize() throws Exception {
+        SwingWorker.setMaximumWorkerThreads(1);
+        SwingWorker.setMaximumQueueSize(1);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        createWorker("blocking", start, done).execute();
+        Thread.sleep(100);
+        createWorker("queued", null, done).execute();
+        try {
+            createWorker("rejected", null, done).execute();
+            fail("the queue is full");
+        }
+        catch (java.util.concurrent.RejectedExecutionException e) {
+            // expected
+        }
+        assertEquals(1, SwingWorker.getQueueSize());
+        start.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testCancelWhileStarting() throws Exception {
+        ExecutorService service = Executors.newFixedThreadPool(4);
+        SwingWorker.setExecutorService(service);
+        CountDownLatch done = new CountDownLatch(2000);
+        for (int i = 0; i < 2000; i++) {
+            SwingWorker<Object, Object> worker = createWorker("worker", null, done);
+            worker.execute();
+            worker.cancel(i % 2 == 0);
+        }
+        service.shutdown();
+        assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, SwingWorker.getQueueSize());
+    }
+}